@@ -0,0 +1,65 @@
+package petcare.config;
+
+import ch.qos.logback.classic.Level;
+import ch.qos.logback.classic.LoggerContext;
+import ch.qos.logback.classic.spi.LoggingEvent;
+import java.util.concurrent.TimeUnit;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * The CR/LF sanitizing of each logged message by {@link CRLFLogConverter}, compared with the {@code String.replaceAll}
+ * it used before.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class CRLFLogConverterBenchmark {
+
+    @Param({ "clean", "crlf" })
+    private String message;
+
+    private final CRLFLogConverter converter = new CRLFLogConverter();
+
+    private LoggingEvent event;
+
+    private String in;
+
+    @Setup
+    public void setUp() {
+        in = "clean".equals(message)
+            ? "Request to get Appointment : 1234 for owner 42 between 2026-10-01T00:00:00Z and 2026-10-31T00:00:00Z"
+            : "Request to get Appointment : 1234 for owner 42\r\nbetween 2026-10-01T00:00:00Z\tand 2026-10-31T00:00:00Z";
+        LoggerContext context = new LoggerContext();
+        event = new LoggingEvent(
+            CRLFLogConverterBenchmark.class.getName(),
+            context.getLogger("petcare.service.AppointmentService"),
+            Level.DEBUG,
+            in,
+            null,
+            null
+        );
+    }
+
+    @Benchmark
+    public String scan() {
+        return converter.transform(event, in);
+    }
+
+    @Benchmark
+    public String replaceAll() {
+        return in.replaceAll("[\n\r\t]", "_");
+    }
+}
@@ -0,0 +1,162 @@
+package petcare.repository;
+
+import com.zaxxer.hikari.HikariDataSource;
+import jakarta.persistence.EntityManager;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Function;
+import java.util.function.IntFunction;
+import org.hibernate.SessionFactory;
+import org.hibernate.cfg.AvailableSettings;
+import org.hibernate.cfg.Configuration;
+import org.springframework.data.jpa.repository.support.JpaRepositoryFactory;
+import org.springframework.orm.jpa.JpaTransactionManager;
+import org.springframework.orm.jpa.SharedEntityManagerCreator;
+import org.springframework.orm.jpa.vendor.HibernateJpaDialect;
+import org.springframework.transaction.support.TransactionTemplate;
+import petcare.domain.Appointment;
+import petcare.domain.Discovery;
+import petcare.domain.HealthRecord;
+import petcare.domain.OwnerStats;
+import petcare.domain.Pet;
+import petcare.domain.UserPet;
+
+/**
+ * A database with the schema of the entities, and the repositories and transactions of the application on it, for the
+ * benchmarks of the data access paths.
+ * <p>
+ * No Spring context is started, so that no aspect, scheduled job or cache is measured: the repositories come from the
+ * Spring Data factory, the services are built on them, and the transactions are those of {@code @Transactional}. The
+ * Hibernate settings which change the statements (batching, ordering) are those of {@code application.yml}.
+ * <p>
+ * The database is an in-memory H2 in MySQL mode, unless the {@code benchmark.datasource.url},
+ * {@code benchmark.datasource.username} and {@code benchmark.datasource.password} system properties are set, for
+ * example with {@code -Djmh.args="-jvmArgsAppend -Dbenchmark.datasource.url=jdbc:mysql://..."}. Its tables are
+ * created at start and dropped at close.
+ */
+public final class BenchmarkDatabase implements AutoCloseable {
+
+    private static final List<Class<?>> ENTITIES = List.of(
+        UserPet.class,
+        Pet.class,
+        Appointment.class,
+        HealthRecord.class,
+        Discovery.class,
+        OwnerStats.class
+    );
+
+    private static final int CHUNK_SIZE = 1_000;
+
+    private static final AtomicInteger DATABASES = new AtomicInteger();
+
+    private final HikariDataSource dataSource;
+
+    private final SessionFactory sessionFactory;
+
+    private final EntityManager entityManager;
+
+    private final JpaRepositoryFactory repositoryFactory;
+
+    private final TransactionTemplate transactionTemplate;
+
+    private final TransactionTemplate readOnlyTransactionTemplate;
+
+    /**
+     * @param extraEntities the entities of the benchmark, besides those of the application.
+     */
+    public BenchmarkDatabase(Class<?>... extraEntities) {
+        dataSource = new HikariDataSource();
+        dataSource.setJdbcUrl(
+            System.getProperty(
+                "benchmark.datasource.url",
+                "jdbc:h2:mem:benchmark" + DATABASES.incrementAndGet() + ";MODE=MySQL;DATABASE_TO_LOWER=TRUE;DB_CLOSE_DELAY=-1"
+            )
+        );
+        dataSource.setUsername(System.getProperty("benchmark.datasource.username", "sa"));
+        dataSource.setPassword(System.getProperty("benchmark.datasource.password", ""));
+        dataSource.setAutoCommit(false);
+
+        Configuration configuration = new Configuration();
+        ENTITIES.forEach(configuration::addAnnotatedClass);
+        List.of(extraEntities).forEach(configuration::addAnnotatedClass);
+        configuration.getProperties().put(AvailableSettings.DATASOURCE, dataSource);
+        sessionFactory = configuration
+            .setProperty(AvailableSettings.DIALECT, "org.hibernate.dialect.MySQLDialect")
+            .setProperty(AvailableSettings.CONNECTION_PROVIDER_DISABLES_AUTOCOMMIT, "true")
+            .setProperty(AvailableSettings.PHYSICAL_NAMING_STRATEGY, "org.hibernate.boot.model.naming.CamelCaseToUnderscoresNamingStrategy")
+            .setProperty(AvailableSettings.JDBC_TIME_ZONE, "UTC")
+            .setProperty(AvailableSettings.STATEMENT_BATCH_SIZE, "25")
+            .setProperty(AvailableSettings.ORDER_INSERTS, "true")
+            .setProperty(AvailableSettings.ORDER_UPDATES, "true")
+            .setProperty(AvailableSettings.USE_SECOND_LEVEL_CACHE, "false")
+            .setProperty(AvailableSettings.HBM2DDL_AUTO, "create-drop")
+            .buildSessionFactory();
+
+        entityManager = SharedEntityManagerCreator.createSharedEntityManager(sessionFactory);
+        repositoryFactory = new JpaRepositoryFactory(entityManager);
+        JpaTransactionManager transactionManager = new JpaTransactionManager(sessionFactory);
+        transactionManager.setJpaDialect(new HibernateJpaDialect());
+        transactionTemplate = new TransactionTemplate(transactionManager);
+        readOnlyTransactionTemplate = new TransactionTemplate(transactionManager);
+        readOnlyTransactionTemplate.setReadOnly(true);
+    }
+
+    /**
+     * @return the entity manager bound to the current transaction, as injected in the application.
+     */
+    public EntityManager getEntityManager() {
+        return entityManager;
+    }
+
+    /**
+     * @param repositoryInterface the interface of the repository.
+     * @return the repository.
+     */
+    public <R> R getRepository(Class<R> repositoryInterface) {
+        return repositoryFactory.getRepository(repositoryInterface);
+    }
+
+    /**
+     * Run in a transaction, like a {@code @Transactional} method.
+     *
+     * @param action the work of the transaction.
+     * @return the result of the action.
+     */
+    public <T> T inTransaction(Function<EntityManager, T> action) {
+        return transactionTemplate.execute(status -> action.apply(entityManager));
+    }
+
+    /**
+     * Run in a read-only transaction, like a {@code @Transactional(readOnly = true)} method.
+     *
+     * @param action the work of the transaction.
+     * @return the result of the action.
+     */
+    public <T> T inReadOnlyTransaction(Function<EntityManager, T> action) {
+        return readOnlyTransactionTemplate.execute(status -> action.apply(entityManager));
+    }
+
+    /**
+     * Insert rows, in transactions of {@value #CHUNK_SIZE} rows.
+     *
+     * @param count the number of rows.
+     * @param row the entity of each row, from its index.
+     */
+    public void insert(int count, IntFunction<?> row) {
+        for (int start = 0; start < count; start += CHUNK_SIZE) {
+            int from = start;
+            inTransaction(em -> {
+                for (int index = from; index < Math.min(count, from + CHUNK_SIZE); index++) {
+                    em.persist(row.apply(index));
+                }
+                return null;
+            });
+        }
+    }
+
+    @Override
+    public void close() {
+        sessionFactory.close();
+        dataSource.close();
+    }
+}
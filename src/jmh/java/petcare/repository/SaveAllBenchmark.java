@@ -0,0 +1,141 @@
+package petcare.repository;
+
+import jakarta.persistence.Column;
+import jakarta.persistence.Entity;
+import jakarta.persistence.GeneratedValue;
+import jakarta.persistence.GenerationType;
+import jakarta.persistence.Id;
+import jakarta.persistence.Table;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OperationsPerInvocation;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+import org.springframework.data.jpa.repository.JpaRepository;
+import petcare.domain.HealthRecord;
+
+/**
+ * Rows inserted per second by a {@code saveAll} of {@value #ROWS} health records, as in a clinic import, before and
+ * after the pooled sequence ids.
+ * <p>
+ * Before, the ids were generated by the database ({@code IDENTITY}): each insert runs alone to read its id back, and
+ * the JDBC batching does not apply. {@link IdentityHealthRecord} keeps that mapping on a table of its own. After,
+ * {@link HealthRecord} takes its ids from the pooled sequence, and its inserts are sent in batches. The gap grows with
+ * the round trip time of the database: on the in-memory H2 database there is none, set
+ * {@code benchmark.datasource.url} to measure it, see {@link BenchmarkDatabase}.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@OperationsPerInvocation(SaveAllBenchmark.ROWS)
+@Warmup(iterations = 5, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class SaveAllBenchmark {
+
+    static final int ROWS = 1_000;
+
+    private BenchmarkDatabase database;
+
+    private HealthRecordRepository healthRecordRepository;
+
+    private IdentityHealthRecordRepository identityHealthRecordRepository;
+
+    @Setup
+    public void setUp() {
+        database = new BenchmarkDatabase(IdentityHealthRecord.class);
+        healthRecordRepository = database.getRepository(HealthRecordRepository.class);
+        identityHealthRecordRepository = database.getRepository(IdentityHealthRecordRepository.class);
+    }
+
+    @TearDown
+    public void tearDown() {
+        database.close();
+    }
+
+    @Benchmark
+    public List<IdentityHealthRecord> identity() {
+        Instant now = Instant.now();
+        List<IdentityHealthRecord> healthRecords = new ArrayList<>(ROWS);
+        for (long index = 0; index < ROWS; index++) {
+            healthRecords.add(new IdentityHealthRecord(index % 100, 7L, index, "Otitis", "Ear drops twice a day", now));
+        }
+        return database.inTransaction(em -> identityHealthRecordRepository.saveAll(healthRecords));
+    }
+
+    @Benchmark
+    public List<HealthRecord> pooledSequence() {
+        Instant now = Instant.now();
+        List<HealthRecord> healthRecords = new ArrayList<>(ROWS);
+        for (long index = 0; index < ROWS; index++) {
+            healthRecords.add(
+                new HealthRecord()
+                    .petId(index % 100)
+                    .vetId(7L)
+                    .apptId(index)
+                    .diagnosis("Otitis")
+                    .treatment("Ear drops twice a day")
+                    .createdAt(now)
+            );
+        }
+        return database.inTransaction(em -> healthRecordRepository.saveAll(healthRecords));
+    }
+
+    public interface IdentityHealthRecordRepository extends JpaRepository<IdentityHealthRecord, Long> {}
+
+    /**
+     * The health record as mapped before the pooled sequence ids.
+     */
+    @Entity
+    @Table(name = "health_record_identity")
+    public static class IdentityHealthRecord {
+
+        @Id
+        @GeneratedValue(strategy = GenerationType.IDENTITY)
+        @Column(name = "id")
+        private Long id;
+
+        @Column(name = "pet_id", nullable = false)
+        private Long petId;
+
+        @Column(name = "vet_id", nullable = false)
+        private Long vetId;
+
+        @Column(name = "appt_id", nullable = false)
+        private Long apptId;
+
+        @Column(name = "diagnosis", length = 1000)
+        private String diagnosis;
+
+        @Column(name = "treatment", length = 1000)
+        private String treatment;
+
+        @Column(name = "notes", length = 1000)
+        private String notes;
+
+        @Column(name = "created_at")
+        private Instant createdAt;
+
+        protected IdentityHealthRecord() {}
+
+        IdentityHealthRecord(Long petId, Long vetId, Long apptId, String diagnosis, String treatment, Instant createdAt) {
+            this.petId = petId;
+            this.vetId = vetId;
+            this.apptId = apptId;
+            this.diagnosis = diagnosis;
+            this.treatment = treatment;
+            this.createdAt = createdAt;
+        }
+    }
+}
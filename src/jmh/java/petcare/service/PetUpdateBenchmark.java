@@ -0,0 +1,167 @@
+package petcare.service;
+
+import java.time.Instant;
+import java.util.concurrent.TimeUnit;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+import org.springframework.data.domain.Sort;
+import petcare.domain.Pet;
+import petcare.domain.enumeration.Gender;
+import petcare.repository.BenchmarkDatabase;
+import petcare.repository.ConditionalUpdateExecutor;
+import petcare.repository.HealthRecordRepository;
+import petcare.repository.PetRepository;
+import petcare.service.dto.PetDTO;
+import petcare.service.mapper.PetMapper;
+import petcare.service.mapper.PetMapperImpl;
+
+/**
+ * The {@code PUT} and {@code PATCH} of a pet, as before and after the versioned conditional writes, over {@value #ROWS}
+ * pets renamed in turn, each with the version of its previous update, like a client editing what it read.
+ * <p>
+ * Before, the resource checked {@code existsById} in a transaction of its own, then the service read the pet for its
+ * previous owner and merged the DTO into it ({@code PUT}), or read it and saved it ({@code PATCH}). After, the
+ * {@link PetService} updates the pet with a single conditional statement ({@code PUT}), or reads it, checks its version
+ * and flushes the changed columns ({@code PATCH}). Both run on the current mapping: the version column and
+ * {@code @DynamicUpdate} are in the statements of the before paths too.
+ * <p>
+ * The owner never changes, so the owner counters, the only other work of the updates, are not measured.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 5, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class PetUpdateBenchmark {
+
+    static final int ROWS = 1_000;
+
+    private BenchmarkDatabase database;
+
+    private final PetMapper petMapper = new PetMapperImpl();
+
+    private PetRepository petRepository;
+
+    private PetService petService;
+
+    // The pets as last returned to the client
+    private PetDTO[] pets;
+
+    private int next;
+
+    @Setup
+    public void setUp() {
+        database = new BenchmarkDatabase();
+        petRepository = database.getRepository(PetRepository.class);
+        petService = new PetService(
+            petRepository,
+            petMapper,
+            null,
+            database.getRepository(HealthRecordRepository.class),
+            null,
+            new ConditionalUpdateExecutor(database.getEntityManager())
+        );
+
+        Instant now = Instant.now();
+        database.insert(ROWS, index ->
+            new Pet()
+                .ownerId((long) (index % 100 + 1))
+                .name("Pet " + index)
+                .species("cat")
+                .breed("Siamese")
+                .age(index % 20)
+                .gender(Gender.FEMALE)
+                .photoUrl("https://example.com/pets/" + index + ".png")
+                .createdAt(now)
+        );
+        pets = database
+            .inReadOnlyTransaction(em -> petRepository.findAll(Sort.by("id")))
+            .stream()
+            .map(petMapper::toDto)
+            .toArray(PetDTO[]::new);
+    }
+
+    @TearDown
+    public void tearDown() {
+        database.close();
+    }
+
+    @Benchmark
+    public PetDTO putBefore() {
+        PetDTO pet = rename();
+        if (!database.inReadOnlyTransaction(em -> petRepository.existsById(pet.getId()))) {
+            throw new IllegalStateException("Pet not found: " + pet.getId());
+        }
+        Pet saved = database.inTransaction(em -> {
+            petRepository.findById(pet.getId()).map(Pet::getOwnerId);
+            return petRepository.save(petMapper.toEntity(pet));
+        });
+        // Mapped after the commit, for the version incremented by its flush
+        return updated(petMapper.toDto(saved));
+    }
+
+    @Benchmark
+    public PetDTO putAfter() {
+        PetDTO pet = rename();
+        return updated(database.inTransaction(em -> petService.update(pet)).orElseThrow());
+    }
+
+    @Benchmark
+    public PetDTO patchBefore() {
+        PetDTO patch = renamePatch();
+        Pet saved = database.inTransaction(em ->
+            petRepository
+                .findById(patch.getId())
+                .map(existingPet -> {
+                    petMapper.partialUpdate(existingPet, patch);
+                    return existingPet;
+                })
+                .map(petRepository::save)
+                .orElseThrow()
+        );
+        return updated(petMapper.toDto(saved));
+    }
+
+    @Benchmark
+    public PetDTO patchAfter() {
+        PetDTO patch = renamePatch();
+        patch.setVersion(pets[next].getVersion());
+        return updated(database.inTransaction(em -> petService.partialUpdate(patch)).orElseThrow());
+    }
+
+    /**
+     * The next pet, with a new name.
+     */
+    private PetDTO rename() {
+        next = (next + 1) % pets.length;
+        PetDTO pet = pets[next];
+        pet.setName("Pet " + System.nanoTime());
+        return pet;
+    }
+
+    /**
+     * A new name for the next pet.
+     */
+    private PetDTO renamePatch() {
+        next = (next + 1) % pets.length;
+        PetDTO patch = new PetDTO();
+        patch.setId(pets[next].getId());
+        patch.setName("Pet " + System.nanoTime());
+        return patch;
+    }
+
+    private PetDTO updated(PetDTO pet) {
+        pets[next] = pet;
+        return pet;
+    }
+}
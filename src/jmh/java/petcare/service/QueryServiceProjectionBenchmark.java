@@ -0,0 +1,212 @@
+package petcare.service;
+
+import java.time.Instant;
+import java.time.temporal.ChronoUnit;
+import java.util.concurrent.TimeUnit;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Sort;
+import petcare.config.ApplicationProperties;
+import petcare.domain.Appointment;
+import petcare.domain.HealthRecord;
+import petcare.domain.Pet;
+import petcare.domain.enumeration.AppointmentStatus;
+import petcare.domain.enumeration.Gender;
+import petcare.repository.AppointmentRepository;
+import petcare.repository.BenchmarkDatabase;
+import petcare.repository.HealthRecordRepository;
+import petcare.repository.PetRepository;
+import petcare.repository.SpecificationProjectionExecutor;
+import petcare.service.criteria.AppointmentCriteria;
+import petcare.service.criteria.HealthRecordCriteria;
+import petcare.service.criteria.PetCriteria;
+import petcare.service.dto.AppointmentDTO;
+import petcare.service.dto.HealthRecordDTO;
+import petcare.service.dto.PetDTO;
+import petcare.service.mapper.AppointmentMapper;
+import petcare.service.mapper.AppointmentMapperImpl;
+import petcare.service.mapper.HealthRecordMapper;
+import petcare.service.mapper.HealthRecordMapperImpl;
+import petcare.service.mapper.PetMapper;
+import petcare.service.mapper.PetMapperImpl;
+
+/**
+ * A page of the list endpoints on tables of {@value #ROWS} rows, read as before and after the DTO projections: the
+ * managed entities of the same {@code Specification} mapped by the MapStruct mappers, against the DTOs selected by the
+ * query services.
+ * <p>
+ * Each page is read in its own read-only transaction, like a request. Run with {@code -prof gc}: the
+ * {@code gc.alloc.rate.norm} of each benchmark is the memory allocated per request.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class QueryServiceProjectionBenchmark {
+
+    static final int ROWS = 100_000;
+
+    // The rows of each table are spread over this many owners or pets
+    static final int PARENTS = 1_000;
+
+    private static final Sort LATEST_FIRST = Sort.by(Sort.Order.desc("id"));
+
+    @Param({ "20", "100" })
+    private int pageSize;
+
+    private BenchmarkDatabase database;
+
+    private final PetMapper petMapper = new PetMapperImpl();
+
+    private final AppointmentMapper appointmentMapper = new AppointmentMapperImpl();
+
+    private final HealthRecordMapper healthRecordMapper = new HealthRecordMapperImpl();
+
+    private PetRepository petRepository;
+
+    private AppointmentRepository appointmentRepository;
+
+    private HealthRecordRepository healthRecordRepository;
+
+    private PetQueryService petQueryService;
+
+    private AppointmentQueryService appointmentQueryService;
+
+    private HealthRecordQueryService healthRecordQueryService;
+
+    private Pageable page;
+
+    private PetCriteria petCriteria;
+
+    private AppointmentCriteria appointmentCriteria;
+
+    private HealthRecordCriteria healthRecordCriteria;
+
+    @Setup
+    public void setUp() {
+        database = new BenchmarkDatabase();
+        petRepository = database.getRepository(PetRepository.class);
+        appointmentRepository = database.getRepository(AppointmentRepository.class);
+        healthRecordRepository = database.getRepository(HealthRecordRepository.class);
+        SpecificationProjectionExecutor projectionExecutor = new SpecificationProjectionExecutor(database.getEntityManager());
+        ApplicationProperties applicationProperties = new ApplicationProperties();
+        petQueryService = new PetQueryService(petRepository, petMapper, projectionExecutor, null, applicationProperties);
+        appointmentQueryService = new AppointmentQueryService(
+            appointmentRepository,
+            appointmentMapper,
+            projectionExecutor,
+            null,
+            applicationProperties
+        );
+        healthRecordQueryService = new HealthRecordQueryService(
+            healthRecordRepository,
+            healthRecordMapper,
+            projectionExecutor,
+            null,
+            applicationProperties
+        );
+
+        Instant now = Instant.now();
+        database.insert(ROWS, index ->
+            new Pet()
+                .ownerId((long) (index % PARENTS + 1))
+                .name("Pet " + index)
+                .species(index % 2 == 0 ? "cat" : "dog")
+                .breed("Siamese")
+                .age(index % 20)
+                .gender(index % 2 == 0 ? Gender.FEMALE : Gender.MALE)
+                .photoUrl("https://example.com/pets/" + index + ".png")
+                .createdAt(now.minus(index, ChronoUnit.MINUTES))
+        );
+        database.insert(ROWS, index ->
+            new Appointment()
+                .petId((long) (index % PARENTS + 1))
+                .ownerId((long) (index % PARENTS + 1))
+                .discoveryId((long) (index % 50 + 1))
+                .apptTime(now.plus(index, ChronoUnit.MINUTES))
+                .status(AppointmentStatus.values()[index % AppointmentStatus.values().length])
+                .createdAt(now.minus(index, ChronoUnit.MINUTES))
+        );
+        database.insert(ROWS, index ->
+            new HealthRecord()
+                .petId((long) (index % PARENTS + 1))
+                .vetId(7L)
+                .apptId((long) index)
+                .diagnosis("Otitis")
+                .treatment("Ear drops twice a day")
+                .notes("Check again in two weeks")
+                .createdAt(now.minus(index, ChronoUnit.MINUTES))
+        );
+
+        page = PageRequest.of(0, pageSize, LATEST_FIRST);
+        // GET /api/pets?ownerId.equals=42
+        petCriteria = new PetCriteria();
+        petCriteria.ownerId().setEquals(42L);
+        // GET /api/appointments?ownerId.equals=42
+        appointmentCriteria = new AppointmentCriteria();
+        appointmentCriteria.ownerId().setEquals(42L);
+        // GET /api/health-records?petId.equals=42
+        healthRecordCriteria = new HealthRecordCriteria();
+        healthRecordCriteria.petId().setEquals(42L);
+    }
+
+    @TearDown
+    public void tearDown() {
+        database.close();
+    }
+
+    @Benchmark
+    public Page<PetDTO> petEntities() {
+        return database.inReadOnlyTransaction(em ->
+            petRepository.findAll(petQueryService.createSpecification(petCriteria), page).map(petMapper::toDto)
+        );
+    }
+
+    @Benchmark
+    public Page<PetDTO> petProjections() {
+        return database.inReadOnlyTransaction(em -> petQueryService.findByCriteria(petCriteria, page));
+    }
+
+    @Benchmark
+    public Page<AppointmentDTO> appointmentEntities() {
+        return database.inReadOnlyTransaction(em ->
+            appointmentRepository
+                .findAll(appointmentQueryService.createSpecification(appointmentCriteria), page)
+                .map(appointmentMapper::toDto)
+        );
+    }
+
+    @Benchmark
+    public Page<AppointmentDTO> appointmentProjections() {
+        return database.inReadOnlyTransaction(em -> appointmentQueryService.findByCriteria(appointmentCriteria, page));
+    }
+
+    @Benchmark
+    public Page<HealthRecordDTO> healthRecordEntities() {
+        return database.inReadOnlyTransaction(em ->
+            healthRecordRepository
+                .findAll(healthRecordQueryService.createSpecification(healthRecordCriteria), page)
+                .map(healthRecordMapper::toDto)
+        );
+    }
+
+    @Benchmark
+    public Page<HealthRecordDTO> healthRecordProjections() {
+        return database.inReadOnlyTransaction(em -> healthRecordQueryService.findByCriteria(healthRecordCriteria, page));
+    }
+}
@@ -0,0 +1,150 @@
+package petcare.service;
+
+import jakarta.persistence.criteria.CriteriaBuilder;
+import jakarta.persistence.criteria.CriteriaQuery;
+import jakarta.persistence.criteria.Predicate;
+import jakarta.persistence.criteria.Root;
+import java.time.Instant;
+import java.time.temporal.ChronoUnit;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import org.hibernate.SessionFactory;
+import org.hibernate.cfg.Configuration;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+import org.springframework.data.jpa.domain.Specification;
+import petcare.config.ApplicationProperties;
+import petcare.domain.Appointment;
+import petcare.domain.HealthRecord;
+import petcare.domain.Pet;
+import petcare.domain.enumeration.AppointmentStatus;
+import petcare.domain.enumeration.Gender;
+import petcare.service.criteria.AppointmentCriteria;
+import petcare.service.criteria.HealthRecordCriteria;
+import petcare.service.criteria.PetCriteria;
+
+/**
+ * Building the {@link Specification} of typical list filters and turning it into a JPA predicate, the work done by the
+ * query services before the SQL is generated.
+ * <p>
+ * The metamodel comes from a Hibernate session factory built on the entities without database: no connection is
+ * opened, nothing is run.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class QueryServiceSpecificationBenchmark {
+
+    private SessionFactory sessionFactory;
+
+    private CriteriaBuilder criteriaBuilder;
+
+    private final PetQueryService petQueryService = new PetQueryService(null, null, null, null, new ApplicationProperties());
+
+    private final AppointmentQueryService appointmentQueryService = new AppointmentQueryService(
+        null,
+        null,
+        null,
+        null,
+        new ApplicationProperties()
+    );
+
+    private final HealthRecordQueryService healthRecordQueryService = new HealthRecordQueryService(
+        null,
+        null,
+        null,
+        null,
+        new ApplicationProperties()
+    );
+
+    private PetCriteria petCriteria;
+
+    private AppointmentCriteria appointmentCriteria;
+
+    private HealthRecordCriteria healthRecordCriteria;
+
+    @Setup
+    public void setUp() {
+        sessionFactory = new Configuration()
+            .addAnnotatedClass(Pet.class)
+            .addAnnotatedClass(Appointment.class)
+            .addAnnotatedClass(HealthRecord.class)
+            .setProperty("hibernate.dialect", "org.hibernate.dialect.MySQLDialect")
+            .setProperty("hibernate.boot.allow_jdbc_metadata_access", "false")
+            .setProperty("hibernate.cache.use_second_level_cache", "false")
+            .setProperty("hibernate.hbm2ddl.auto", "none")
+            .buildSessionFactory();
+        criteriaBuilder = sessionFactory.getCriteriaBuilder();
+
+        Instant now = Instant.now();
+
+        // GET /api/pets?ownerId.equals=42&species.equals=cat&name.contains=mi&age.lessThan=10
+        petCriteria = new PetCriteria();
+        petCriteria.ownerId().setEquals(42L);
+        petCriteria.species().setEquals("cat");
+        petCriteria.name().setContains("mi");
+        petCriteria.age().setLessThan(10);
+        petCriteria.gender().setIn(List.of(Gender.MALE, Gender.FEMALE));
+
+        // GET /api/appointments?ownerId.equals=42&status.in=PENDING,CONFIRMED&apptTime.greaterThanOrEqual=...
+        appointmentCriteria = new AppointmentCriteria();
+        appointmentCriteria.ownerId().setEquals(42L);
+        appointmentCriteria.status().setIn(List.of(AppointmentStatus.PENDING, AppointmentStatus.CONFIRMED));
+        appointmentCriteria.apptTime().setGreaterThanOrEqual(now);
+        appointmentCriteria.apptTime().setLessThan(now.plus(30, ChronoUnit.DAYS));
+
+        // GET /api/health-records?petId.in=1,2,3&diagnosis.contains=otitis&createdAt.greaterThan=...
+        healthRecordCriteria = new HealthRecordCriteria();
+        healthRecordCriteria.petId().setIn(List.of(1L, 2L, 3L));
+        healthRecordCriteria.diagnosis().setContains("otitis");
+        healthRecordCriteria.createdAt().setGreaterThan(now.minus(365, ChronoUnit.DAYS));
+    }
+
+    @TearDown
+    public void tearDown() {
+        sessionFactory.close();
+    }
+
+    @Benchmark
+    public Specification<Pet> petSpecification() {
+        return petQueryService.createSpecification(petCriteria);
+    }
+
+    @Benchmark
+    public Predicate petPredicate() {
+        return toPredicate(Pet.class, petQueryService.createSpecification(petCriteria));
+    }
+
+    @Benchmark
+    public Specification<Appointment> appointmentSpecification() {
+        return appointmentQueryService.createSpecification(appointmentCriteria);
+    }
+
+    @Benchmark
+    public Predicate appointmentPredicate() {
+        return toPredicate(Appointment.class, appointmentQueryService.createSpecification(appointmentCriteria));
+    }
+
+    @Benchmark
+    public Predicate healthRecordPredicate() {
+        return toPredicate(HealthRecord.class, healthRecordQueryService.createSpecification(healthRecordCriteria));
+    }
+
+    private <T> Predicate toPredicate(Class<T> entityClass, Specification<T> specification) {
+        CriteriaQuery<T> query = criteriaBuilder.createQuery(entityClass);
+        Root<T> root = query.from(entityClass);
+        return specification.toPredicate(root, query, criteriaBuilder);
+    }
+}
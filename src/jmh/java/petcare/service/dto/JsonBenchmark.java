@@ -0,0 +1,125 @@
+package petcare.service.dto;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.core.type.TypeReference;
+import com.fasterxml.jackson.databind.DeserializationFeature;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.ObjectReader;
+import com.fasterxml.jackson.databind.ObjectWriter;
+import com.fasterxml.jackson.databind.SerializationFeature;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import petcare.config.JacksonConfiguration;
+import petcare.domain.enumeration.AppointmentStatus;
+import petcare.domain.enumeration.Gender;
+
+/**
+ * Writing and reading the JSON of the DTO lists returned by the list endpoints, with the Jackson modules of
+ * {@link JacksonConfiguration} and the features set by Spring Boot.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class JsonBenchmark {
+
+    @Param({ "20", "100" })
+    private int size;
+
+    private ObjectWriter petWriter;
+
+    private ObjectReader petReader;
+
+    private ObjectWriter appointmentWriter;
+
+    private ObjectReader appointmentReader;
+
+    private List<PetDTO> pets;
+
+    private List<AppointmentDTO> appointments;
+
+    private byte[] petsJson;
+
+    private byte[] appointmentsJson;
+
+    @Setup
+    public void setUp() throws JsonProcessingException {
+        JacksonConfiguration configuration = new JacksonConfiguration();
+        ObjectMapper mapper = new ObjectMapper()
+            .registerModule(configuration.javaTimeModule())
+            .registerModule(configuration.jdk8TimeModule())
+            .registerModule(configuration.hibernate6Module())
+            .disable(SerializationFeature.WRITE_DATES_AS_TIMESTAMPS)
+            .disable(DeserializationFeature.FAIL_ON_UNKNOWN_PROPERTIES);
+        TypeReference<List<PetDTO>> petList = new TypeReference<>() {};
+        TypeReference<List<AppointmentDTO>> appointmentList = new TypeReference<>() {};
+        petWriter = mapper.writerFor(petList);
+        petReader = mapper.readerFor(petList);
+        appointmentWriter = mapper.writerFor(appointmentList);
+        appointmentReader = mapper.readerFor(appointmentList);
+
+        Instant now = Instant.now();
+        pets = new ArrayList<>(size);
+        appointments = new ArrayList<>(size);
+        for (long id = 1; id <= size; id++) {
+            PetDTO pet = new PetDTO();
+            pet.setId(id);
+            pet.setOwnerId(id % 5);
+            pet.setName("Pet " + id);
+            pet.setSpecies("dog");
+            pet.setBreed("Shiba Inu");
+            pet.setAge((int) (id % 15));
+            pet.setGender(id % 2 == 0 ? Gender.MALE : Gender.FEMALE);
+            pet.setPhotoUrl("https://example.com/pets/" + id + ".png");
+            pet.setCreatedAt(now);
+            pets.add(pet);
+
+            AppointmentDTO appointment = new AppointmentDTO();
+            appointment.setId(id);
+            appointment.setPetId(id);
+            appointment.setOwnerId(id % 5);
+            appointment.setDiscoveryId(id % 3);
+            appointment.setApptTime(now.plusSeconds(3600 * id));
+            appointment.setStatus(AppointmentStatus.CONFIRMED);
+            appointment.setCreatedAt(now);
+            appointments.add(appointment);
+        }
+        petsJson = petWriter.writeValueAsBytes(pets);
+        appointmentsJson = appointmentWriter.writeValueAsBytes(appointments);
+    }
+
+    @Benchmark
+    public byte[] writePets() throws JsonProcessingException {
+        return petWriter.writeValueAsBytes(pets);
+    }
+
+    @Benchmark
+    public List<PetDTO> readPets() throws Exception {
+        return petReader.readValue(petsJson);
+    }
+
+    @Benchmark
+    public byte[] writeAppointments() throws JsonProcessingException {
+        return appointmentWriter.writeValueAsBytes(appointments);
+    }
+
+    @Benchmark
+    public List<AppointmentDTO> readAppointments() throws Exception {
+        return appointmentReader.readValue(appointmentsJson);
+    }
+}
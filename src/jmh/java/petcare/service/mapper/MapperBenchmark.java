@@ -0,0 +1,180 @@
+package petcare.service.mapper;
+
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.TimeUnit;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import petcare.domain.Appointment;
+import petcare.domain.HealthRecord;
+import petcare.domain.Pet;
+import petcare.domain.User;
+import petcare.domain.enumeration.AppointmentStatus;
+import petcare.domain.enumeration.Gender;
+import petcare.service.dto.AdminUserDTO;
+import petcare.service.dto.AppointmentDTO;
+import petcare.service.dto.HealthRecordDTO;
+import petcare.service.dto.PetDTO;
+import petcare.service.dto.UserDTO;
+
+/**
+ * Entity to DTO mappings, one by one and by pages of {@value #PAGE_SIZE}, as done by the services.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class MapperBenchmark {
+
+    static final int PAGE_SIZE = 20;
+
+    private final PetMapper petMapper = new PetMapperImpl();
+
+    private final AppointmentMapper appointmentMapper = new AppointmentMapperImpl();
+
+    private final HealthRecordMapper healthRecordMapper = new HealthRecordMapperImpl();
+
+    private final UserMapper userMapper = new UserMapper();
+
+    private Pet pet;
+
+    private PetDTO petDTO;
+
+    private List<Pet> pets;
+
+    private Appointment appointment;
+
+    private AppointmentDTO appointmentDTO;
+
+    private List<Appointment> appointments;
+
+    private HealthRecord healthRecord;
+
+    private List<HealthRecord> healthRecords;
+
+    private User user;
+
+    private AdminUserDTO adminUserDTO;
+
+    @Setup
+    public void setUp() {
+        Instant now = Instant.now();
+        pets = new ArrayList<>();
+        appointments = new ArrayList<>();
+        healthRecords = new ArrayList<>();
+        for (long id = 1; id <= PAGE_SIZE; id++) {
+            pets.add(
+                new Pet()
+                    .id(id)
+                    .ownerId(id % 5)
+                    .name("Pet " + id)
+                    .species("cat")
+                    .breed("Siamese")
+                    .age((int) id)
+                    .gender(Gender.FEMALE)
+                    .photoUrl("https://example.com/pets/" + id + ".png")
+                    .createdAt(now)
+            );
+            appointments.add(
+                new Appointment()
+                    .id(id)
+                    .petId(id)
+                    .ownerId(id % 5)
+                    .discoveryId(id % 3)
+                    .apptTime(now.plusSeconds(3600 * id))
+                    .status(AppointmentStatus.PENDING)
+                    .createdAt(now)
+            );
+            healthRecords.add(
+                new HealthRecord()
+                    .id(id)
+                    .petId(id)
+                    .vetId(7L)
+                    .apptId(id)
+                    .diagnosis("Otitis")
+                    .treatment("Ear drops twice a day")
+                    .notes("Check again in two weeks")
+                    .createdAt(now)
+            );
+        }
+        pet = pets.get(0);
+        petDTO = petMapper.toDto(pet);
+        appointment = appointments.get(0);
+        appointmentDTO = appointmentMapper.toDto(appointment);
+        healthRecord = healthRecords.get(0);
+
+        user = new User();
+        user.setId(1L);
+        user.setLogin("owner");
+        user.setFirstName("Jane");
+        user.setLastName("Doe");
+        user.setEmail("jane.doe@example.com");
+        user.setActivated(true);
+        user.setLangKey("en");
+        user.setCreatedDate(now);
+        adminUserDTO = new AdminUserDTO(user);
+        adminUserDTO.setAuthorities(Set.of("ROLE_USER", "ROLE_ADMIN"));
+    }
+
+    @Benchmark
+    public PetDTO petToDto() {
+        return petMapper.toDto(pet);
+    }
+
+    @Benchmark
+    public Pet petToEntity() {
+        return petMapper.toEntity(petDTO);
+    }
+
+    @Benchmark
+    public List<PetDTO> petPageToDto() {
+        return petMapper.toDto(pets);
+    }
+
+    @Benchmark
+    public AppointmentDTO appointmentToDto() {
+        return appointmentMapper.toDto(appointment);
+    }
+
+    @Benchmark
+    public Appointment appointmentToEntity() {
+        return appointmentMapper.toEntity(appointmentDTO);
+    }
+
+    @Benchmark
+    public List<AppointmentDTO> appointmentPageToDto() {
+        return appointmentMapper.toDto(appointments);
+    }
+
+    @Benchmark
+    public HealthRecordDTO healthRecordToDto() {
+        return healthRecordMapper.toDto(healthRecord);
+    }
+
+    @Benchmark
+    public List<HealthRecordDTO> healthRecordPageToDto() {
+        return healthRecordMapper.toDto(healthRecords);
+    }
+
+    @Benchmark
+    public UserDTO userToUserDto() {
+        return userMapper.userToUserDTO(user);
+    }
+
+    @Benchmark
+    public User adminUserDtoToUser() {
+        return userMapper.userDTOToUser(adminUserDTO);
+    }
+}
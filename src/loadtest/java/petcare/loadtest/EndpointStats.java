@@ -0,0 +1,93 @@
+package petcare.loadtest;
+
+import java.io.IOException;
+import java.io.PrintStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.LongAdder;
+import org.HdrHistogram.Histogram;
+import org.HdrHistogram.Recorder;
+
+/**
+ * The latencies and errors of the requests to one endpoint, like {@code POST /api/pets}, or of whole journeys.
+ * <p>
+ * The latencies are recorded in microseconds in an HDR histogram, from 1 µs to 1 minute with 3 significant digits,
+ * by any thread without locking.
+ */
+final class EndpointStats {
+
+    private static final long HIGHEST_TRACKABLE_MICROS = TimeUnit.MINUTES.toMicros(1);
+
+    private final String name;
+
+    private final Recorder recorder = new Recorder(HIGHEST_TRACKABLE_MICROS, 3);
+
+    private final LongAdder errors = new LongAdder();
+
+    private final ConcurrentMap<Integer, LongAdder> errorsByStatus = new ConcurrentHashMap<>();
+
+    private Histogram histogram;
+
+    EndpointStats(String name) {
+        this.name = name;
+    }
+
+    String getName() {
+        return name;
+    }
+
+    /**
+     * @param nanos the latency.
+     * @param status the HTTP status, {@code 0} when no response was received.
+     */
+    void record(long nanos, int status) {
+        recorder.recordValue(Math.min(Math.max(1, TimeUnit.NANOSECONDS.toMicros(nanos)), HIGHEST_TRACKABLE_MICROS));
+        if (status < 200 || status >= 300) {
+            errors.increment();
+            errorsByStatus.computeIfAbsent(status, key -> new LongAdder()).increment();
+        }
+    }
+
+    /**
+     * Forget what was recorded, at the end of the warmup.
+     */
+    void reset() {
+        recorder.reset();
+        errors.reset();
+        errorsByStatus.clear();
+    }
+
+    /**
+     * Take the histogram of what was recorded since the last reset, for the report.
+     */
+    Histogram snapshot() {
+        histogram = recorder.getIntervalHistogram();
+        return histogram;
+    }
+
+    long getErrors() {
+        return errors.sum();
+    }
+
+    Map<Integer, Long> getErrorsByStatus() {
+        Map<Integer, Long> counts = new TreeMap<>();
+        errorsByStatus.forEach((status, count) -> counts.put(status, count.sum()));
+        return counts;
+    }
+
+    /**
+     * Write the percentile distribution of the last snapshot in milliseconds, in the {@code .hgrm} format read by
+     * the HdrHistogram plotter.
+     */
+    void writeDistribution(Path directory) throws IOException {
+        Path file = directory.resolve(name.replaceAll("[^A-Za-z0-9]+", "_").replaceAll("^_|_$", "") + ".hgrm");
+        try (PrintStream out = new PrintStream(Files.newOutputStream(file), false, "UTF-8")) {
+            histogram.outputPercentileDistribution(out, 1000.0);
+        }
+    }
+}
@@ -0,0 +1,260 @@
+package petcare.loadtest;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.node.ObjectNode;
+import java.net.URI;
+import java.net.URLEncoder;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+import java.time.Instant;
+import java.time.temporal.ChronoUnit;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * The scripted user journey, sent with the asynchronous JDK HTTP client so that a journey holds no thread while it
+ * waits for a response.
+ * <p>
+ * A new owner registers and logs in, adds a pet and edits it (a full update then a partial one, each with the version
+ * returned by the previous step), browses a page of discoveries, looks for a free slot in one of them and books it,
+ * views the dashboard, and a health record is added for the appointment. A step needs the response of
+ * the previous one: when a request fails, the rest of the journey is skipped. The requests after the login carry its
+ * access token.
+ */
+final class Journeys {
+
+    static final String JOURNEY = "journey";
+
+    private static final int PAGE_SIZE = 20;
+
+    private final HttpClient client;
+
+    private final ObjectMapper mapper;
+
+    private final String baseUrl;
+
+    private final Duration requestTimeout;
+
+    private final Map<String, EndpointStats> stats = new ConcurrentHashMap<>();
+
+    // Makes the emails of two runs on the same database different
+    private final String runId = Long.toString(System.currentTimeMillis(), 36);
+
+    private final AtomicLong users = new AtomicLong();
+
+    private long vetId;
+
+    private long discoveryPages;
+
+    Journeys(HttpClient client, ObjectMapper mapper, String baseUrl, Duration requestTimeout) {
+        this.client = client;
+        this.mapper = mapper;
+        this.baseUrl = baseUrl;
+        this.requestTimeout = requestTimeout;
+    }
+
+    /**
+     * Register the vet of the health records, and create discoveries when there are fewer than {@code discoveries}.
+     */
+    void setUp(int discoveries) {
+        JsonNode vet = post("POST /api/user-pets/register", "/api/user-pets/register", user("vet", "VET")).join();
+        vetId = vet.get("id").asLong();
+        long count = get("GET /api/discoveries/count", "/api/discoveries/count").join().asLong();
+        for (long i = count; i < discoveries; i++) {
+            ObjectNode discovery = mapper
+                .createObjectNode()
+                .put("name", "Load test clinic " + runId + "-" + i)
+                .put("category", "clinic")
+                .put("location", "Hanoi");
+            post("POST /api/discoveries", "/api/discoveries", discovery).join();
+        }
+        discoveryPages = Math.max(1, Math.min(50, (Math.max(count, discoveries) + PAGE_SIZE - 1) / PAGE_SIZE));
+        stats.values().forEach(EndpointStats::reset);
+    }
+
+    /**
+     * Run one journey.
+     *
+     * @param intendedStart when the journey should have started, in {@link System#nanoTime()}: its latency includes
+     * the time it waited to be started.
+     * @return the completion of the journey, normal even when a step failed.
+     */
+    CompletableFuture<Void> run(long intendedStart) {
+        ObjectNode user = user("owner", "OWNER");
+        String email = user.get("email").asText();
+        Context context = new Context();
+        return post("POST /api/user-pets/register", "/api/user-pets/register", user)
+            .thenCompose(owner -> {
+                context.ownerId = owner.get("id").asLong();
+                ObjectNode login = mapper.createObjectNode().put("email", email).put("password", "password");
+                return post("POST /api/user-pets/login", "/api/user-pets/login", login);
+            })
+            .thenCompose(login -> {
+                context.accessToken = login.get("accessToken").asText();
+                ObjectNode pet = mapper.createObjectNode().put("ownerId", context.ownerId).put("name", "Rex").put("species", "dog");
+                return post("POST /api/pets", "/api/pets", pet, context.accessToken);
+            })
+            .thenCompose(pet -> {
+                context.petId = pet.get("id").asLong();
+                ((ObjectNode) pet).put("breed", "Labrador");
+                return send("PUT /api/pets/{id}", "/api/pets/" + context.petId, "PUT", pet, context.accessToken);
+            })
+            .thenCompose(pet -> {
+                ObjectNode patch = mapper
+                    .createObjectNode()
+                    .put("id", context.petId)
+                    .put("version", pet.get("version").asLong())
+                    .put("age", 3);
+                return send("PATCH /api/pets/{id}", "/api/pets/" + context.petId, "PATCH", patch, context.accessToken);
+            })
+            .thenCompose(pet -> {
+                long page = ThreadLocalRandom.current().nextLong(discoveryPages);
+                String path = "/api/discoveries?page=" + page + "&size=" + PAGE_SIZE;
+                return get("GET /api/discoveries", path, context.accessToken);
+            })
+            .thenCompose(discoveries -> {
+                context.discoveryId = discoveries.get(ThreadLocalRandom.current().nextInt(discoveries.size())).get("id").asLong();
+                int day = 1 + ThreadLocalRandom.current().nextInt(30);
+                Instant from = Instant.now().truncatedTo(ChronoUnit.DAYS).plus(day, ChronoUnit.DAYS);
+                String query = "from=" + encode(from) + "&to=" + encode(from.plus(7, ChronoUnit.DAYS));
+                String path = "/api/discoveries/" + context.discoveryId + "/free-slots?" + query;
+                return get("GET /api/discoveries/{id}/free-slots", path, context.accessToken);
+            })
+            .thenCompose(slots -> {
+                if (slots.isEmpty()) {
+                    throw new CompletionException(new IllegalStateException("No free slot"));
+                }
+                ObjectNode appointment = mapper
+                    .createObjectNode()
+                    .put("petId", context.petId)
+                    .put("ownerId", context.ownerId)
+                    .put("discoveryId", context.discoveryId)
+                    .put("apptTime", slots.get(ThreadLocalRandom.current().nextInt(slots.size())).get("start").asText())
+                    .put("status", "PENDING");
+                return post("POST /api/appointments", "/api/appointments", appointment, context.accessToken);
+            })
+            .thenCompose(appointment -> {
+                context.appointmentId = appointment.get("id").asLong();
+                return get("GET /api/owners/{id}/dashboard", "/api/owners/" + context.ownerId + "/dashboard", context.accessToken);
+            })
+            .thenCompose(dashboard -> {
+                ObjectNode healthRecord = mapper
+                    .createObjectNode()
+                    .put("petId", context.petId)
+                    .put("vetId", vetId)
+                    .put("apptId", context.appointmentId)
+                    .put("diagnosis", "Annual check-up")
+                    .put("treatment", "None");
+                return post("POST /api/health-records", "/api/health-records", healthRecord, context.accessToken);
+            })
+            .handle((healthRecord, error) -> {
+                stats(JOURNEY).record(System.nanoTime() - intendedStart, error == null ? 200 : 0);
+                return null;
+            });
+    }
+
+    Map<String, EndpointStats> getStats() {
+        return stats;
+    }
+
+    private ObjectNode user(String kind, String role) {
+        long number = users.incrementAndGet();
+        return mapper
+            .createObjectNode()
+            .put("name", "Load test " + kind + " " + number)
+            .put("email", kind + "-" + runId + "-" + number + "@loadtest.petcare.test")
+            .put("passwordHash", "password")
+            .put("role", role);
+    }
+
+    private CompletableFuture<JsonNode> get(String endpoint, String path) {
+        return get(endpoint, path, null);
+    }
+
+    private CompletableFuture<JsonNode> get(String endpoint, String path, String accessToken) {
+        return send(endpoint, request(path, accessToken).GET().build());
+    }
+
+    private CompletableFuture<JsonNode> post(String endpoint, String path, JsonNode body) {
+        return post(endpoint, path, body, null);
+    }
+
+    private CompletableFuture<JsonNode> post(String endpoint, String path, JsonNode body, String accessToken) {
+        return send(endpoint, path, "POST", body, accessToken);
+    }
+
+    private CompletableFuture<JsonNode> send(String endpoint, String path, String method, JsonNode body, String accessToken) {
+        try {
+            HttpRequest.BodyPublisher publisher = HttpRequest.BodyPublishers.ofByteArray(mapper.writeValueAsBytes(body));
+            return send(endpoint, request(path, accessToken).header("Content-Type", "application/json").method(method, publisher).build());
+        } catch (Exception e) {
+            return CompletableFuture.failedFuture(e);
+        }
+    }
+
+    private HttpRequest.Builder request(String path, String accessToken) {
+        HttpRequest.Builder builder = HttpRequest.newBuilder(URI.create(baseUrl + path))
+            .timeout(requestTimeout)
+            .header("Accept", "application/json");
+        return accessToken != null ? builder.header("Authorization", "Bearer " + accessToken) : builder;
+    }
+
+    /**
+     * Send a request and record its latency and status.
+     *
+     * @return the body of a successful response, or a failed future.
+     */
+    private CompletableFuture<JsonNode> send(String endpoint, HttpRequest request) {
+        EndpointStats endpointStats = stats(endpoint);
+        long start = System.nanoTime();
+        return client
+            .sendAsync(request, HttpResponse.BodyHandlers.ofByteArray())
+            .handle((response, error) -> {
+                int status = response != null ? response.statusCode() : 0;
+                endpointStats.record(System.nanoTime() - start, status);
+                if (error != null) {
+                    throw error instanceof CompletionException completion ? completion : new CompletionException(error);
+                }
+                if (status < 200 || status >= 300) {
+                    throw new CompletionException(new IllegalStateException(endpoint + " returned " + status));
+                }
+                try {
+                    return mapper.readTree(response.body());
+                } catch (Exception e) {
+                    throw new CompletionException(e);
+                }
+            });
+    }
+
+    private EndpointStats stats(String endpoint) {
+        return stats.computeIfAbsent(endpoint, EndpointStats::new);
+    }
+
+    private static String encode(Instant instant) {
+        return URLEncoder.encode(instant.toString(), StandardCharsets.UTF_8);
+    }
+
+    /**
+     * The ids created by the previous steps of a journey.
+     */
+    private static final class Context {
+
+        private long ownerId;
+
+        private long petId;
+
+        private long discoveryId;
+
+        private long appointmentId;
+
+        private String accessToken;
+    }
+}
@@ -0,0 +1,253 @@
+package petcare.loadtest;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import java.io.IOException;
+import java.io.PrintStream;
+import java.net.http.HttpClient;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.concurrent.locks.LockSupport;
+import org.HdrHistogram.Histogram;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.boot.SpringApplication;
+import org.springframework.boot.convert.DurationStyle;
+import org.springframework.context.ConfigurableApplicationContext;
+import petcare.PetCareApp;
+import tech.jhipster.config.DefaultProfileUtil;
+
+/**
+ * Load test of the scripted user journeys of {@link Journeys}, with an open model: the journeys start at the given
+ * arrival rate whatever the response times, like independent users, so a slow server gets more concurrent journeys
+ * instead of fewer requests.
+ * <p>
+ * Unless {@code --base-url} is given, {@link PetCareApp} is started in the same JVM, on a random port, without the
+ * login throttling per IP address, with the other arguments (for example {@code --spring.profiles.active=prod}) and
+ * its configured database. After a warmup
+ * the throughput, error rate and p50/p99/p99.9 latencies of each endpoint are printed, and their HDR percentile
+ * distributions written to the output directory.
+ * <p>
+ * Options, with their defaults:
+ * <ul>
+ *     <li>{@code --rate=20}: the journeys started per second.</li>
+ *     <li>{@code --arrivals=poisson}: {@code poisson} for exponential gaps between the journeys, {@code constant} for
+ *     fixed gaps.</li>
+ *     <li>{@code --warmup=30s} and {@code --duration=60s}: how long the warmup and the measured run last.</li>
+ *     <li>{@code --max-in-flight=10000}: the journeys running at once above which new ones are dropped and
+ *     counted, so that an overloaded server does not exhaust the client.</li>
+ *     <li>{@code --discoveries=100}: the discoveries created when the database has fewer.</li>
+ *     <li>{@code --request-timeout=30s}: after which a request is an error.</li>
+ *     <li>{@code --base-url}: the URL of an already running application.</li>
+ *     <li>{@code --output=target/loadtest}: the directory of the {@code .hgrm} files.</li>
+ * </ul>
+ */
+public final class LoadTest {
+
+    private static final Logger LOG = LoggerFactory.getLogger(LoadTest.class);
+
+    private static final List<String> OPTIONS = List.of(
+        "rate",
+        "arrivals",
+        "warmup",
+        "duration",
+        "max-in-flight",
+        "discoveries",
+        "request-timeout",
+        "base-url",
+        "output"
+    );
+
+    private final double rate;
+
+    private final boolean poisson;
+
+    private final Duration warmup;
+
+    private final Duration duration;
+
+    private final int maxInFlight;
+
+    private final Journeys journeys;
+
+    private final AtomicInteger inFlight = new AtomicInteger();
+
+    private final LongAdder dropped = new LongAdder();
+
+    private LoadTest(double rate, boolean poisson, Duration warmup, Duration duration, int maxInFlight, Journeys journeys) {
+        this.rate = rate;
+        this.poisson = poisson;
+        this.warmup = warmup;
+        this.duration = duration;
+        this.maxInFlight = maxInFlight;
+        this.journeys = journeys;
+    }
+
+    public static void main(String[] args) throws IOException {
+        Map<String, String> options = new HashMap<>();
+        List<String> applicationArgs = new ArrayList<>();
+        for (String arg : args) {
+            String name = arg.startsWith("--") && arg.contains("=") ? arg.substring(2, arg.indexOf('=')) : "";
+            if (OPTIONS.contains(name)) {
+                options.put(name, arg.substring(arg.indexOf('=') + 1));
+            } else {
+                applicationArgs.add(arg);
+            }
+        }
+        double rate = Double.parseDouble(options.getOrDefault("rate", "20"));
+        if (rate <= 0) {
+            throw new IllegalArgumentException("The rate must be positive");
+        }
+
+        ConfigurableApplicationContext application = null;
+        String baseUrl = options.get("base-url");
+        if (baseUrl == null) {
+            application = start(applicationArgs);
+            baseUrl = "http://localhost:" + application.getEnvironment().getProperty("local.server.port");
+        }
+        try {
+            HttpClient client = HttpClient.newBuilder()
+                .version(HttpClient.Version.HTTP_1_1)
+                .connectTimeout(Duration.ofSeconds(10))
+                .build();
+            Journeys journeys = new Journeys(
+                client,
+                new ObjectMapper(),
+                baseUrl,
+                DurationStyle.detectAndParse(options.getOrDefault("request-timeout", "30s"))
+            );
+            LoadTest loadTest = new LoadTest(
+                rate,
+                !"constant".equals(options.getOrDefault("arrivals", "poisson")),
+                DurationStyle.detectAndParse(options.getOrDefault("warmup", "30s")),
+                DurationStyle.detectAndParse(options.getOrDefault("duration", "60s")),
+                Integer.parseInt(options.getOrDefault("max-in-flight", "10000")),
+                journeys
+            );
+            journeys.setUp(Integer.parseInt(options.getOrDefault("discoveries", "100")));
+            loadTest.run();
+            loadTest.report(System.out, Path.of(options.getOrDefault("output", "target/loadtest")));
+        } finally {
+            if (application != null) {
+                application.close();
+            }
+        }
+    }
+
+    private static ConfigurableApplicationContext start(List<String> args) {
+        // The devtools restart would run the load test a second time in the restart class loader
+        System.setProperty("spring.devtools.restart.enabled", "false");
+        List<String> applicationArgs = new ArrayList<>(args);
+        if (applicationArgs.stream().noneMatch(arg -> arg.startsWith("--server.port="))) {
+            applicationArgs.add("--server.port=0");
+        }
+        // All the journeys come from the same address
+        if (applicationArgs.stream().noneMatch(arg -> arg.startsWith("--application.password.ip-burst="))) {
+            applicationArgs.add("--application.password.ip-burst=0");
+        }
+        SpringApplication app = new SpringApplication(PetCareApp.class);
+        DefaultProfileUtil.addDefaultProfile(app);
+        return app.run(applicationArgs.toArray(String[]::new));
+    }
+
+    private void run() {
+        LOG.info("Warming up for {} at {} journeys/s", warmup, rate);
+        drive(warmup);
+        journeys.getStats().values().forEach(EndpointStats::reset);
+        dropped.reset();
+        LOG.info("Measuring for {} at {} journeys/s", duration, rate);
+        drive(duration);
+        long deadline = System.nanoTime() + TimeUnit.SECONDS.toNanos(60);
+        while (inFlight.get() > 0 && System.nanoTime() < deadline) {
+            LockSupport.parkNanos(TimeUnit.MILLISECONDS.toNanos(100));
+        }
+        if (inFlight.get() > 0) {
+            LOG.warn("{} journeys still running, left out of the report", inFlight.get());
+        }
+    }
+
+    /**
+     * Start the journeys at their intended times for the given period. A journey started late is measured from its
+     * intended start, so that the delays of the client are not hidden (coordinated omission).
+     */
+    private void drive(Duration period) {
+        double meanGapNanos = TimeUnit.SECONDS.toNanos(1) / rate;
+        long start = System.nanoTime();
+        long end = start + period.toNanos();
+        long next = start;
+        while (next < end) {
+            long wait = next - System.nanoTime();
+            if (wait > 0) {
+                LockSupport.parkNanos(wait);
+            }
+            if (inFlight.get() >= maxInFlight) {
+                dropped.increment();
+            } else {
+                inFlight.incrementAndGet();
+                journeys.run(next).whenComplete((result, error) -> inFlight.decrementAndGet());
+            }
+            double gap = poisson ? -Math.log(1 - ThreadLocalRandom.current().nextDouble()) * meanGapNanos : meanGapNanos;
+            next += (long) gap;
+        }
+    }
+
+    private void report(PrintStream out, Path output) throws IOException {
+        Files.createDirectories(output);
+        double seconds = duration.toNanos() / 1e9;
+        out.printf(
+            "%nLoad test: %.1f journeys/s (%s arrivals) for %s, %d dropped%n",
+            rate,
+            poisson ? "poisson" : "constant",
+            duration,
+            dropped.sum()
+        );
+        out.printf(
+            "%-40s %9s %9s %8s %10s %10s %10s %10s   %s%n",
+            "Endpoint",
+            "Count",
+            "Req/s",
+            "Errors",
+            "p50 ms",
+            "p99 ms",
+            "p99.9 ms",
+            "max ms",
+            "Errors by status"
+        );
+        List<EndpointStats> endpoints = new ArrayList<>(journeys.getStats().values());
+        // The journeys last, after their steps
+        endpoints.sort(
+            Comparator.comparing((EndpointStats stats) -> Journeys.JOURNEY.equals(stats.getName())).thenComparing(EndpointStats::getName)
+        );
+        for (EndpointStats stats : endpoints) {
+            Histogram histogram = stats.snapshot();
+            long count = histogram.getTotalCount();
+            if (count == 0) {
+                // Only called by the set up
+                continue;
+            }
+            out.printf(
+                "%-40s %9d %9.1f %7.2f%% %10.2f %10.2f %10.2f %10.2f   %s%n",
+                stats.getName(),
+                count,
+                count / seconds,
+                100.0 * stats.getErrors() / count,
+                histogram.getValueAtPercentile(50) / 1000.0,
+                histogram.getValueAtPercentile(99) / 1000.0,
+                histogram.getValueAtPercentile(99.9) / 1000.0,
+                histogram.getMaxValue() / 1000.0,
+                stats.getErrorsByStatus().isEmpty() ? "" : stats.getErrorsByStatus()
+            );
+            stats.writeDistribution(output);
+        }
+        out.printf("Latency distributions written to %s%n", output.toAbsolutePath());
+    }
+}
@@ -0,0 +1,277 @@
+package petcare.aop.index;
+
+import jakarta.persistence.Column;
+import jakarta.persistence.Table;
+import java.beans.PropertyDescriptor;
+import java.lang.reflect.Field;
+import java.sql.Connection;
+import java.sql.DatabaseMetaData;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.SortedMap;
+import java.util.TreeMap;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.atomic.LongAdder;
+import javax.sql.DataSource;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.BeanWrapper;
+import org.springframework.beans.BeanWrapperImpl;
+import org.springframework.data.domain.Sort;
+import org.springframework.util.ReflectionUtils;
+import tech.jhipster.service.filter.Filter;
+import tech.jhipster.service.filter.RangeFilter;
+import tech.jhipster.service.filter.StringFilter;
+
+/**
+ * Records which {@code *Criteria} filter and sort combinations reach the query services, and checks each
+ * combination once against the indexes the database actually has.
+ * <p>
+ * A combination is considered supported when an index starts with a column filtered by equality or range,
+ * or, without such a filter, when an index starts with the first sort column. {@code LIKE '%...%'}, negated
+ * and {@code IS [NOT] NULL} filters can not use a B-tree index and are only reported.
+ */
+public class IndexAdvisor {
+
+    private static final Logger LOG = LoggerFactory.getLogger(IndexAdvisor.class);
+
+    /**
+     * How a filtered column is compared, from the most to the least index friendly.
+     */
+    public enum Operator {
+        EQUALS,
+        RANGE,
+        SPECIFIED,
+        LIKE,
+        NOT_EQUALS;
+
+        boolean isIndexable() {
+            return this == EQUALS || this == RANGE;
+        }
+    }
+
+    /**
+     * A recorded combination, as reported by the {@link IndexAdvisorEndpoint}.
+     *
+     * @param table the queried table.
+     * @param filters the filtered columns and how they are compared.
+     * @param sort the sort columns.
+     * @param supported whether an existing index supports the combination.
+     * @param suggestedIndex the columns of an index which would support it, empty if no index would help.
+     * @param count the number of queries made with this combination.
+     */
+    public record Usage(
+        String table,
+        Map<String, Operator> filters,
+        List<String> sort,
+        boolean supported,
+        List<String> suggestedIndex,
+        long count
+    ) {}
+
+    private record Shape(String table, SortedMap<String, Operator> filters, List<String> sort) {}
+
+    private static final class Stats {
+
+        private final boolean supported;
+
+        private final List<String> suggestedIndex;
+
+        private final LongAdder count = new LongAdder();
+
+        private Stats(boolean supported, List<String> suggestedIndex) {
+            this.supported = supported;
+            this.suggestedIndex = suggestedIndex;
+        }
+    }
+
+    private final DataSource dataSource;
+
+    private final ConcurrentMap<String, List<List<String>>> indexesByTable = new ConcurrentHashMap<>();
+
+    private final ConcurrentMap<Shape, Stats> usages = new ConcurrentHashMap<>();
+
+    public IndexAdvisor(DataSource dataSource) {
+        this.dataSource = dataSource;
+    }
+
+    /**
+     * Record a criteria query.
+     *
+     * @param entityClass the queried entity.
+     * @param criteria the {@code *Criteria} holding the filters.
+     * @param sort the requested sort, can be unsorted.
+     */
+    public void record(Class<?> entityClass, Object criteria, Sort sort) {
+        String table = tableName(entityClass);
+        SortedMap<String, Operator> filters = new TreeMap<>();
+        BeanWrapper criteriaWrapper = new BeanWrapperImpl(criteria);
+        for (PropertyDescriptor descriptor : criteriaWrapper.getPropertyDescriptors()) {
+            if (descriptor.getReadMethod() != null && Filter.class.isAssignableFrom(descriptor.getPropertyType())) {
+                Filter<?> filter = (Filter<?>) criteriaWrapper.getPropertyValue(descriptor.getName());
+                Operator operator = filter == null ? null : operator(filter);
+                if (operator != null) {
+                    filters.put(columnName(entityClass, descriptor.getName()), operator);
+                }
+            }
+        }
+        List<String> sortColumns = sort.stream().map(order -> columnName(entityClass, order.getProperty())).toList();
+
+        Shape shape = new Shape(table, filters, sortColumns);
+        usages.computeIfAbsent(shape, this::analyze).count.increment();
+    }
+
+    /**
+     * Return the recorded combinations, the unsupported and most frequent ones first.
+     *
+     * @return the recorded combinations.
+     */
+    public List<Usage> report() {
+        return usages
+            .entrySet()
+            .stream()
+            .map(entry ->
+                new Usage(
+                    entry.getKey().table(),
+                    entry.getKey().filters(),
+                    entry.getKey().sort(),
+                    entry.getValue().supported,
+                    entry.getValue().suggestedIndex,
+                    entry.getValue().count.sum()
+                )
+            )
+            .sorted(Comparator.comparing(Usage::supported).thenComparing(Comparator.comparingLong(Usage::count).reversed()))
+            .toList();
+    }
+
+    private Stats analyze(Shape shape) {
+        List<List<String>> indexes = indexesByTable.computeIfAbsent(shape.table(), this::loadIndexes);
+        List<String> indexableColumns = shape
+            .filters()
+            .entrySet()
+            .stream()
+            .filter(entry -> entry.getValue().isIndexable())
+            .map(Map.Entry::getKey)
+            .toList();
+
+        boolean supported;
+        if (!indexableColumns.isEmpty()) {
+            supported = indexes.stream().anyMatch(index -> indexableColumns.contains(index.get(0)));
+        } else if (!shape.sort().isEmpty()) {
+            supported = indexes.stream().anyMatch(index -> index.get(0).equals(shape.sort().get(0)));
+        } else {
+            // Without any filter or sort the whole table is read anyway, only non indexable filters are worth reporting
+            supported = shape.filters().isEmpty();
+        }
+
+        List<String> suggestedIndex = supported ? List.of() : suggestIndex(shape);
+        if (!supported) {
+            LOG.warn(
+                "No index supports the query on {} with filters {} and sort {}, suggested index: {}",
+                shape.table(),
+                shape.filters(),
+                shape.sort(),
+                suggestedIndex.isEmpty() ? "none, the filters can not use an index" : suggestedIndex
+            );
+        }
+        return new Stats(supported, suggestedIndex);
+    }
+
+    /**
+     * Equality columns first, then a single range column, then the sort columns not already in the index.
+     */
+    private List<String> suggestIndex(Shape shape) {
+        List<String> columns = new ArrayList<>();
+        shape.filters().forEach((column, operator) -> {
+            if (operator == Operator.EQUALS) {
+                columns.add(column);
+            }
+        });
+        shape
+            .filters()
+            .entrySet()
+            .stream()
+            .filter(entry -> entry.getValue() == Operator.RANGE)
+            .findFirst()
+            .ifPresent(entry -> columns.add(entry.getKey()));
+        shape.sort().stream().filter(column -> !columns.contains(column)).forEach(columns::add);
+        return List.copyOf(columns);
+    }
+
+    private static Operator operator(Filter<?> filter) {
+        if (filter.getEquals() != null || filter.getIn() != null) {
+            return Operator.EQUALS;
+        }
+        if (
+            filter instanceof RangeFilter<?> range &&
+            (range.getGreaterThan() != null ||
+                range.getGreaterThanOrEqual() != null ||
+                range.getLessThan() != null ||
+                range.getLessThanOrEqual() != null)
+        ) {
+            return Operator.RANGE;
+        }
+        if (filter.getSpecified() != null) {
+            return Operator.SPECIFIED;
+        }
+        if (filter instanceof StringFilter string && (string.getContains() != null || string.getDoesNotContain() != null)) {
+            return Operator.LIKE;
+        }
+        if (filter.getNotEquals() != null || filter.getNotIn() != null) {
+            return Operator.NOT_EQUALS;
+        }
+        return null;
+    }
+
+    /**
+     * Load the indexes of a table as lists of lower case column names, in index order.
+     */
+    private List<List<String>> loadIndexes(String table) {
+        try (Connection connection = dataSource.getConnection()) {
+            DatabaseMetaData metaData = connection.getMetaData();
+            List<List<String>> indexes = readIndexes(metaData, connection.getCatalog(), table);
+            if (indexes.isEmpty()) {
+                // Some databases (H2) store unquoted identifiers in upper case
+                indexes = readIndexes(metaData, connection.getCatalog(), table.toUpperCase(Locale.ROOT));
+            }
+            LOG.debug("Indexes of {} : {}", table, indexes);
+            return indexes;
+        } catch (SQLException e) {
+            LOG.debug("Could not read the indexes of {} : {}", table, e.getMessage());
+            return List.of();
+        }
+    }
+
+    private static List<List<String>> readIndexes(DatabaseMetaData metaData, String catalog, String table) throws SQLException {
+        Map<String, SortedMap<Short, String>> columnsByIndex = new TreeMap<>();
+        try (ResultSet resultSet = metaData.getIndexInfo(catalog, null, table, false, true)) {
+            while (resultSet.next()) {
+                String indexName = resultSet.getString("INDEX_NAME");
+                String columnName = resultSet.getString("COLUMN_NAME");
+                if (indexName != null && columnName != null) {
+                    columnsByIndex
+                        .computeIfAbsent(indexName, name -> new TreeMap<>())
+                        .put(resultSet.getShort("ORDINAL_POSITION"), columnName.toLowerCase(Locale.ROOT));
+                }
+            }
+        }
+        return columnsByIndex.values().stream().map(columns -> List.copyOf(columns.values())).toList();
+    }
+
+    private static String tableName(Class<?> entityClass) {
+        Table table = entityClass.getAnnotation(Table.class);
+        return table != null && !table.name().isEmpty() ? table.name() : entityClass.getSimpleName().toLowerCase(Locale.ROOT);
+    }
+
+    private static String columnName(Class<?> entityClass, String property) {
+        Field field = ReflectionUtils.findField(entityClass, property);
+        Column column = field == null ? null : field.getAnnotation(Column.class);
+        return (column != null && !column.name().isEmpty() ? column.name() : property).toLowerCase(Locale.ROOT);
+    }
+}
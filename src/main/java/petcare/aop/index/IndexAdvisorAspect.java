@@ -0,0 +1,66 @@
+package petcare.aop.index;
+
+import org.aspectj.lang.JoinPoint;
+import org.aspectj.lang.annotation.Aspect;
+import org.aspectj.lang.annotation.Before;
+import org.aspectj.lang.annotation.Pointcut;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.core.ResolvableType;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Sort;
+import tech.jhipster.service.QueryService;
+
+/**
+ * Aspect feeding the {@link IndexAdvisor} with the criteria and sort of every query service call.
+ *
+ * By default, it only runs with the "dev" profile.
+ */
+@Aspect
+public class IndexAdvisorAspect {
+
+    private static final Logger LOG = LoggerFactory.getLogger(IndexAdvisorAspect.class);
+
+    private final IndexAdvisor indexAdvisor;
+
+    public IndexAdvisorAspect(IndexAdvisor indexAdvisor) {
+        this.indexAdvisor = indexAdvisor;
+    }
+
+    /**
+     * Pointcut that matches the criteria queries of the query services.
+     */
+    @Pointcut(
+        "execution(* petcare.service.*QueryService.findByCriteria(..))" +
+        " || execution(* petcare.service.*QueryService.countByCriteria(..))"
+    )
+    public void criteriaQueryPointcut() {
+        // Method is empty as this is just a Pointcut, the implementations are in the advices.
+    }
+
+    /**
+     * Advice that records the filter and sort combination of a criteria query.
+     *
+     * @param joinPoint join point for advice.
+     */
+    @Before("criteriaQueryPointcut()")
+    public void recordCriteria(JoinPoint joinPoint) {
+        Class<?> entityClass = ResolvableType.forClass(joinPoint.getTarget().getClass()).as(QueryService.class).resolveGeneric(0);
+        Object[] args = joinPoint.getArgs();
+        if (entityClass == null || args.length == 0 || args[0] == null) {
+            return;
+        }
+        Sort sort = Sort.unsorted();
+        for (Object arg : args) {
+            if (arg instanceof Pageable pageable) {
+                sort = pageable.getSort();
+            }
+        }
+        try {
+            indexAdvisor.record(entityClass, args[0], sort);
+        } catch (RuntimeException e) {
+            // The advisor is a development aid, it must never break the query itself
+            LOG.debug("Could not record criteria of {}() : {}", joinPoint.getSignature().toShortString(), e.getMessage());
+        }
+    }
+}
@@ -0,0 +1,24 @@
+package petcare.aop.index;
+
+import java.util.List;
+import org.springframework.boot.actuate.endpoint.annotation.Endpoint;
+import org.springframework.boot.actuate.endpoint.annotation.ReadOperation;
+
+/**
+ * Actuator endpoint reporting the criteria combinations recorded by the {@link IndexAdvisor},
+ * the ones without a supporting index first.
+ */
+@Endpoint(id = "indexadvisor")
+public class IndexAdvisorEndpoint {
+
+    private final IndexAdvisor indexAdvisor;
+
+    public IndexAdvisorEndpoint(IndexAdvisor indexAdvisor) {
+        this.indexAdvisor = indexAdvisor;
+    }
+
+    @ReadOperation
+    public List<IndexAdvisor.Usage> usages() {
+        return indexAdvisor.report();
+    }
+}
@@ -0,0 +1,4 @@
+/**
+ * Index advisor aspect.
+ */
+package petcare.aop.index;
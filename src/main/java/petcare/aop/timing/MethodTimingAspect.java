@@ -0,0 +1,177 @@
+package petcare.aop.timing;
+
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import java.lang.reflect.Method;
+import java.time.Duration;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+import org.aspectj.lang.ProceedingJoinPoint;
+import org.aspectj.lang.annotation.Around;
+import org.aspectj.lang.annotation.Aspect;
+import org.aspectj.lang.annotation.Pointcut;
+import org.aspectj.lang.reflect.MethodSignature;
+import org.springframework.aop.framework.AopProxyUtils;
+import org.springframework.data.repository.Repository;
+import org.springframework.util.ClassUtils;
+
+/**
+ * Aspect recording the latency of the repository, service and Web REST methods in a Micrometer {@link Timer}
+ * named {@value #METRIC_NAME}, tagged with the {@code class}, the {@code method}, the {@code outcome}
+ * ({@code SUCCESS} or {@code ERROR}) and the {@code exception} thrown ({@code none} on success).
+ * <p>
+ * The timers are created once per method, outcome and exception, and then only looked up. Only a {@code sampleRate}
+ * share of the calls is timed, the other ones only pay for a random draw, so the recorded counts must be divided by
+ * the rate. The aspect is not created at all when disabled.
+ */
+@Aspect
+public class MethodTimingAspect {
+
+    public static final String METRIC_NAME = "method.timed";
+
+    private static final String SUCCESS = "SUCCESS";
+
+    private static final String ERROR = "ERROR";
+
+    private static final String NONE = "none";
+
+    private static final Duration MINIMUM_EXPECTED_VALUE = Duration.ofMillis(1);
+
+    private static final Duration MAXIMUM_EXPECTED_VALUE = Duration.ofSeconds(30);
+
+    private final MeterRegistry meterRegistry;
+
+    private final double sampleRate;
+
+    private final boolean percentileHistogram;
+
+    private final Map<TimedMethod, MethodTimers> timers = new ConcurrentHashMap<>();
+
+    /**
+     * @param meterRegistry the registry of the timers.
+     * @param sampleRate the share of the calls which are timed, between {@code 0} and {@code 1}.
+     * @param percentileHistogram whether the timers publish histogram buckets, to aggregate percentiles in Prometheus.
+     */
+    public MethodTimingAspect(MeterRegistry meterRegistry, double sampleRate, boolean percentileHistogram) {
+        this.meterRegistry = meterRegistry;
+        this.sampleRate = sampleRate;
+        this.percentileHistogram = percentileHistogram;
+    }
+
+    /**
+     * Pointcut that matches all repositories, services and Web REST endpoints.
+     */
+    @Pointcut(
+        "within(@org.springframework.stereotype.Repository *)" +
+        " || within(@org.springframework.stereotype.Service *)" +
+        " || within(@org.springframework.web.bind.annotation.RestController *)"
+    )
+    public void springBeanPointcut() {
+        // Method is empty as this is just a Pointcut, the implementations are in the advices.
+    }
+
+    /**
+     * Pointcut that matches all Spring beans in the application's main packages.
+     */
+    @Pointcut("within(petcare.repository..*)" + " || within(petcare.service..*)" + " || within(petcare.web.rest..*)")
+    public void applicationPackagePointcut() {
+        // Method is empty as this is just a Pointcut, the implementations are in the advices.
+    }
+
+    /**
+     * Pointcut that matches all Spring Data repositories, whose proxies are not matched by {@code within}.
+     */
+    @Pointcut("this(org.springframework.data.repository.Repository)")
+    public void springDataRepositoryPointcut() {
+        // Method is empty as this is just a Pointcut, the implementations are in the advices.
+    }
+
+    /**
+     * Advice that times a method call.
+     *
+     * @param joinPoint join point for advice.
+     * @return result.
+     * @throws Throwable the exception of the method.
+     */
+    @Around("(applicationPackagePointcut() && springBeanPointcut()) || springDataRepositoryPointcut()")
+    public Object timeAround(ProceedingJoinPoint joinPoint) throws Throwable {
+        if (sampleRate < 1.0 && ThreadLocalRandom.current().nextDouble() >= sampleRate) {
+            return joinPoint.proceed();
+        }
+        long start = System.nanoTime();
+        try {
+            Object result = joinPoint.proceed();
+            timers(joinPoint).success.record(System.nanoTime() - start, TimeUnit.NANOSECONDS);
+            return result;
+        } catch (Throwable e) {
+            timers(joinPoint).failure(e.getClass()).record(System.nanoTime() - start, TimeUnit.NANOSECONDS);
+            throw e;
+        }
+    }
+
+    private MethodTimers timers(ProceedingJoinPoint joinPoint) {
+        // The proxy class tells the repositories apart, their methods are often inherited from the same interface
+        Method method = ((MethodSignature) joinPoint.getSignature()).getMethod();
+        return timers.computeIfAbsent(new TimedMethod(joinPoint.getThis().getClass(), method), key ->
+            new MethodTimers(className(joinPoint), method.getName())
+        );
+    }
+
+    private static String className(ProceedingJoinPoint joinPoint) {
+        if (joinPoint.getThis() instanceof Repository<?, ?>) {
+            Class<?>[] interfaces = AopProxyUtils.proxiedUserInterfaces(joinPoint.getThis());
+            for (Class<?> repositoryInterface : interfaces) {
+                if (Repository.class.isAssignableFrom(repositoryInterface)) {
+                    return repositoryInterface.getSimpleName();
+                }
+            }
+        }
+        return ClassUtils.getUserClass(joinPoint.getTarget()).getSimpleName();
+    }
+
+    private record TimedMethod(Class<?> proxyClass, Method method) {}
+
+    /**
+     * The timers of one method.
+     */
+    private final class MethodTimers {
+
+        private final String className;
+
+        private final String methodName;
+
+        private final Timer success;
+
+        private final Map<Class<?>, Timer> failures = new ConcurrentHashMap<>();
+
+        private MethodTimers(String className, String methodName) {
+            this.className = className;
+            this.methodName = methodName;
+            this.success = timer(SUCCESS, NONE);
+        }
+
+        Timer failure(Class<?> exceptionClass) {
+            return failures.computeIfAbsent(exceptionClass, type ->
+                timer(ERROR, type.getSimpleName().isEmpty() ? type.getName() : type.getSimpleName())
+            );
+        }
+
+        private Timer timer(String outcome, String exception) {
+            Timer.Builder builder = Timer.builder(METRIC_NAME)
+                .description("Latency of the repository, service and REST methods")
+                .tag("class", className)
+                .tag("method", methodName)
+                .tag("outcome", outcome)
+                .tag("exception", exception);
+            if (percentileHistogram) {
+                builder
+                    .publishPercentileHistogram()
+                    .minimumExpectedValue(MINIMUM_EXPECTED_VALUE)
+                    .maximumExpectedValue(MAXIMUM_EXPECTED_VALUE);
+            }
+            return builder.register(meterRegistry);
+        }
+    }
+}
@@ -0,0 +1,4 @@
+/**
+ * Method timing aspect.
+ */
+package petcare.aop.timing;
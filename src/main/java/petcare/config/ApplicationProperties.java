@@ -1,5 +1,6 @@
 package petcare.config;
 
+import java.time.Duration;
 import org.springframework.boot.context.properties.ConfigurationProperties;
 
 /**
@@ -13,12 +14,78 @@ public class ApplicationProperties {
 
     private final Liquibase liquibase = new Liquibase();
 
+    private final Availability availability = new Availability();
+
+    private final Reminder reminder = new Reminder();
+
+    private final Dashboard dashboard = new Dashboard();
+
+    private final OwnerStats ownerStats = new OwnerStats();
+
+    private final Threads threads = new Threads();
+
+    private final MethodTiming methodTiming = new MethodTiming();
+
+    private final Sql sql = new Sql();
+
+    private final SyntheticData syntheticData = new SyntheticData();
+
+    private final Password password = new Password();
+
+    private final Token token = new Token();
+
+    private final Pagination pagination = new Pagination();
+
     // jhipster-needle-application-properties-property
 
     public Liquibase getLiquibase() {
         return liquibase;
     }
 
+    public Availability getAvailability() {
+        return availability;
+    }
+
+    public Reminder getReminder() {
+        return reminder;
+    }
+
+    public Dashboard getDashboard() {
+        return dashboard;
+    }
+
+    public OwnerStats getOwnerStats() {
+        return ownerStats;
+    }
+
+    public Threads getThreads() {
+        return threads;
+    }
+
+    public MethodTiming getMethodTiming() {
+        return methodTiming;
+    }
+
+    public Sql getSql() {
+        return sql;
+    }
+
+    public SyntheticData getSyntheticData() {
+        return syntheticData;
+    }
+
+    public Password getPassword() {
+        return password;
+    }
+
+    public Token getToken() {
+        return token;
+    }
+
+    public Pagination getPagination() {
+        return pagination;
+    }
+
     // jhipster-needle-application-properties-property-getter
 
     public static class Liquibase {
@@ -33,5 +100,720 @@ public class ApplicationProperties {
             this.asyncStart = asyncStart;
         }
     }
+
+    public static class Availability {
+
+        /**
+         * How long an appointment occupies its discovery.
+         */
+        private Duration slotDuration = Duration.ofMinutes(30);
+
+        /**
+         * The longest period a free slots request can cover.
+         */
+        private Duration maxRange = Duration.ofDays(31);
+
+        /**
+         * How many discovery schedules are kept in memory.
+         */
+        private long maxSchedules = 10_000;
+
+        public Duration getSlotDuration() {
+            return slotDuration;
+        }
+
+        public void setSlotDuration(Duration slotDuration) {
+            this.slotDuration = slotDuration;
+        }
+
+        public Duration getMaxRange() {
+            return maxRange;
+        }
+
+        public void setMaxRange(Duration maxRange) {
+            this.maxRange = maxRange;
+        }
+
+        public long getMaxSchedules() {
+            return maxSchedules;
+        }
+
+        public void setMaxSchedules(long maxSchedules) {
+            this.maxSchedules = maxSchedules;
+        }
+    }
+
+    public static class Reminder {
+
+        /**
+         * Whether appointment reminders are emailed to the owners.
+         */
+        private boolean enabled = false;
+
+        /**
+         * How long before its appointment a reminder is sent.
+         */
+        private Duration leadTime = Duration.ofHours(24);
+
+        /**
+         * How far ahead the reminders are loaded in memory.
+         */
+        private Duration horizon = Duration.ofHours(6);
+
+        /**
+         * How often the loaded window is extended, must be shorter than the horizon.
+         */
+        private Duration refreshInterval = Duration.ofMinutes(15);
+
+        /**
+         * The precision of the reminder times, and how often the due reminders are sent.
+         */
+        private Duration tick = Duration.ofSeconds(1);
+
+        /**
+         * How many reminders are sent over one SMTP connection.
+         */
+        private int batchSize = 100;
+
+        public boolean isEnabled() {
+            return enabled;
+        }
+
+        public void setEnabled(boolean enabled) {
+            this.enabled = enabled;
+        }
+
+        public Duration getLeadTime() {
+            return leadTime;
+        }
+
+        public void setLeadTime(Duration leadTime) {
+            this.leadTime = leadTime;
+        }
+
+        public Duration getHorizon() {
+            return horizon;
+        }
+
+        public void setHorizon(Duration horizon) {
+            this.horizon = horizon;
+        }
+
+        public Duration getRefreshInterval() {
+            return refreshInterval;
+        }
+
+        public void setRefreshInterval(Duration refreshInterval) {
+            this.refreshInterval = refreshInterval;
+        }
+
+        public Duration getTick() {
+            return tick;
+        }
+
+        public void setTick(Duration tick) {
+            this.tick = tick;
+        }
+
+        public int getBatchSize() {
+            return batchSize;
+        }
+
+        public void setBatchSize(int batchSize) {
+            this.batchSize = batchSize;
+        }
+    }
+
+    public static class Dashboard {
+
+        /**
+         * How long a dashboard request waits for its sections.
+         */
+        private Duration timeout = Duration.ofSeconds(2);
+
+        /**
+         * How many sections are read at the same time, across all the requests, with platform threads. Each one holds a
+         * database connection. With virtual threads, the sections are only limited by the connection limit.
+         */
+        private int concurrency = 8;
+
+        /**
+         * How many sections can wait for a thread, beyond which they are reported as unavailable.
+         */
+        private int queueCapacity = 500;
+
+        public Duration getTimeout() {
+            return timeout;
+        }
+
+        public void setTimeout(Duration timeout) {
+            this.timeout = timeout;
+        }
+
+        public int getConcurrency() {
+            return concurrency;
+        }
+
+        public void setConcurrency(int concurrency) {
+            this.concurrency = concurrency;
+        }
+
+        public int getQueueCapacity() {
+            return queueCapacity;
+        }
+
+        public void setQueueCapacity(int queueCapacity) {
+            this.queueCapacity = queueCapacity;
+        }
+    }
+
+    public static class OwnerStats {
+
+        /**
+         * When the owner counters are checked against the tables, and repaired.
+         */
+        private String checkCron = "0 30 3 * * *";
+
+        public String getCheckCron() {
+            return checkCron;
+        }
+
+        public void setCheckCron(String checkCron) {
+            this.checkCron = checkCron;
+        }
+    }
+
+    public static class Threads {
+
+        /**
+         * Whether the database connections are limited by {@link ConnectionLimitingDataSource}, by default only when
+         * the requests run on virtual threads ({@code spring.threads.virtual.enabled}).
+         */
+        private Boolean limitConnections;
+
+        /**
+         * How many connections can be used at the same time, {@code 0} for the maximum size of the Hikari pool.
+         */
+        private int maxConnections = 0;
+
+        /**
+         * How long a thread waits for a connection, in order of arrival, before failing.
+         */
+        private Duration connectionWaitTimeout = Duration.ofSeconds(60);
+
+        /**
+         * How long a virtual thread can stay pinned to its carrier thread before it is logged.
+         */
+        private Duration pinnedThreshold = Duration.ofMillis(20);
+
+        public Boolean getLimitConnections() {
+            return limitConnections;
+        }
+
+        public void setLimitConnections(Boolean limitConnections) {
+            this.limitConnections = limitConnections;
+        }
+
+        public int getMaxConnections() {
+            return maxConnections;
+        }
+
+        public void setMaxConnections(int maxConnections) {
+            this.maxConnections = maxConnections;
+        }
+
+        public Duration getConnectionWaitTimeout() {
+            return connectionWaitTimeout;
+        }
+
+        public void setConnectionWaitTimeout(Duration connectionWaitTimeout) {
+            this.connectionWaitTimeout = connectionWaitTimeout;
+        }
+
+        public Duration getPinnedThreshold() {
+            return pinnedThreshold;
+        }
+
+        public void setPinnedThreshold(Duration pinnedThreshold) {
+            this.pinnedThreshold = pinnedThreshold;
+        }
+    }
+
+    public static class MethodTiming {
+
+        /**
+         * Whether the repository, service and REST methods are timed, see {@link petcare.aop.timing.MethodTimingAspect}.
+         */
+        private boolean enabled = false;
+
+        /**
+         * The share of the calls which are timed, in {@code (0, 1]}.
+         */
+        private double sampleRate = 1.0;
+
+        /**
+         * Whether the timers publish histogram buckets, to compute percentiles across instances.
+         */
+        private boolean percentileHistogram = true;
+
+        public boolean isEnabled() {
+            return enabled;
+        }
+
+        public void setEnabled(boolean enabled) {
+            this.enabled = enabled;
+        }
+
+        public double getSampleRate() {
+            return sampleRate;
+        }
+
+        public void setSampleRate(double sampleRate) {
+            this.sampleRate = sampleRate;
+        }
+
+        public boolean isPercentileHistogram() {
+            return percentileHistogram;
+        }
+
+        public void setPercentileHistogram(boolean percentileHistogram) {
+            this.percentileHistogram = percentileHistogram;
+        }
+    }
+
+    public static class Sql {
+
+        /**
+         * Whether the SQL statements of each request are counted, see {@link petcare.web.filter.SqlStatisticsFilter}.
+         */
+        private boolean statistics = false;
+
+        /**
+         * Whether the statement, row and time totals are returned in response headers.
+         */
+        private boolean responseHeaders = false;
+
+        /**
+         * How many times a request can run the same statement before it is logged as a repeated statement.
+         */
+        private int repeatedStatementThreshold = 10;
+
+        public boolean isStatistics() {
+            return statistics;
+        }
+
+        public void setStatistics(boolean statistics) {
+            this.statistics = statistics;
+        }
+
+        public boolean isResponseHeaders() {
+            return responseHeaders;
+        }
+
+        public void setResponseHeaders(boolean responseHeaders) {
+            this.responseHeaders = responseHeaders;
+        }
+
+        public int getRepeatedStatementThreshold() {
+            return repeatedStatementThreshold;
+        }
+
+        public void setRepeatedStatementThreshold(int repeatedStatementThreshold) {
+            this.repeatedStatementThreshold = repeatedStatementThreshold;
+        }
+    }
+    public static class SyntheticData {
+
+        /**
+         * Whether the synthetic data is generated at startup, see {@link petcare.service.generator.SyntheticDataGenerator}.
+         */
+        private boolean enabled = false;
+
+        /**
+         * The seed of the random generator, the same seed and sizes generate the same data.
+         */
+        private long seed = 42;
+
+        /**
+         * How many owners are generated.
+         */
+        private int owners = 100_000;
+
+        /**
+         * How many vets are generated.
+         */
+        private int vets = 500;
+
+        /**
+         * How many discoveries are generated.
+         */
+        private int discoveries = 5_000;
+
+        /**
+         * The mean number of pets of an owner, at least 1.
+         */
+        private double petsPerOwner = 2.0;
+
+        /**
+         * The shape of the Pareto distribution of the pets per owner, above 1: the lower, the more heavy owners.
+         */
+        private double ownerSkew = 1.5;
+
+        /**
+         * The most pets an owner can have.
+         */
+        private int maxPetsPerOwner = 1_000;
+
+        /**
+         * The mean number of appointments of a pet.
+         */
+        private double appointmentsPerPet = 4.0;
+
+        /**
+         * The exponent of the Zipf distribution of the appointments over the discoveries: the higher, the more
+         * appointments go to a few popular discoveries.
+         */
+        private double discoverySkew = 1.0;
+
+        /**
+         * The share of the done appointments with a health record.
+         */
+        private double healthRecordRate = 0.6;
+
+        /**
+         * How far in the past the appointments go.
+         */
+        private Duration history = Duration.ofDays(365);
+
+        /**
+         * How far in the future the appointments go.
+         */
+        private Duration horizon = Duration.ofDays(60);
+
+        /**
+         * How many rows are sent in one JDBC batch, and committed together.
+         */
+        private int batchSize = 1_000;
+
+        public boolean isEnabled() {
+            return enabled;
+        }
+
+        public void setEnabled(boolean enabled) {
+            this.enabled = enabled;
+        }
+
+        public long getSeed() {
+            return seed;
+        }
+
+        public void setSeed(long seed) {
+            this.seed = seed;
+        }
+
+        public int getOwners() {
+            return owners;
+        }
+
+        public void setOwners(int owners) {
+            this.owners = owners;
+        }
+
+        public int getVets() {
+            return vets;
+        }
+
+        public void setVets(int vets) {
+            this.vets = vets;
+        }
+
+        public int getDiscoveries() {
+            return discoveries;
+        }
+
+        public void setDiscoveries(int discoveries) {
+            this.discoveries = discoveries;
+        }
+
+        public double getPetsPerOwner() {
+            return petsPerOwner;
+        }
+
+        public void setPetsPerOwner(double petsPerOwner) {
+            this.petsPerOwner = petsPerOwner;
+        }
+
+        public double getOwnerSkew() {
+            return ownerSkew;
+        }
+
+        public void setOwnerSkew(double ownerSkew) {
+            this.ownerSkew = ownerSkew;
+        }
+
+        public int getMaxPetsPerOwner() {
+            return maxPetsPerOwner;
+        }
+
+        public void setMaxPetsPerOwner(int maxPetsPerOwner) {
+            this.maxPetsPerOwner = maxPetsPerOwner;
+        }
+
+        public double getAppointmentsPerPet() {
+            return appointmentsPerPet;
+        }
+
+        public void setAppointmentsPerPet(double appointmentsPerPet) {
+            this.appointmentsPerPet = appointmentsPerPet;
+        }
+
+        public double getDiscoverySkew() {
+            return discoverySkew;
+        }
+
+        public void setDiscoverySkew(double discoverySkew) {
+            this.discoverySkew = discoverySkew;
+        }
+
+        public double getHealthRecordRate() {
+            return healthRecordRate;
+        }
+
+        public void setHealthRecordRate(double healthRecordRate) {
+            this.healthRecordRate = healthRecordRate;
+        }
+
+        public Duration getHistory() {
+            return history;
+        }
+
+        public void setHistory(Duration history) {
+            this.history = history;
+        }
+
+        public Duration getHorizon() {
+            return horizon;
+        }
+
+        public void setHorizon(Duration horizon) {
+            this.horizon = horizon;
+        }
+
+        public int getBatchSize() {
+            return batchSize;
+        }
+
+        public void setBatchSize(int batchSize) {
+            this.batchSize = batchSize;
+        }
+    }
+
+    public static class Password {
+
+        /**
+         * How many passwords are hashed or verified at the same time, half the processors when 0. The hashing is
+         * CPU bound: the other requests keep the remaining processors.
+         */
+        private int threads = 0;
+
+        /**
+         * How many hashings can wait for a thread, beyond which the requests are rejected with a 503.
+         */
+        private int queueCapacity = 50;
+
+        /**
+         * How long a request waits for its hashing, beyond which it is rejected with a 503.
+         */
+        private Duration timeout = Duration.ofSeconds(5);
+
+        /**
+         * The {@code Retry-After} of the 503 responses.
+         */
+        private Duration retryAfter = Duration.ofSeconds(1);
+
+        /**
+         * How many logins to one account from one network, a /24 or a /64, can be attempted in a row, 0 for no limit.
+         */
+        private int accountBurst = 5;
+
+        /**
+         * How often one more login to an account from one network can be attempted, after the burst.
+         */
+        private Duration accountRefill = Duration.ofSeconds(12);
+
+        /**
+         * How many logins from one IP address can be attempted in a row, 0 for no limit.
+         */
+        private int ipBurst = 20;
+
+        /**
+         * How often one more login from an IP address can be attempted, after the burst.
+         */
+        private Duration ipRefill = Duration.ofSeconds(1);
+
+        /**
+         * How many accounts and IP addresses are throttled, the least recently seen ones are forgotten.
+         */
+        private long maxTrackedKeys = 100_000;
+
+        public int getThreads() {
+            return threads;
+        }
+
+        public void setThreads(int threads) {
+            this.threads = threads;
+        }
+
+        public int getQueueCapacity() {
+            return queueCapacity;
+        }
+
+        public void setQueueCapacity(int queueCapacity) {
+            this.queueCapacity = queueCapacity;
+        }
+
+        public Duration getTimeout() {
+            return timeout;
+        }
+
+        public void setTimeout(Duration timeout) {
+            this.timeout = timeout;
+        }
+
+        public Duration getRetryAfter() {
+            return retryAfter;
+        }
+
+        public void setRetryAfter(Duration retryAfter) {
+            this.retryAfter = retryAfter;
+        }
+
+        public int getAccountBurst() {
+            return accountBurst;
+        }
+
+        public void setAccountBurst(int accountBurst) {
+            this.accountBurst = accountBurst;
+        }
+
+        public Duration getAccountRefill() {
+            return accountRefill;
+        }
+
+        public void setAccountRefill(Duration accountRefill) {
+            this.accountRefill = accountRefill;
+        }
+
+        public int getIpBurst() {
+            return ipBurst;
+        }
+
+        public void setIpBurst(int ipBurst) {
+            this.ipBurst = ipBurst;
+        }
+
+        public Duration getIpRefill() {
+            return ipRefill;
+        }
+
+        public void setIpRefill(Duration ipRefill) {
+            this.ipRefill = ipRefill;
+        }
+
+        public long getMaxTrackedKeys() {
+            return maxTrackedKeys;
+        }
+
+        public void setMaxTrackedKeys(long maxTrackedKeys) {
+            this.maxTrackedKeys = maxTrackedKeys;
+        }
+    }
+
+    public static class Token {
+
+        /**
+         * The Base64 HMAC-SHA256 key signing the tokens, at least 32 bytes. When empty a random key is generated at
+         * startup: the tokens are then lost on restart and not accepted by the other instances.
+         */
+        private String secret = "";
+
+        /**
+         * How long an access token is valid. A revoked session keeps its access tokens valid until the next
+         * revocation sync at most.
+         */
+        private Duration accessTokenValidity = Duration.ofMinutes(15);
+
+        /**
+         * How long a refresh token is valid, and a session kept without being refreshed.
+         */
+        private Duration refreshTokenValidity = Duration.ofDays(30);
+
+        /**
+         * How often the revoked sessions are read from the database.
+         */
+        private Duration revocationSyncInterval = Duration.ofSeconds(30);
+
+        /**
+         * When the expired sessions are removed from the database.
+         */
+        private String cleanupCron = "0 0 4 * * *";
+
+        public String getSecret() {
+            return secret;
+        }
+
+        public void setSecret(String secret) {
+            this.secret = secret;
+        }
+
+        public Duration getAccessTokenValidity() {
+            return accessTokenValidity;
+        }
+
+        public void setAccessTokenValidity(Duration accessTokenValidity) {
+            this.accessTokenValidity = accessTokenValidity;
+        }
+
+        public Duration getRefreshTokenValidity() {
+            return refreshTokenValidity;
+        }
+
+        public void setRefreshTokenValidity(Duration refreshTokenValidity) {
+            this.refreshTokenValidity = refreshTokenValidity;
+        }
+
+        public Duration getRevocationSyncInterval() {
+            return revocationSyncInterval;
+        }
+
+        public void setRevocationSyncInterval(Duration revocationSyncInterval) {
+            this.revocationSyncInterval = revocationSyncInterval;
+        }
+
+        public String getCleanupCron() {
+            return cleanupCron;
+        }
+
+        public void setCleanupCron(String cleanupCron) {
+            this.cleanupCron = cleanupCron;
+        }
+    }
+
+    public static class Pagination {
+
+        /**
+         * The largest page the cursor-paged lists of an owner or a pet return, whatever size is requested.
+         */
+        private int maxPageSize = 100;
+
+        public int getMaxPageSize() {
+            return maxPageSize;
+        }
+
+        public void setMaxPageSize(int maxPageSize) {
+            this.maxPageSize = maxPageSize;
+        }
+    }
+
     // jhipster-needle-application-properties-property-class
 }
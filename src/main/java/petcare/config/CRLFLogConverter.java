@@ -45,13 +45,37 @@ public class CRLFLogConverter extends CompositeConverter<ILoggingEvent> {
 
     @Override
     protected String transform(ILoggingEvent event, String in) {
-        AnsiElement element = ELEMENTS.get(getFirstOption());
         List<Marker> markers = event.getMarkerList();
         if ((markers != null && !markers.isEmpty() && markers.get(0).contains(CRLF_SAFE_MARKER)) || isLoggerSafe(event)) {
             return in;
         }
+        int first = indexOfCrlf(in, 0);
+        if (first < 0) {
+            // The common case: nothing to replace, nothing allocated
+            return in;
+        }
+        AnsiElement element = ELEMENTS.get(getFirstOption());
         String replacement = element == null ? "_" : toAnsiString("_", element);
-        return in.replaceAll("[\n\r\t]", replacement);
+        StringBuilder sanitized = new StringBuilder(in.length() + 8 * replacement.length());
+        int from = 0;
+        for (int i = first; i >= 0; i = indexOfCrlf(in, from)) {
+            sanitized.append(in, from, i).append(replacement);
+            from = i + 1;
+        }
+        return sanitized.append(in, from, in.length()).toString();
+    }
+
+    /**
+     * Find the next CR, LF or tab character, without a regular expression.
+     */
+    static int indexOfCrlf(String in, int from) {
+        for (int i = from; i < in.length(); i++) {
+            char c = in.charAt(i);
+            if (c == '\n' || c == '\r' || c == '\t') {
+                return i;
+            }
+        }
+        return -1;
     }
 
     protected boolean isLoggerSafe(ILoggingEvent event) {
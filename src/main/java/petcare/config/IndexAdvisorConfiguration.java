@@ -0,0 +1,29 @@
+package petcare.config;
+
+import javax.sql.DataSource;
+import org.springframework.context.annotation.*;
+import petcare.aop.index.IndexAdvisor;
+import petcare.aop.index.IndexAdvisorAspect;
+import petcare.aop.index.IndexAdvisorEndpoint;
+import tech.jhipster.config.JHipsterConstants;
+
+@Configuration
+@EnableAspectJAutoProxy
+@Profile(JHipsterConstants.SPRING_PROFILE_DEVELOPMENT)
+public class IndexAdvisorConfiguration {
+
+    @Bean
+    public IndexAdvisor indexAdvisor(DataSource dataSource) {
+        return new IndexAdvisor(dataSource);
+    }
+
+    @Bean
+    public IndexAdvisorAspect indexAdvisorAspect(IndexAdvisor indexAdvisor) {
+        return new IndexAdvisorAspect(indexAdvisor);
+    }
+
+    @Bean
+    public IndexAdvisorEndpoint indexAdvisorEndpoint(IndexAdvisor indexAdvisor) {
+        return new IndexAdvisorEndpoint(indexAdvisor);
+    }
+}
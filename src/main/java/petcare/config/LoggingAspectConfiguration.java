@@ -1,5 +1,6 @@
 package petcare.config;
 
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
 import org.springframework.context.annotation.*;
 import org.springframework.core.env.Environment;
 import petcare.aop.logging.LoggingAspect;
@@ -9,8 +10,13 @@ import tech.jhipster.config.JHipsterConstants;
 @EnableAspectJAutoProxy
 public class LoggingAspectConfiguration {
 
+    /**
+     * The enter and exit traces of the dev profile. Not created when the method timing is enabled, which advises the
+     * same methods: the calls would be intercepted twice, and the traces counted in the timings.
+     */
     @Bean
     @Profile(JHipsterConstants.SPRING_PROFILE_DEVELOPMENT)
+    @ConditionalOnProperty(prefix = "application.method-timing", name = "enabled", havingValue = "false", matchIfMissing = true)
     public LoggingAspect loggingAspect(Environment env) {
         return new LoggingAspect(env);
     }
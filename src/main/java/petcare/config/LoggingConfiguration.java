@@ -2,18 +2,25 @@ package petcare.config;
 
 import static tech.jhipster.config.logging.LoggingUtils.*;
 
+import ch.qos.logback.classic.Logger;
 import ch.qos.logback.classic.LoggerContext;
 import com.fasterxml.jackson.core.JsonProcessingException;
 import com.fasterxml.jackson.databind.ObjectMapper;
+import io.micrometer.core.instrument.FunctionCounter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.binder.MeterBinder;
 import java.util.HashMap;
+import java.util.LinkedHashSet;
 import java.util.Map;
+import java.util.Set;
 import org.slf4j.LoggerFactory;
 import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
 import tech.jhipster.config.JHipsterProperties;
 
 /*
- * Configures the console and Logstash log appenders from the app properties
+ * Configures the console and Logstash log appenders from the app properties, and the metrics of the async appenders
  */
 @Configuration
 public class LoggingConfiguration {
@@ -44,4 +51,39 @@ public class LoggingConfiguration {
             addContextListener(context, customFields, loggingProperties);
         }
     }
+
+    /**
+     * Expose the buffer depth, capacity and dropped events of the {@link RingBufferAsyncAppender}s.
+     */
+    @Bean
+    public MeterBinder asyncAppenderMetrics() {
+        return registry -> {
+            LoggerContext context = (LoggerContext) LoggerFactory.getILoggerFactory();
+            Set<RingBufferAsyncAppender> appenders = new LinkedHashSet<>();
+            for (Logger logger : context.getLoggerList()) {
+                logger
+                    .iteratorForAppenders()
+                    .forEachRemaining(appender -> {
+                        // Not found under the devtools restart class loader, which loads another copy of the class
+                        if (appender instanceof RingBufferAsyncAppender asyncAppender) {
+                            appenders.add(asyncAppender);
+                        }
+                    });
+            }
+            for (RingBufferAsyncAppender appender : appenders) {
+                Gauge.builder("logback.async.queue.depth", appender, RingBufferAsyncAppender::getQueueDepth)
+                    .description("Logging events waiting to be written")
+                    .tag("appender", appender.getName())
+                    .register(registry);
+                Gauge.builder("logback.async.queue.capacity", appender, RingBufferAsyncAppender::getQueueSize)
+                    .description("Size of the buffer of logging events")
+                    .tag("appender", appender.getName())
+                    .register(registry);
+                FunctionCounter.builder("logback.async.dropped", appender, RingBufferAsyncAppender::getDroppedCount)
+                    .description("Logging events dropped because the buffer was full")
+                    .tag("appender", appender.getName())
+                    .register(registry);
+            }
+        };
+    }
 }
@@ -0,0 +1,21 @@
+package petcare.config;
+
+import io.micrometer.core.instrument.MeterRegistry;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.context.annotation.*;
+import petcare.aop.timing.MethodTimingAspect;
+
+@Configuration
+@EnableAspectJAutoProxy
+@ConditionalOnProperty(prefix = "application.method-timing", name = "enabled", havingValue = "true")
+public class MethodTimingConfiguration {
+
+    @Bean
+    public MethodTimingAspect methodTimingAspect(MeterRegistry meterRegistry, ApplicationProperties applicationProperties) {
+        ApplicationProperties.MethodTiming properties = applicationProperties.getMethodTiming();
+        if (properties.getSampleRate() <= 0 || properties.getSampleRate() > 1) {
+            throw new IllegalArgumentException("The method timing sample rate must be in (0, 1]");
+        }
+        return new MethodTimingAspect(meterRegistry, properties.getSampleRate(), properties.isPercentileHistogram());
+    }
+}
@@ -0,0 +1,243 @@
+package petcare.config;
+
+import ch.qos.logback.classic.Level;
+import ch.qos.logback.classic.spi.ILoggingEvent;
+import ch.qos.logback.core.Appender;
+import ch.qos.logback.core.UnsynchronizedAppenderBase;
+import ch.qos.logback.core.spi.AppenderAttachable;
+import ch.qos.logback.core.spi.AppenderAttachableImpl;
+import java.util.ArrayList;
+import java.util.Iterator;
+import java.util.List;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Writes the logging events to the attached appenders from a background thread, through a bounded ring buffer.
+ * <p>
+ * The logging threads only prepare the event and put it in the buffer; the worker drains it by batches of up to
+ * {@code batchSize} events, taking the buffer lock once per batch. What happens when the buffer is full is set by the
+ * {@link DropPolicy}. The dropped events are counted, and the depth of the buffer is exposed, for the metrics.
+ * <p>
+ * Configured in {@code logback-spring.xml}:
+ * <pre>{@code
+ * <appender name="ASYNC" class="petcare.config.RingBufferAsyncAppender">
+ *     <queueSize>8192</queueSize>
+ *     <dropPolicy>DISCARD_BELOW_WARN</dropPolicy>
+ *     <appender-ref ref="FILE"/>
+ * </appender>
+ * }</pre>
+ */
+public class RingBufferAsyncAppender extends UnsynchronizedAppenderBase<ILoggingEvent> implements AppenderAttachable<ILoggingEvent> {
+
+    /**
+     * What to do with an event when the buffer is full.
+     */
+    public enum DropPolicy {
+        /**
+         * Wait for room, no event is lost but the logging threads can be slowed down by the appenders.
+         */
+        BLOCK,
+        /**
+         * Drop the event, the logging threads never wait.
+         */
+        DROP,
+        /**
+         * Drop the {@code TRACE}, {@code DEBUG} and {@code INFO} events, wait for room for the other ones.
+         */
+        DISCARD_BELOW_WARN,
+    }
+
+    private final AppenderAttachableImpl<ILoggingEvent> appenders = new AppenderAttachableImpl<>();
+
+    private final LongAdder dropped = new LongAdder();
+
+    private int queueSize = 8192;
+
+    private int batchSize = 256;
+
+    private DropPolicy dropPolicy = DropPolicy.DISCARD_BELOW_WARN;
+
+    private int maxFlushTime = 1000;
+
+    private boolean includeCallerData = false;
+
+    private ArrayBlockingQueue<ILoggingEvent> buffer;
+
+    private Thread worker;
+
+    @Override
+    public void start() {
+        if (isStarted()) {
+            return;
+        }
+        if (queueSize < 1 || batchSize < 1) {
+            addError("Invalid queueSize " + queueSize + " or batchSize " + batchSize);
+            return;
+        }
+        if (!appenders.iteratorForAppenders().hasNext()) {
+            addError("No attached appender for [" + name + "]");
+            return;
+        }
+        buffer = new ArrayBlockingQueue<>(queueSize);
+        worker = new Thread(this::drain, "logback-" + name);
+        worker.setDaemon(true);
+        super.start();
+        worker.start();
+    }
+
+    @Override
+    public void stop() {
+        if (!isStarted()) {
+            return;
+        }
+        super.stop();
+        worker.interrupt();
+        try {
+            worker.join(maxFlushTime);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+        if (worker.isAlive()) {
+            addWarn("Dropped " + buffer.size() + " events of [" + name + "] not flushed in " + maxFlushTime + " ms");
+        }
+        appenders.detachAndStopAllAppenders();
+    }
+
+    @Override
+    protected void append(ILoggingEvent event) {
+        event.prepareForDeferredProcessing();
+        if (includeCallerData) {
+            event.getCallerData();
+        }
+        if (buffer.offer(event)) {
+            return;
+        }
+        if (
+            dropPolicy == DropPolicy.DROP || (dropPolicy == DropPolicy.DISCARD_BELOW_WARN && !event.getLevel().isGreaterOrEqual(Level.WARN))
+        ) {
+            dropped.increment();
+            return;
+        }
+        try {
+            buffer.put(event);
+        } catch (InterruptedException e) {
+            dropped.increment();
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    private void drain() {
+        List<ILoggingEvent> batch = new ArrayList<>(batchSize);
+        while (isStarted()) {
+            try {
+                batch.add(buffer.take());
+            } catch (InterruptedException e) {
+                break;
+            }
+            buffer.drainTo(batch, batchSize - 1);
+            write(batch);
+        }
+        // Stopped: flush what is left, without the interruption which could close the appender streams
+        Thread.interrupted();
+        while (buffer.drainTo(batch, batchSize) > 0) {
+            write(batch);
+        }
+    }
+
+    private void write(List<ILoggingEvent> batch) {
+        for (ILoggingEvent event : batch) {
+            appenders.appendLoopOnAppenders(event);
+        }
+        batch.clear();
+    }
+
+    /**
+     * @return the number of events waiting in the buffer.
+     */
+    public int getQueueDepth() {
+        return buffer != null ? buffer.size() : 0;
+    }
+
+    /**
+     * @return the number of events dropped since the start.
+     */
+    public long getDroppedCount() {
+        return dropped.sum();
+    }
+
+    public int getQueueSize() {
+        return queueSize;
+    }
+
+    public void setQueueSize(int queueSize) {
+        this.queueSize = queueSize;
+    }
+
+    public int getBatchSize() {
+        return batchSize;
+    }
+
+    public void setBatchSize(int batchSize) {
+        this.batchSize = batchSize;
+    }
+
+    public DropPolicy getDropPolicy() {
+        return dropPolicy;
+    }
+
+    public void setDropPolicy(DropPolicy dropPolicy) {
+        this.dropPolicy = dropPolicy;
+    }
+
+    public int getMaxFlushTime() {
+        return maxFlushTime;
+    }
+
+    public void setMaxFlushTime(int maxFlushTime) {
+        this.maxFlushTime = maxFlushTime;
+    }
+
+    public boolean isIncludeCallerData() {
+        return includeCallerData;
+    }
+
+    public void setIncludeCallerData(boolean includeCallerData) {
+        this.includeCallerData = includeCallerData;
+    }
+
+    @Override
+    public void addAppender(Appender<ILoggingEvent> newAppender) {
+        appenders.addAppender(newAppender);
+    }
+
+    @Override
+    public Iterator<Appender<ILoggingEvent>> iteratorForAppenders() {
+        return appenders.iteratorForAppenders();
+    }
+
+    @Override
+    public Appender<ILoggingEvent> getAppender(String name) {
+        return appenders.getAppender(name);
+    }
+
+    @Override
+    public boolean isAttached(Appender<ILoggingEvent> appender) {
+        return appenders.isAttached(appender);
+    }
+
+    @Override
+    public void detachAndStopAllAppenders() {
+        appenders.detachAndStopAllAppenders();
+    }
+
+    @Override
+    public boolean detachAppender(Appender<ILoggingEvent> appender) {
+        return appenders.detachAppender(appender);
+    }
+
+    @Override
+    public boolean detachAppender(String name) {
+        return appenders.detachAppender(name);
+    }
+}
@@ -0,0 +1,137 @@
+package petcare.config;
+
+import jakarta.persistence.Column;
+import jakarta.persistence.EntityManagerFactory;
+import jakarta.persistence.SequenceGenerator;
+import jakarta.persistence.Table;
+import jakarta.persistence.metamodel.EntityType;
+import java.lang.reflect.Field;
+import java.util.Map;
+import java.util.TreeMap;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.InitializingBean;
+import org.springframework.dao.DataAccessException;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+/**
+ * Keeps the pooled id generator ahead of the ids already in the database.
+ * <p>
+ * The entities used to get their ids from auto increment columns. When the schema is maintained by Hibernate
+ * ({@code ddl-auto}), the emulated {@code sequence_generator} table is created starting at 1, so its next value is
+ * moved past the highest existing id (plus one allocation) before the first insert. The Liquibase changelog does
+ * the same when Liquibase is enabled. Databases with native sequences are left untouched.
+ */
+@Component
+public class SequenceGeneratorInitializer implements InitializingBean {
+
+    private static final Logger LOG = LoggerFactory.getLogger(SequenceGeneratorInitializer.class);
+
+    private static final String SEQUENCE_TABLE = "sequence_generator";
+
+    private final EntityManagerFactory entityManagerFactory;
+
+    private final JdbcTemplate jdbcTemplate;
+
+    private final TransactionTemplate transactionTemplate;
+
+    private int allocationSize = 1;
+
+    public SequenceGeneratorInitializer(
+        EntityManagerFactory entityManagerFactory,
+        JdbcTemplate jdbcTemplate,
+        PlatformTransactionManager transactionManager
+    ) {
+        this.entityManagerFactory = entityManagerFactory;
+        this.jdbcTemplate = jdbcTemplate;
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+    }
+
+    @Override
+    public void afterPropertiesSet() {
+        Map<String, String> idColumnByTable = new TreeMap<>();
+        int allocationSize = 1;
+        for (EntityType<?> entityType : entityManagerFactory.getMetamodel().getEntities()) {
+            Class<?> entityClass = entityType.getJavaType();
+            Field idField = idField(entityClass);
+            SequenceGenerator sequenceGenerator = idField == null ? null : idField.getAnnotation(SequenceGenerator.class);
+            if (sequenceGenerator != null) {
+                Table table = entityClass.getAnnotation(Table.class);
+                Column column = idField.getAnnotation(Column.class);
+                idColumnByTable.put(table.name(), column != null ? column.name() : idField.getName());
+                allocationSize = Math.max(allocationSize, sequenceGenerator.allocationSize());
+            }
+        }
+        this.allocationSize = allocationSize;
+        int increment = allocationSize;
+        transactionTemplate.executeWithoutResult(status -> moveSequenceForward(idColumnByTable, increment));
+    }
+
+    /**
+     * Reserve a range of ids for rows inserted without Hibernate, like the synthetic data.
+     * <p>
+     * The pools already taken by Hibernate are below the current value of {@code sequence_generator}, so the range
+     * starts there, and the value is moved past the range (plus one allocation) for the next pools.
+     *
+     * @param count the number of ids to reserve.
+     * @return the first id of the range.
+     * @throws IllegalStateException if the database uses native sequences.
+     */
+    public long reserve(long count) {
+        return transactionTemplate.execute(status -> {
+            Long nextValue;
+            try {
+                nextValue = jdbcTemplate.queryForObject("SELECT next_val FROM " + SEQUENCE_TABLE + " FOR UPDATE", Long.class);
+            } catch (DataAccessException e) {
+                throw new IllegalStateException("Ids can only be reserved in the " + SEQUENCE_TABLE + " table", e);
+            }
+            long start = nextValue == null ? 1 : nextValue;
+            jdbcTemplate.update("UPDATE " + SEQUENCE_TABLE + " SET next_val = ?", start + count + allocationSize);
+            return start;
+        });
+    }
+
+    private void moveSequenceForward(Map<String, String> idColumnByTable, int allocationSize) {
+        Long nextValue;
+        try {
+            nextValue = jdbcTemplate.queryForObject("SELECT next_val FROM " + SEQUENCE_TABLE, Long.class);
+        } catch (DataAccessException e) {
+            LOG.debug("No {} table, the database uses native sequences : {}", SEQUENCE_TABLE, e.getMessage());
+            return;
+        }
+        long maxId = 0;
+        for (Map.Entry<String, String> table : idColumnByTable.entrySet()) {
+            Long tableMaxId = jdbcTemplate.queryForObject(
+                "SELECT COALESCE(MAX(" + table.getValue() + "), 0) FROM " + table.getKey(),
+                Long.class
+            );
+            maxId = Math.max(maxId, tableMaxId == null ? 0 : tableMaxId);
+        }
+        // Whether Hibernate uses the value read as the low or the high end of the pool, the pool stays above maxId
+        long minimumNextValue = maxId + allocationSize + 1;
+        if (nextValue == null || nextValue < minimumNextValue) {
+            jdbcTemplate.update("UPDATE " + SEQUENCE_TABLE + " SET next_val = ? WHERE next_val < ?", minimumNextValue, minimumNextValue);
+            LOG.info(
+                "Moved {} from {} to {}, after the existing ids of {}",
+                SEQUENCE_TABLE,
+                nextValue,
+                minimumNextValue,
+                idColumnByTable.keySet()
+            );
+        }
+    }
+
+    private static Field idField(Class<?> entityClass) {
+        for (Class<?> type = entityClass; type != null && type != Object.class; type = type.getSuperclass()) {
+            for (Field field : type.getDeclaredFields()) {
+                if (field.isAnnotationPresent(jakarta.persistence.Id.class)) {
+                    return field;
+                }
+            }
+        }
+        return null;
+    }
+}
@@ -0,0 +1,150 @@
+package petcare.config;
+
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.regex.Pattern;
+import java.util.stream.Collectors;
+
+/**
+ * The SQL statements run for one unit of work, usually an HTTP request: their number, the rows they read or wrote,
+ * the time spent executing them, and how many times each statement shape was run.
+ * <p>
+ * The statistics are bound to the current thread by {@link #start()}, fed by the {@link SqlStatisticsDataSource}, and
+ * can follow a task to another thread with {@link #propagate(Runnable)}, so they are thread-safe.
+ */
+public final class SqlStatistics {
+
+    private static final ThreadLocal<SqlStatistics> CURRENT = new ThreadLocal<>();
+
+    /**
+     * The number of distinct shapes kept, the other ones are only counted.
+     */
+    private static final int MAX_SHAPES = 1000;
+
+    private static final Pattern IN_LIST = Pattern.compile("\\(\\s*\\?(\\s*,\\s*\\?)+\\s*\\)");
+
+    private static final Pattern WHITESPACE = Pattern.compile("\\s+");
+
+    private final LongAdder statements = new LongAdder();
+
+    private final LongAdder rows = new LongAdder();
+
+    private final LongAdder nanos = new LongAdder();
+
+    private final Map<String, LongAdder> shapes = new ConcurrentHashMap<>();
+
+    private SqlStatistics() {}
+
+    /**
+     * Bind new statistics to the current thread.
+     *
+     * @return the bound statistics.
+     */
+    public static SqlStatistics start() {
+        SqlStatistics statistics = new SqlStatistics();
+        CURRENT.set(statistics);
+        return statistics;
+    }
+
+    /**
+     * @return the statistics bound to the current thread, {@code null} if none.
+     */
+    public static SqlStatistics current() {
+        return CURRENT.get();
+    }
+
+    /**
+     * Unbind the statistics from the current thread.
+     */
+    public static void clear() {
+        CURRENT.remove();
+    }
+
+    /**
+     * Make a task add its statements to the statistics of the thread submitting it, usable as a
+     * {@link org.springframework.core.task.TaskDecorator}.
+     *
+     * @param task the task.
+     * @return the decorated task, or the task itself if no statistics are bound.
+     */
+    public static Runnable propagate(Runnable task) {
+        SqlStatistics statistics = CURRENT.get();
+        if (statistics == null) {
+            return task;
+        }
+        return () -> {
+            SqlStatistics previous = CURRENT.get();
+            CURRENT.set(statistics);
+            try {
+                task.run();
+            } finally {
+                if (previous != null) {
+                    CURRENT.set(previous);
+                } else {
+                    CURRENT.remove();
+                }
+            }
+        };
+    }
+
+    /**
+     * Record an executed statement.
+     *
+     * @param sql the SQL of the statement.
+     * @param elapsedNanos the time spent executing it.
+     */
+    void recordStatement(String sql, long elapsedNanos) {
+        statements.increment();
+        nanos.add(elapsedNanos);
+        if (sql == null) {
+            return;
+        }
+        String shape = shape(sql);
+        LongAdder count = shapes.get(shape);
+        if (count == null && shapes.size() < MAX_SHAPES) {
+            count = shapes.computeIfAbsent(shape, key -> new LongAdder());
+        }
+        if (count != null) {
+            count.increment();
+        }
+    }
+
+    void recordRows(long count) {
+        if (count > 0) {
+            rows.add(count);
+        }
+    }
+
+    public long getStatements() {
+        return statements.sum();
+    }
+
+    public long getRows() {
+        return rows.sum();
+    }
+
+    public long getNanos() {
+        return nanos.sum();
+    }
+
+    /**
+     * @param threshold the number of runs above which a shape is repeated.
+     * @return the shapes run more than {@code threshold} times, with their number of runs.
+     */
+    public Map<String, Long> getRepeatedStatements(int threshold) {
+        return shapes
+            .entrySet()
+            .stream()
+            .filter(entry -> entry.getValue().sum() > threshold)
+            .collect(Collectors.toMap(Map.Entry::getKey, entry -> entry.getValue().sum()));
+    }
+
+    /**
+     * The shape of a statement: its SQL with the whitespaces collapsed and the {@code IN} lists of parameters reduced
+     * to one, so that the same query with other parameters has the same shape.
+     */
+    static String shape(String sql) {
+        return IN_LIST.matcher(WHITESPACE.matcher(sql.trim()).replaceAll(" ")).replaceAll("(?...)");
+    }
+}
@@ -0,0 +1,48 @@
+package petcare.config;
+
+import io.micrometer.core.instrument.MeterRegistry;
+import javax.sql.DataSource;
+import org.springframework.beans.factory.config.BeanPostProcessor;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.boot.web.servlet.FilterRegistrationBean;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.core.Ordered;
+import petcare.web.filter.SqlStatisticsFilter;
+
+@Configuration
+// Off unless enabled, as in dev: every statement of the requests is wrapped and its shape normalized
+@ConditionalOnProperty(prefix = "application.sql", name = "statistics", havingValue = "true")
+public class SqlStatisticsConfiguration {
+
+    /**
+     * Wrap the data source in a {@link SqlStatisticsDataSource}.
+     */
+    @Bean
+    public static BeanPostProcessor sqlStatisticsDataSourcePostProcessor() {
+        return new BeanPostProcessor() {
+            @Override
+            public Object postProcessAfterInitialization(Object bean, String beanName) {
+                if (!(bean instanceof DataSource dataSource) || bean instanceof SqlStatisticsDataSource) {
+                    return bean;
+                }
+                return new SqlStatisticsDataSource(dataSource);
+            }
+        };
+    }
+
+    @Bean
+    public FilterRegistrationBean<SqlStatisticsFilter> sqlStatisticsFilter(
+        MeterRegistry meterRegistry,
+        ApplicationProperties applicationProperties
+    ) {
+        ApplicationProperties.Sql properties = applicationProperties.getSql();
+        FilterRegistrationBean<SqlStatisticsFilter> registration = new FilterRegistrationBean<>(
+            new SqlStatisticsFilter(meterRegistry, properties.isResponseHeaders(), properties.getRepeatedStatementThreshold())
+        );
+        registration.addUrlPatterns("/api/*");
+        // Early in the chain, to count the statements of the other filters too
+        registration.setOrder(Ordered.HIGHEST_PRECEDENCE + 10);
+        return registration;
+    }
+}
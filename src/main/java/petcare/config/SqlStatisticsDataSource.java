@@ -0,0 +1,128 @@
+package petcare.config;
+
+import java.lang.reflect.InvocationHandler;
+import java.lang.reflect.InvocationTargetException;
+import java.lang.reflect.Method;
+import java.lang.reflect.Proxy;
+import java.sql.CallableStatement;
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Statement;
+import javax.sql.DataSource;
+import org.springframework.jdbc.datasource.DelegatingDataSource;
+
+/**
+ * Feeds the {@link SqlStatistics} of the current thread with the statements run on its connections.
+ * <p>
+ * The connections, statements and result sets are wrapped in proxies: each {@code execute*} call counts one
+ * statement and its execution time, the updates count their updated rows and the result sets the rows read from
+ * them. Without statistics bound to the thread the calls are only forwarded.
+ */
+public class SqlStatisticsDataSource extends DelegatingDataSource {
+
+    public SqlStatisticsDataSource(DataSource targetDataSource) {
+        super(targetDataSource);
+    }
+
+    @Override
+    public Connection getConnection() throws SQLException {
+        return connection(super.getConnection());
+    }
+
+    @Override
+    public Connection getConnection(String username, String password) throws SQLException {
+        return connection(super.getConnection(username, password));
+    }
+
+    private static Connection connection(Connection connection) {
+        return proxy(Connection.class, connection, (method, args) -> {
+            Object result = invoke(connection, method, args);
+            if (result instanceof CallableStatement statement) {
+                return statement(CallableStatement.class, statement, (String) args[0]);
+            }
+            if (result instanceof PreparedStatement statement) {
+                return statement(PreparedStatement.class, statement, (String) args[0]);
+            }
+            if (result instanceof Statement statement) {
+                return statement(Statement.class, statement, null);
+            }
+            return result;
+        });
+    }
+
+    private static <S extends Statement> S statement(Class<S> type, S statement, String preparedSql) {
+        return proxy(type, statement, (method, args) -> {
+            String name = method.getName();
+            if (!name.startsWith("execute")) {
+                Object result = invoke(statement, method, args);
+                return "getResultSet".equals(name) && result != null ? resultSet((ResultSet) result, SqlStatistics.current()) : result;
+            }
+            SqlStatistics statistics = SqlStatistics.current();
+            if (statistics == null) {
+                return invoke(statement, method, args);
+            }
+            String sql = args != null && args.length > 0 && args[0] instanceof String executedSql ? executedSql : preparedSql;
+            long start = System.nanoTime();
+            Object result = invoke(statement, method, args);
+            statistics.recordStatement(sql, System.nanoTime() - start);
+            if (result instanceof ResultSet resultSet) {
+                return resultSet(resultSet, statistics);
+            }
+            if (result instanceof Integer updated) {
+                statistics.recordRows(updated);
+            } else if (result instanceof Long updated) {
+                statistics.recordRows(updated);
+            } else if (result instanceof int[] batch) {
+                for (int updated : batch) {
+                    statistics.recordRows(updated);
+                }
+            } else if (result instanceof long[] batch) {
+                for (long updated : batch) {
+                    statistics.recordRows(updated);
+                }
+            }
+            return result;
+        });
+    }
+
+    private static ResultSet resultSet(ResultSet resultSet, SqlStatistics statistics) {
+        if (statistics == null) {
+            return resultSet;
+        }
+        return proxy(ResultSet.class, resultSet, (method, args) -> {
+            Object result = invoke(resultSet, method, args);
+            if ("next".equals(method.getName()) && Boolean.TRUE.equals(result)) {
+                statistics.recordRows(1);
+            }
+            return result;
+        });
+    }
+
+    @FunctionalInterface
+    private interface Interceptor {
+        Object intercept(Method method, Object[] args) throws Throwable;
+    }
+
+    private static <T> T proxy(Class<T> type, T target, Interceptor interceptor) {
+        InvocationHandler handler = (proxy, method, args) -> {
+            if ("equals".equals(method.getName()) && method.getParameterCount() == 1) {
+                return proxy == args[0];
+            }
+            if ("hashCode".equals(method.getName()) && method.getParameterCount() == 0) {
+                return System.identityHashCode(proxy);
+            }
+            return interceptor.intercept(method, args);
+        };
+        return type.cast(Proxy.newProxyInstance(type.getClassLoader(), new Class<?>[] { type }, handler));
+    }
+
+    private static Object invoke(Object target, Method method, Object[] args) throws Throwable {
+        try {
+            return method.invoke(target, args);
+        } catch (InvocationTargetException e) {
+            throw e.getTargetException();
+        }
+    }
+}
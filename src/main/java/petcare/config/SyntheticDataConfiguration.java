@@ -0,0 +1,65 @@
+package petcare.config;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.boot.ApplicationRunner;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.security.crypto.password.PasswordEncoder;
+import org.springframework.transaction.PlatformTransactionManager;
+import petcare.service.generator.SyntheticDataGenerator;
+
+/**
+ * Generates the synthetic data at startup, before the application is ready, so that the search index, the reminders
+ * and the owner counters are loaded with it. Nothing is generated when the data is already there.
+ */
+@Configuration
+@ConditionalOnProperty(prefix = "application.synthetic-data", name = "enabled", havingValue = "true")
+public class SyntheticDataConfiguration {
+
+    private static final Logger LOG = LoggerFactory.getLogger(SyntheticDataConfiguration.class);
+
+    @Bean
+    public SyntheticDataGenerator syntheticDataGenerator(
+        JdbcTemplate jdbcTemplate,
+        PlatformTransactionManager transactionManager,
+        SequenceGeneratorInitializer sequenceGeneratorInitializer,
+        PasswordEncoder passwordEncoder,
+        ApplicationProperties applicationProperties
+    ) {
+        return new SyntheticDataGenerator(
+            jdbcTemplate,
+            transactionManager,
+            sequenceGeneratorInitializer,
+            passwordEncoder,
+            applicationProperties.getSyntheticData(),
+            applicationProperties.getAvailability().getSlotDuration()
+        );
+    }
+
+    @Bean
+    public ApplicationRunner syntheticDataRunner(SyntheticDataGenerator syntheticDataGenerator) {
+        return args -> {
+            if (syntheticDataGenerator.isGenerated()) {
+                LOG.info("Synthetic data already generated, skipping");
+                return;
+            }
+            SyntheticDataGenerator.Report report = syntheticDataGenerator.generate();
+            long millis = Math.max(1, report.elapsed().toMillis());
+            LOG.info(
+                "Generated {} rows in {} ms ({} rows/s): {} owners, {} vets, {} discoveries, {} pets, {} appointments, {} health records",
+                report.rows(),
+                millis,
+                report.rows() * 1000 / millis,
+                report.owners(),
+                report.vets(),
+                report.discoveries(),
+                report.pets(),
+                report.appointments(),
+                report.healthRecords()
+            );
+        };
+    }
+}
@@ -0,0 +1,83 @@
+package petcare.config;
+
+import com.zaxxer.hikari.HikariDataSource;
+import javax.sql.DataSource;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.config.BeanPostProcessor;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnThreading;
+import org.springframework.boot.autoconfigure.thread.Threading;
+import org.springframework.boot.context.properties.bind.Binder;
+import org.springframework.boot.web.embedded.undertow.UndertowServletWebServerFactory;
+import org.springframework.boot.web.server.WebServerFactoryCustomizer;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.core.env.Environment;
+import org.springframework.core.task.VirtualThreadTaskExecutor;
+
+/**
+ * Runs the requests on virtual threads when {@code spring.threads.virtual.enabled} is set, and limits the database
+ * connections used at the same time.
+ * <p>
+ * The virtual thread mode is off by default and needs a Java 21 runtime: the build targets Java 17, and on a Java 17
+ * runtime the property is ignored and the requests stay on the platform threads.
+ * <p>
+ * In the default platform thread mode, the requests run on the Undertow worker pool. In the virtual thread mode, each
+ * request runs on its own virtual thread, so their number is no longer bounded by the workers: the
+ * {@link ConnectionLimitingDataSource} then makes them wait for a connection in memory, and the
+ * {@link VirtualThreadPinningMonitor} logs the blocking calls which pin their carrier thread. The {@code @Async}
+ * methods follow the same mode, see {@link AsyncConfiguration}.
+ */
+@Configuration
+public class ThreadingConfiguration {
+
+    private static final Logger LOG = LoggerFactory.getLogger(ThreadingConfiguration.class);
+
+    private static final int DEFAULT_POOL_SIZE = 10;
+
+    @Bean
+    @ConditionalOnThreading(Threading.VIRTUAL)
+    public WebServerFactoryCustomizer<UndertowServletWebServerFactory> virtualThreadUndertowCustomizer() {
+        return factory ->
+            factory.addDeploymentInfoCustomizers(deploymentInfo -> {
+                LOG.info("Running the requests on virtual threads");
+                deploymentInfo.setExecutor(new VirtualThreadTaskExecutor("http-"));
+            });
+    }
+
+    @Bean
+    @ConditionalOnThreading(Threading.VIRTUAL)
+    public VirtualThreadPinningMonitor virtualThreadPinningMonitor(ApplicationProperties applicationProperties) {
+        return new VirtualThreadPinningMonitor(applicationProperties.getThreads().getPinnedThreshold());
+    }
+
+    /**
+     * Wrap the data source in a {@link ConnectionLimitingDataSource}, sized like the Hikari pool by default.
+     * <p>
+     * Static and reading the properties from the environment, as bean post processors are created before the other beans.
+     */
+    @Bean
+    public static BeanPostProcessor connectionLimitingDataSourcePostProcessor(Environment environment) {
+        ApplicationProperties.Threads threads = Binder.get(environment).bindOrCreate(
+            "application.threads",
+            ApplicationProperties.Threads.class
+        );
+        boolean enabled = threads.getLimitConnections() != null ? threads.getLimitConnections() : Threading.VIRTUAL.isActive(environment);
+        return new BeanPostProcessor() {
+            @Override
+            public Object postProcessAfterInitialization(Object bean, String beanName) {
+                if (!enabled || !(bean instanceof DataSource dataSource) || bean instanceof ConnectionLimitingDataSource) {
+                    return bean;
+                }
+                int maxConnections = threads.getMaxConnections();
+                if (maxConnections <= 0) {
+                    maxConnections = bean instanceof HikariDataSource hikari && hikari.getMaximumPoolSize() > 0
+                        ? hikari.getMaximumPoolSize()
+                        : DEFAULT_POOL_SIZE;
+                }
+                LOG.info("Limiting the data source {} to {} connections at the same time", beanName, maxConnections);
+                return new ConnectionLimitingDataSource(dataSource, maxConnections, threads.getConnectionWaitTimeout());
+            }
+        };
+    }
+}
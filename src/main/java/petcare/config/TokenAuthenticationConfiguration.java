@@ -0,0 +1,23 @@
+package petcare.config;
+
+import org.springframework.boot.web.servlet.FilterRegistrationBean;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.core.Ordered;
+import petcare.service.token.TokenService;
+import petcare.web.filter.TokenAuthenticationFilter;
+
+@Configuration
+public class TokenAuthenticationConfiguration {
+
+    @Bean
+    public FilterRegistrationBean<TokenAuthenticationFilter> tokenAuthenticationFilter(TokenService tokenService) {
+        FilterRegistrationBean<TokenAuthenticationFilter> registration = new FilterRegistrationBean<>(
+            new TokenAuthenticationFilter(tokenService)
+        );
+        registration.addUrlPatterns("/api/*");
+        // After the SQL statistics, before the request reaches the controllers
+        registration.setOrder(Ordered.HIGHEST_PRECEDENCE + 20);
+        return registration;
+    }
+}
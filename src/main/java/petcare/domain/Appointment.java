@@ -4,20 +4,32 @@ import jakarta.persistence.*;
 import jakarta.validation.constraints.*;
 import java.io.Serializable;
 import java.time.Instant;
+import org.hibernate.annotations.ColumnDefault;
+import org.hibernate.annotations.DynamicUpdate;
 import petcare.domain.enumeration.AppointmentStatus;
 
 /**
  * A Appointment.
  */
 @Entity
-@Table(name = "appointment")
+@Table(
+    name = "appointment",
+    indexes = {
+        @Index(name = "idx_appointment_owner_status_time", columnList = "owner_id, status, appt_time"),
+        @Index(name = "idx_appointment_owner_time", columnList = "owner_id, appt_time"),
+        @Index(name = "idx_appointment_pet_time", columnList = "pet_id, appt_time"),
+        @Index(name = "idx_appointment_time", columnList = "appt_time"),
+    }
+)
+@DynamicUpdate
 @SuppressWarnings("common-java:DuplicatedBlocks")
 public class Appointment implements Serializable {
 
     private static final long serialVersionUID = 1L;
 
     @Id
-    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    @GeneratedValue(strategy = GenerationType.SEQUENCE, generator = "sequenceGenerator")
+    @SequenceGenerator(name = "sequenceGenerator")
     @Column(name = "id")
     private Long id;
 
@@ -44,6 +56,11 @@ public class Appointment implements Serializable {
     @Column(name = "created_at")
     private Instant createdAt;
 
+    @Version
+    @ColumnDefault("0")
+    @Column(name = "version", nullable = false)
+    private Long version;
+
     // jhipster-needle-entity-add-field - JHipster will add fields here
 
     public Long getId() {
@@ -137,6 +154,19 @@ public class Appointment implements Serializable {
         this.createdAt = createdAt;
     }
 
+    public Long getVersion() {
+        return this.version;
+    }
+
+    public Appointment version(Long version) {
+        this.setVersion(version);
+        return this;
+    }
+
+    public void setVersion(Long version) {
+        this.version = version;
+    }
+
     // jhipster-needle-entity-add-getters-setters - JHipster will add getters and setters here
 
     @Override
@@ -167,6 +197,7 @@ public class Appointment implements Serializable {
             ", apptTime='" + getApptTime() + "'" +
             ", status='" + getStatus() + "'" +
             ", createdAt='" + getCreatedAt() + "'" +
+            ", version=" + getVersion() +
             "}";
     }
 }
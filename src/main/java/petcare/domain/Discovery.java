@@ -4,19 +4,24 @@ import jakarta.persistence.*;
 import jakarta.validation.constraints.*;
 import java.io.Serializable;
 import java.time.Instant;
+import org.hibernate.annotations.ColumnDefault;
+import org.hibernate.annotations.DynamicUpdate;
 
 /**
  * A Discovery.
  */
 @Entity
 @Table(name = "discovery")
+@org.hibernate.annotations.Cache(usage = org.hibernate.annotations.CacheConcurrencyStrategy.READ_WRITE)
+@DynamicUpdate
 @SuppressWarnings("common-java:DuplicatedBlocks")
 public class Discovery implements Serializable {
 
     private static final long serialVersionUID = 1L;
 
     @Id
-    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    @GeneratedValue(strategy = GenerationType.SEQUENCE, generator = "sequenceGenerator")
+    @SequenceGenerator(name = "sequenceGenerator")
     @Column(name = "id")
     private Long id;
 
@@ -44,6 +49,11 @@ public class Discovery implements Serializable {
     @Column(name = "created_at")
     private Instant createdAt;
 
+    @Version
+    @ColumnDefault("0")
+    @Column(name = "version", nullable = false)
+    private Long version;
+
     // jhipster-needle-entity-add-field - JHipster will add fields here
 
     public Long getId() {
@@ -137,6 +147,19 @@ public class Discovery implements Serializable {
         this.createdAt = createdAt;
     }
 
+    public Long getVersion() {
+        return this.version;
+    }
+
+    public Discovery version(Long version) {
+        this.setVersion(version);
+        return this;
+    }
+
+    public void setVersion(Long version) {
+        this.version = version;
+    }
+
     // jhipster-needle-entity-add-getters-setters - JHipster will add getters and setters here
 
     @Override
@@ -167,6 +190,7 @@ public class Discovery implements Serializable {
             ", requirements='" + getRequirements() + "'" +
             ", location='" + getLocation() + "'" +
             ", createdAt='" + getCreatedAt() + "'" +
+            ", version=" + getVersion() +
             "}";
     }
 }
@@ -4,19 +4,23 @@ import jakarta.persistence.*;
 import jakarta.validation.constraints.*;
 import java.io.Serializable;
 import java.time.Instant;
+import org.hibernate.annotations.ColumnDefault;
+import org.hibernate.annotations.DynamicUpdate;
 
 /**
  * A HealthRecord.
  */
 @Entity
-@Table(name = "health_record")
+@Table(name = "health_record", indexes = { @Index(name = "idx_health_record_pet_created", columnList = "pet_id, created_at") })
+@DynamicUpdate
 @SuppressWarnings("common-java:DuplicatedBlocks")
 public class HealthRecord implements Serializable {
 
     private static final long serialVersionUID = 1L;
 
     @Id
-    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    @GeneratedValue(strategy = GenerationType.SEQUENCE, generator = "sequenceGenerator")
+    @SequenceGenerator(name = "sequenceGenerator")
     @Column(name = "id")
     private Long id;
 
@@ -47,6 +51,11 @@ public class HealthRecord implements Serializable {
     @Column(name = "created_at")
     private Instant createdAt;
 
+    @Version
+    @ColumnDefault("0")
+    @Column(name = "version", nullable = false)
+    private Long version;
+
     // jhipster-needle-entity-add-field - JHipster will add fields here
 
     public Long getId() {
@@ -153,6 +162,19 @@ public class HealthRecord implements Serializable {
         this.createdAt = createdAt;
     }
 
+    public Long getVersion() {
+        return this.version;
+    }
+
+    public HealthRecord version(Long version) {
+        this.setVersion(version);
+        return this;
+    }
+
+    public void setVersion(Long version) {
+        this.version = version;
+    }
+
     // jhipster-needle-entity-add-getters-setters - JHipster will add getters and setters here
 
     @Override
@@ -184,6 +206,7 @@ public class HealthRecord implements Serializable {
             ", treatment='" + getTreatment() + "'" +
             ", notes='" + getNotes() + "'" +
             ", createdAt='" + getCreatedAt() + "'" +
+            ", version=" + getVersion() +
             "}";
     }
 }
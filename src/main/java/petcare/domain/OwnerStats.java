@@ -0,0 +1,147 @@
+package petcare.domain;
+
+import jakarta.persistence.*;
+import java.io.Serializable;
+
+/**
+ * The counters of an owner ({@link UserPet}), maintained with its pets, health records and appointments so that the
+ * dashboards do not count them.
+ * <p>
+ * {@code healthRecordCount} counts the health records of the pets the owner has now, like
+ * {@code HealthRecordRepository.countByOwnerId}. {@code appointmentCount} includes the appointments without a status.
+ */
+@Entity
+@Table(name = "owner_stats")
+@SuppressWarnings("common-java:DuplicatedBlocks")
+public class OwnerStats implements Serializable {
+
+    private static final long serialVersionUID = 1L;
+
+    @Id
+    @Column(name = "owner_id")
+    private Long ownerId;
+
+    @Column(name = "pet_count", nullable = false)
+    private long petCount;
+
+    @Column(name = "health_record_count", nullable = false)
+    private long healthRecordCount;
+
+    @Column(name = "appointment_count", nullable = false)
+    private long appointmentCount;
+
+    @Column(name = "pending_appointment_count", nullable = false)
+    private long pendingAppointmentCount;
+
+    @Column(name = "confirmed_appointment_count", nullable = false)
+    private long confirmedAppointmentCount;
+
+    @Column(name = "cancelled_appointment_count", nullable = false)
+    private long cancelledAppointmentCount;
+
+    @Column(name = "done_appointment_count", nullable = false)
+    private long doneAppointmentCount;
+
+    public OwnerStats() {
+        // Empty constructor needed for JPA.
+    }
+
+    public OwnerStats(Long ownerId) {
+        this.ownerId = ownerId;
+    }
+
+    public Long getOwnerId() {
+        return this.ownerId;
+    }
+
+    public void setOwnerId(Long ownerId) {
+        this.ownerId = ownerId;
+    }
+
+    public long getPetCount() {
+        return this.petCount;
+    }
+
+    public void setPetCount(long petCount) {
+        this.petCount = petCount;
+    }
+
+    public long getHealthRecordCount() {
+        return this.healthRecordCount;
+    }
+
+    public void setHealthRecordCount(long healthRecordCount) {
+        this.healthRecordCount = healthRecordCount;
+    }
+
+    public long getAppointmentCount() {
+        return this.appointmentCount;
+    }
+
+    public void setAppointmentCount(long appointmentCount) {
+        this.appointmentCount = appointmentCount;
+    }
+
+    public long getPendingAppointmentCount() {
+        return this.pendingAppointmentCount;
+    }
+
+    public void setPendingAppointmentCount(long pendingAppointmentCount) {
+        this.pendingAppointmentCount = pendingAppointmentCount;
+    }
+
+    public long getConfirmedAppointmentCount() {
+        return this.confirmedAppointmentCount;
+    }
+
+    public void setConfirmedAppointmentCount(long confirmedAppointmentCount) {
+        this.confirmedAppointmentCount = confirmedAppointmentCount;
+    }
+
+    public long getCancelledAppointmentCount() {
+        return this.cancelledAppointmentCount;
+    }
+
+    public void setCancelledAppointmentCount(long cancelledAppointmentCount) {
+        this.cancelledAppointmentCount = cancelledAppointmentCount;
+    }
+
+    public long getDoneAppointmentCount() {
+        return this.doneAppointmentCount;
+    }
+
+    public void setDoneAppointmentCount(long doneAppointmentCount) {
+        this.doneAppointmentCount = doneAppointmentCount;
+    }
+
+    @Override
+    public boolean equals(Object o) {
+        if (this == o) {
+            return true;
+        }
+        if (!(o instanceof OwnerStats)) {
+            return false;
+        }
+        return getOwnerId() != null && getOwnerId().equals(((OwnerStats) o).getOwnerId());
+    }
+
+    @Override
+    public int hashCode() {
+        return getClass().hashCode();
+    }
+
+    // prettier-ignore
+    @Override
+    public String toString() {
+        return "OwnerStats{" +
+            "ownerId=" + getOwnerId() +
+            ", petCount=" + getPetCount() +
+            ", healthRecordCount=" + getHealthRecordCount() +
+            ", appointmentCount=" + getAppointmentCount() +
+            ", pendingAppointmentCount=" + getPendingAppointmentCount() +
+            ", confirmedAppointmentCount=" + getConfirmedAppointmentCount() +
+            ", cancelledAppointmentCount=" + getCancelledAppointmentCount() +
+            ", doneAppointmentCount=" + getDoneAppointmentCount() +
+            "}";
+    }
+}
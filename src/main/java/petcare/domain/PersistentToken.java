@@ -5,13 +5,20 @@ import jakarta.persistence.*;
 import jakarta.validation.constraints.NotNull;
 import jakarta.validation.constraints.Size;
 import java.io.Serializable;
+import java.time.Instant;
 import java.time.LocalDate;
 import java.util.Objects;
+import org.hibernate.annotations.OnDelete;
+import org.hibernate.annotations.OnDeleteAction;
 
 /**
  * Persistent tokens are used by Spring Security to automatically log in users.
+ * <p>
+ * They are also the sessions of the signed access tokens of a {@link UserPet}: the series identifies the session, the
+ * token value is the hash of its current refresh token and the revocation date is set when the session ends.
  *
  * @see petcare.security.PersistentTokenRememberMeServices
+ * @see petcare.service.token.TokenService
  */
 @Entity
 @Table(name = "jhi_persistent_token")
@@ -21,12 +28,14 @@ public class PersistentToken implements Serializable {
 
     private static final int MAX_USER_AGENT_LEN = 255;
 
+    // a session series is 22 characters, a hashed refresh token 43
     @Id
+    @Column(name = "series", length = 64)
     private String series;
 
     @JsonIgnore
     @NotNull
-    @Column(name = "token_value", nullable = false)
+    @Column(name = "token_value", length = 64, nullable = false)
     private String tokenValue;
 
     @Column(name = "token_date")
@@ -40,10 +49,19 @@ public class PersistentToken implements Serializable {
     @Column(name = "user_agent")
     private String userAgent;
 
+    @Column(name = "revoked_at")
+    private Instant revokedAt;
+
     @JsonIgnore
     @ManyToOne
     private User user;
 
+    @JsonIgnore
+    @ManyToOne(fetch = FetchType.LAZY)
+    @JoinColumn(name = "user_pet_id")
+    @OnDelete(action = OnDeleteAction.SET_NULL)
+    private UserPet userPet;
+
     public String getSeries() {
         return series;
     }
@@ -88,6 +106,14 @@ public class PersistentToken implements Serializable {
         }
     }
 
+    public Instant getRevokedAt() {
+        return revokedAt;
+    }
+
+    public void setRevokedAt(Instant revokedAt) {
+        this.revokedAt = revokedAt;
+    }
+
     public User getUser() {
         return user;
     }
@@ -96,6 +122,14 @@ public class PersistentToken implements Serializable {
         this.user = user;
     }
 
+    public UserPet getUserPet() {
+        return userPet;
+    }
+
+    public void setUserPet(UserPet userPet) {
+        this.userPet = userPet;
+    }
+
     @Override
     public boolean equals(Object o) {
         if (this == o) {
@@ -121,6 +155,7 @@ public class PersistentToken implements Serializable {
             ", tokenDate=" + tokenDate +
             ", ipAddress='" + ipAddress + '\'' +
             ", userAgent='" + userAgent + '\'' +
+            ", revokedAt=" + revokedAt +
             "}";
     }
 }
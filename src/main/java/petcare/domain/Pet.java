@@ -4,20 +4,24 @@ import jakarta.persistence.*;
 import jakarta.validation.constraints.*;
 import java.io.Serializable;
 import java.time.Instant;
+import org.hibernate.annotations.ColumnDefault;
+import org.hibernate.annotations.DynamicUpdate;
 import petcare.domain.enumeration.Gender;
 
 /**
  * A Pet.
  */
 @Entity
-@Table(name = "pet")
+@Table(name = "pet", indexes = { @Index(name = "idx_pet_owner_id", columnList = "owner_id") })
+@DynamicUpdate
 @SuppressWarnings("common-java:DuplicatedBlocks")
 public class Pet implements Serializable {
 
     private static final long serialVersionUID = 1L;
 
     @Id
-    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    @GeneratedValue(strategy = GenerationType.SEQUENCE, generator = "sequenceGenerator")
+    @SequenceGenerator(name = "sequenceGenerator")
     @Column(name = "id")
     private Long id;
 
@@ -56,6 +60,11 @@ public class Pet implements Serializable {
     @Column(name = "created_at")
     private Instant createdAt;
 
+    @Version
+    @ColumnDefault("0")
+    @Column(name = "version", nullable = false)
+    private Long version;
+
     // jhipster-needle-entity-add-field - JHipster will add fields here
 
     public Long getId() {
@@ -188,6 +197,19 @@ public class Pet implements Serializable {
         this.createdAt = createdAt;
     }
 
+    public Long getVersion() {
+        return this.version;
+    }
+
+    public Pet version(Long version) {
+        this.setVersion(version);
+        return this;
+    }
+
+    public void setVersion(Long version) {
+        this.version = version;
+    }
+
     // jhipster-needle-entity-add-getters-setters - JHipster will add getters and setters here
 
     @Override
@@ -221,6 +243,7 @@ public class Pet implements Serializable {
             ", photoUrl='" + getPhotoUrl() + "'" +
             ", avatar='" + getAvatar() + "'" +
             ", createdAt='" + getCreatedAt() + "'" +
+            ", version=" + getVersion() +
             "}";
     }
 }
@@ -4,6 +4,8 @@ import jakarta.persistence.*;
 import jakarta.validation.constraints.*;
 import java.io.Serializable;
 import java.time.Instant;
+import org.hibernate.annotations.ColumnDefault;
+import org.hibernate.annotations.DynamicUpdate;
 import petcare.domain.enumeration.UserRole;
 
 /**
@@ -11,13 +13,15 @@ import petcare.domain.enumeration.UserRole;
  */
 @Entity
 @Table(name = "user_pet")
+@DynamicUpdate
 @SuppressWarnings("common-java:DuplicatedBlocks")
 public class UserPet implements Serializable {
 
     private static final long serialVersionUID = 1L;
 
     @Id
-    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    @GeneratedValue(strategy = GenerationType.SEQUENCE, generator = "sequenceGenerator")
+    @SequenceGenerator(name = "sequenceGenerator")
     @Column(name = "id")
     private Long id;
 
@@ -56,6 +60,11 @@ public class UserPet implements Serializable {
     @Column(name = "created_at")
     private Instant createdAt;
 
+    @Version
+    @ColumnDefault("0")
+    @Column(name = "version", nullable = false)
+    private Long version;
+
     // jhipster-needle-entity-add-field - JHipster will add fields here
 
     public Long getId() {
@@ -175,6 +184,19 @@ public class UserPet implements Serializable {
         this.createdAt = createdAt;
     }
 
+    public Long getVersion() {
+        return this.version;
+    }
+
+    public UserPet version(Long version) {
+        this.setVersion(version);
+        return this;
+    }
+
+    public void setVersion(Long version) {
+        this.version = version;
+    }
+
     // jhipster-needle-entity-add-getters-setters - JHipster will add getters and setters here
 
     @Override
@@ -207,6 +229,7 @@ public class UserPet implements Serializable {
             ", role='" + getRole() + "'" +
             ", avatar='" + getAvatar() + "'" +
             ", createdAt='" + getCreatedAt() + "'" +
+            ", version=" + getVersion() +
             "}";
     }
 }
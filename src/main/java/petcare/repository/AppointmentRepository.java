@@ -1,9 +1,13 @@
 package petcare.repository;
 
+import jakarta.persistence.LockModeType;
 import java.time.Instant;
+import java.util.Collection;
 import java.util.List;
+import java.util.Optional;
 import org.springframework.data.domain.Pageable;
 import org.springframework.data.jpa.repository.*;
+import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 import petcare.domain.Appointment;
 import petcare.domain.enumeration.AppointmentStatus;
@@ -14,13 +18,170 @@ import petcare.domain.enumeration.AppointmentStatus;
 @SuppressWarnings("unused")
 @Repository
 public interface AppointmentRepository extends JpaRepository<Appointment, Long>, JpaSpecificationExecutor<Appointment> {
-    List<Appointment> findByOwnerId(Long ownerId);
     List<Appointment> findByOwnerIdAndStatusAndApptTimeAfterOrderByApptTimeAsc(
         Long ownerId,
         AppointmentStatus status,
         Instant apptTime,
         Pageable pageable
     );
-    List<Appointment> findByPetId(Long petId);
 
+    /**
+     * Read the booked slots of a discovery starting at or after an instant, with a locking read which sees the latest
+     * committed rows whatever the snapshot of the transaction.
+     */
+    @Lock(LockModeType.PESSIMISTIC_READ)
+    @Query(
+        "SELECT a.id AS id, a.apptTime AS apptTime FROM Appointment a" +
+        " WHERE a.discoveryId = :discoveryId AND a.apptTime >= :from AND (a.status IS NULL OR a.status <> :excludedStatus)"
+    )
+    List<BookedSlot> findBookedSlotsFrom(
+        @Param("discoveryId") Long discoveryId,
+        @Param("excludedStatus") AppointmentStatus excludedStatus,
+        @Param("from") Instant from
+    );
+
+    /**
+     * Read the booked slots of a discovery starting strictly between two instants, with a locking read.
+     */
+    @Lock(LockModeType.PESSIMISTIC_READ)
+    @Query(
+        "SELECT a.id AS id, a.apptTime AS apptTime FROM Appointment a WHERE a.discoveryId = :discoveryId" +
+        " AND a.apptTime > :from AND a.apptTime < :to AND (a.status IS NULL OR a.status <> :excludedStatus)"
+    )
+    List<BookedSlot> findBookedSlotsBetween(
+        @Param("discoveryId") Long discoveryId,
+        @Param("excludedStatus") AppointmentStatus excludedStatus,
+        @Param("from") Instant from,
+        @Param("to") Instant to
+    );
+
+    @Query(
+        "SELECT a.id AS id, a.ownerId AS ownerId, a.petId AS petId, a.discoveryId AS discoveryId, a.apptTime AS apptTime" +
+        " FROM Appointment a WHERE a.status IN :statuses AND a.apptTime >= :from AND a.apptTime < :to"
+    )
+    List<UpcomingAppointment> findUpcoming(
+        @Param("statuses") Collection<AppointmentStatus> statuses,
+        @Param("from") Instant from,
+        @Param("to") Instant to
+    );
+
+    /**
+     * Move an appointment to a status if it still has one of the expected statuses, without reading it.
+     *
+     * @return {@code 1} if the appointment moved, {@code 0} if it does not exist or has another status.
+     */
+    @Modifying
+    @Query("UPDATE Appointment a SET a.status = :status, a.version = a.version + 1 WHERE a.id = :id AND a.status IN :from")
+    int transition(@Param("id") Long id, @Param("from") Collection<AppointmentStatus> from, @Param("status") AppointmentStatus status);
+
+    /**
+     * Read the columns of an appointment without loading the entity, after the statements which write the row without
+     * it.
+     */
+    @Query(
+        "SELECT a.id AS id, a.petId AS petId, a.ownerId AS ownerId, a.discoveryId AS discoveryId, a.apptTime AS apptTime," +
+        " a.status AS status, a.createdAt AS createdAt, a.version AS version FROM Appointment a WHERE a.id = :id"
+    )
+    Optional<AppointmentRow> findRowById(@Param("id") Long id);
+
+    /**
+     * Move the appointments of a pet at the given discoveries, the ones locked by the caller, to a status.
+     */
+    @Modifying
+    @Query(
+        "UPDATE Appointment a SET a.status = :status, a.version = a.version + 1" +
+        " WHERE a.petId = :petId AND a.discoveryId IN :discoveryIds AND a.status IN :from"
+    )
+    int transitionByPetId(
+        @Param("petId") Long petId,
+        @Param("discoveryIds") Collection<Long> discoveryIds,
+        @Param("from") Collection<AppointmentStatus> from,
+        @Param("status") AppointmentStatus status
+    );
+
+    @Modifying
+    @Query(
+        "UPDATE Appointment a SET a.status = :status, a.version = a.version + 1" +
+        " WHERE a.discoveryId = :discoveryId AND a.status IN :from"
+    )
+    int transitionByDiscoveryId(
+        @Param("discoveryId") Long discoveryId,
+        @Param("from") Collection<AppointmentStatus> from,
+        @Param("status") AppointmentStatus status
+    );
+
+    @Query("SELECT DISTINCT a.discoveryId FROM Appointment a WHERE a.petId = :petId AND a.status IN :statuses")
+    List<Long> findDiscoveryIdsByPetIdAndStatusIn(
+        @Param("petId") Long petId,
+        @Param("statuses") Collection<AppointmentStatus> statuses
+    );
+
+    @Query(
+        "SELECT DISTINCT a.ownerId AS ownerId, a.discoveryId AS discoveryId FROM Appointment a" +
+        " WHERE a.petId = :petId AND a.status = :status"
+    )
+    List<AppointmentParties> findPartiesByPetIdAndStatus(@Param("petId") Long petId, @Param("status") AppointmentStatus status);
+
+    @Query(
+        "SELECT DISTINCT a.ownerId AS ownerId, a.discoveryId AS discoveryId FROM Appointment a" +
+        " WHERE a.discoveryId = :discoveryId AND a.status = :status"
+    )
+    List<AppointmentParties> findPartiesByDiscoveryIdAndStatus(
+        @Param("discoveryId") Long discoveryId,
+        @Param("status") AppointmentStatus status
+    );
+
+    /**
+     * The time an appointment occupies its discovery.
+     */
+    interface BookedSlot {
+        Long getId();
+
+        Instant getApptTime();
+    }
+
+    /**
+     * What an appointment reminder needs to know about its appointment.
+     */
+    interface UpcomingAppointment {
+        Long getId();
+
+        Long getOwnerId();
+
+        Long getPetId();
+
+        Long getDiscoveryId();
+
+        Instant getApptTime();
+    }
+
+    /**
+     * The columns of an appointment.
+     */
+    interface AppointmentRow {
+        Long getId();
+
+        Long getPetId();
+
+        Long getOwnerId();
+
+        Long getDiscoveryId();
+
+        Instant getApptTime();
+
+        AppointmentStatus getStatus();
+
+        Instant getCreatedAt();
+
+        Long getVersion();
+    }
+
+    /**
+     * The owner and discovery of appointments, whose counters and schedules a set-based write changes.
+     */
+    interface AppointmentParties {
+        Long getOwnerId();
+
+        Long getDiscoveryId();
+    }
 }
@@ -0,0 +1,125 @@
+package petcare.repository;
+
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.criteria.CriteriaBuilder;
+import jakarta.persistence.criteria.CriteriaQuery;
+import jakarta.persistence.criteria.CriteriaUpdate;
+import jakarta.persistence.criteria.Path;
+import jakarta.persistence.criteria.Predicate;
+import jakarta.persistence.criteria.Root;
+import jakarta.persistence.metamodel.Attribute;
+import jakarta.persistence.metamodel.EntityType;
+import jakarta.persistence.metamodel.SingularAttribute;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Objects;
+import java.util.Set;
+import org.springframework.beans.DirectFieldAccessor;
+import org.springframework.stereotype.Repository;
+
+/**
+ * Updates a versioned entity with a single conditional {@code UPDATE ... WHERE id = ? AND version = ?}, instead of
+ * reading the row first and merging the new values into it.
+ * <p>
+ * The statement bypasses the persistence context: it must not run on an entity already loaded in the current
+ * transaction, nor on an entity of the second-level cache, whose whole region it would evict. When it updates
+ * nothing, a probe of the version of the row tells the caller why, so that only the changes of guarded attributes go
+ * through the entity.
+ */
+@Repository
+public class ConditionalUpdateExecutor {
+
+    private final EntityManager entityManager;
+
+    public ConditionalUpdateExecutor(EntityManager entityManager) {
+        this.entityManager = entityManager;
+    }
+
+    /**
+     * The outcome of a conditional update.
+     */
+    public enum Outcome {
+        /** The row was updated. */
+        UPDATED,
+        /** The row does not exist. */
+        NOT_FOUND,
+        /** The row has another version than the entity. */
+        VERSION_CHANGED,
+        /** The row has the version of the entity, but the entity changes guarded attributes. */
+        GUARDS_CHANGED,
+    }
+
+    /**
+     * Replace all the columns of a row and increment its version, if the row still has the version of the entity and
+     * the guarded attributes still have the values of the entity.
+     * <p>
+     * The guards are the attributes whose change needs the previous value (counters, bookings...): when one of them
+     * changed, no row is updated and the caller goes through the entity. When no row is updated, the version of the row,
+     * which the statement locked, is probed once by id, to tell a missing row from a stale version or changed guards.
+     *
+     * @param entity the new values, with the id of the row and the version they were read at.
+     * @param guards the names of the attributes which must be unchanged.
+     * @return the outcome of the update.
+     */
+    @SuppressWarnings("unchecked")
+    public <E> Outcome updateIfUnchanged(E entity, Set<String> guards) {
+        Class<E> entityClass = (Class<E>) entity.getClass();
+        EntityType<E> entityType = entityManager.getMetamodel().entity(entityClass);
+        DirectFieldAccessor values = new DirectFieldAccessor(entity);
+        CriteriaBuilder cb = entityManager.getCriteriaBuilder();
+        CriteriaUpdate<E> update = cb.createCriteriaUpdate(entityClass);
+        Root<E> root = update.from(entityClass);
+        List<Predicate> predicates = new ArrayList<>();
+        SingularAttribute<? super E, ?> id = null;
+        SingularAttribute<? super E, ?> version = null;
+        for (SingularAttribute<? super E, ?> attribute : entityType.getSingularAttributes()) {
+            Object value = values.getPropertyValue(attribute.getName());
+            Path<Object> path = root.get(attribute.getName());
+            if (attribute.isId()) {
+                id = attribute;
+                predicates.add(cb.equal(path, value));
+            } else if (attribute.isVersion()) {
+                version = attribute;
+                if (value == null) {
+                    throw new IllegalArgumentException("The version of the " + entityType.getName() + " is required");
+                }
+                predicates.add(cb.equal(path, value));
+                update.set(root.<Long>get(attribute.getName()), cb.sum(root.<Long>get(attribute.getName()), 1L));
+            } else if (attribute.getPersistentAttributeType() == Attribute.PersistentAttributeType.BASIC) {
+                update.set(path, value);
+                if (guards.contains(attribute.getName())) {
+                    predicates.add(value == null ? cb.isNull(path) : cb.equal(path, value));
+                }
+            }
+        }
+        update.where(predicates.toArray(Predicate[]::new));
+        if (entityManager.createQuery(update).executeUpdate() == 1) {
+            return Outcome.UPDATED;
+        }
+        return probe(entityClass, values, id, version);
+    }
+
+    /**
+     * Read the version of the row a conditional update did not update: with the version of the entity, a guard
+     * failed.
+     */
+    private <E> Outcome probe(
+        Class<E> entityClass,
+        DirectFieldAccessor values,
+        SingularAttribute<? super E, ?> id,
+        SingularAttribute<? super E, ?> version
+    ) {
+        CriteriaBuilder cb = entityManager.getCriteriaBuilder();
+        CriteriaQuery<Object> query = cb.createQuery();
+        Root<E> root = query.from(entityClass);
+        query.select(root.get(version.getName())).where(cb.equal(root.get(id.getName()), values.getPropertyValue(id.getName())));
+        List<Object> versions = entityManager.createQuery(query).getResultList();
+        if (versions.isEmpty()) {
+            return Outcome.NOT_FOUND;
+        }
+        if (!Objects.equals(versions.get(0), values.getPropertyValue(version.getName()))) {
+            return Outcome.VERSION_CHANGED;
+        }
+        return Outcome.GUARDS_CHANGED;
+    }
+}
@@ -1,5 +1,10 @@
 package petcare.repository;
 
+import jakarta.persistence.QueryHint;
+import org.hibernate.jpa.AvailableHints;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.jpa.domain.Specification;
 import org.springframework.data.jpa.repository.*;
 import org.springframework.stereotype.Repository;
 import petcare.domain.Discovery;
@@ -9,4 +14,19 @@ import petcare.domain.Discovery;
  */
 @SuppressWarnings("unused")
 @Repository
-public interface DiscoveryRepository extends JpaRepository<Discovery, Long>, JpaSpecificationExecutor<Discovery> {}
+public interface DiscoveryRepository
+    extends DiscoveryRepositoryWithSecondLevelCache, JpaRepository<Discovery, Long>, JpaSpecificationExecutor<Discovery> {
+    /**
+     * Hibernate query cache region holding the results of the criteria queries on the discovery catalog.
+     */
+    String QUERY_CACHE_REGION = "petcare.domain.Discovery.query";
+
+    @Override
+    @QueryHints(
+        {
+            @QueryHint(name = AvailableHints.HINT_CACHEABLE, value = "true"),
+            @QueryHint(name = AvailableHints.HINT_CACHE_REGION, value = QUERY_CACHE_REGION),
+        }
+    )
+    Page<Discovery> findAll(Specification<Discovery> spec, Pageable pageable);
+}
@@ -0,0 +1,11 @@
+package petcare.repository;
+
+import java.util.List;
+import petcare.domain.Discovery;
+
+/**
+ * Lookups on the {@link Discovery} catalog which are served from the Hibernate second-level cache.
+ */
+public interface DiscoveryRepositoryWithSecondLevelCache {
+    List<Discovery> findAllByIdFromCache(List<Long> ids);
+}
@@ -0,0 +1,33 @@
+package petcare.repository;
+
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.PersistenceContext;
+import java.util.List;
+import java.util.Objects;
+import org.hibernate.CacheMode;
+import org.hibernate.Session;
+import petcare.domain.Discovery;
+
+/**
+ * Utility repository to load the {@link Discovery} catalog through the second-level cache.
+ * <p>
+ * Unlike {@code findAllById}, which always issues an {@code IN} query, a multi-load only hits the database
+ * for the ids which are missing from the cache.
+ */
+public class DiscoveryRepositoryWithSecondLevelCacheImpl implements DiscoveryRepositoryWithSecondLevelCache {
+
+    @PersistenceContext
+    private EntityManager entityManager;
+
+    @Override
+    public List<Discovery> findAllByIdFromCache(List<Long> ids) {
+        return entityManager
+            .unwrap(Session.class)
+            .byMultipleIds(Discovery.class)
+            .with(CacheMode.NORMAL)
+            .multiLoad(ids)
+            .stream()
+            .filter(Objects::nonNull)
+            .toList();
+    }
+}
@@ -0,0 +1,75 @@
+package petcare.repository;
+
+import jakarta.persistence.LockModeType;
+import java.util.List;
+import java.util.Optional;
+import org.springframework.data.jpa.repository.*;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+import petcare.domain.OwnerStats;
+import petcare.domain.enumeration.AppointmentStatus;
+
+/**
+ * Spring Data JPA repository for the OwnerStats read model, and the counts it is built from.
+ */
+@Repository
+public interface OwnerStatsRepository extends OwnerStatsRepositoryWithInsertIfAbsent, JpaRepository<OwnerStats, Long> {
+    /**
+     * Add to the counters of an owner, atomically.
+     *
+     * @return the number of updated rows, {@code 0} if the owner has no counters yet.
+     */
+    @Modifying
+    @Query(
+        "UPDATE OwnerStats s SET s.petCount = s.petCount + :pets, s.healthRecordCount = s.healthRecordCount + :healthRecords," +
+        " s.appointmentCount = s.appointmentCount + :appointments," +
+        " s.pendingAppointmentCount = s.pendingAppointmentCount + :pending," +
+        " s.confirmedAppointmentCount = s.confirmedAppointmentCount + :confirmed," +
+        " s.cancelledAppointmentCount = s.cancelledAppointmentCount + :cancelled," +
+        " s.doneAppointmentCount = s.doneAppointmentCount + :done" +
+        " WHERE s.ownerId = :ownerId"
+    )
+    int increment(
+        @Param("ownerId") Long ownerId,
+        @Param("pets") long pets,
+        @Param("healthRecords") long healthRecords,
+        @Param("appointments") long appointments,
+        @Param("pending") long pending,
+        @Param("confirmed") long confirmed,
+        @Param("cancelled") long cancelled,
+        @Param("done") long done
+    );
+
+    @Lock(LockModeType.PESSIMISTIC_WRITE)
+    @Query("SELECT s FROM OwnerStats s WHERE s.ownerId = :ownerId")
+    Optional<OwnerStats> findByIdForUpdate(@Param("ownerId") Long ownerId);
+
+    @Query("SELECT p.ownerId AS ownerId, COUNT(p) AS count FROM Pet p GROUP BY p.ownerId")
+    List<OwnerCount> countPetsByOwner();
+
+    @Query("SELECT p.ownerId AS ownerId, COUNT(hr) AS count FROM HealthRecord hr JOIN Pet p ON hr.petId = p.id GROUP BY p.ownerId")
+    List<OwnerCount> countHealthRecordsByOwner();
+
+    @Query("SELECT a.ownerId AS ownerId, a.status AS status, COUNT(a) AS count FROM Appointment a GROUP BY a.ownerId, a.status")
+    List<OwnerStatusCount> countAppointmentsByOwnerAndStatus();
+
+    @Query(
+        "SELECT a.ownerId AS ownerId, a.status AS status, COUNT(a) AS count FROM Appointment a " +
+        "WHERE a.ownerId = :ownerId GROUP BY a.ownerId, a.status"
+    )
+    List<OwnerStatusCount> countAppointmentsByStatus(@Param("ownerId") Long ownerId);
+
+    interface OwnerCount {
+        Long getOwnerId();
+
+        long getCount();
+    }
+
+    interface OwnerStatusCount {
+        Long getOwnerId();
+
+        AppointmentStatus getStatus();
+
+        long getCount();
+    }
+}
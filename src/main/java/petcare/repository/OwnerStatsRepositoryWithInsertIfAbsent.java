@@ -0,0 +1,16 @@
+package petcare.repository;
+
+import petcare.domain.OwnerStats;
+
+/**
+ * Creates the {@link OwnerStats} of an owner in the current transaction, unless a concurrent one created them.
+ */
+public interface OwnerStatsRepositoryWithInsertIfAbsent {
+    /**
+     * Insert the counters of an owner, unless the owner already has counters.
+     *
+     * @param stats the counters to insert.
+     * @return {@code 1} if the counters were inserted, {@code 0} if the owner already had counters.
+     */
+    int insertIfAbsent(OwnerStats stats);
+}
@@ -0,0 +1,40 @@
+package petcare.repository;
+
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.PersistenceContext;
+import org.hibernate.query.NativeQuery;
+import petcare.domain.OwnerStats;
+
+/**
+ * Utility repository to create the {@link OwnerStats} of an owner with an {@code INSERT IGNORE}.
+ * <p>
+ * Unlike {@code saveAndFlush}, whose duplicate key failure marks the transaction for rollback, the statement just
+ * inserts nothing when a concurrent transaction created the counters first, waiting for it to commit. It is declared
+ * on the {@code owner_stats} table only, so that it does not evict the whole second-level cache.
+ */
+public class OwnerStatsRepositoryWithInsertIfAbsentImpl implements OwnerStatsRepositoryWithInsertIfAbsent {
+
+    @PersistenceContext
+    private EntityManager entityManager;
+
+    @Override
+    public int insertIfAbsent(OwnerStats stats) {
+        return entityManager
+            .createNativeQuery(
+                "INSERT IGNORE INTO owner_stats (owner_id, pet_count, health_record_count, appointment_count," +
+                " pending_appointment_count, confirmed_appointment_count, cancelled_appointment_count, done_appointment_count)" +
+                " VALUES (?, ?, ?, ?, ?, ?, ?, ?)"
+            )
+            .unwrap(NativeQuery.class)
+            .addSynchronizedEntityClass(OwnerStats.class)
+            .setParameter(1, stats.getOwnerId())
+            .setParameter(2, stats.getPetCount())
+            .setParameter(3, stats.getHealthRecordCount())
+            .setParameter(4, stats.getAppointmentCount())
+            .setParameter(5, stats.getPendingAppointmentCount())
+            .setParameter(6, stats.getConfirmedAppointmentCount())
+            .setParameter(7, stats.getCancelledAppointmentCount())
+            .setParameter(8, stats.getDoneAppointmentCount())
+            .executeUpdate();
+    }
+}
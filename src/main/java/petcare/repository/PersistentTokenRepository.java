@@ -1,8 +1,14 @@
 package petcare.repository;
 
+import jakarta.persistence.LockModeType;
+import java.time.Instant;
 import java.time.LocalDate;
 import java.util.List;
+import java.util.Optional;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Lock;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
 import petcare.domain.PersistentToken;
 import petcare.domain.User;
 
@@ -13,4 +19,12 @@ public interface PersistentTokenRepository extends JpaRepository<PersistentToken
     List<PersistentToken> findByUser(User user);
 
     List<PersistentToken> findByTokenDateBefore(LocalDate localDate);
+
+    List<PersistentToken> findByRevokedAtGreaterThanEqual(Instant since);
+
+    List<PersistentToken> findByUserPetIdAndRevokedAtIsNull(Long userPetId);
+
+    @Lock(LockModeType.PESSIMISTIC_WRITE)
+    @Query("SELECT t FROM PersistentToken t WHERE t.series = :series")
+    Optional<PersistentToken> findBySeriesForUpdate(@Param("series") String series);
 }
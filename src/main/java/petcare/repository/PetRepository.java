@@ -1,7 +1,9 @@
 package petcare.repository;
 
+import java.util.Collection;
 import java.util.List;
 import org.springframework.data.jpa.repository.*;
+import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 import petcare.domain.Pet;
 
@@ -11,6 +13,8 @@ import petcare.domain.Pet;
 @SuppressWarnings("unused")
 @Repository
 public interface PetRepository extends JpaRepository<Pet, Long>, JpaSpecificationExecutor<Pet> {
-    List<Pet> findByOwnerId(Long ownerId);
     Long countByOwnerId(Long ownerId);
+
+    @Query("SELECT DISTINCT p.ownerId FROM Pet p WHERE p.id IN :ids")
+    List<Long> findOwnerIdsByIdIn(@Param("ids") Collection<Long> ids);
 }
@@ -0,0 +1,194 @@
+package petcare.repository;
+
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.Tuple;
+import jakarta.persistence.TypedQuery;
+import jakarta.persistence.criteria.CriteriaBuilder;
+import jakarta.persistence.criteria.CriteriaQuery;
+import jakarta.persistence.criteria.Expression;
+import jakarta.persistence.criteria.Predicate;
+import jakarta.persistence.criteria.Root;
+import jakarta.persistence.criteria.Selection;
+import jakarta.persistence.metamodel.EntityType;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.function.BiFunction;
+import org.springframework.data.domain.KeysetScrollPosition;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.ScrollPosition;
+import org.springframework.data.domain.Sort;
+import org.springframework.data.domain.Window;
+import org.springframework.data.jpa.domain.Specification;
+import org.springframework.data.jpa.repository.query.QueryUtils;
+import org.springframework.data.support.PageableExecutionUtils;
+import org.springframework.stereotype.Repository;
+
+/**
+ * Runs {@link Specification} based queries which select straight into a projection (usually a DTO constructor)
+ * instead of loading managed entities.
+ * <p>
+ * The rows are never put in the persistence context, so they are neither dirty-checked nor mapped afterwards,
+ * which is what read-only list endpoints want, paged by offset or by keyset.
+ */
+@Repository
+public class SpecificationProjectionExecutor {
+
+    private final EntityManager entityManager;
+
+    public SpecificationProjectionExecutor(EntityManager entityManager) {
+        this.entityManager = entityManager;
+    }
+
+    /**
+     * Return a page of projections of the entities matching the specification.
+     *
+     * @param entityClass the queried entity.
+     * @param projectionClass the type of the returned projections.
+     * @param specification the filters, can be {@code null}.
+     * @param pageable the page to return, sorted on entity attributes.
+     * @param selection builds the projection selection (for example {@link CriteriaBuilder#construct}) from the root.
+     * @return the page of projections, the count query is skipped when the page size tells the total.
+     */
+    public <E, P> Page<P> findAll(
+        Class<E> entityClass,
+        Class<P> projectionClass,
+        Specification<E> specification,
+        Pageable pageable,
+        BiFunction<CriteriaBuilder, Root<E>, Selection<? extends P>> selection
+    ) {
+        CriteriaBuilder cb = entityManager.getCriteriaBuilder();
+        CriteriaQuery<P> query = cb.createQuery(projectionClass);
+        Root<E> root = query.from(entityClass);
+        query.select(selection.apply(cb, root));
+        Predicate predicate = specification == null ? null : specification.toPredicate(root, query, cb);
+        if (predicate != null) {
+            query.where(predicate);
+        }
+        if (pageable.getSort().isSorted()) {
+            query.orderBy(QueryUtils.toOrders(pageable.getSort(), root, cb));
+        }
+
+        TypedQuery<P> typedQuery = entityManager.createQuery(query);
+        if (pageable.isPaged()) {
+            typedQuery.setFirstResult(Math.toIntExact(pageable.getOffset()));
+            typedQuery.setMaxResults(pageable.getPageSize());
+        }
+        List<P> content = typedQuery.getResultList();
+        return PageableExecutionUtils.getPage(content, pageable, () -> count(entityClass, specification));
+    }
+
+    /**
+     * Return a window of projections of the entities matching the specification, after a keyset position.
+     * <p>
+     * The rows are filtered with seek predicates on the sort keys of the position, ordered by the sort and the id of
+     * the entity (appended when the sort does not include it), and one more row than the limit is read to tell if
+     * there is a next window. The sort keys are selected along with the projection, so that the position of each
+     * projection is known without loading the entity.
+     *
+     * @param entityClass the queried entity.
+     * @param projectionClass the type of the returned projections.
+     * @param specification the filters, can be {@code null}.
+     * @param sort the order of the window, on non-null attributes of the entity.
+     * @param position the forward keyset position to continue after.
+     * @param limit the maximum size of the window.
+     * @param selection builds the projection selection (for example {@link CriteriaBuilder#construct}) from the root.
+     * @return the window of projections, no count query is run.
+     */
+    public <E, P> Window<P> findWindow(
+        Class<E> entityClass,
+        Class<P> projectionClass,
+        Specification<E> specification,
+        Sort sort,
+        KeysetScrollPosition position,
+        int limit,
+        BiFunction<CriteriaBuilder, Root<E>, Selection<? extends P>> selection
+    ) {
+        if (position.scrollsBackward()) {
+            throw new IllegalArgumentException("Only forward keyset positions are supported");
+        }
+        Sort keysetSort = withId(entityClass, sort);
+        List<String> properties = keysetSort.stream().map(Sort.Order::getProperty).toList();
+
+        CriteriaBuilder cb = entityManager.getCriteriaBuilder();
+        CriteriaQuery<Tuple> query = cb.createTupleQuery();
+        Root<E> root = query.from(entityClass);
+        List<Selection<?>> selections = new ArrayList<>();
+        selections.add(selection.apply(cb, root));
+        properties.forEach(property -> selections.add(root.get(property)));
+        query.multiselect(selections);
+        List<Predicate> predicates = new ArrayList<>();
+        Predicate predicate = specification == null ? null : specification.toPredicate(root, query, cb);
+        if (predicate != null) {
+            predicates.add(predicate);
+        }
+        if (!position.isInitial()) {
+            predicates.add(seek(cb, root, keysetSort, position.getKeys()));
+        }
+        query.where(predicates.toArray(Predicate[]::new));
+        query.orderBy(
+            keysetSort
+                .stream()
+                .map(order -> order.isAscending() ? cb.asc(root.get(order.getProperty())) : cb.desc(root.get(order.getProperty())))
+                .toList()
+        );
+
+        List<Tuple> rows = entityManager.createQuery(query).setMaxResults(limit + 1).getResultList();
+        boolean hasNext = rows.size() > limit;
+        List<P> content = new ArrayList<>();
+        List<Map<String, Object>> keys = new ArrayList<>();
+        for (Tuple row : hasNext ? rows.subList(0, limit) : rows) {
+            content.add(row.get(0, projectionClass));
+            Map<String, Object> rowKeys = new LinkedHashMap<>();
+            for (int i = 0; i < properties.size(); i++) {
+                rowKeys.put(properties.get(i), row.get(i + 1));
+            }
+            keys.add(rowKeys);
+        }
+        return Window.from(content, index -> ScrollPosition.forward(keys.get(index)), hasNext);
+    }
+
+    private <E> Sort withId(Class<E> entityClass, Sort sort) {
+        EntityType<E> entityType = entityManager.getMetamodel().entity(entityClass);
+        String id = entityType.getId(entityType.getIdType().getJavaType()).getName();
+        return sort.getOrderFor(id) == null ? sort.and(Sort.by(id)) : sort;
+    }
+
+    /**
+     * The rows after the keys in the sort order: {@code a > :a or (a = :a and b > :b) or ...}, with {@code <} for the
+     * descending orders.
+     */
+    @SuppressWarnings({ "unchecked", "rawtypes" })
+    private static <E> Predicate seek(CriteriaBuilder cb, Root<E> root, Sort sort, Map<String, Object> keys) {
+        List<Predicate> after = new ArrayList<>();
+        List<Predicate> equal = new ArrayList<>();
+        for (Sort.Order order : sort) {
+            Object key = keys.get(order.getProperty());
+            if (!(key instanceof Comparable value)) {
+                throw new IllegalArgumentException("The keyset position has no key for " + order.getProperty());
+            }
+            Expression<Comparable> path = root.get(order.getProperty());
+            List<Predicate> and = new ArrayList<>(equal);
+            and.add(order.isAscending() ? cb.greaterThan(path, value) : cb.lessThan(path, value));
+            after.add(cb.and(and.toArray(Predicate[]::new)));
+            equal.add(cb.equal(path, value));
+        }
+        return cb.or(after.toArray(Predicate[]::new));
+    }
+
+    private <E> long count(Class<E> entityClass, Specification<E> specification) {
+        CriteriaBuilder cb = entityManager.getCriteriaBuilder();
+        CriteriaQuery<Long> query = cb.createQuery(Long.class);
+        Root<E> root = query.from(entityClass);
+        Predicate predicate = specification == null ? null : specification.toPredicate(root, query, cb);
+        if (predicate != null) {
+            query.where(predicate);
+        }
+        query.select(query.isDistinct() ? cb.countDistinct(root) : cb.count(root));
+        // Remove the ordering a specification may have added, it is not valid in a count query
+        query.orderBy(List.of());
+        return entityManager.createQuery(query).getSingleResult();
+    }
+}
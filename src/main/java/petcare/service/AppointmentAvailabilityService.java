@@ -0,0 +1,475 @@
+package petcare.service;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.concurrent.ConcurrentSkipListSet;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.stream.IntStream;
+import java.util.stream.Stream;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.dao.CannotAcquireLockException;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+import org.springframework.transaction.support.TransactionTemplate;
+import petcare.config.ApplicationProperties;
+import petcare.domain.Appointment;
+import petcare.domain.enumeration.AppointmentStatus;
+import petcare.repository.AppointmentRepository;
+import petcare.service.dto.FreeSlotDTO;
+
+/**
+ * Keeps the booked {@link Appointment} slots of each {@link petcare.domain.Discovery} in memory, to find free slots
+ * and detect double bookings without querying the appointments.
+ * <p>
+ * Every appointment which is not cancelled occupies its discovery from its {@code apptTime} for the configured slot
+ * duration. As all the slots have the same length, the interval tree of a discovery is an ordered set of slot starts:
+ * the slots overlapping {@code [start, start + duration)} are the ones starting in
+ * {@code (start - duration, start + duration)}, found with one {@code O(log n)} range lookup.
+ * <p>
+ * Schedules are loaded lazily and evicted when there are too many. They only hold the slots which can still overlap
+ * a slot starting now, from {@code now - duration}: the older slots are evicted as time passes, and the rare checks
+ * of an earlier slot read its neighbours from the database. A booking locks its discovery until its transaction
+ * completes, and the schedule is updated after the commit while the lock is still held, so that two concurrent
+ * bookings of the same slot can not both pass the check. Schedules are loaded under the same lock, on the connection
+ * of the caller, with a locking read: the transaction of the booking may have read the database before taking the
+ * lock, and a consistent read would use a snapshot missing the bookings committed since, while a locking read sees
+ * them all. A load also sees the writes its transaction flushed, so the schedule it loads is only shared once that
+ * transaction commits, with the changes of the transaction applied. The schedules are local to the node.
+ * <p>
+ * The discoveries are always locked before the rows of their appointments, which the database locks until the commit:
+ * a write whose statements lock the rows at once, like a conditional update, must {@link #lock} the discoveries first.
+ * Otherwise a writer holding a row and waiting for a discovery could wait forever for a writer holding the discovery
+ * and waiting for the row, without the database seeing the deadlock. A write which only frees a slot, like a
+ * cancellation, does not need the lock before its statement: {@link #releaseAfterCommit} takes it once the rows are
+ * unlocked.
+ */
+@Service
+public class AppointmentAvailabilityService {
+
+    private static final Logger LOG = LoggerFactory.getLogger(AppointmentAvailabilityService.class);
+
+    private static final int LOCK_STRIPES = 64;
+
+    // Longer than the slow statements of a booking transaction, shorter than a client timeout
+    private static final Duration LOCK_TIMEOUT = Duration.ofSeconds(5);
+
+    private final AppointmentRepository appointmentRepository;
+
+    private final Duration slotDuration;
+
+    private final Duration maxRange;
+
+    private final Cache<Long, Schedule> schedules;
+
+    private final TransactionTemplate transactionTemplate;
+
+    private final ReentrantLock[] locks = IntStream.range(0, LOCK_STRIPES)
+        .mapToObj(stripe -> new ReentrantLock())
+        .toArray(ReentrantLock[]::new);
+
+    public AppointmentAvailabilityService(
+        AppointmentRepository appointmentRepository,
+        ApplicationProperties applicationProperties,
+        PlatformTransactionManager transactionManager
+    ) {
+        this.appointmentRepository = appointmentRepository;
+        this.slotDuration = applicationProperties.getAvailability().getSlotDuration();
+        this.maxRange = applicationProperties.getAvailability().getMaxRange();
+        this.schedules = Caffeine.newBuilder().maximumSize(applicationProperties.getAvailability().getMaxSchedules()).build();
+        // Joins the transaction of the caller, the loads only need one for the locking read when it has none
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+    }
+
+    /**
+     * The slot an appointment occupies, {@code null} when it does not occupy any.
+     *
+     * @param discoveryId the booked discovery.
+     * @param start the start of the slot.
+     */
+    public record Booking(Long discoveryId, Instant start) {
+        public static Booking of(Appointment appointment) {
+            if (
+                appointment.getDiscoveryId() == null ||
+                appointment.getApptTime() == null ||
+                appointment.getStatus() == AppointmentStatus.CANCELLED
+            ) {
+                return null;
+            }
+            return new Booking(appointment.getDiscoveryId(), appointment.getApptTime());
+        }
+    }
+
+    /**
+     * Check that an appointment can take its slot, and record it once the current transaction commits.
+     * <p>
+     * Must be called in the transaction writing the appointment, the involved discoveries stay locked until it completes.
+     * The slots reserved earlier in the same transaction are taken too, the ones it freed are not free yet. A
+     * transaction reserving several slots must {@link #lock} all their discoveries first, to take them in order.
+     *
+     * @param appointmentId the id of the appointment.
+     * @param previous the slot the appointment occupied before the write, {@code null} if none.
+     * @param next the slot the appointment occupies after the write, {@code null} if none.
+     * @throws SlotUnavailableException if another appointment overlaps the {@code next} slot.
+     */
+    public void reserve(Long appointmentId, Booking previous, Booking next) {
+        if (Objects.equals(previous, next)) {
+            return;
+        }
+        lockUntilCompletion(appointmentId, previous, next);
+        if (next == null) {
+            return;
+        }
+        Schedule reserved = inTransaction().reserved.computeIfAbsent(next.discoveryId(), id -> new Schedule());
+        Schedule booked = booked(next.discoveryId(), next.start(), next.start());
+        if (booked.overlaps(next.start(), appointmentId) || reserved.overlaps(next.start(), appointmentId)) {
+            LOG.debug("Slot {} of discovery {} is already booked", next.start(), next.discoveryId());
+            throw new SlotUnavailableException();
+        }
+        reserved.add(next.start(), appointmentId);
+    }
+
+    /**
+     * Free the slot of an appointment once the current transaction commits.
+     *
+     * @param appointmentId the id of the deleted appointment.
+     * @param previous the slot the appointment occupied, {@code null} if none.
+     */
+    public void release(Long appointmentId, Booking previous) {
+        reserve(appointmentId, previous, null);
+    }
+
+    /**
+     * Free the slot of an appointment once the current transaction commits, without locking its discovery before.
+     * <p>
+     * For the writes which lock the row without knowing its discovery, like the status transitions: freeing a slot
+     * needs no check, so the discovery is only locked after the commit, to remove the slot from its loaded schedule. A
+     * schedule loaded meanwhile still held the slot, or already read the freed row.
+     *
+     * @param appointmentId the id of the appointment.
+     * @param previous the slot the appointment occupied, {@code null} if none.
+     */
+    public void releaseAfterCommit(Long appointmentId, Booking previous) {
+        if (previous == null) {
+            return;
+        }
+        TransactionSynchronizationManager.registerSynchronization(
+            new TransactionSynchronization() {
+                @Override
+                public void afterCommit() {
+                    ReentrantLock lock = locks[stripe(previous.discoveryId())];
+                    lock.lock();
+                    try {
+                        Schedule schedule = loaded(previous.discoveryId());
+                        if (schedule != null) {
+                            schedule.remove(previous.start(), appointmentId);
+                        }
+                    } finally {
+                        lock.unlock();
+                    }
+                }
+            }
+        );
+    }
+
+    /**
+     * Lock discoveries until the current transaction completes, before writing their appointments with statements
+     * which lock the rows at once.
+     *
+     * @param discoveryIds the ids of the discoveries, {@code null} ids are ignored.
+     */
+    public void lock(Collection<Long> discoveryIds) {
+        lockUntilCompletion(discoveryIds, false);
+    }
+
+    /**
+     * Forget the schedules of discoveries once the current transaction completes, for the set-based writes made
+     * without {@link #reserve}, like the bulk cancellations. The discoveries stay locked until then, so that no
+     * schedule is loaded without the write: call it before the write, which locks the rows.
+     *
+     * @param discoveryIds the ids of the discoveries, {@code null} ids are ignored.
+     */
+    public void invalidate(Collection<Long> discoveryIds) {
+        lockUntilCompletion(discoveryIds, true);
+    }
+
+    /**
+     * Return the free slots of a discovery, aligned on the slot duration.
+     *
+     * @param discoveryId the id of the discovery.
+     * @param from the start of the period.
+     * @param to the end of the period, at most the configured maximum range after {@code from}.
+     * @return the free slots starting at or after {@code from} and ending at or before {@code to}.
+     * @throws IllegalArgumentException if the period is empty or too long.
+     */
+    public List<FreeSlotDTO> findFreeSlots(Long discoveryId, Instant from, Instant to) {
+        if (!from.isBefore(to) || Duration.between(from, to).compareTo(maxRange) > 0) {
+            throw new IllegalArgumentException("The period must be positive and at most " + maxRange);
+        }
+        Schedule schedule = from.isBefore(Instant.now()) ? null : schedules.getIfPresent(discoveryId);
+        if (schedule == null && TransactionSynchronizationManager.isSynchronizationActive()) {
+            // A schedule loaded in the transaction of the caller is shared when it commits, still under the lock
+            lock(List.of(discoveryId));
+            schedule = booked(discoveryId, from, to);
+        } else if (schedule == null) {
+            ReentrantLock lock = locks[stripe(discoveryId)];
+            lock.lock();
+            try {
+                schedule = booked(discoveryId, from, to);
+            } finally {
+                lock.unlock();
+            }
+        }
+
+        long slotMillis = slotDuration.toMillis();
+        List<FreeSlotDTO> freeSlots = new ArrayList<>();
+        Instant start = Instant.ofEpochMilli(-Math.floorDiv(-from.toEpochMilli(), slotMillis) * slotMillis);
+        for (Instant end = start.plus(slotDuration); !end.isAfter(to); start = end, end = end.plus(slotDuration)) {
+            if (!schedule.overlaps(start, null)) {
+                freeSlots.add(new FreeSlotDTO(start, end));
+            }
+        }
+        return freeSlots;
+    }
+
+    /**
+     * Return the booked slots which can overlap the slots starting from {@code from} to {@code to}: the schedule of
+     * the discovery, or for a period starting before now, the slots around the period read from the database. The
+     * lock of the discovery must be held.
+     */
+    private Schedule booked(Long discoveryId, Instant from, Instant to) {
+        Instant now = Instant.now();
+        if (!from.isBefore(now)) {
+            return schedule(discoveryId, now.minus(slotDuration));
+        }
+        return transactionTemplate.execute(status -> {
+            Schedule period = new Schedule();
+            appointmentRepository
+                .findBookedSlotsBetween(discoveryId, AppointmentStatus.CANCELLED, from.minus(slotDuration), to.plus(slotDuration))
+                .forEach(slot -> period.add(slot.getApptTime(), slot.getId()));
+            return period;
+        });
+    }
+
+    /**
+     * Return the schedule of a discovery from {@code horizon}, evicting its older slots, or load it with a locking
+     * read on the connection of the caller, which sees the latest committed bookings whatever the snapshot of its
+     * transaction. The lock of the discovery must be held.
+     */
+    private Schedule schedule(Long discoveryId, Instant horizon) {
+        Schedule schedule = loaded(discoveryId);
+        if (schedule != null) {
+            schedule.evictBefore(horizon);
+            return schedule;
+        }
+        return transactionTemplate.execute(status -> {
+            Schedule loading = new Schedule();
+            appointmentRepository
+                .findBookedSlotsFrom(discoveryId, AppointmentStatus.CANCELLED, horizon)
+                .forEach(slot -> loading.add(slot.getApptTime(), slot.getId()));
+            LOG.debug("Loaded {} booked slots of discovery {}", loading.slots.size(), discoveryId);
+            inTransaction().loaded.put(discoveryId, loading);
+            return loading;
+        });
+    }
+
+    /**
+     * Return the schedule of a discovery loaded by the current transaction, or else shared, {@code null} if none.
+     */
+    private Schedule loaded(Long discoveryId) {
+        if (TransactionSynchronizationManager.getResource(this) instanceof TransactionSchedules current) {
+            Schedule schedule = current.loaded.get(discoveryId);
+            if (schedule != null) {
+                return schedule;
+            }
+        }
+        return schedules.getIfPresent(discoveryId);
+    }
+
+    /**
+     * Return the schedules of the current transaction, whose loaded schedules are shared once it commits.
+     */
+    private TransactionSchedules inTransaction() {
+        if (TransactionSynchronizationManager.getResource(this) instanceof TransactionSchedules current) {
+            return current;
+        }
+        TransactionSchedules created = new TransactionSchedules();
+        TransactionSynchronizationManager.bindResource(this, created);
+        TransactionSynchronizationManager.registerSynchronization(
+            new TransactionSynchronization() {
+                @Override
+                public void afterCommit() {
+                    // The locks of the discoveries are still held, and the reservations applied to the loaded schedules
+                    schedules.putAll(created.loaded);
+                }
+
+                @Override
+                public void afterCompletion(int status) {
+                    TransactionSynchronizationManager.unbindResource(AppointmentAvailabilityService.this);
+                }
+            }
+        );
+        return created;
+    }
+
+    private int stripe(Long discoveryId) {
+        return Math.floorMod(discoveryId.hashCode(), LOCK_STRIPES);
+    }
+
+    /**
+     * Lock the discoveries of both bookings until the transaction completes, in stripe order to avoid deadlocks,
+     * and update their schedules after the commit.
+     */
+    private void lockUntilCompletion(Long appointmentId, Booking previous, Booking next) {
+        if (!TransactionSynchronizationManager.isSynchronizationActive()) {
+            throw new IllegalStateException("Appointment slots can only be reserved in a transaction");
+        }
+        List<ReentrantLock> stripes = lockStripes(Stream.of(previous, next).filter(Objects::nonNull).map(Booking::discoveryId));
+        TransactionSynchronizationManager.registerSynchronization(
+            new TransactionSynchronization() {
+                @Override
+                public void afterCommit() {
+                    if (previous != null) {
+                        Schedule schedule = loaded(previous.discoveryId());
+                        if (schedule != null) {
+                            schedule.remove(previous.start(), appointmentId);
+                        }
+                    }
+                    if (next != null) {
+                        Schedule schedule = loaded(next.discoveryId());
+                        if (schedule != null) {
+                            schedule.add(next.start(), appointmentId);
+                        }
+                    }
+                }
+
+                @Override
+                public void afterCompletion(int status) {
+                    // The shared schedules only hold committed bookings, the ones the transaction loaded are dropped
+                    stripes.forEach(ReentrantLock::unlock);
+                }
+            }
+        );
+    }
+
+    private void lockUntilCompletion(Collection<Long> discoveryIds, boolean invalidate) {
+        if (!TransactionSynchronizationManager.isSynchronizationActive()) {
+            throw new IllegalStateException("Appointment schedules can only be locked in a transaction");
+        }
+        List<Long> ids = discoveryIds.stream().filter(Objects::nonNull).distinct().toList();
+        List<ReentrantLock> stripes = lockStripes(ids.stream());
+        TransactionSynchronizationManager.registerSynchronization(
+            new TransactionSynchronization() {
+                @Override
+                public void afterCompletion(int status) {
+                    try {
+                        if (invalidate) {
+                            ids.forEach(schedules::invalidate);
+                        }
+                    } finally {
+                        stripes.forEach(ReentrantLock::unlock);
+                    }
+                }
+            }
+        );
+    }
+
+    /**
+     * Lock the stripes of discoveries, in stripe order to avoid deadlocks.
+     * <p>
+     * A transaction already holding stripes may hold rows too, like an update which learns from its conditional
+     * statement that the appointment moved from another discovery: it may wait for a writer holding the other stripe
+     * and waiting for the row, so it only waits a bounded time for its other stripes.
+     *
+     * @return the locked stripes, to unlock.
+     * @throws CannotAcquireLockException if a stripe could not be locked in time.
+     */
+    private List<ReentrantLock> lockStripes(Stream<Long> discoveryIds) {
+        List<ReentrantLock> stripes = discoveryIds
+            .mapToInt(this::stripe)
+            .distinct()
+            .sorted()
+            .mapToObj(stripe -> locks[stripe])
+            .toList();
+        if (Arrays.stream(locks).noneMatch(ReentrantLock::isHeldByCurrentThread)) {
+            stripes.forEach(ReentrantLock::lock);
+            return stripes;
+        }
+        List<ReentrantLock> locked = new ArrayList<>(stripes.size());
+        try {
+            for (ReentrantLock stripe : stripes) {
+                if (!stripe.tryLock(LOCK_TIMEOUT.toMillis(), TimeUnit.MILLISECONDS)) {
+                    throw new CannotAcquireLockException("Timed out waiting for the schedule of a discovery");
+                }
+                locked.add(stripe);
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            locked.forEach(ReentrantLock::unlock);
+            throw new CannotAcquireLockException("Interrupted waiting for the schedule of a discovery", e);
+        } catch (CannotAcquireLockException e) {
+            locked.forEach(ReentrantLock::unlock);
+            throw e;
+        }
+        return stripes;
+    }
+
+    /**
+     * The schedules of a transaction: the slots it reserved, which are only added to the schedules once it commits,
+     * and the schedules it loaded, which hold its flushed writes.
+     */
+    private static final class TransactionSchedules {
+
+        private final Map<Long, Schedule> reserved = new HashMap<>();
+
+        private final Map<Long, Schedule> loaded = new HashMap<>();
+    }
+
+    private record Slot(Instant start, Long appointmentId) {}
+
+    private static final Comparator<Slot> SLOT_ORDER = Comparator.comparing(Slot::start).thenComparing(Slot::appointmentId);
+
+    /**
+     * The booked slots of a discovery. Written under the discovery lock, read without it.
+     */
+    private final class Schedule {
+
+        private final ConcurrentSkipListSet<Slot> slots = new ConcurrentSkipListSet<>(SLOT_ORDER);
+
+        void add(Instant start, Long appointmentId) {
+            slots.add(new Slot(start, appointmentId));
+        }
+
+        void remove(Instant start, Long appointmentId) {
+            slots.remove(new Slot(start, appointmentId));
+        }
+
+        void evictBefore(Instant horizon) {
+            slots.headSet(new Slot(horizon, Long.MIN_VALUE)).clear();
+        }
+
+        boolean overlaps(Instant start, Long excludedAppointmentId) {
+            Slot lowest = new Slot(start.minus(slotDuration), Long.MAX_VALUE);
+            Slot highest = new Slot(start.plus(slotDuration), Long.MIN_VALUE);
+            for (Slot slot : slots.subSet(lowest, false, highest, false)) {
+                if (!slot.appointmentId().equals(excludedAppointmentId)) {
+                    return true;
+                }
+            }
+            return false;
+        }
+    }
+}
@@ -1,15 +1,26 @@
 package petcare.service;
 
+import jakarta.persistence.criteria.CriteriaBuilder;
+import jakarta.persistence.criteria.Root;
+import jakarta.persistence.criteria.Selection;
+import java.io.IOException;
+import java.io.OutputStream;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
+import org.springframework.data.domain.KeysetScrollPosition;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Sort;
+import org.springframework.data.domain.Window;
 import org.springframework.data.jpa.domain.Specification;
+import org.springframework.http.MediaType;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
+import petcare.config.ApplicationProperties;
 import petcare.domain.*; // for static metamodels
 import petcare.domain.Appointment;
 import petcare.repository.AppointmentRepository;
+import petcare.repository.SpecificationProjectionExecutor;
 import petcare.service.criteria.AppointmentCriteria;
 import petcare.service.dto.AppointmentDTO;
 import petcare.service.mapper.AppointmentMapper;
@@ -27,17 +38,39 @@ public class AppointmentQueryService extends QueryService<Appointment> {
 
     private static final Logger LOG = LoggerFactory.getLogger(AppointmentQueryService.class);
 
+    /**
+     * The order of the pages and exports of the appointments of an owner or a pet, the latest first, the id makes the
+     * keyset unique.
+     */
+    public static final Sort BY_TIME = Sort.by(Sort.Order.desc(Appointment_.APPT_TIME), Sort.Order.desc(Appointment_.ID));
+
     private final AppointmentRepository appointmentRepository;
 
     private final AppointmentMapper appointmentMapper;
 
-    public AppointmentQueryService(AppointmentRepository appointmentRepository, AppointmentMapper appointmentMapper) {
+    private final SpecificationProjectionExecutor projectionExecutor;
+
+    private final ExportService exportService;
+
+    private final int maxPageSize;
+
+    public AppointmentQueryService(
+        AppointmentRepository appointmentRepository,
+        AppointmentMapper appointmentMapper,
+        SpecificationProjectionExecutor projectionExecutor,
+        ExportService exportService,
+        ApplicationProperties applicationProperties
+    ) {
         this.appointmentRepository = appointmentRepository;
         this.appointmentMapper = appointmentMapper;
+        this.projectionExecutor = projectionExecutor;
+        this.exportService = exportService;
+        this.maxPageSize = applicationProperties.getPagination().getMaxPageSize();
     }
 
     /**
      * Return a {@link Page} of {@link AppointmentDTO} which matches the criteria from the database.
+     * The DTOs are selected directly, without loading the entities in the persistence context.
      * @param criteria The object which holds all the filters, which the entities should match.
      * @param page The page, which should be returned.
      * @return the matching entities.
@@ -46,7 +79,110 @@ public class AppointmentQueryService extends QueryService<Appointment> {
     public Page<AppointmentDTO> findByCriteria(AppointmentCriteria criteria, Pageable page) {
         LOG.debug("find by criteria : {}, page: {}", criteria, page);
         final Specification<Appointment> specification = createSpecification(criteria);
-        return appointmentRepository.findAll(specification, page).map(appointmentMapper::toDto);
+        return projectionExecutor.findAll(Appointment.class, AppointmentDTO.class, specification, page, this::toDto);
+    }
+
+    /**
+     * Return a {@link Window} of {@link AppointmentDTO} which matches the criteria from the database, using keyset pagination.
+     * The rows are filtered with seek predicates on the sort keys (and id) of the given position, and no count query is run.
+     * The DTOs are selected directly, without loading the entities in the persistence context.
+     * @param criteria The object which holds all the filters, which the entities should match.
+     * @param position The keyset position to continue after.
+     * @param page The page size and sort, the page number is ignored.
+     * @return the matching entities.
+     */
+    @Transactional(readOnly = true)
+    public Window<AppointmentDTO> findByCriteria(AppointmentCriteria criteria, KeysetScrollPosition position, Pageable page) {
+        LOG.debug("find by criteria : {}, position: {}, page: {}", criteria, position, page);
+        final Specification<Appointment> specification = createSpecification(criteria);
+        return projectionExecutor.findWindow(
+            Appointment.class,
+            AppointmentDTO.class,
+            specification,
+            page.getSort(),
+            position,
+            page.getPageSize(),
+            this::toDto
+        );
+    }
+
+    /**
+     * Return a {@link Window} of the appointments of an owner, the latest first, using keyset pagination.
+     * @param ownerId the id of the owner.
+     * @param position The keyset position to continue after.
+     * @param size the requested page size, capped at {@code application.pagination.max-page-size}.
+     * @return the appointments of the owner.
+     */
+    @Transactional(readOnly = true)
+    public Window<AppointmentDTO> findByOwnerId(Long ownerId, KeysetScrollPosition position, int size) {
+        LOG.debug("find by ownerId : {}, position: {}, size: {}", ownerId, position, size);
+        return findWindow(byOwnerId(ownerId), position, size);
+    }
+
+    /**
+     * Return a {@link Window} of the appointments of a pet, the latest first, using keyset pagination.
+     * @param petId the id of the pet.
+     * @param position The keyset position to continue after.
+     * @param size the requested page size, capped at {@code application.pagination.max-page-size}.
+     * @return the appointments of the pet.
+     */
+    @Transactional(readOnly = true)
+    public Window<AppointmentDTO> findByPetId(Long petId, KeysetScrollPosition position, int size) {
+        LOG.debug("find by petId : {}, position: {}, size: {}", petId, position, size);
+        return findWindow(byPetId(petId), position, size);
+    }
+
+    /**
+     * Write all the appointments of an owner to an output stream as a JSON array, the latest first.
+     * The entities are streamed from the database, see {@link ExportService}.
+     * @param ownerId the id of the owner.
+     * @param output The stream to write to.
+     * @return the number of written appointments.
+     * @throws IOException if the output can not be written.
+     */
+    @Transactional(readOnly = true)
+    public long exportByOwnerId(Long ownerId, OutputStream output) throws IOException {
+        LOG.debug("export by ownerId : {}", ownerId);
+        return export(byOwnerId(ownerId), output);
+    }
+
+    /**
+     * Write all the appointments of a pet to an output stream as a JSON array, the latest first.
+     * The entities are streamed from the database, see {@link ExportService}.
+     * @param petId the id of the pet.
+     * @param output The stream to write to.
+     * @return the number of written appointments.
+     * @throws IOException if the output can not be written.
+     */
+    @Transactional(readOnly = true)
+    public long exportByPetId(Long petId, OutputStream output) throws IOException {
+        LOG.debug("export by petId : {}", petId);
+        return export(byPetId(petId), output);
+    }
+
+    private Window<AppointmentDTO> findWindow(Specification<Appointment> specification, KeysetScrollPosition position, int size) {
+        int limit = Math.max(1, Math.min(size, maxPageSize));
+        return projectionExecutor.findWindow(Appointment.class, AppointmentDTO.class, specification, BY_TIME, position, limit, this::toDto);
+    }
+
+    private long export(Specification<Appointment> specification, OutputStream output) throws IOException {
+        return exportService.export(
+            Appointment.class,
+            specification,
+            BY_TIME,
+            appointmentMapper::toDto,
+            AppointmentDTO.class,
+            MediaType.APPLICATION_JSON,
+            output
+        );
+    }
+
+    private static Specification<Appointment> byOwnerId(Long ownerId) {
+        return (root, query, cb) -> cb.equal(root.get(Appointment_.ownerId), ownerId);
+    }
+
+    private static Specification<Appointment> byPetId(Long petId) {
+        return (root, query, cb) -> cb.equal(root.get(Appointment_.petId), petId);
     }
 
     /**
@@ -61,6 +197,42 @@ public class AppointmentQueryService extends QueryService<Appointment> {
         return appointmentRepository.count(specification);
     }
 
+    /**
+     * Write all the {@link AppointmentDTO} which match the criteria to an output stream, ordered by id.
+     * The entities are streamed from the database, see {@link ExportService}.
+     * @param criteria The object which holds all the filters, which the entities should match.
+     * @param format The output format, NDJSON or CSV.
+     * @param output The stream to write to.
+     * @return the number of exported entities.
+     * @throws IOException if the output can not be written.
+     */
+    @Transactional(readOnly = true)
+    public long exportByCriteria(AppointmentCriteria criteria, MediaType format, OutputStream output) throws IOException {
+        LOG.debug("export by criteria : {}, format: {}", criteria, format);
+        final Specification<Appointment> specification = createSpecification(criteria);
+        return exportService.export(Appointment.class, specification, appointmentMapper::toDto, AppointmentDTO.class, format, output);
+    }
+
+    /**
+     * Function to select a {@link AppointmentDTO} from a {@link Appointment} root, the arguments follow the DTO constructor.
+     * @param cb The criteria builder of the query.
+     * @param root The {@link Appointment} root of the query.
+     * @return the DTO constructor selection.
+     */
+    protected Selection<AppointmentDTO> toDto(CriteriaBuilder cb, Root<Appointment> root) {
+        return cb.construct(
+            AppointmentDTO.class,
+            root.get(Appointment_.id),
+            root.get(Appointment_.petId),
+            root.get(Appointment_.ownerId),
+            root.get(Appointment_.discoveryId),
+            root.get(Appointment_.apptTime),
+            root.get(Appointment_.status),
+            root.get(Appointment_.createdAt),
+            root.get(Appointment_.version)
+        );
+    }
+
     /**
      * Function to convert {@link AppointmentCriteria} to a {@link Specification}
      * @param criteria The object which holds all the filters, which the entities should match.
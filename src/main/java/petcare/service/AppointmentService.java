@@ -1,19 +1,37 @@
 package petcare.service;
 
+import java.io.InputStream;
 import java.time.Instant;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.HashSet;
 import java.util.List;
 import java.util.Optional;
+import java.util.Set;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import org.springframework.data.domain.PageRequest;
 import org.springframework.data.domain.Pageable;
+import org.springframework.http.MediaType;
+import org.springframework.orm.ObjectOptimisticLockingFailureException;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Propagation;
 import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
 import petcare.domain.Appointment;
 import petcare.domain.enumeration.AppointmentStatus;
 import petcare.repository.AppointmentRepository;
+import petcare.repository.AppointmentRepository.AppointmentParties;
+import petcare.repository.AppointmentRepository.AppointmentRow;
+import petcare.repository.ConditionalUpdateExecutor;
+import petcare.repository.ConditionalUpdateExecutor.Outcome;
+import petcare.service.AppointmentAvailabilityService.Booking;
+import petcare.service.OwnerStatsService.Delta;
 import petcare.service.dto.AppointmentDTO;
+import petcare.service.dto.BulkIngestReportDTO;
 import petcare.service.mapper.AppointmentMapper;
+import petcare.service.reminder.AppointmentReminderScheduler;
 
 /**
  * Service Implementation for managing {@link petcare.domain.Appointment}.
@@ -24,13 +42,39 @@ public class AppointmentService {
 
     private static final Logger LOG = LoggerFactory.getLogger(AppointmentService.class);
 
+    // The booked slots and the owner counters need the previous values
+    private static final Set<String> UPDATE_GUARDS = Set.of("ownerId", "discoveryId", "apptTime", "status");
+
     private final AppointmentRepository appointmentRepository;
 
     private final AppointmentMapper appointmentMapper;
 
-    public AppointmentService(AppointmentRepository appointmentRepository, AppointmentMapper appointmentMapper) {
+    private final BulkIngestService bulkIngestService;
+
+    private final AppointmentAvailabilityService appointmentAvailabilityService;
+
+    private final AppointmentReminderScheduler appointmentReminderScheduler;
+
+    private final OwnerStatsService ownerStatsService;
+
+    private final ConditionalUpdateExecutor conditionalUpdateExecutor;
+
+    public AppointmentService(
+        AppointmentRepository appointmentRepository,
+        AppointmentMapper appointmentMapper,
+        BulkIngestService bulkIngestService,
+        AppointmentAvailabilityService appointmentAvailabilityService,
+        AppointmentReminderScheduler appointmentReminderScheduler,
+        OwnerStatsService ownerStatsService,
+        ConditionalUpdateExecutor conditionalUpdateExecutor
+    ) {
         this.appointmentRepository = appointmentRepository;
         this.appointmentMapper = appointmentMapper;
+        this.bulkIngestService = bulkIngestService;
+        this.appointmentAvailabilityService = appointmentAvailabilityService;
+        this.appointmentReminderScheduler = appointmentReminderScheduler;
+        this.ownerStatsService = ownerStatsService;
+        this.conditionalUpdateExecutor = conditionalUpdateExecutor;
     }
 
     /**
@@ -38,25 +82,102 @@ public class AppointmentService {
      *
      * @param appointmentDTO the entity to save.
      * @return the persisted entity.
+     * @throws SlotUnavailableException if the slot of the appointment is already booked.
      */
     public AppointmentDTO save(AppointmentDTO appointmentDTO) {
         LOG.debug("Request to save Appointment : {}", appointmentDTO);
         Appointment appointment = appointmentMapper.toEntity(appointmentDTO);
         appointment = appointmentRepository.save(appointment);
+        appointmentAvailabilityService.reserve(appointment.getId(), null, Booking.of(appointment));
+        appointmentReminderScheduler.onSaved(appointment);
+        ownerStatsService.increment(appointment.getOwnerId(), Delta.appointments(appointment.getStatus(), 1));
         return appointmentMapper.toDto(appointment);
     }
 
     /**
      * Update a appointment.
+     * <p>
+     * The discovery of the request is locked first, as the conditional statement locks the row even when it matches
+     * nothing, and the statement only matches a row at that discovery. With the version it was read at, the appointment
+     * is then updated by that statement, whose affected row count is the answer: when it updates nothing, a probe of
+     * the row tells a missing appointment from a stale version. Only a change of owner, slot or status, whose counters
+     * and bookings need the previous values, or a DTO without version is read, its new slot reserved and updated
+     * through the entity.
      *
      * @param appointmentDTO the entity to save.
-     * @return the persisted entity.
+     * @return the persisted entity, or empty if the appointment does not exist.
+     * @throws SlotUnavailableException if the new slot of the appointment is already booked.
+     * @throws ObjectOptimisticLockingFailureException if the appointment was updated since the version of the DTO.
+     * @throws StatusTransitionException if the new status can not follow the current one.
      */
-    public AppointmentDTO update(AppointmentDTO appointmentDTO) {
+    public Optional<AppointmentDTO> update(AppointmentDTO appointmentDTO) {
         LOG.debug("Request to update Appointment : {}", appointmentDTO);
         Appointment appointment = appointmentMapper.toEntity(appointmentDTO);
-        appointment = appointmentRepository.save(appointment);
-        return appointmentMapper.toDto(appointment);
+        if (appointment.getVersion() != null) {
+            appointmentAvailabilityService.lock(Collections.singletonList(appointment.getDiscoveryId()));
+            Outcome outcome = conditionalUpdateExecutor.updateIfUnchanged(appointment, UPDATE_GUARDS);
+            if (outcome == Outcome.UPDATED) {
+                // The pet of the reminder may have changed
+                appointmentReminderScheduler.onSaved(appointment);
+                return Optional.of(appointmentMapper.toDto(appointment.version(appointment.getVersion() + 1)));
+            }
+            if (outcome == Outcome.NOT_FOUND) {
+                return Optional.empty();
+            }
+            if (outcome == Outcome.VERSION_CHANGED) {
+                throw new ObjectOptimisticLockingFailureException(Appointment.class, appointment.getId());
+            }
+        }
+        return appointmentRepository
+            .findById(appointment.getId())
+            .map(existingAppointment -> {
+                checkVersion(existingAppointment, appointmentDTO.getVersion());
+                checkTransition(existingAppointment.getStatus(), appointment.getStatus());
+                // Read before the save, which merges the new values into the managed entity
+                Booking previous = Booking.of(existingAppointment);
+                Long previousOwnerId = existingAppointment.getOwnerId();
+                AppointmentStatus previousStatus = existingAppointment.getStatus();
+                appointmentAvailabilityService.reserve(appointment.getId(), previous, Booking.of(appointment));
+                appointment.setVersion(existingAppointment.getVersion());
+                Appointment saved = appointmentRepository.saveAndFlush(appointment);
+                appointmentReminderScheduler.onSaved(saved);
+                countChange(previousOwnerId, previousStatus, saved);
+                return appointmentMapper.toDto(saved);
+            });
+    }
+
+    /**
+     * Create appointments in bulk from an NDJSON or CSV stream, in chunks committed one after the other.
+     * <p>
+     * The slots of each chunk are reserved in its transaction, so the rows overlapping a booked slot, or an earlier
+     * row, are rejected like the other faulty rows. The owners of the created appointments are then counted again.
+     *
+     * @param input the stream of appointments.
+     * @param contentType the format of the stream.
+     * @return the report of the created and rejected rows.
+     */
+    @Transactional(propagation = Propagation.NOT_SUPPORTED)
+    public BulkIngestReportDTO ingest(InputStream input, MediaType contentType) {
+        LOG.debug("Request to ingest Appointments in bulk : {}", contentType);
+        // Also holds the owners of the rows of failed chunks, which are only counted again for nothing
+        Set<Long> ownerIds = new HashSet<>();
+        try {
+            return bulkIngestService.ingest(
+                input,
+                contentType,
+                AppointmentDTO.class,
+                appointmentMapper::toEntity,
+                appointmentRepository,
+                appointments -> {
+                    reserveAll(appointments);
+                    appointments.forEach(appointment -> ownerIds.add(appointment.getOwnerId()));
+                }
+            );
+        } finally {
+            // The ingested rows are not reminded, reload from the database
+            appointmentReminderScheduler.reload();
+            ownerStatsService.recount(ownerIds);
+        }
     }
 
     /**
@@ -64,6 +185,9 @@ public class AppointmentService {
      *
      * @param appointmentDTO the entity to update partially.
      * @return the persisted entity.
+     * @throws SlotUnavailableException if the new slot of the appointment is already booked.
+     * @throws ObjectOptimisticLockingFailureException if the appointment was updated since the version of the DTO.
+     * @throws StatusTransitionException if the new status can not follow the current one.
      */
     public Optional<AppointmentDTO> partialUpdate(AppointmentDTO appointmentDTO) {
         LOG.debug("Request to partially update Appointment : {}", appointmentDTO);
@@ -71,14 +195,111 @@ public class AppointmentService {
         return appointmentRepository
             .findById(appointmentDTO.getId())
             .map(existingAppointment -> {
+                checkVersion(existingAppointment, appointmentDTO.getVersion());
+                if (appointmentDTO.getStatus() != null) {
+                    checkTransition(existingAppointment.getStatus(), appointmentDTO.getStatus());
+                }
+                Booking previous = Booking.of(existingAppointment);
+                Long previousOwnerId = existingAppointment.getOwnerId();
+                AppointmentStatus previousStatus = existingAppointment.getStatus();
                 appointmentMapper.partialUpdate(existingAppointment, appointmentDTO);
+                appointmentAvailabilityService.reserve(existingAppointment.getId(), previous, Booking.of(existingAppointment));
+                appointmentReminderScheduler.onSaved(existingAppointment);
+                countChange(previousOwnerId, previousStatus, existingAppointment);
 
                 return existingAppointment;
             })
-            .map(appointmentRepository::save)
+            .map(appointmentRepository::saveAndFlush)
             .map(appointmentMapper::toDto);
     }
 
+    /**
+     * Move an appointment along a transition of its status.
+     * <p>
+     * The move is one compare-and-set {@code UPDATE ... WHERE id = ? AND status IN (...)} on the statuses the
+     * transition applies to, without reading the appointment first, so the concurrent writes of the appointment can not
+     * be lost. The moved row is then read once, as a projection, to free its slot, move its reminder and counters, and
+     * return it. A cancellation only frees a slot, so its discovery is locked after the commit rather than before the
+     * statement. When the transition applies to several statuses, the statement does not tell which one the
+     * appointment had, and the counters of its owner are counted again after the commit.
+     *
+     * @param id the id of the appointment.
+     * @param transition the transition.
+     * @return the moved appointment, or empty if it does not exist.
+     * @throws StatusTransitionException if the appointment has a status the transition does not apply to.
+     */
+    public Optional<AppointmentDTO> transition(Long id, AppointmentTransition transition) {
+        LOG.debug("Request to {} Appointment : {}", transition, id);
+        AppointmentStatus target = transition.getTarget();
+        if (appointmentRepository.transition(id, transition.getSources(), target) == 0) {
+            if (!appointmentRepository.existsById(id)) {
+                return Optional.empty();
+            }
+            throw new StatusTransitionException();
+        }
+        AppointmentDTO moved = appointmentRepository.findRowById(id).map(AppointmentService::toDto).orElseThrow();
+        if (target == AppointmentStatus.CANCELLED && moved.getDiscoveryId() != null && moved.getApptTime() != null) {
+            appointmentAvailabilityService.releaseAfterCommit(id, new Booking(moved.getDiscoveryId(), moved.getApptTime()));
+        }
+        appointmentReminderScheduler.onSaved(appointmentMapper.toEntity(moved));
+        if (transition.getSources().size() == 1) {
+            ownerStatsService.change(
+                moved.getOwnerId(),
+                Delta.appointments(transition.getSources().iterator().next(), 1),
+                moved.getOwnerId(),
+                Delta.appointments(target, 1)
+            );
+        } else {
+            afterCommit(() -> ownerStatsService.recount(List.of(moved.getOwnerId())));
+        }
+        return Optional.of(moved);
+    }
+
+    /**
+     * Move all the appointments of a pet or of a discovery along a transition of their status, with one set-based
+     * {@code UPDATE}.
+     * <p>
+     * The discoveries of the appointments are read first, and only the appointments of those discoveries are moved:
+     * a cancellation locks them before the update locks the rows, like the other writes of the appointments, and
+     * reloads their schedules after the commit. As the statement does not tell which rows it moved, the counters of
+     * the owners having appointments in the new status are counted again and the reminders reloaded, after the
+     * commit.
+     *
+     * @param transition the transition.
+     * @param petId the id of the pet, or {@code null} to move the appointments of the discovery.
+     * @param discoveryId the id of the discovery, used when no pet is given.
+     * @param sources the statuses to move, among the ones the transition applies to.
+     * @return the number of moved appointments.
+     */
+    public int transitionAll(AppointmentTransition transition, Long petId, Long discoveryId, Collection<AppointmentStatus> sources) {
+        LOG.debug("Request to {} the {} Appointments of pet {} or discovery {}", transition, sources, petId, discoveryId);
+        AppointmentStatus target = transition.getTarget();
+        List<Long> discoveryIds = petId != null
+            ? appointmentRepository.findDiscoveryIdsByPetIdAndStatusIn(petId, sources)
+            : List.of(discoveryId);
+        if (discoveryIds.isEmpty()) {
+            return 0;
+        }
+        if (target == AppointmentStatus.CANCELLED) {
+            appointmentAvailabilityService.invalidate(discoveryIds);
+        }
+        int moved = petId != null
+            ? appointmentRepository.transitionByPetId(petId, discoveryIds, sources, target)
+            : appointmentRepository.transitionByDiscoveryId(discoveryId, sources, target);
+        if (moved == 0) {
+            return 0;
+        }
+        List<AppointmentParties> parties = petId != null
+            ? appointmentRepository.findPartiesByPetIdAndStatus(petId, target)
+            : appointmentRepository.findPartiesByDiscoveryIdAndStatus(discoveryId, target);
+        List<Long> ownerIds = parties.stream().map(AppointmentParties::getOwnerId).toList();
+        afterCommit(() -> {
+            ownerStatsService.recount(ownerIds);
+            appointmentReminderScheduler.reload();
+        });
+        return moved;
+    }
+
     /**
      * Get one appointment by id.
      *
@@ -98,13 +319,77 @@ public class AppointmentService {
      */
     public void delete(Long id) {
         LOG.debug("Request to delete Appointment : {}", id);
-        appointmentRepository.deleteById(id);
+        appointmentRepository
+            .findById(id)
+            .ifPresent(appointment -> {
+                appointmentAvailabilityService.release(appointment.getId(), Booking.of(appointment));
+                // Deleted before counting, the counters created by this write count the rows without the appointment
+                appointmentRepository.delete(appointment);
+                ownerStatsService.increment(appointment.getOwnerId(), Delta.appointments(appointment.getStatus(), -1));
+            });
+        appointmentReminderScheduler.onDeleted(id);
     }
 
-    public List<AppointmentDTO> findByOwnerId(Long ownerId) {
-        return appointmentMapper.toDto(appointmentRepository.findByOwnerId(ownerId));
+    /**
+     * Reject the update of an appointment read at another version, when the client sent one.
+     */
+    private static void checkVersion(Appointment appointment, Long version) {
+        if (version != null && !version.equals(appointment.getVersion())) {
+            throw new ObjectOptimisticLockingFailureException(Appointment.class, appointment.getId());
+        }
+    }
+
+    private static void checkTransition(AppointmentStatus previous, AppointmentStatus next) {
+        if (!AppointmentTransition.isAllowed(previous, next)) {
+            throw new StatusTransitionException();
+        }
+    }
+
+    /**
+     * Reserve the slots of new appointments, with all their discoveries locked first.
+     */
+    private void reserveAll(List<Appointment> appointments) {
+        appointmentAvailabilityService.lock(appointments.stream().map(Appointment::getDiscoveryId).toList());
+        appointments.forEach(appointment -> appointmentAvailabilityService.reserve(appointment.getId(), null, Booking.of(appointment)));
+    }
+
+    private static AppointmentDTO toDto(AppointmentRow row) {
+        return new AppointmentDTO(
+            row.getId(),
+            row.getPetId(),
+            row.getOwnerId(),
+            row.getDiscoveryId(),
+            row.getApptTime(),
+            row.getStatus(),
+            row.getCreatedAt(),
+            row.getVersion()
+        );
+    }
+
+    private static void afterCommit(Runnable action) {
+        TransactionSynchronizationManager.registerSynchronization(
+            new TransactionSynchronization() {
+                @Override
+                public void afterCommit() {
+                    action.run();
+                }
+            }
+        );
     }
 
+    /**
+     * Move the appointment to the counters of its new owner and status.
+     */
+    private void countChange(Long previousOwnerId, AppointmentStatus previousStatus, Appointment appointment) {
+        ownerStatsService.change(
+            previousOwnerId,
+            Delta.appointments(previousStatus, 1),
+            appointment.getOwnerId(),
+            Delta.appointments(appointment.getStatus(), 1)
+        );
+    }
+
+    @Transactional(readOnly = true)
     public List<AppointmentDTO> findNextTwoAppointmentsByOwnerId(Long ownerId) {
         List<Appointment> appointments = appointmentRepository.findByOwnerIdAndStatusAndApptTimeAfterOrderByApptTimeAsc(
             ownerId,
@@ -115,19 +400,4 @@ public class AppointmentService {
         return appointments.stream().map(appointmentMapper::toDto).toList();
     }
 
-    /**
-     * Get all appointments by petId.
-     *
-     * @param petId the petId of the entity.
-     * @return list of appointments.
-     */
-    @Transactional(readOnly = true)
-    public List<AppointmentDTO> findByPetId(Long petId) {
-        LOG.debug("Request to get Appointments by petId : {}", petId);
-        return appointmentRepository.findByPetId(petId)
-            .stream()
-            .map(appointmentMapper::toDto)
-            .toList();
-    }
-
 }
@@ -0,0 +1,57 @@
+package petcare.service;
+
+import java.util.EnumSet;
+import java.util.Set;
+import petcare.domain.enumeration.AppointmentStatus;
+
+/**
+ * The moves of the {@link AppointmentStatus} state machine: a pending appointment is confirmed or cancelled, a
+ * confirmed one is completed or cancelled. Cancelled and done appointments do not move.
+ */
+public enum AppointmentTransition {
+    CONFIRM(AppointmentStatus.CONFIRMED, EnumSet.of(AppointmentStatus.PENDING)),
+    CANCEL(AppointmentStatus.CANCELLED, EnumSet.of(AppointmentStatus.PENDING, AppointmentStatus.CONFIRMED)),
+    COMPLETE(AppointmentStatus.DONE, EnumSet.of(AppointmentStatus.CONFIRMED));
+
+    private final AppointmentStatus target;
+
+    private final Set<AppointmentStatus> sources;
+
+    AppointmentTransition(AppointmentStatus target, Set<AppointmentStatus> sources) {
+        this.target = target;
+        this.sources = sources;
+    }
+
+    /**
+     * @return the status of the appointments after the transition.
+     */
+    public AppointmentStatus getTarget() {
+        return target;
+    }
+
+    /**
+     * @return the statuses the transition applies to, in their declaration order.
+     */
+    public Set<AppointmentStatus> getSources() {
+        return sources;
+    }
+
+    /**
+     * Whether an appointment may be written with a new status.
+     *
+     * @param previous the status of the appointment, {@code null} if it has none.
+     * @param next the new status.
+     * @return {@code true} if the status is unchanged, was not set, or moves along a transition.
+     */
+    public static boolean isAllowed(AppointmentStatus previous, AppointmentStatus next) {
+        if (previous == next || previous == null) {
+            return true;
+        }
+        for (AppointmentTransition transition : values()) {
+            if (transition.target == next && transition.sources.contains(previous)) {
+                return true;
+            }
+        }
+        return false;
+    }
+}
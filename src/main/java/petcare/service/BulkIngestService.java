@@ -0,0 +1,341 @@
+package petcare.service;
+
+import com.fasterxml.jackson.core.JsonParser;
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.core.JsonToken;
+import com.fasterxml.jackson.databind.DeserializationContext;
+import com.fasterxml.jackson.databind.JsonDeserializer;
+import com.fasterxml.jackson.databind.JsonMappingException;
+import com.fasterxml.jackson.databind.MappingIterator;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.ObjectReader;
+import com.fasterxml.jackson.databind.module.SimpleModule;
+import com.fasterxml.jackson.dataformat.csv.CsvMapper;
+import com.fasterxml.jackson.dataformat.csv.CsvSchema;
+import jakarta.persistence.EntityManager;
+import jakarta.validation.ConstraintViolation;
+import jakarta.validation.Validator;
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InputStreamReader;
+import java.nio.charset.StandardCharsets;
+import java.time.Instant;
+import java.time.LocalDateTime;
+import java.time.OffsetDateTime;
+import java.time.ZoneOffset;
+import java.time.format.DateTimeFormatter;
+import java.time.format.DateTimeParseException;
+import java.time.temporal.TemporalAccessor;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.function.Consumer;
+import java.util.function.Function;
+import java.util.stream.Collectors;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.BeanWrapperImpl;
+import org.springframework.core.NestedExceptionUtils;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.http.MediaType;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+import petcare.service.dto.BulkIngestReportDTO;
+
+/**
+ * Creates entities in bulk from an NDJSON or CSV stream.
+ * <p>
+ * NDJSON holds one DTO per line. CSV has a header line with the column names of the table, separated by {@code ;}
+ * (like the Liquibase fake data) or {@code ,}; its {@code id} column is ignored and timestamps without an offset are
+ * read as UTC.
+ * <p>
+ * The stream is read in chunks of {@value #CHUNK_SIZE} rows. Each row is validated like a single {@code POST}, and
+ * the valid rows of a chunk are inserted in one transaction, which Hibernate sends as JDBC batches. When a chunk
+ * fails in the database, or is refused by the caller, its rows are retried one by one so that only the faulty rows
+ * are rejected. Each chunk is
+ * flushed and detached from the persistence context, which the request keeps open, once saved: nothing but the
+ * current chunk and the first rejected rows are kept in memory.
+ */
+@Service
+public class BulkIngestService {
+
+    private static final Logger LOG = LoggerFactory.getLogger(BulkIngestService.class);
+
+    public static final String TEXT_CSV_VALUE = "text/csv";
+
+    private static final MediaType TEXT_CSV = MediaType.parseMediaType(TEXT_CSV_VALUE);
+
+    static final int CHUNK_SIZE = 1_000;
+
+    // Exported tables and fake data files carry the source ids, the ids of the new rows are always generated
+    private static final String ID_COLUMN = "id";
+
+    private final ObjectMapper objectMapper;
+
+    private final CsvMapper csvMapper = new CsvMapper();
+
+    private final Validator validator;
+
+    private final TransactionTemplate transactionTemplate;
+
+    private final EntityManager entityManager;
+
+    public BulkIngestService(
+        ObjectMapper objectMapper,
+        Validator validator,
+        PlatformTransactionManager transactionManager,
+        EntityManager entityManager
+    ) {
+        this.objectMapper = objectMapper
+            .copy()
+            .registerModule(new SimpleModule().addDeserializer(Instant.class, new LenientInstantDeserializer()));
+        this.validator = validator;
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+        this.entityManager = entityManager;
+    }
+
+    /**
+     * Read, validate and insert the rows of a stream.
+     *
+     * @param input the NDJSON or CSV stream.
+     * @param contentType the format of the stream, {@code application/x-ndjson} or {@code text/csv}.
+     * @param dtoClass the DTO each row is read into.
+     * @param toEntity the mapper from DTO to a new entity.
+     * @param repository the repository saving the entities.
+     * @return the report of the created and rejected rows.
+     */
+    public <D, E> BulkIngestReportDTO ingest(
+        InputStream input,
+        MediaType contentType,
+        Class<D> dtoClass,
+        Function<D, E> toEntity,
+        JpaRepository<E, ?> repository
+    ) {
+        return ingest(input, contentType, dtoClass, toEntity, repository, entities -> {});
+    }
+
+    /**
+     * Read, validate and insert the rows of a stream, with some work done in the transaction of each chunk.
+     *
+     * @param input the NDJSON or CSV stream.
+     * @param contentType the format of the stream, {@code application/x-ndjson} or {@code text/csv}.
+     * @param dtoClass the DTO each row is read into.
+     * @param toEntity the mapper from DTO to a new entity.
+     * @param repository the repository saving the entities.
+     * @param onSave called with the entities of a chunk, or of a retried row, once they have an id and before they
+     * are written; an exception rejects them.
+     * @return the report of the created and rejected rows.
+     */
+    public <D, E> BulkIngestReportDTO ingest(
+        InputStream input,
+        MediaType contentType,
+        Class<D> dtoClass,
+        Function<D, E> toEntity,
+        JpaRepository<E, ?> repository,
+        Consumer<List<E>> onSave
+    ) {
+        long start = System.nanoTime();
+        BulkIngestReportDTO report = new BulkIngestReportDTO();
+        List<Row<D>> chunk = new ArrayList<>(CHUNK_SIZE);
+        Consumer<Row<D>> consumer = row -> {
+            report.setReceived(report.getReceived() + 1);
+            String error = row.error() != null ? row.error() : validate(row.value());
+            if (error != null) {
+                report.addError(row.number(), error);
+                return;
+            }
+            chunk.add(row);
+            if (chunk.size() == CHUNK_SIZE) {
+                save(chunk, toEntity, repository, onSave, report);
+                chunk.clear();
+            }
+        };
+        try {
+            if (TEXT_CSV.isCompatibleWith(contentType)) {
+                readCsv(input, dtoClass, consumer);
+            } else {
+                readNdjson(input, dtoClass, consumer);
+            }
+        } catch (IOException e) {
+            // The rows read so far are kept, the report tells where the stream stopped
+            report.addError(report.getReceived() + 1, "Unreadable input: " + e.getMessage());
+        }
+        save(chunk, toEntity, repository, onSave, report);
+
+        long elapsedMillis = Math.max((System.nanoTime() - start) / 1_000_000, 1);
+        LOG.info(
+            "Bulk ingest of {} : {} rows received, {} created, {} rejected in {} ms ({} rows/s)",
+            dtoClass.getSimpleName(),
+            report.getReceived(),
+            report.getCreated(),
+            report.getRejected(),
+            elapsedMillis,
+            report.getReceived() * 1000 / elapsedMillis
+        );
+        return report;
+    }
+
+    private <D> void readNdjson(InputStream input, Class<D> dtoClass, Consumer<Row<D>> consumer) throws IOException {
+        ObjectReader reader = objectMapper.readerFor(dtoClass);
+        BufferedReader lines = new BufferedReader(new InputStreamReader(input, StandardCharsets.UTF_8));
+        long number = 0;
+        String line;
+        while ((line = lines.readLine()) != null) {
+            number++;
+            if (line.isBlank()) {
+                continue;
+            }
+            try {
+                consumer.accept(new Row<>(number, reader.readValue(line), null));
+            } catch (JsonProcessingException e) {
+                consumer.accept(new Row<>(number, null, "Invalid JSON: " + e.getOriginalMessage()));
+            }
+        }
+    }
+
+    private <D> void readCsv(InputStream input, Class<D> dtoClass, Consumer<Row<D>> consumer) throws IOException {
+        BufferedReader reader = new BufferedReader(new InputStreamReader(input, StandardCharsets.UTF_8));
+        reader.mark(8 * 1024);
+        String header = reader.readLine();
+        if (header == null) {
+            return;
+        }
+        reader.reset();
+        char separator = header.indexOf(';') >= 0 ? ';' : ',';
+        CsvSchema schema = CsvSchema.emptySchema().withHeader().withColumnSeparator(separator);
+
+        long number = 0;
+        try (MappingIterator<Map<String, String>> rows = csvMapper.readerForMapOf(String.class).with(schema).readValues(reader)) {
+            while (rows.hasNextValue()) {
+                number++;
+                Map<String, String> columns;
+                try {
+                    columns = rows.nextValue();
+                } catch (JsonProcessingException e) {
+                    consumer.accept(new Row<>(number, null, "Malformed CSV: " + e.getOriginalMessage()));
+                    continue;
+                }
+                Map<String, String> properties = new HashMap<>();
+                columns.forEach((column, value) -> {
+                    if (value != null && !value.isEmpty() && !ID_COLUMN.equals(column)) {
+                        properties.put(toPropertyName(column), value);
+                    }
+                });
+                try {
+                    consumer.accept(new Row<>(number, objectMapper.convertValue(properties, dtoClass), null));
+                } catch (IllegalArgumentException e) {
+                    String message = e.getCause() instanceof JsonMappingException mappingException
+                        ? mappingException.getOriginalMessage()
+                        : e.getMessage();
+                    consumer.accept(new Row<>(number, null, "Invalid value: " + message));
+                }
+            }
+        }
+    }
+
+    private <D> String validate(D dto) {
+        Object id = new BeanWrapperImpl(dto).getPropertyValue("id");
+        if (id != null) {
+            return "A new row cannot already have an ID";
+        }
+        Set<ConstraintViolation<D>> violations = validator.validate(dto);
+        if (violations.isEmpty()) {
+            return null;
+        }
+        return violations
+            .stream()
+            .map(violation -> violation.getPropertyPath() + ": " + violation.getMessage())
+            .sorted()
+            .collect(Collectors.joining(", "));
+    }
+
+    private <D, E> void save(
+        List<Row<D>> chunk,
+        Function<D, E> toEntity,
+        JpaRepository<E, ?> repository,
+        Consumer<List<E>> onSave,
+        BulkIngestReportDTO report
+    ) {
+        if (chunk.isEmpty()) {
+            return;
+        }
+        try {
+            List<E> entities = chunk.stream().map(row -> toEntity.apply(row.value())).toList();
+            transactionTemplate.executeWithoutResult(status -> {
+                onSave.accept(repository.saveAll(entities));
+                detach();
+            });
+            report.setCreated(report.getCreated() + chunk.size());
+            LOG.debug("Bulk ingest chunk of {} rows saved", chunk.size());
+        } catch (RuntimeException chunkException) {
+            LOG.debug("Bulk ingest chunk failed, retrying its {} rows one by one : {}", chunk.size(), chunkException.getMessage());
+            for (Row<D> row : chunk) {
+                try {
+                    // Map again, the entities of the failed chunk already have an id
+                    transactionTemplate.executeWithoutResult(status -> {
+                        onSave.accept(List.of(repository.save(toEntity.apply(row.value()))));
+                        detach();
+                    });
+                    report.setCreated(report.getCreated() + 1);
+                } catch (RuntimeException e) {
+                    report.addError(row.number(), "Not saved: " + NestedExceptionUtils.getMostSpecificCause(e).getMessage());
+                }
+            }
+        }
+    }
+
+    /**
+     * Write the saved entities and forget them, so that the persistence context of the request does not grow with
+     * the stream.
+     */
+    private void detach() {
+        entityManager.flush();
+        entityManager.clear();
+    }
+
+    /**
+     * Convert a column name ({@code pet_id}) to a DTO property name ({@code petId}).
+     */
+    private static String toPropertyName(String column) {
+        StringBuilder property = new StringBuilder(column.length());
+        boolean upper = false;
+        for (int i = 0; i < column.length(); i++) {
+            char c = column.charAt(i);
+            if (c == '_') {
+                upper = property.length() > 0;
+            } else {
+                property.append(upper ? Character.toUpperCase(c) : c);
+                upper = false;
+            }
+        }
+        return property.toString();
+    }
+
+    private record Row<D>(long number, D value, String error) {}
+
+    /**
+     * Reads ISO-8601 instants, with or without an offset (UTC is assumed without).
+     */
+    private static final class LenientInstantDeserializer extends JsonDeserializer<Instant> {
+
+        @Override
+        public Instant deserialize(JsonParser parser, DeserializationContext context) throws IOException {
+            if (parser.currentToken() != JsonToken.VALUE_STRING) {
+                return (Instant) context.handleUnexpectedToken(Instant.class, parser);
+            }
+            String text = parser.getText().trim();
+            try {
+                TemporalAccessor temporal = DateTimeFormatter.ISO_DATE_TIME.parseBest(text, OffsetDateTime::from, LocalDateTime::from);
+                return temporal instanceof OffsetDateTime offsetDateTime
+                    ? offsetDateTime.toInstant()
+                    : ((LocalDateTime) temporal).toInstant(ZoneOffset.UTC);
+            } catch (DateTimeParseException e) {
+                return (Instant) context.handleWeirdStringValue(Instant.class, text, "not an ISO-8601 date-time");
+            }
+        }
+    }
+}
@@ -2,8 +2,10 @@ package petcare.service;
 
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
+import org.springframework.data.domain.KeysetScrollPosition;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Window;
 import org.springframework.data.jpa.domain.Specification;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
@@ -49,6 +51,23 @@ public class DiscoveryQueryService extends QueryService<Discovery> {
         return discoveryRepository.findAll(specification, page).map(discoveryMapper::toDto);
     }
 
+    /**
+     * Return a {@link Window} of {@link DiscoveryDTO} which matches the criteria from the database, using keyset pagination.
+     * The rows are filtered with seek predicates on the sort keys (and id) of the given position, and no count query is run.
+     * @param criteria The object which holds all the filters, which the entities should match.
+     * @param position The keyset position to continue after.
+     * @param page The page size and sort, the page number is ignored.
+     * @return the matching entities.
+     */
+    @Transactional(readOnly = true)
+    public Window<DiscoveryDTO> findByCriteria(DiscoveryCriteria criteria, KeysetScrollPosition position, Pageable page) {
+        LOG.debug("find by criteria : {}, position: {}, page: {}", criteria, position, page);
+        final Specification<Discovery> specification = createSpecification(criteria);
+        return discoveryRepository
+            .findBy(specification, query -> query.sortBy(page.getSort()).limit(page.getPageSize()).scroll(position))
+            .map(discoveryMapper::toDto);
+    }
+
     /**
      * Return the number of matching entities in the database.
      * @param criteria The object which holds all the filters, which the entities should match.
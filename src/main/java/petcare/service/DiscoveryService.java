@@ -4,12 +4,17 @@ import java.util.List;
 import java.util.Optional;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.PageImpl;
+import org.springframework.data.domain.Pageable;
+import org.springframework.orm.ObjectOptimisticLockingFailureException;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
 import petcare.domain.Discovery;
 import petcare.repository.DiscoveryRepository;
 import petcare.service.dto.DiscoveryDTO;
 import petcare.service.mapper.DiscoveryMapper;
+import petcare.service.search.DiscoverySearchIndex;
 
 /**
  * Service Implementation for managing {@link petcare.domain.Discovery}.
@@ -24,9 +29,16 @@ public class DiscoveryService {
 
     private final DiscoveryMapper discoveryMapper;
 
-    public DiscoveryService(DiscoveryRepository discoveryRepository, DiscoveryMapper discoveryMapper) {
+    private final DiscoverySearchIndex discoverySearchIndex;
+
+    public DiscoveryService(
+        DiscoveryRepository discoveryRepository,
+        DiscoveryMapper discoveryMapper,
+        DiscoverySearchIndex discoverySearchIndex
+    ) {
         this.discoveryRepository = discoveryRepository;
         this.discoveryMapper = discoveryMapper;
+        this.discoverySearchIndex = discoverySearchIndex;
     }
 
     /**
@@ -39,20 +51,36 @@ public class DiscoveryService {
         LOG.debug("Request to save Discovery : {}", discoveryDTO);
         Discovery discovery = discoveryMapper.toEntity(discoveryDTO);
         discovery = discoveryRepository.save(discovery);
-        return discoveryMapper.toDto(discovery);
+        DiscoveryDTO result = discoveryMapper.toDto(discovery);
+        discoverySearchIndex.index(result);
+        return result;
     }
 
     /**
      * Update a discovery.
+     * <p>
+     * The discovery is read (from the second-level cache, which a conditional statement would evict entirely),
+     * checked against the version of the DTO and updated through the entity.
      *
      * @param discoveryDTO the entity to save.
-     * @return the persisted entity.
+     * @return the persisted entity, or empty if the discovery does not exist.
+     * @throws ObjectOptimisticLockingFailureException if the discovery was updated since the version of the DTO.
      */
-    public DiscoveryDTO update(DiscoveryDTO discoveryDTO) {
+    public Optional<DiscoveryDTO> update(DiscoveryDTO discoveryDTO) {
         LOG.debug("Request to update Discovery : {}", discoveryDTO);
         Discovery discovery = discoveryMapper.toEntity(discoveryDTO);
-        discovery = discoveryRepository.save(discovery);
-        return discoveryMapper.toDto(discovery);
+        return discoveryRepository
+            .findById(discovery.getId())
+            .map(existingDiscovery -> {
+                checkVersion(existingDiscovery, discoveryDTO.getVersion());
+                discovery.setVersion(existingDiscovery.getVersion());
+                return discoveryRepository.saveAndFlush(discovery);
+            })
+            .map(discoveryMapper::toDto)
+            .map(result -> {
+                discoverySearchIndex.index(result);
+                return result;
+            });
     }
 
     /**
@@ -60,6 +88,7 @@ public class DiscoveryService {
      *
      * @param discoveryDTO the entity to update partially.
      * @return the persisted entity.
+     * @throws ObjectOptimisticLockingFailureException if the discovery was updated since the version of the DTO.
      */
     public Optional<DiscoveryDTO> partialUpdate(DiscoveryDTO discoveryDTO) {
         LOG.debug("Request to partially update Discovery : {}", discoveryDTO);
@@ -67,12 +96,17 @@ public class DiscoveryService {
         return discoveryRepository
             .findById(discoveryDTO.getId())
             .map(existingDiscovery -> {
+                checkVersion(existingDiscovery, discoveryDTO.getVersion());
                 discoveryMapper.partialUpdate(existingDiscovery, discoveryDTO);
 
                 return existingDiscovery;
             })
-            .map(discoveryRepository::save)
-            .map(discoveryMapper::toDto);
+            .map(discoveryRepository::saveAndFlush)
+            .map(discoveryMapper::toDto)
+            .map(result -> {
+                discoverySearchIndex.index(result);
+                return result;
+            });
     }
 
     /**
@@ -95,11 +129,40 @@ public class DiscoveryService {
     public void delete(Long id) {
         LOG.debug("Request to delete Discovery : {}", id);
         discoveryRepository.deleteById(id);
+        discoverySearchIndex.remove(id);
     }
 
     @Transactional(readOnly = true)
     public List<DiscoveryDTO> findAllByIds(List<Long> ids) {
         LOG.debug("Request to get Discoveries by ids : {}", ids);
-        return discoveryRepository.findAllById(ids).stream().map(discoveryMapper::toDto).toList();
+        return discoveryRepository.findAllByIdFromCache(ids).stream().map(discoveryMapper::toDto).toList();
+    }
+
+    /**
+     * Search the discoveries with the full-text index, best matches first.
+     *
+     * @param query the text to search.
+     * @param pageable the pagination information, its sort is ignored.
+     * @return the page of matching discoveries.
+     */
+    @Transactional(readOnly = true)
+    public Page<DiscoveryDTO> search(String query, Pageable pageable) {
+        LOG.debug("Request to search Discoveries : {}", query);
+        Page<Long> ids = discoverySearchIndex.search(query, pageable);
+        List<DiscoveryDTO> content = discoveryRepository
+            .findAllByIdFromCache(ids.getContent())
+            .stream()
+            .map(discoveryMapper::toDto)
+            .toList();
+        return new PageImpl<>(content, pageable, ids.getTotalElements());
+    }
+
+    /**
+     * Reject the update of a discovery read at another version, when the client sent one.
+     */
+    private static void checkVersion(Discovery discovery, Long version) {
+        if (version != null && !version.equals(discovery.getVersion())) {
+            throw new ObjectOptimisticLockingFailureException(Discovery.class, discovery.getId());
+        }
     }
 }
@@ -0,0 +1,316 @@
+package petcare.service;
+
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.databind.MapperFeature;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.SequenceWriter;
+import com.fasterxml.jackson.databind.SerializationFeature;
+import com.fasterxml.jackson.dataformat.csv.CsvMapper;
+import com.fasterxml.jackson.dataformat.csv.CsvSchema;
+import com.fasterxml.jackson.datatype.jsr310.JavaTimeModule;
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.criteria.CriteriaBuilder;
+import jakarta.persistence.criteria.CriteriaQuery;
+import jakarta.persistence.criteria.Predicate;
+import jakarta.persistence.criteria.Root;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.UncheckedIOException;
+import java.nio.charset.StandardCharsets;
+import java.util.function.Function;
+import java.util.stream.Collectors;
+import java.util.stream.StreamSupport;
+import org.hibernate.ScrollMode;
+import org.hibernate.ScrollableResults;
+import org.hibernate.Session;
+import org.hibernate.SessionFactory;
+import org.hibernate.StatelessSession;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.data.domain.Sort;
+import org.springframework.data.jpa.domain.Specification;
+import org.springframework.data.jpa.repository.query.QueryUtils;
+import org.springframework.http.MediaType;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+
+/**
+ * Writes all the entities matching a {@link Specification} to an output stream, as NDJSON, CSV or a JSON array.
+ * <p>
+ * The rows are read with a forward-only cursor of a read-only {@link StatelessSession} opened on the connection of
+ * the current transaction: nothing is kept in a persistence context, and the JDBC driver fetches
+ * {@value #FETCH_SIZE} rows at a time, so the memory used does not depend on the number of exported rows.
+ * The CSV has the same shape as the bulk ingest input: a header line with the column names, {@code ;} separated.
+ */
+@Service
+public class ExportService {
+
+    private static final Logger LOG = LoggerFactory.getLogger(ExportService.class);
+
+    public static final String TEXT_CSV_VALUE = BulkIngestService.TEXT_CSV_VALUE;
+
+    private static final MediaType TEXT_CSV = MediaType.parseMediaType(TEXT_CSV_VALUE);
+
+    static final int FETCH_SIZE = 500;
+
+    private static final char CSV_SEPARATOR = ';';
+
+    private final EntityManager entityManager;
+
+    private final ObjectMapper objectMapper;
+
+    private final CsvMapper csvMapper;
+
+    public ExportService(EntityManager entityManager, ObjectMapper objectMapper) {
+        this.entityManager = entityManager;
+        this.objectMapper = objectMapper;
+        this.csvMapper = CsvMapper.builder()
+            .addModule(new JavaTimeModule())
+            .disable(SerializationFeature.WRITE_DATES_AS_TIMESTAMPS)
+            // Keep the columns in the DTO field order, like the tables
+            .disable(MapperFeature.SORT_PROPERTIES_ALPHABETICALLY)
+            .build();
+    }
+
+    /**
+     * Choose the export format from an {@code Accept} header.
+     *
+     * @param accept the {@code Accept} header, can be {@code null}.
+     * @return {@code text/csv} if it is accepted before NDJSON, {@code application/x-ndjson} otherwise.
+     */
+    public static MediaType negotiateFormat(String accept) {
+        if (accept != null) {
+            for (MediaType mediaType : MediaType.parseMediaTypes(accept)) {
+                if (TEXT_CSV.equalsTypeAndSubtype(mediaType)) {
+                    return TEXT_CSV;
+                }
+                if (MediaType.APPLICATION_NDJSON.equalsTypeAndSubtype(mediaType)) {
+                    return MediaType.APPLICATION_NDJSON;
+                }
+            }
+        }
+        return MediaType.APPLICATION_NDJSON;
+    }
+
+    /**
+     * Stream the matching entities, ordered by id, to the output.
+     *
+     * @param entityClass the exported entity.
+     * @param specification the filters, can be {@code null}.
+     * @param toDto the mapper from entity to the written DTO.
+     * @param dtoClass the written DTO.
+     * @param format {@code application/x-ndjson} or {@code text/csv}.
+     * @param output the stream to write to, it is flushed but not closed.
+     * @return the number of exported rows.
+     * @throws IOException if the output can not be written, for example when the client went away.
+     */
+    @Transactional(readOnly = true)
+    public <E, D> long export(
+        Class<E> entityClass,
+        Specification<E> specification,
+        Function<E, D> toDto,
+        Class<D> dtoClass,
+        MediaType format,
+        OutputStream output
+    ) throws IOException {
+        return export(entityClass, specification, Sort.by("id"), toDto, dtoClass, format, output);
+    }
+
+    /**
+     * Stream the matching entities, in the given order, to the output.
+     *
+     * @param entityClass the exported entity.
+     * @param specification the filters, can be {@code null}.
+     * @param sort the order of the rows, on entity attributes.
+     * @param toDto the mapper from entity to the written DTO.
+     * @param dtoClass the written DTO.
+     * @param format {@code application/x-ndjson}, {@code text/csv} or {@code application/json} for a JSON array.
+     * @param output the stream to write to, it is flushed but not closed.
+     * @return the number of exported rows.
+     * @throws IOException if the output can not be written, for example when the client went away.
+     */
+    @Transactional(readOnly = true)
+    public <E, D> long export(
+        Class<E> entityClass,
+        Specification<E> specification,
+        Sort sort,
+        Function<E, D> toDto,
+        Class<D> dtoClass,
+        MediaType format,
+        OutputStream output
+    ) throws IOException {
+        long start = System.nanoTime();
+        try {
+            long count = entityManager
+                .unwrap(Session.class)
+                .doReturningWork(connection -> {
+                    try (
+                        StatelessSession session = entityManager
+                            .getEntityManagerFactory()
+                            .unwrap(SessionFactory.class)
+                            .withStatelessOptions()
+                            .connection(connection)
+                            .openStatelessSession();
+                        RowWriter<D> writer = writer(format, dtoClass, output)
+                    ) {
+                        return write(session, entityClass, specification, sort, toDto, writer);
+                    } catch (IOException e) {
+                        throw new UncheckedIOException(e);
+                    }
+                });
+            LOG.debug(
+                "Exported {} {} rows as {} in {} ms",
+                count,
+                entityClass.getSimpleName(),
+                format,
+                (System.nanoTime() - start) / 1_000_000
+            );
+            return count;
+        } catch (UncheckedIOException e) {
+            throw e.getCause();
+        }
+    }
+
+    private static <E, D> long write(
+        StatelessSession session,
+        Class<E> entityClass,
+        Specification<E> specification,
+        Sort sort,
+        Function<E, D> toDto,
+        RowWriter<D> writer
+    ) throws IOException {
+        CriteriaBuilder cb = session.getCriteriaBuilder();
+        CriteriaQuery<E> query = cb.createQuery(entityClass);
+        Root<E> root = query.from(entityClass);
+        Predicate predicate = specification == null ? null : specification.toPredicate(root, query, cb);
+        if (predicate != null) {
+            query.where(predicate);
+        }
+        query.orderBy(QueryUtils.toOrders(sort, root, cb));
+
+        long count = 0;
+        try (
+            ScrollableResults<E> results = session
+                .createQuery(query)
+                .setReadOnly(true)
+                .setFetchSize(FETCH_SIZE)
+                .scroll(ScrollMode.FORWARD_ONLY)
+        ) {
+            while (results.next()) {
+                writer.write(toDto.apply(results.get()));
+                count++;
+            }
+        }
+        return count;
+    }
+
+    private <D> RowWriter<D> writer(MediaType format, Class<D> dtoClass, OutputStream output) throws IOException {
+        if (TEXT_CSV.equalsTypeAndSubtype(format)) {
+            return csvWriter(dtoClass, output);
+        }
+        if (MediaType.APPLICATION_JSON.equalsTypeAndSubtype(format)) {
+            return jsonArrayWriter(output);
+        }
+        return ndjsonWriter(output);
+    }
+
+    private <D> RowWriter<D> ndjsonWriter(OutputStream output) throws IOException {
+        SequenceWriter writer = objectMapper
+            .writer()
+            .without(SerializationFeature.INDENT_OUTPUT)
+            .without(SerializationFeature.FLUSH_AFTER_WRITE_VALUE)
+            .without(JsonGenerator.Feature.AUTO_CLOSE_TARGET)
+            .withRootValueSeparator("\n")
+            .writeValues(output);
+        return new RowWriter<>() {
+            private boolean empty = true;
+
+            @Override
+            public void write(D row) throws IOException {
+                writer.write(row);
+                empty = false;
+            }
+
+            @Override
+            public void close() throws IOException {
+                writer.close();
+                if (!empty) {
+                    output.write('\n');
+                }
+                output.flush();
+            }
+        };
+    }
+
+    private <D> RowWriter<D> jsonArrayWriter(OutputStream output) throws IOException {
+        // The array is closed when the writer is, an empty export is "[]"
+        SequenceWriter writer = objectMapper
+            .writer()
+            .without(SerializationFeature.INDENT_OUTPUT)
+            .without(SerializationFeature.FLUSH_AFTER_WRITE_VALUE)
+            .without(JsonGenerator.Feature.AUTO_CLOSE_TARGET)
+            .writeValuesAsArray(output);
+        return new RowWriter<>() {
+            @Override
+            public void write(D row) throws IOException {
+                writer.write(row);
+            }
+
+            @Override
+            public void close() throws IOException {
+                writer.close();
+                output.flush();
+            }
+        };
+    }
+
+    private <D> RowWriter<D> csvWriter(Class<D> dtoClass, OutputStream output) throws IOException {
+        CsvSchema schema = csvMapper.schemaFor(dtoClass).withColumnSeparator(CSV_SEPARATOR).withoutHeader();
+        // The header uses the column names, like the bulk ingest input and the Liquibase fake data
+        String header = StreamSupport.stream(schema.spliterator(), false)
+            .map(column -> toColumnName(column.getName()))
+            .collect(Collectors.joining(String.valueOf(CSV_SEPARATOR), "", "\n"));
+        output.write(header.getBytes(StandardCharsets.UTF_8));
+
+        SequenceWriter writer = csvMapper
+            .writer(schema)
+            .without(SerializationFeature.FLUSH_AFTER_WRITE_VALUE)
+            .without(JsonGenerator.Feature.AUTO_CLOSE_TARGET)
+            .writeValues(output);
+        return new RowWriter<>() {
+            @Override
+            public void write(D row) throws IOException {
+                writer.write(row);
+            }
+
+            @Override
+            public void close() throws IOException {
+                writer.close();
+                output.flush();
+            }
+        };
+    }
+
+    /**
+     * Convert a DTO property name ({@code petId}) to a column name ({@code pet_id}).
+     */
+    private static String toColumnName(String property) {
+        StringBuilder column = new StringBuilder(property.length() + 4);
+        for (int i = 0; i < property.length(); i++) {
+            char c = property.charAt(i);
+            if (Character.isUpperCase(c)) {
+                column.append('_').append(Character.toLowerCase(c));
+            } else {
+                column.append(c);
+            }
+        }
+        return column.toString();
+    }
+
+    private interface RowWriter<D> extends AutoCloseable {
+        void write(D row) throws IOException;
+
+        @Override
+        void close() throws IOException;
+    }
+}
@@ -1,15 +1,26 @@
 package petcare.service;
 
+import jakarta.persistence.criteria.CriteriaBuilder;
+import jakarta.persistence.criteria.Root;
+import jakarta.persistence.criteria.Selection;
+import java.io.IOException;
+import java.io.OutputStream;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
+import org.springframework.data.domain.KeysetScrollPosition;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Sort;
+import org.springframework.data.domain.Window;
 import org.springframework.data.jpa.domain.Specification;
+import org.springframework.http.MediaType;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
+import petcare.config.ApplicationProperties;
 import petcare.domain.*; // for static metamodels
 import petcare.domain.HealthRecord;
 import petcare.repository.HealthRecordRepository;
+import petcare.repository.SpecificationProjectionExecutor;
 import petcare.service.criteria.HealthRecordCriteria;
 import petcare.service.dto.HealthRecordDTO;
 import petcare.service.mapper.HealthRecordMapper;
@@ -27,17 +38,39 @@ public class HealthRecordQueryService extends QueryService<HealthRecord> {
 
     private static final Logger LOG = LoggerFactory.getLogger(HealthRecordQueryService.class);
 
+    /**
+     * The order of the pages and exports of the health records of a pet, the latest first: the creation time is not
+     * always set, the ids are allocated in creation order.
+     */
+    public static final Sort BY_TIME = Sort.by(Sort.Order.desc(HealthRecord_.ID));
+
     private final HealthRecordRepository healthRecordRepository;
 
     private final HealthRecordMapper healthRecordMapper;
 
-    public HealthRecordQueryService(HealthRecordRepository healthRecordRepository, HealthRecordMapper healthRecordMapper) {
+    private final SpecificationProjectionExecutor projectionExecutor;
+
+    private final ExportService exportService;
+
+    private final int maxPageSize;
+
+    public HealthRecordQueryService(
+        HealthRecordRepository healthRecordRepository,
+        HealthRecordMapper healthRecordMapper,
+        SpecificationProjectionExecutor projectionExecutor,
+        ExportService exportService,
+        ApplicationProperties applicationProperties
+    ) {
         this.healthRecordRepository = healthRecordRepository;
         this.healthRecordMapper = healthRecordMapper;
+        this.projectionExecutor = projectionExecutor;
+        this.exportService = exportService;
+        this.maxPageSize = applicationProperties.getPagination().getMaxPageSize();
     }
 
     /**
      * Return a {@link Page} of {@link HealthRecordDTO} which matches the criteria from the database.
+     * The DTOs are selected directly, without loading the entities in the persistence context.
      * @param criteria The object which holds all the filters, which the entities should match.
      * @param page The page, which should be returned.
      * @return the matching entities.
@@ -46,7 +79,79 @@ public class HealthRecordQueryService extends QueryService<HealthRecord> {
     public Page<HealthRecordDTO> findByCriteria(HealthRecordCriteria criteria, Pageable page) {
         LOG.debug("find by criteria : {}, page: {}", criteria, page);
         final Specification<HealthRecord> specification = createSpecification(criteria);
-        return healthRecordRepository.findAll(specification, page).map(healthRecordMapper::toDto);
+        return projectionExecutor.findAll(HealthRecord.class, HealthRecordDTO.class, specification, page, this::toDto);
+    }
+
+    /**
+     * Return a {@link Window} of {@link HealthRecordDTO} which matches the criteria from the database, using keyset pagination.
+     * The rows are filtered with seek predicates on the sort keys (and id) of the given position, and no count query is run.
+     * The DTOs are selected directly, without loading the entities in the persistence context.
+     * @param criteria The object which holds all the filters, which the entities should match.
+     * @param position The keyset position to continue after.
+     * @param page The page size and sort, the page number is ignored.
+     * @return the matching entities.
+     */
+    @Transactional(readOnly = true)
+    public Window<HealthRecordDTO> findByCriteria(HealthRecordCriteria criteria, KeysetScrollPosition position, Pageable page) {
+        LOG.debug("find by criteria : {}, position: {}, page: {}", criteria, position, page);
+        final Specification<HealthRecord> specification = createSpecification(criteria);
+        return projectionExecutor.findWindow(
+            HealthRecord.class,
+            HealthRecordDTO.class,
+            specification,
+            page.getSort(),
+            position,
+            page.getPageSize(),
+            this::toDto
+        );
+    }
+
+    /**
+     * Return a {@link Window} of the health records of a pet, the latest first, using keyset pagination.
+     * @param petId the id of the pet.
+     * @param position The keyset position to continue after.
+     * @param size the requested page size, capped at {@code application.pagination.max-page-size}.
+     * @return the health records of the pet.
+     */
+    @Transactional(readOnly = true)
+    public Window<HealthRecordDTO> findByPetId(Long petId, KeysetScrollPosition position, int size) {
+        LOG.debug("find by petId : {}, position: {}, size: {}", petId, position, size);
+        int limit = Math.max(1, Math.min(size, maxPageSize));
+        return projectionExecutor.findWindow(
+            HealthRecord.class,
+            HealthRecordDTO.class,
+            byPetId(petId),
+            BY_TIME,
+            position,
+            limit,
+            this::toDto
+        );
+    }
+
+    /**
+     * Write all the health records of a pet to an output stream as a JSON array, the latest first.
+     * The entities are streamed from the database, see {@link ExportService}.
+     * @param petId the id of the pet.
+     * @param output The stream to write to.
+     * @return the number of written health records.
+     * @throws IOException if the output can not be written.
+     */
+    @Transactional(readOnly = true)
+    public long exportByPetId(Long petId, OutputStream output) throws IOException {
+        LOG.debug("export by petId : {}", petId);
+        return exportService.export(
+            HealthRecord.class,
+            byPetId(petId),
+            BY_TIME,
+            healthRecordMapper::toDto,
+            HealthRecordDTO.class,
+            MediaType.APPLICATION_JSON,
+            output
+        );
+    }
+
+    private static Specification<HealthRecord> byPetId(Long petId) {
+        return (root, query, cb) -> cb.equal(root.get(HealthRecord_.petId), petId);
     }
 
     /**
@@ -61,6 +166,43 @@ public class HealthRecordQueryService extends QueryService<HealthRecord> {
         return healthRecordRepository.count(specification);
     }
 
+    /**
+     * Write all the {@link HealthRecordDTO} which match the criteria to an output stream, ordered by id.
+     * The entities are streamed from the database, see {@link ExportService}.
+     * @param criteria The object which holds all the filters, which the entities should match.
+     * @param format The output format, NDJSON or CSV.
+     * @param output The stream to write to.
+     * @return the number of exported entities.
+     * @throws IOException if the output can not be written.
+     */
+    @Transactional(readOnly = true)
+    public long exportByCriteria(HealthRecordCriteria criteria, MediaType format, OutputStream output) throws IOException {
+        LOG.debug("export by criteria : {}, format: {}", criteria, format);
+        final Specification<HealthRecord> specification = createSpecification(criteria);
+        return exportService.export(HealthRecord.class, specification, healthRecordMapper::toDto, HealthRecordDTO.class, format, output);
+    }
+
+    /**
+     * Function to select a {@link HealthRecordDTO} from a {@link HealthRecord} root, the arguments follow the DTO constructor.
+     * @param cb The criteria builder of the query.
+     * @param root The {@link HealthRecord} root of the query.
+     * @return the DTO constructor selection.
+     */
+    protected Selection<HealthRecordDTO> toDto(CriteriaBuilder cb, Root<HealthRecord> root) {
+        return cb.construct(
+            HealthRecordDTO.class,
+            root.get(HealthRecord_.id),
+            root.get(HealthRecord_.petId),
+            root.get(HealthRecord_.vetId),
+            root.get(HealthRecord_.apptId),
+            root.get(HealthRecord_.diagnosis),
+            root.get(HealthRecord_.treatment),
+            root.get(HealthRecord_.notes),
+            root.get(HealthRecord_.createdAt),
+            root.get(HealthRecord_.version)
+        );
+    }
+
     /**
      * Function to convert {@link HealthRecordCriteria} to a {@link Specification}
      * @param criteria The object which holds all the filters, which the entities should match.
@@ -1,13 +1,28 @@
 package petcare.service;
 
+import java.io.InputStream;
+import java.time.Instant;
+import java.util.HashSet;
 import java.util.List;
+import java.util.Objects;
 import java.util.Optional;
+import java.util.Set;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
+import org.springframework.http.MediaType;
+import org.springframework.orm.ObjectOptimisticLockingFailureException;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Propagation;
 import org.springframework.transaction.annotation.Transactional;
 import petcare.domain.HealthRecord;
+import petcare.domain.OwnerStats;
+import petcare.domain.Pet;
+import petcare.repository.ConditionalUpdateExecutor;
+import petcare.repository.ConditionalUpdateExecutor.Outcome;
 import petcare.repository.HealthRecordRepository;
+import petcare.repository.PetRepository;
+import petcare.service.OwnerStatsService.Delta;
+import petcare.service.dto.BulkIngestReportDTO;
 import petcare.service.dto.HealthRecordDTO;
 import petcare.service.mapper.HealthRecordMapper;
 
@@ -20,13 +35,35 @@ public class HealthRecordService {
 
     private static final Logger LOG = LoggerFactory.getLogger(HealthRecordService.class);
 
+    // The owner counters need the previous pet
+    private static final Set<String> UPDATE_GUARDS = Set.of("petId");
+
     private final HealthRecordRepository healthRecordRepository;
 
     private final HealthRecordMapper healthRecordMapper;
 
-    public HealthRecordService(HealthRecordRepository healthRecordRepository, HealthRecordMapper healthRecordMapper) {
+    private final BulkIngestService bulkIngestService;
+
+    private final PetRepository petRepository;
+
+    private final OwnerStatsService ownerStatsService;
+
+    private final ConditionalUpdateExecutor conditionalUpdateExecutor;
+
+    public HealthRecordService(
+        HealthRecordRepository healthRecordRepository,
+        HealthRecordMapper healthRecordMapper,
+        BulkIngestService bulkIngestService,
+        PetRepository petRepository,
+        OwnerStatsService ownerStatsService,
+        ConditionalUpdateExecutor conditionalUpdateExecutor
+    ) {
         this.healthRecordRepository = healthRecordRepository;
         this.healthRecordMapper = healthRecordMapper;
+        this.bulkIngestService = bulkIngestService;
+        this.petRepository = petRepository;
+        this.ownerStatsService = ownerStatsService;
+        this.conditionalUpdateExecutor = conditionalUpdateExecutor;
     }
 
     /**
@@ -38,21 +75,79 @@ public class HealthRecordService {
     public HealthRecordDTO save(HealthRecordDTO healthRecordDTO) {
         LOG.debug("Request to save HealthRecord : {}", healthRecordDTO);
         HealthRecord healthRecord = healthRecordMapper.toEntity(healthRecordDTO);
+        // The records are placed on the timeline of their pet by creation time
+        if (healthRecord.getCreatedAt() == null) {
+            healthRecord.setCreatedAt(Instant.now());
+        }
         healthRecord = healthRecordRepository.save(healthRecord);
+        ownerStatsService.increment(ownerOf(healthRecord.getPetId()), Delta.healthRecords(1));
         return healthRecordMapper.toDto(healthRecord);
     }
 
     /**
      * Update a healthRecord.
+     * <p>
+     * With the version it was read at, the health record is updated by a single conditional statement, whose affected
+     * row count is the answer: when it updates nothing, a probe of the row tells a missing health record from a stale
+     * version. Only a change of pet, whose counters need the previous pet, or a DTO without version is read and
+     * updated through the entity.
      *
      * @param healthRecordDTO the entity to save.
-     * @return the persisted entity.
+     * @return the persisted entity, or empty if the health record does not exist.
+     * @throws ObjectOptimisticLockingFailureException if the health record was updated since the version of the DTO.
      */
-    public HealthRecordDTO update(HealthRecordDTO healthRecordDTO) {
+    public Optional<HealthRecordDTO> update(HealthRecordDTO healthRecordDTO) {
         LOG.debug("Request to update HealthRecord : {}", healthRecordDTO);
         HealthRecord healthRecord = healthRecordMapper.toEntity(healthRecordDTO);
-        healthRecord = healthRecordRepository.save(healthRecord);
-        return healthRecordMapper.toDto(healthRecord);
+        if (healthRecord.getVersion() != null) {
+            Outcome outcome = conditionalUpdateExecutor.updateIfUnchanged(healthRecord, UPDATE_GUARDS);
+            if (outcome == Outcome.UPDATED) {
+                return Optional.of(healthRecordMapper.toDto(healthRecord.version(healthRecord.getVersion() + 1)));
+            }
+            if (outcome == Outcome.NOT_FOUND) {
+                return Optional.empty();
+            }
+            if (outcome == Outcome.VERSION_CHANGED) {
+                throw new ObjectOptimisticLockingFailureException(HealthRecord.class, healthRecord.getId());
+            }
+        }
+        return healthRecordRepository
+            .findById(healthRecord.getId())
+            .map(existingHealthRecord -> {
+                checkVersion(existingHealthRecord, healthRecordDTO.getVersion());
+                Long previousPetId = existingHealthRecord.getPetId();
+                healthRecord.setVersion(existingHealthRecord.getVersion());
+                HealthRecord saved = healthRecordRepository.saveAndFlush(healthRecord);
+                countPetChange(previousPetId, saved.getPetId());
+                return healthRecordMapper.toDto(saved);
+            });
+    }
+
+    /**
+     * Create health records in bulk from an NDJSON or CSV stream, in chunks committed one after the other, then count
+     * the owners of their pets again.
+     *
+     * @param input the stream of health records.
+     * @param contentType the format of the stream.
+     * @return the report of the created and rejected rows.
+     */
+    @Transactional(propagation = Propagation.NOT_SUPPORTED)
+    public BulkIngestReportDTO ingest(InputStream input, MediaType contentType) {
+        LOG.debug("Request to ingest HealthRecords in bulk : {}", contentType);
+        // Also holds the owners of the rows of failed chunks, which are only counted again for nothing
+        Set<Long> ownerIds = new HashSet<>();
+        try {
+            return bulkIngestService.ingest(
+                input,
+                contentType,
+                HealthRecordDTO.class,
+                healthRecordMapper::toEntity,
+                healthRecordRepository,
+                healthRecords -> ownerIds.addAll(ownersOf(healthRecords))
+            );
+        } finally {
+            ownerStatsService.recount(ownerIds);
+        }
     }
 
     /**
@@ -60,6 +155,7 @@ public class HealthRecordService {
      *
      * @param healthRecordDTO the entity to update partially.
      * @return the persisted entity.
+     * @throws ObjectOptimisticLockingFailureException if the health record was updated since the version of the DTO.
      */
     public Optional<HealthRecordDTO> partialUpdate(HealthRecordDTO healthRecordDTO) {
         LOG.debug("Request to partially update HealthRecord : {}", healthRecordDTO);
@@ -67,11 +163,14 @@ public class HealthRecordService {
         return healthRecordRepository
             .findById(healthRecordDTO.getId())
             .map(existingHealthRecord -> {
+                checkVersion(existingHealthRecord, healthRecordDTO.getVersion());
+                Long previousPetId = existingHealthRecord.getPetId();
                 healthRecordMapper.partialUpdate(existingHealthRecord, healthRecordDTO);
+                countPetChange(previousPetId, existingHealthRecord.getPetId());
 
                 return existingHealthRecord;
             })
-            .map(healthRecordRepository::save)
+            .map(healthRecordRepository::saveAndFlush)
             .map(healthRecordMapper::toDto);
     }
 
@@ -94,26 +193,49 @@ public class HealthRecordService {
      */
     public void delete(Long id) {
         LOG.debug("Request to delete HealthRecord : {}", id);
-        healthRecordRepository.deleteById(id);
+        healthRecordRepository
+            .findById(id)
+            .ifPresent(healthRecord -> {
+                // Deleted before counting, the counters created by this write count the rows without the health record
+                healthRecordRepository.delete(healthRecord);
+                ownerStatsService.increment(ownerOf(healthRecord.getPetId()), Delta.healthRecords(-1));
+            });
+    }
+
+    @Transactional(readOnly = true)
+    public Long countByOwnerId(Long ownerId) {
+        // Until the startup rebuild created the counters of the owner
+        return ownerStatsService
+            .findOne(ownerId)
+            .map(OwnerStats::getHealthRecordCount)
+            .orElseGet(() -> healthRecordRepository.countByOwnerId(ownerId));
     }
 
     /**
-     * Get all healthRecords by petId.
-     *
-     * @param petId the petId of the entity.
-     * @return list of healthRecords.
+     * Reject the update of a health record read at another version, when the client sent one.
      */
-    @Transactional(readOnly = true)
-    public List<HealthRecordDTO> findByPetId(Long petId) {
-        LOG.debug("Request to get HealthRecords by petId : {}", petId);
-        return healthRecordRepository.findByPetId(petId)
-            .stream()
-            .map(healthRecordMapper::toDto)
-            .toList();
+    private static void checkVersion(HealthRecord healthRecord, Long version) {
+        if (version != null && !version.equals(healthRecord.getVersion())) {
+            throw new ObjectOptimisticLockingFailureException(HealthRecord.class, healthRecord.getId());
+        }
     }
 
-    public Long countByOwnerId(Long ownerId) {
-        return healthRecordRepository.countByOwnerId(ownerId);
+    /**
+     * Move the health record to the counters of the owner of its new pet.
+     */
+    private void countPetChange(Long previousPetId, Long petId) {
+        if (!Objects.equals(previousPetId, petId)) {
+            ownerStatsService.change(ownerOf(previousPetId), Delta.healthRecords(1), ownerOf(petId), Delta.healthRecords(1));
+        }
+    }
+
+    private Long ownerOf(Long petId) {
+        return petId == null ? null : petRepository.findById(petId).map(Pet::getOwnerId).orElse(null);
+    }
+
+    private List<Long> ownersOf(List<HealthRecord> healthRecords) {
+        List<Long> petIds = healthRecords.stream().map(HealthRecord::getPetId).filter(Objects::nonNull).distinct().toList();
+        return petIds.isEmpty() ? List.of() : petRepository.findOwnerIdsByIdIn(petIds);
     }
 
 }
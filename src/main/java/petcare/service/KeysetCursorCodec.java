@@ -0,0 +1,165 @@
+package petcare.service;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.SerializationFeature;
+import jakarta.persistence.Column;
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.metamodel.Attribute;
+import jakarta.persistence.metamodel.EntityType;
+import jakarta.persistence.metamodel.SingularAttribute;
+import jakarta.validation.constraints.NotNull;
+import java.io.IOException;
+import java.lang.reflect.Field;
+import java.nio.charset.StandardCharsets;
+import java.util.Base64;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.data.domain.KeysetScrollPosition;
+import org.springframework.data.domain.ScrollPosition;
+import org.springframework.data.domain.Sort;
+import org.springframework.data.domain.Window;
+import org.springframework.stereotype.Service;
+
+/**
+ * Encodes and decodes the opaque {@code after} cursors used by the keyset (seek) pagination mode
+ * of the criteria list endpoints.
+ * <p>
+ * A cursor is the Base64 (URL safe) encoding of a JSON object holding the sort it was issued for
+ * and the sort keys of the last returned row, the entity id included. When decoding, the sort
+ * must be the same, and each key is converted back to the Java type of the matching entity
+ * attribute, so that the seek predicates compare typed values.
+ * <p>
+ * The seek predicates can not compare {@code NULL} keys, so keyset pagination is only offered
+ * for sorts on non-null attributes, see {@link #isKeysetSort}.
+ */
+@Service
+public class KeysetCursorCodec {
+
+    private static final Logger LOG = LoggerFactory.getLogger(KeysetCursorCodec.class);
+
+    private static final String SORT_FIELD = "sort";
+
+    private static final String KEYS_FIELD = "keys";
+
+    private final EntityManager entityManager;
+
+    private final ObjectMapper objectMapper;
+
+    public KeysetCursorCodec(EntityManager entityManager, ObjectMapper objectMapper) {
+        this.entityManager = entityManager;
+        this.objectMapper = objectMapper;
+    }
+
+    /**
+     * Check that a sort can be used for keyset pagination: it must only reference non-null attributes
+     * of the entity.
+     *
+     * @param sort the sort requested by the client.
+     * @param entityClass the entity to sort.
+     * @return {@code true} if every sorted attribute exists and is not nullable.
+     */
+    public boolean isKeysetSort(Sort sort, Class<?> entityClass) {
+        EntityType<?> entityType = entityManager.getMetamodel().entity(entityClass);
+        for (Sort.Order order : sort) {
+            try {
+                if (!isNotNull(entityType.getAttribute(order.getProperty()))) {
+                    return false;
+                }
+            } catch (IllegalArgumentException e) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    /**
+     * Decode an {@code after} cursor for the given entity and sort.
+     *
+     * @param cursor the cursor sent by the client, an empty value means the first page.
+     * @param entityClass the entity the cursor was issued for.
+     * @param sort the sort of the requested page.
+     * @return the keyset position, or empty if the cursor is malformed, was issued for another sort or references
+     * unknown attributes.
+     */
+    public Optional<KeysetScrollPosition> decode(String cursor, Class<?> entityClass, Sort sort) {
+        if (cursor == null || cursor.isBlank()) {
+            return Optional.of(ScrollPosition.keyset());
+        }
+        try {
+            JsonNode node = objectMapper.readTree(Base64.getUrlDecoder().decode(cursor));
+            if (node == null || !node.isObject() || !node.path(KEYS_FIELD).isObject()) {
+                return Optional.empty();
+            }
+            if (!objectMapper.valueToTree(toOrders(sort)).equals(node.get(SORT_FIELD))) {
+                LOG.debug("Keyset cursor for {} issued for another sort than {}", entityClass.getSimpleName(), sort);
+                return Optional.empty();
+            }
+            EntityType<?> entityType = entityManager.getMetamodel().entity(entityClass);
+            Map<String, Object> keys = new LinkedHashMap<>();
+            Iterator<Map.Entry<String, JsonNode>> fields = node.get(KEYS_FIELD).fields();
+            while (fields.hasNext()) {
+                Map.Entry<String, JsonNode> field = fields.next();
+                Attribute<?, ?> attribute = entityType.getAttribute(field.getKey());
+                keys.put(field.getKey(), objectMapper.treeToValue(field.getValue(), attribute.getJavaType()));
+            }
+            return Optional.of(ScrollPosition.forward(keys));
+        } catch (IllegalArgumentException | IOException e) {
+            LOG.debug("Invalid keyset cursor for {} : {}", entityClass.getSimpleName(), e.getMessage());
+            return Optional.empty();
+        }
+    }
+
+    /**
+     * Build the cursor pointing after the last element of a window.
+     *
+     * @param window the window returned by a keyset query.
+     * @param sort the sort of the window.
+     * @return the cursor of the next window, or empty if the window is the last one.
+     */
+    public Optional<String> nextCursor(Window<?> window, Sort sort) {
+        if (!window.hasNext() || window.isEmpty()) {
+            return Optional.empty();
+        }
+        ScrollPosition position = window.positionAt(window.size() - 1);
+        if (!(position instanceof KeysetScrollPosition keysetPosition)) {
+            return Optional.empty();
+        }
+        Map<String, Object> cursor = new LinkedHashMap<>();
+        cursor.put(SORT_FIELD, toOrders(sort));
+        cursor.put(KEYS_FIELD, keysetPosition.getKeys());
+        try {
+            String json = objectMapper.writer().without(SerializationFeature.INDENT_OUTPUT).writeValueAsString(cursor);
+            return Optional.of(Base64.getUrlEncoder().withoutPadding().encodeToString(json.getBytes(StandardCharsets.UTF_8)));
+        } catch (JsonProcessingException e) {
+            throw new IllegalStateException("Could not encode keyset cursor", e);
+        }
+    }
+
+    /**
+     * The orders of a sort, like the {@code sort} request parameters: {@code property,direction}.
+     */
+    private static List<String> toOrders(Sort sort) {
+        return sort.stream().map(order -> order.getProperty() + "," + order.getDirection()).toList();
+    }
+
+    /**
+     * Whether an attribute is the id, or is declared {@code @NotNull} or {@code @Column(nullable = false)}.
+     */
+    private static boolean isNotNull(Attribute<?, ?> attribute) {
+        if (attribute instanceof SingularAttribute<?, ?> singularAttribute && singularAttribute.isId()) {
+            return true;
+        }
+        if (!(attribute.getJavaMember() instanceof Field field)) {
+            return false;
+        }
+        Column column = field.getAnnotation(Column.class);
+        return field.isAnnotationPresent(NotNull.class) || (column != null && !column.nullable());
+    }
+}
@@ -0,0 +1,152 @@
+package petcare.service;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import java.net.InetAddress;
+import java.net.UnknownHostException;
+import java.time.Duration;
+import java.util.HexFormat;
+import java.util.Locale;
+import java.util.regex.Pattern;
+import org.springframework.stereotype.Service;
+import petcare.config.ApplicationProperties;
+
+/**
+ * Limits the login attempts per account and per IP address with token buckets, so that guessing passwords, or a
+ * client retrying in a loop, cannot use the password hashing capacity of everyone else.
+ * <p>
+ * Each bucket holds up to a burst of tokens and gets one more every refill period; an attempt takes one token from
+ * the bucket of its IP address and one from the bucket of its account and network. The account buckets are keyed on
+ * the email together with the network of the client, the /24 of an IPv4 address or the /64 of an IPv6 address, so
+ * that someone guessing the password of an account from elsewhere cannot lock its owner out. The buckets of the least
+ * recently seen keys are forgotten beyond the configured number, and a burst of 0 disables the throttling. The
+ * rejected attempts are counted in the {@code login.throttled} counter.
+ */
+@Service
+public class LoginThrottleService {
+
+    private static final Pattern IPV4 = Pattern.compile("\\d{1,3}(\\.\\d{1,3}){3}");
+
+    private final Cache<String, TokenBucket> accounts;
+
+    private final Cache<String, TokenBucket> ips;
+
+    private final int accountBurst;
+
+    private final long accountRefillNanos;
+
+    private final int ipBurst;
+
+    private final long ipRefillNanos;
+
+    private final Counter accountCounter;
+
+    private final Counter ipCounter;
+
+    public LoginThrottleService(MeterRegistry meterRegistry, ApplicationProperties applicationProperties) {
+        ApplicationProperties.Password properties = applicationProperties.getPassword();
+        this.accountBurst = properties.getAccountBurst();
+        this.accountRefillNanos = properties.getAccountRefill().toNanos();
+        this.ipBurst = properties.getIpBurst();
+        this.ipRefillNanos = properties.getIpRefill().toNanos();
+        // A bucket not used for a whole burst of refills is full again, the same as a new one
+        this.accounts = Caffeine.newBuilder()
+            .maximumSize(properties.getMaxTrackedKeys())
+            .expireAfterAccess(properties.getAccountRefill().multipliedBy(accountBurst))
+            .build();
+        this.ips = Caffeine.newBuilder()
+            .maximumSize(properties.getMaxTrackedKeys())
+            .expireAfterAccess(properties.getIpRefill().multipliedBy(ipBurst))
+            .build();
+        this.accountCounter = throttledCounter("account", meterRegistry);
+        this.ipCounter = throttledCounter("ip", meterRegistry);
+    }
+
+    /**
+     * Take a login attempt from the buckets of an account on the network of an IP address, and of the IP address.
+     *
+     * @param email the email of the account.
+     * @param ip the IP address of the client.
+     * @throws LoginThrottledException if one of the buckets is empty.
+     */
+    public void acquire(String email, String ip) {
+        long now = System.nanoTime();
+        if (ip != null && ipBurst > 0) {
+            long wait = ips.get(ip, key -> new TokenBucket(ipBurst, ipRefillNanos, now)).tryAcquire(now);
+            if (wait > 0) {
+                ipCounter.increment();
+                throw new LoginThrottledException(Duration.ofNanos(wait));
+            }
+        }
+        if (email != null && accountBurst > 0) {
+            String account = email.toLowerCase(Locale.ROOT) + ' ' + network(ip);
+            long wait = accounts.get(account, key -> new TokenBucket(accountBurst, accountRefillNanos, now)).tryAcquire(now);
+            if (wait > 0) {
+                accountCounter.increment();
+                throw new LoginThrottledException(Duration.ofNanos(wait));
+            }
+        }
+    }
+
+    /**
+     * The network of an IP address, the /24 of an IPv4 address or the /64 of an IPv6 address, or the address itself
+     * when it is not a literal one.
+     */
+    static String network(String ip) {
+        if (ip == null || (ip.indexOf(':') < 0 && !IPV4.matcher(ip).matches())) {
+            return String.valueOf(ip);
+        }
+        try {
+            // A literal address, parsed without a name lookup
+            byte[] address = InetAddress.getByName(ip).getAddress();
+            return HexFormat.of().formatHex(address, 0, address.length == 4 ? 3 : 8);
+        } catch (UnknownHostException e) {
+            return ip;
+        }
+    }
+
+    private static Counter throttledCounter(String scope, MeterRegistry meterRegistry) {
+        return Counter.builder("login.throttled")
+            .description("Login attempts rejected by the throttling")
+            .tag("scope", scope)
+            .register(meterRegistry);
+    }
+
+    /**
+     * A token bucket refilled lazily, from the time elapsed since the last attempt.
+     */
+    static final class TokenBucket {
+
+        private final int capacity;
+
+        private final long refillNanos;
+
+        private double tokens;
+
+        private long updated;
+
+        TokenBucket(int capacity, long refillNanos, long now) {
+            this.capacity = capacity;
+            this.refillNanos = refillNanos;
+            this.tokens = capacity;
+            this.updated = now;
+        }
+
+        /**
+         * @return {@code 0} if a token was taken, or the nanoseconds until the next token.
+         */
+        synchronized long tryAcquire(long now) {
+            if (now > updated) {
+                tokens = Math.min(capacity, tokens + (double) (now - updated) / refillNanos);
+                updated = now;
+            }
+            if (tokens >= 1) {
+                tokens--;
+                return 0;
+            }
+            return (long) Math.ceil((1 - tokens) * refillNanos);
+        }
+    }
+}
@@ -0,0 +1,22 @@
+package petcare.service;
+
+import java.time.Duration;
+
+public class LoginThrottledException extends RuntimeException {
+
+    private static final long serialVersionUID = 1L;
+
+    private final Duration retryAfter;
+
+    public LoginThrottledException(Duration retryAfter) {
+        super("Too many login attempts!");
+        this.retryAfter = retryAfter;
+    }
+
+    /**
+     * @return how long to wait before the next attempt.
+     */
+    public Duration getRetryAfter() {
+        return retryAfter;
+    }
+}
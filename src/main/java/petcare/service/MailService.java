@@ -3,18 +3,25 @@ package petcare.service;
 import jakarta.mail.MessagingException;
 import jakarta.mail.internet.MimeMessage;
 import java.nio.charset.StandardCharsets;
+import java.time.ZoneOffset;
+import java.time.format.DateTimeFormatter;
+import java.util.ArrayList;
+import java.util.List;
 import java.util.Locale;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import org.springframework.context.MessageSource;
 import org.springframework.mail.MailException;
+import org.springframework.mail.MailSendException;
 import org.springframework.mail.javamail.JavaMailSender;
 import org.springframework.mail.javamail.MimeMessageHelper;
 import org.springframework.scheduling.annotation.Async;
 import org.springframework.stereotype.Service;
 import org.thymeleaf.context.Context;
 import org.thymeleaf.spring6.SpringTemplateEngine;
+import petcare.config.Constants;
 import petcare.domain.User;
+import petcare.service.dto.AppointmentReminderDTO;
 import tech.jhipster.config.JHipsterProperties;
 
 /**
@@ -22,7 +29,7 @@ import tech.jhipster.config.JHipsterProperties;
  * <p>
  * We use the {@link Async} annotation to send emails asynchronously.
  */
-//@Service
+@Service
 public class MailService {
 
     private static final Logger LOG = LoggerFactory.getLogger(MailService.class);
@@ -31,6 +38,14 @@ public class MailService {
 
     private static final String BASE_URL = "baseUrl";
 
+    private static final String REMINDER = "reminder";
+
+    private static final String APPOINTMENT_TIME = "appointmentTime";
+
+    private static final DateTimeFormatter APPOINTMENT_TIME_FORMAT = DateTimeFormatter.ofPattern("yyyy-MM-dd HH:mm 'UTC'").withZone(
+        ZoneOffset.UTC
+    );
+
     private final JHipsterProperties jHipsterProperties;
 
     private final JavaMailSender javaMailSender;
@@ -117,4 +132,46 @@ public class MailService {
         LOG.debug("Sending password reset email to '{}'", user.getEmail());
         sendEmailFromTemplateSync(user, "mail/passwordResetEmail", "email.reset.title");
     }
+
+    /**
+     * Send appointment reminders over a single SMTP connection.
+     *
+     * @param reminders the reminders to send.
+     */
+    @Async
+    public void sendAppointmentReminders(List<AppointmentReminderDTO> reminders) {
+        LOG.debug("Sending {} appointment reminders", reminders.size());
+        Locale locale = Locale.forLanguageTag(Constants.DEFAULT_LANGUAGE);
+        String subject = messageSource.getMessage("email.reminder.title", null, locale);
+        List<MimeMessage> mimeMessages = new ArrayList<>(reminders.size());
+        for (AppointmentReminderDTO reminder : reminders) {
+            Context context = new Context(locale);
+            context.setVariable(REMINDER, reminder);
+            context.setVariable(APPOINTMENT_TIME, APPOINTMENT_TIME_FORMAT.format(reminder.getApptTime()));
+            context.setVariable(BASE_URL, jHipsterProperties.getMail().getBaseUrl());
+            MimeMessage mimeMessage = javaMailSender.createMimeMessage();
+            try {
+                MimeMessageHelper message = new MimeMessageHelper(mimeMessage, false, StandardCharsets.UTF_8.name());
+                message.setTo(reminder.getEmail());
+                message.setFrom(jHipsterProperties.getMail().getFrom());
+                message.setSubject(subject);
+                message.setText(templateEngine.process("mail/appointmentReminderEmail", context), true);
+                mimeMessages.add(mimeMessage);
+            } catch (MessagingException e) {
+                LOG.warn("Appointment reminder could not be prepared for '{}'", reminder.getEmail(), e);
+            }
+        }
+        if (mimeMessages.isEmpty()) {
+            return;
+        }
+        try {
+            // JavaMailSender sends all the messages of one call through the same connection
+            javaMailSender.send(mimeMessages.toArray(MimeMessage[]::new));
+            LOG.debug("Sent {} appointment reminders", mimeMessages.size());
+        } catch (MailSendException e) {
+            LOG.warn("{} of {} appointment reminders could not be sent", e.getFailedMessages().size(), mimeMessages.size(), e);
+        } catch (MailException e) {
+            LOG.warn("{} appointment reminders could not be sent", mimeMessages.size(), e);
+        }
+    }
 }
@@ -0,0 +1,183 @@
+package petcare.service;
+
+import java.time.Duration;
+import java.time.Instant;
+import java.util.List;
+import java.util.Optional;
+import java.util.concurrent.Callable;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.DisposableBean;
+import org.springframework.boot.autoconfigure.thread.Threading;
+import org.springframework.core.env.Environment;
+import org.springframework.core.task.AsyncTaskExecutor;
+import org.springframework.core.task.SimpleAsyncTaskExecutor;
+import org.springframework.core.task.TaskRejectedException;
+import org.springframework.data.domain.ScrollPosition;
+import org.springframework.data.domain.Window;
+import org.springframework.scheduling.concurrent.ThreadPoolTaskExecutor;
+import org.springframework.stereotype.Service;
+import petcare.config.ApplicationProperties;
+import petcare.config.SqlStatistics;
+import petcare.service.dto.AppointmentDTO;
+import petcare.service.dto.OwnerDashboardDTO;
+import petcare.service.dto.PetDTO;
+import petcare.service.dto.UserPetDTO;
+
+/**
+ * Builds the home screen of an owner in one call.
+ * <p>
+ * The sections are independent reads, each in its own read-only transaction, so they are run in parallel. With
+ * platform threads they run on a bounded pool, whose size caps the database connections the dashboards take from the
+ * Hikari pool; with virtual threads each one gets its own thread, and the connections are capped by the
+ * {@link petcare.config.ConnectionLimitingDataSource}. The request waits for the sections until its deadline; the
+ * late ones are cancelled, and they and the ones rejected by a full queue are reported as unavailable instead of
+ * failing the whole dashboard, or being read by the request thread past its deadline.
+ * <p>
+ * The pets section is the first page of the pets of the owner, capped at the maximum page size, with the cursor of the
+ * next one; the pet count comes from the owner counters.
+ */
+@Service
+public class OwnerDashboardService implements DisposableBean {
+
+    private static final Logger LOG = LoggerFactory.getLogger(OwnerDashboardService.class);
+
+    private final UserPetService userPetService;
+
+    private final PetService petService;
+
+    private final PetQueryService petQueryService;
+
+    private final KeysetCursorCodec keysetCursorCodec;
+
+    private final AppointmentService appointmentService;
+
+    private final HealthRecordService healthRecordService;
+
+    private final Duration timeout;
+
+    private final int maxPageSize;
+
+    private final AsyncTaskExecutor executor;
+
+    public OwnerDashboardService(
+        UserPetService userPetService,
+        PetService petService,
+        PetQueryService petQueryService,
+        KeysetCursorCodec keysetCursorCodec,
+        AppointmentService appointmentService,
+        HealthRecordService healthRecordService,
+        ApplicationProperties applicationProperties,
+        Environment environment
+    ) {
+        this.userPetService = userPetService;
+        this.petService = petService;
+        this.petQueryService = petQueryService;
+        this.keysetCursorCodec = keysetCursorCodec;
+        this.appointmentService = appointmentService;
+        this.healthRecordService = healthRecordService;
+        ApplicationProperties.Dashboard properties = applicationProperties.getDashboard();
+        this.timeout = properties.getTimeout();
+        this.maxPageSize = applicationProperties.getPagination().getMaxPageSize();
+        if (Threading.VIRTUAL.isActive(environment)) {
+            SimpleAsyncTaskExecutor virtualExecutor = new SimpleAsyncTaskExecutor("dashboard-");
+            virtualExecutor.setVirtualThreads(true);
+            // The sections count in the SQL statistics of the request
+            virtualExecutor.setTaskDecorator(SqlStatistics::propagate);
+            this.executor = virtualExecutor;
+        } else {
+            ThreadPoolTaskExecutor poolExecutor = new ThreadPoolTaskExecutor();
+            poolExecutor.setCorePoolSize(properties.getConcurrency());
+            poolExecutor.setMaxPoolSize(properties.getConcurrency());
+            poolExecutor.setQueueCapacity(properties.getQueueCapacity());
+            poolExecutor.setThreadNamePrefix("dashboard-");
+            poolExecutor.setTaskDecorator(SqlStatistics::propagate);
+            poolExecutor.initialize();
+            this.executor = poolExecutor;
+        }
+    }
+
+    /**
+     * Get the dashboard of an owner.
+     *
+     * @param ownerId the id of the owner.
+     * @return the dashboard, empty if the owner does not exist.
+     */
+    public Optional<OwnerDashboardDTO> getDashboard(Long ownerId) {
+        LOG.debug("Request to get the dashboard of UserPet : {}", ownerId);
+        long deadline = System.nanoTime() + timeout.toNanos();
+        Future<Optional<UserPetDTO>> owner = submit(() -> userPetService.findOne(ownerId));
+        Future<Window<PetDTO>> pets = submit(() -> petQueryService.findByOwnerId(ownerId, ScrollPosition.keyset(), maxPageSize));
+        Future<Long> petCount = submit(() -> petService.countByOwnerId(ownerId));
+        Future<List<AppointmentDTO>> nextAppointments = submit(() -> appointmentService.findNextTwoAppointmentsByOwnerId(ownerId));
+        Future<Long> healthRecordCount = submit(() -> healthRecordService.countByOwnerId(ownerId));
+
+        OwnerDashboardDTO dashboard = new OwnerDashboardDTO();
+        dashboard.setOwnerId(ownerId);
+        Optional<UserPetDTO> ownerDTO = await(owner, deadline, OwnerDashboardDTO.OWNER, dashboard);
+        if (ownerDTO != null && ownerDTO.isEmpty()) {
+            List.of(pets, petCount, nextAppointments, healthRecordCount).forEach(future -> future.cancel(true));
+            return Optional.empty();
+        }
+        if (ownerDTO != null && ownerDTO.get().getCreatedAt() != null) {
+            dashboard.setDaysSinceCreated(Duration.between(ownerDTO.get().getCreatedAt(), Instant.now()).toDays());
+        }
+        Window<PetDTO> petWindow = await(pets, deadline, OwnerDashboardDTO.PETS, dashboard);
+        if (petWindow != null) {
+            dashboard.setPets(petWindow.getContent());
+            dashboard.setPetsCursor(keysetCursorCodec.nextCursor(petWindow, PetQueryService.BY_TIME).orElse(null));
+        }
+        dashboard.setPetCount(await(petCount, deadline, OwnerDashboardDTO.PET_COUNT, dashboard));
+        dashboard.setNextAppointments(await(nextAppointments, deadline, OwnerDashboardDTO.NEXT_APPOINTMENTS, dashboard));
+        dashboard.setHealthRecordCount(await(healthRecordCount, deadline, OwnerDashboardDTO.HEALTH_RECORD_COUNT, dashboard));
+        return Optional.of(dashboard);
+    }
+
+    /**
+     * Start reading a section, or fail it at once if the queue is full.
+     */
+    private <T> Future<T> submit(Callable<T> section) {
+        try {
+            return executor.submit(section);
+        } catch (TaskRejectedException e) {
+            return CompletableFuture.failedFuture(e);
+        }
+    }
+
+    /**
+     * Wait for a section until the deadline, recording it as unavailable if it fails or is late.
+     */
+    private <T> T await(Future<T> section, long deadline, String name, OwnerDashboardDTO dashboard) {
+        try {
+            return section.get(Math.max(deadline - System.nanoTime(), 0), TimeUnit.NANOSECONDS);
+        } catch (TimeoutException e) {
+            section.cancel(true);
+            LOG.warn("Dashboard section {} of UserPet {} not read within {}", name, dashboard.getOwnerId(), timeout);
+        } catch (ExecutionException e) {
+            if (e.getCause() instanceof TaskRejectedException) {
+                LOG.warn("Dashboard section {} of UserPet {} rejected, the dashboard queue is full", name, dashboard.getOwnerId());
+            } else {
+                LOG.warn("Dashboard section {} of UserPet {} failed : {}", name, dashboard.getOwnerId(), e.getCause().toString());
+            }
+        } catch (InterruptedException e) {
+            section.cancel(true);
+            Thread.currentThread().interrupt();
+        }
+        dashboard.getUnavailable().add(name);
+        return null;
+    }
+
+    @Override
+    public void destroy() {
+        if (executor instanceof ThreadPoolTaskExecutor poolExecutor) {
+            poolExecutor.shutdown();
+        } else if (executor instanceof SimpleAsyncTaskExecutor virtualExecutor) {
+            virtualExecutor.close();
+        }
+    }
+}
@@ -0,0 +1,318 @@
+package petcare.service;
+
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Optional;
+import java.util.TreeMap;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.scheduling.annotation.Async;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionTemplate;
+import petcare.domain.OwnerStats;
+import petcare.domain.enumeration.AppointmentStatus;
+import petcare.repository.HealthRecordRepository;
+import petcare.repository.OwnerStatsRepository;
+import petcare.repository.OwnerStatsRepository.OwnerStatusCount;
+import petcare.repository.PetRepository;
+
+/**
+ * Maintains the {@link OwnerStats} read model.
+ * <p>
+ * The pet, health record and appointment writes add their change to the counters of the owner in their own
+ * transaction, with an atomic {@code UPDATE}, so the counters commit or roll back with them. The counters of an owner
+ * are created on its first write, in the same transaction, by counting its rows with that write: the writes therefore
+ * add their change once written. The set-based writes, like bulk ingests, {@link #recount} the owners they wrote, in
+ * the background. The writes made without the services and any drift are repaired by
+ * {@link #check()}, which runs at startup (building the counters of the existing data) and on the configured
+ * schedule.
+ */
+@Service
+@Transactional
+public class OwnerStatsService {
+
+    private static final Logger LOG = LoggerFactory.getLogger(OwnerStatsService.class);
+
+    private final OwnerStatsRepository ownerStatsRepository;
+
+    private final PetRepository petRepository;
+
+    private final HealthRecordRepository healthRecordRepository;
+
+    private final TransactionTemplate transactionTemplate;
+
+    public OwnerStatsService(
+        OwnerStatsRepository ownerStatsRepository,
+        PetRepository petRepository,
+        HealthRecordRepository healthRecordRepository,
+        PlatformTransactionManager transactionManager
+    ) {
+        this.ownerStatsRepository = ownerStatsRepository;
+        this.petRepository = petRepository;
+        this.healthRecordRepository = healthRecordRepository;
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+    }
+
+    /**
+     * A change of the counters of an owner.
+     */
+    public record Delta(long pets, long healthRecords, long appointments, long pending, long confirmed, long cancelled, long done) {
+        public static final Delta NONE = new Delta(0, 0, 0, 0, 0, 0, 0);
+
+        public static Delta pets(long count) {
+            return new Delta(count, 0, 0, 0, 0, 0, 0);
+        }
+
+        public static Delta healthRecords(long count) {
+            return new Delta(0, count, 0, 0, 0, 0, 0);
+        }
+
+        public static Delta appointments(AppointmentStatus status, long count) {
+            return new Delta(
+                0,
+                0,
+                count,
+                status == AppointmentStatus.PENDING ? count : 0,
+                status == AppointmentStatus.CONFIRMED ? count : 0,
+                status == AppointmentStatus.CANCELLED ? count : 0,
+                status == AppointmentStatus.DONE ? count : 0
+            );
+        }
+
+        public Delta plus(Delta other) {
+            return new Delta(
+                pets + other.pets,
+                healthRecords + other.healthRecords,
+                appointments + other.appointments,
+                pending + other.pending,
+                confirmed + other.confirmed,
+                cancelled + other.cancelled,
+                done + other.done
+            );
+        }
+
+        public Delta negate() {
+            return new Delta(-pets, -healthRecords, -appointments, -pending, -confirmed, -cancelled, -done);
+        }
+
+        public boolean isZero() {
+            return equals(NONE);
+        }
+    }
+
+    /**
+     * Add to the counters of an owner, in the current transaction, once the row is written.
+     *
+     * @param ownerId the id of the owner, ignored if {@code null}.
+     * @param delta the change.
+     */
+    public void increment(Long ownerId, Delta delta) {
+        change(null, Delta.NONE, ownerId, delta);
+    }
+
+    /**
+     * Replace what a row counted for an owner by what it counts now, in the current transaction, once the row is
+     * written. The counters are updated in owner id order, so that two transactions changing the same owners can not
+     * deadlock.
+     *
+     * @param previousOwnerId the owner the row counted for before the write, {@code null} if none.
+     * @param previous what the row counted before the write.
+     * @param ownerId the owner the row counts for after the write, {@code null} if none.
+     * @param next what the row counts after the write.
+     */
+    public void change(Long previousOwnerId, Delta previous, Long ownerId, Delta next) {
+        Map<Long, Delta> deltas = new TreeMap<>();
+        if (previousOwnerId != null) {
+            deltas.merge(previousOwnerId, previous.negate(), Delta::plus);
+        }
+        if (ownerId != null) {
+            deltas.merge(ownerId, next, Delta::plus);
+        }
+        deltas.forEach((id, delta) -> {
+            if (delta.isZero()) {
+                return;
+            }
+            // Checked before updating: an UPDATE matching no row would lock the gap the counters are inserted in
+            if (!ownerStatsRepository.existsById(id) && ownerStatsRepository.insertIfAbsent(count(id)) == 1) {
+                // First write of the owner: its rows are counted with this write, on the connection of the transaction
+                return;
+            }
+            // Created meanwhile by another transaction, whose insert this one waited for
+            if (apply(id, delta) == 0) {
+                LOG.warn("No counters for owner {}, they will be rebuilt by the next check", id);
+            }
+        });
+    }
+
+    /**
+     * Count the rows of owners again and fix their counters, each in its own transaction, in the background. Used after
+     * the set-based writes, like the bulk ingests and appointment transitions, which do not know what each of their
+     * rows counted before: the connection of the write is released before the recount takes one.
+     *
+     * @param ownerIds the ids of the owners, {@code null} ids are ignored.
+     */
+    @Async
+    @Transactional(propagation = Propagation.NOT_SUPPORTED)
+    public void recount(Collection<Long> ownerIds) {
+        ownerIds.stream().filter(Objects::nonNull).distinct().forEach(ownerId -> repair(ownerId, false));
+    }
+
+    /**
+     * Get the counters of an owner.
+     *
+     * @param ownerId the id of the owner.
+     * @return the counters, empty if the owner has none yet.
+     */
+    @Transactional(readOnly = true)
+    public Optional<OwnerStats> findOne(Long ownerId) {
+        return ownerStatsRepository.findById(ownerId);
+    }
+
+    /**
+     * Build the counters of the existing data at startup.
+     */
+    @Async
+    @EventListener(ApplicationReadyEvent.class)
+    @Transactional(propagation = Propagation.NOT_SUPPORTED)
+    public void rebuild() {
+        check();
+    }
+
+    /**
+     * Compare the counters of all the owners with the tables, and repair the ones which drifted.
+     * <p>
+     * The tables are counted with three {@code GROUP BY} queries; each owner which looks out of date is then locked,
+     * counted again and fixed in its own transaction, so the concurrent writes are neither blocked nor lost.
+     *
+     * @return the number of repaired owners.
+     */
+    @Scheduled(cron = "${application.owner-stats.check-cron:0 30 3 * * *}")
+    @Transactional(propagation = Propagation.NOT_SUPPORTED)
+    public int check() {
+        long start = System.nanoTime();
+        Map<Long, OwnerStats> expected = new HashMap<>();
+        ownerStatsRepository
+            .countPetsByOwner()
+            .forEach(count -> expected.computeIfAbsent(count.getOwnerId(), OwnerStats::new).setPetCount(count.getCount()));
+        ownerStatsRepository
+            .countHealthRecordsByOwner()
+            .forEach(count -> expected.computeIfAbsent(count.getOwnerId(), OwnerStats::new).setHealthRecordCount(count.getCount()));
+        ownerStatsRepository
+            .countAppointmentsByOwnerAndStatus()
+            .forEach(count -> addAppointments(expected.computeIfAbsent(count.getOwnerId(), OwnerStats::new), count));
+        expected.remove(null);
+
+        int checked = 0;
+        int repaired = 0;
+        for (OwnerStats actual : ownerStatsRepository.findAll()) {
+            checked++;
+            OwnerStats counted = expected.remove(actual.getOwnerId());
+            if (!sameCounts(actual, counted != null ? counted : new OwnerStats(actual.getOwnerId())) && repair(actual.getOwnerId(), true)) {
+                repaired++;
+            }
+        }
+        for (Long ownerId : expected.keySet()) {
+            checked++;
+            if (repair(ownerId, true)) {
+                repaired++;
+            }
+        }
+        LOG.info("Checked the counters of {} owners, repaired {}, in {} ms", checked, repaired, (System.nanoTime() - start) / 1_000_000);
+        return repaired;
+    }
+
+    private int apply(Long ownerId, Delta delta) {
+        return ownerStatsRepository.increment(
+            ownerId,
+            delta.pets(),
+            delta.healthRecords(),
+            delta.appointments(),
+            delta.pending(),
+            delta.confirmed(),
+            delta.cancelled(),
+            delta.done()
+        );
+    }
+
+    /**
+     * Count the rows of an owner again under the lock of its counters, and fix them. Called without a transaction,
+     * from {@link #check()} and {@link #recount}, so each owner gets its own.
+     *
+     * @param drift whether the counters were expected to be right, to warn when they are not.
+     * @return {@code true} if the counters were wrong or missing.
+     */
+    private boolean repair(Long ownerId, boolean drift) {
+        return Boolean.TRUE.equals(
+            transactionTemplate.execute(status -> {
+                Optional<OwnerStats> actual = ownerStatsRepository.findByIdForUpdate(ownerId);
+                OwnerStats counted = count(ownerId);
+                if (actual.isEmpty()) {
+                    // Inserts nothing when a write created them meanwhile, counting its rows
+                    return ownerStatsRepository.insertIfAbsent(counted) == 1;
+                }
+                if (sameCounts(actual.get(), counted)) {
+                    return false;
+                }
+                if (drift) {
+                    LOG.warn("Repairing the drifted counters of owner {} : {} instead of {}", ownerId, counted, actual.get());
+                } else {
+                    LOG.debug("Recounted the counters of owner {} : {} instead of {}", ownerId, counted, actual.get());
+                }
+                copyCounts(counted, actual.get());
+                return true;
+            })
+        );
+    }
+
+    private OwnerStats count(Long ownerId) {
+        OwnerStats stats = new OwnerStats(ownerId);
+        stats.setPetCount(petRepository.countByOwnerId(ownerId));
+        stats.setHealthRecordCount(healthRecordRepository.countByOwnerId(ownerId));
+        ownerStatsRepository.countAppointmentsByStatus(ownerId).forEach(count -> addAppointments(stats, count));
+        return stats;
+    }
+
+    private static void addAppointments(OwnerStats stats, OwnerStatusCount count) {
+        long n = count.getCount();
+        stats.setAppointmentCount(stats.getAppointmentCount() + n);
+        if (count.getStatus() == null) {
+            return;
+        }
+        switch (count.getStatus()) {
+            case PENDING -> stats.setPendingAppointmentCount(stats.getPendingAppointmentCount() + n);
+            case CONFIRMED -> stats.setConfirmedAppointmentCount(stats.getConfirmedAppointmentCount() + n);
+            case CANCELLED -> stats.setCancelledAppointmentCount(stats.getCancelledAppointmentCount() + n);
+            case DONE -> stats.setDoneAppointmentCount(stats.getDoneAppointmentCount() + n);
+        }
+    }
+
+    private static boolean sameCounts(OwnerStats a, OwnerStats b) {
+        return (
+            a.getPetCount() == b.getPetCount() &&
+            a.getHealthRecordCount() == b.getHealthRecordCount() &&
+            a.getAppointmentCount() == b.getAppointmentCount() &&
+            a.getPendingAppointmentCount() == b.getPendingAppointmentCount() &&
+            a.getConfirmedAppointmentCount() == b.getConfirmedAppointmentCount() &&
+            a.getCancelledAppointmentCount() == b.getCancelledAppointmentCount() &&
+            a.getDoneAppointmentCount() == b.getDoneAppointmentCount()
+        );
+    }
+
+    private static void copyCounts(OwnerStats from, OwnerStats to) {
+        to.setPetCount(from.getPetCount());
+        to.setHealthRecordCount(from.getHealthRecordCount());
+        to.setAppointmentCount(from.getAppointmentCount());
+        to.setPendingAppointmentCount(from.getPendingAppointmentCount());
+        to.setConfirmedAppointmentCount(from.getConfirmedAppointmentCount());
+        to.setCancelledAppointmentCount(from.getCancelledAppointmentCount());
+        to.setDoneAppointmentCount(from.getDoneAppointmentCount());
+    }
+}
@@ -0,0 +1,10 @@
+package petcare.service;
+
+public class PasswordHashingBusyException extends RuntimeException {
+
+    private static final long serialVersionUID = 1L;
+
+    public PasswordHashingBusyException() {
+        super("Too many password hashings in progress!");
+    }
+}
@@ -0,0 +1,144 @@
+package petcare.service;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import java.time.Duration;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.DisposableBean;
+import org.springframework.core.task.TaskRejectedException;
+import org.springframework.scheduling.concurrent.ThreadPoolTaskExecutor;
+import org.springframework.security.crypto.password.PasswordEncoder;
+import org.springframework.stereotype.Service;
+import petcare.config.ApplicationProperties;
+
+/**
+ * Hashes and verifies the passwords on a dedicated bounded pool, instead of the request threads.
+ * <p>
+ * BCrypt is CPU bound by design: a burst of logins hashed by the request threads would take all the processors and
+ * slow down every other endpoint. The pool only uses the configured number of threads, and sheds the load beyond
+ * its queue: a hashing which cannot be queued, or is not done within the timeout, fails with a
+ * {@link PasswordHashingBusyException} instead of waiting.
+ * <p>
+ * The hashing time is recorded in the {@code password.hashing} timer, the rejections in the
+ * {@code password.hashing.rejected} counter and the waiting hashings in the {@code password.hashing.queue} gauge.
+ */
+@Service
+public class PasswordHashingService implements DisposableBean {
+
+    private static final Logger LOG = LoggerFactory.getLogger(PasswordHashingService.class);
+
+    private final PasswordEncoder passwordEncoder;
+
+    private final Duration timeout;
+
+    private final ThreadPoolTaskExecutor executor;
+
+    private final Timer encodeTimer;
+
+    private final Timer matchesTimer;
+
+    private final Counter queueFullCounter;
+
+    private final Counter timeoutCounter;
+
+    public PasswordHashingService(
+        PasswordEncoder passwordEncoder,
+        MeterRegistry meterRegistry,
+        ApplicationProperties applicationProperties
+    ) {
+        this.passwordEncoder = passwordEncoder;
+        ApplicationProperties.Password properties = applicationProperties.getPassword();
+        this.timeout = properties.getTimeout();
+        int threads = properties.getThreads() > 0 ? properties.getThreads() : Math.max(1, Runtime.getRuntime().availableProcessors() / 2);
+        this.executor = new ThreadPoolTaskExecutor();
+        executor.setCorePoolSize(threads);
+        executor.setMaxPoolSize(threads);
+        executor.setQueueCapacity(properties.getQueueCapacity());
+        executor.setThreadNamePrefix("password-");
+        executor.initialize();
+
+        this.encodeTimer = hashingTimer("encode", meterRegistry);
+        this.matchesTimer = hashingTimer("matches", meterRegistry);
+        this.queueFullCounter = rejectedCounter("queue_full", meterRegistry);
+        this.timeoutCounter = rejectedCounter("timeout", meterRegistry);
+        Gauge.builder("password.hashing.queue", executor, pool -> pool.getThreadPoolExecutor().getQueue().size())
+            .description("Password hashings waiting for a thread")
+            .register(meterRegistry);
+    }
+
+    /**
+     * Hash a password.
+     *
+     * @param rawPassword the password.
+     * @return the hash.
+     * @throws PasswordHashingBusyException if the hashing is rejected.
+     */
+    public String encode(String rawPassword) {
+        return execute(() -> encodeTimer.record(() -> passwordEncoder.encode(rawPassword)));
+    }
+
+    /**
+     * Verify a password.
+     *
+     * @param rawPassword the password.
+     * @param encodedPassword the hash to verify it against.
+     * @return whether the password matches the hash.
+     * @throws PasswordHashingBusyException if the verification is rejected.
+     */
+    public boolean matches(String rawPassword, String encodedPassword) {
+        return execute(() -> matchesTimer.record(() -> passwordEncoder.matches(rawPassword, encodedPassword)));
+    }
+
+    private <T> T execute(Callable<T> hashing) {
+        Future<T> future;
+        try {
+            future = executor.submit(hashing);
+        } catch (TaskRejectedException e) {
+            queueFullCounter.increment();
+            throw new PasswordHashingBusyException();
+        }
+        try {
+            return future.get(timeout.toNanos(), TimeUnit.NANOSECONDS);
+        } catch (TimeoutException e) {
+            // Removes it from the queue, or lets it finish if already running
+            future.cancel(false);
+            timeoutCounter.increment();
+            LOG.warn("Password hashing not done within {}", timeout);
+            throw new PasswordHashingBusyException();
+        } catch (ExecutionException e) {
+            throw e.getCause() instanceof RuntimeException runtimeException ? runtimeException : new IllegalStateException(e.getCause());
+        } catch (InterruptedException e) {
+            future.cancel(false);
+            Thread.currentThread().interrupt();
+            throw new PasswordHashingBusyException();
+        }
+    }
+
+    private static Timer hashingTimer(String operation, MeterRegistry meterRegistry) {
+        return Timer.builder("password.hashing")
+            .description("Time spent hashing or verifying a password")
+            .tag("operation", operation)
+            .publishPercentiles(0.5, 0.99)
+            .register(meterRegistry);
+    }
+
+    private static Counter rejectedCounter(String reason, MeterRegistry meterRegistry) {
+        return Counter.builder("password.hashing.rejected")
+            .description("Password hashings rejected to shed the load")
+            .tag("reason", reason)
+            .register(meterRegistry);
+    }
+
+    @Override
+    public void destroy() {
+        executor.shutdown();
+    }
+}
@@ -1,15 +1,26 @@
 package petcare.service;
 
+import jakarta.persistence.criteria.CriteriaBuilder;
+import jakarta.persistence.criteria.Root;
+import jakarta.persistence.criteria.Selection;
+import java.io.IOException;
+import java.io.OutputStream;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
+import org.springframework.data.domain.KeysetScrollPosition;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Sort;
+import org.springframework.data.domain.Window;
 import org.springframework.data.jpa.domain.Specification;
+import org.springframework.http.MediaType;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
+import petcare.config.ApplicationProperties;
 import petcare.domain.*; // for static metamodels
 import petcare.domain.Pet;
 import petcare.repository.PetRepository;
+import petcare.repository.SpecificationProjectionExecutor;
 import petcare.service.criteria.PetCriteria;
 import petcare.service.dto.PetDTO;
 import petcare.service.mapper.PetMapper;
@@ -27,17 +38,39 @@ public class PetQueryService extends QueryService<Pet> {
 
     private static final Logger LOG = LoggerFactory.getLogger(PetQueryService.class);
 
+    /**
+     * The order of the pages and exports of the pets of an owner, the latest first: the creation time is not always
+     * set, the ids are allocated in creation order.
+     */
+    public static final Sort BY_TIME = Sort.by(Sort.Order.desc(Pet_.ID));
+
     private final PetRepository petRepository;
 
     private final PetMapper petMapper;
 
-    public PetQueryService(PetRepository petRepository, PetMapper petMapper) {
+    private final SpecificationProjectionExecutor projectionExecutor;
+
+    private final ExportService exportService;
+
+    private final int maxPageSize;
+
+    public PetQueryService(
+        PetRepository petRepository,
+        PetMapper petMapper,
+        SpecificationProjectionExecutor projectionExecutor,
+        ExportService exportService,
+        ApplicationProperties applicationProperties
+    ) {
         this.petRepository = petRepository;
         this.petMapper = petMapper;
+        this.projectionExecutor = projectionExecutor;
+        this.exportService = exportService;
+        this.maxPageSize = applicationProperties.getPagination().getMaxPageSize();
     }
 
     /**
      * Return a {@link Page} of {@link PetDTO} which matches the criteria from the database.
+     * The DTOs are selected directly, without loading the entities in the persistence context.
      * @param criteria The object which holds all the filters, which the entities should match.
      * @param page The page, which should be returned.
      * @return the matching entities.
@@ -46,7 +79,71 @@ public class PetQueryService extends QueryService<Pet> {
     public Page<PetDTO> findByCriteria(PetCriteria criteria, Pageable page) {
         LOG.debug("find by criteria : {}, page: {}", criteria, page);
         final Specification<Pet> specification = createSpecification(criteria);
-        return petRepository.findAll(specification, page).map(petMapper::toDto);
+        return projectionExecutor.findAll(Pet.class, PetDTO.class, specification, page, this::toDto);
+    }
+
+    /**
+     * Return a {@link Window} of {@link PetDTO} which matches the criteria from the database, using keyset pagination.
+     * The rows are filtered with seek predicates on the sort keys (and id) of the given position, and no count query is run.
+     * The DTOs are selected directly, without loading the entities in the persistence context.
+     * @param criteria The object which holds all the filters, which the entities should match.
+     * @param position The keyset position to continue after.
+     * @param page The page size and sort, the page number is ignored.
+     * @return the matching entities.
+     */
+    @Transactional(readOnly = true)
+    public Window<PetDTO> findByCriteria(PetCriteria criteria, KeysetScrollPosition position, Pageable page) {
+        LOG.debug("find by criteria : {}, position: {}, page: {}", criteria, position, page);
+        final Specification<Pet> specification = createSpecification(criteria);
+        return projectionExecutor.findWindow(
+            Pet.class,
+            PetDTO.class,
+            specification,
+            page.getSort(),
+            position,
+            page.getPageSize(),
+            this::toDto
+        );
+    }
+
+    /**
+     * Return a {@link Window} of the pets of an owner, the latest first, using keyset pagination.
+     * @param ownerId the id of the owner.
+     * @param position The keyset position to continue after.
+     * @param size the requested page size, capped at {@code application.pagination.max-page-size}.
+     * @return the pets of the owner.
+     */
+    @Transactional(readOnly = true)
+    public Window<PetDTO> findByOwnerId(Long ownerId, KeysetScrollPosition position, int size) {
+        LOG.debug("find by ownerId : {}, position: {}, size: {}", ownerId, position, size);
+        int limit = Math.max(1, Math.min(size, maxPageSize));
+        return projectionExecutor.findWindow(Pet.class, PetDTO.class, byOwnerId(ownerId), BY_TIME, position, limit, this::toDto);
+    }
+
+    /**
+     * Write all the pets of an owner to an output stream as a JSON array, the latest first.
+     * The entities are streamed from the database, see {@link ExportService}.
+     * @param ownerId the id of the owner.
+     * @param output The stream to write to.
+     * @return the number of written pets.
+     * @throws IOException if the output can not be written.
+     */
+    @Transactional(readOnly = true)
+    public long exportByOwnerId(Long ownerId, OutputStream output) throws IOException {
+        LOG.debug("export by ownerId : {}", ownerId);
+        return exportService.export(
+            Pet.class,
+            byOwnerId(ownerId),
+            BY_TIME,
+            petMapper::toDto,
+            PetDTO.class,
+            MediaType.APPLICATION_JSON,
+            output
+        );
+    }
+
+    private static Specification<Pet> byOwnerId(Long ownerId) {
+        return (root, query, cb) -> cb.equal(root.get(Pet_.ownerId), ownerId);
     }
 
     /**
@@ -61,6 +158,29 @@ public class PetQueryService extends QueryService<Pet> {
         return petRepository.count(specification);
     }
 
+    /**
+     * Function to select a {@link PetDTO} from a {@link Pet} root, the arguments follow the DTO constructor.
+     * @param cb The criteria builder of the query.
+     * @param root The {@link Pet} root of the query.
+     * @return the DTO constructor selection.
+     */
+    protected Selection<PetDTO> toDto(CriteriaBuilder cb, Root<Pet> root) {
+        return cb.construct(
+            PetDTO.class,
+            root.get(Pet_.id),
+            root.get(Pet_.ownerId),
+            root.get(Pet_.name),
+            root.get(Pet_.species),
+            root.get(Pet_.breed),
+            root.get(Pet_.age),
+            root.get(Pet_.gender),
+            root.get(Pet_.photoUrl),
+            root.get(Pet_.avatar),
+            root.get(Pet_.createdAt),
+            root.get(Pet_.version)
+        );
+    }
+
     /**
      * Function to convert {@link PetCriteria} to a {@link Specification}
      * @param criteria The object which holds all the filters, which the entities should match.
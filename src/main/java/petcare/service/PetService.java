@@ -1,13 +1,26 @@
 package petcare.service;
 
+import java.io.InputStream;
+import java.util.HashSet;
 import java.util.List;
+import java.util.Objects;
 import java.util.Optional;
+import java.util.Set;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
+import org.springframework.http.MediaType;
+import org.springframework.orm.ObjectOptimisticLockingFailureException;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Propagation;
 import org.springframework.transaction.annotation.Transactional;
+import petcare.domain.OwnerStats;
 import petcare.domain.Pet;
+import petcare.repository.ConditionalUpdateExecutor;
+import petcare.repository.ConditionalUpdateExecutor.Outcome;
+import petcare.repository.HealthRecordRepository;
 import petcare.repository.PetRepository;
+import petcare.service.OwnerStatsService.Delta;
+import petcare.service.dto.BulkIngestReportDTO;
 import petcare.service.dto.PetDTO;
 import petcare.service.mapper.PetMapper;
 
@@ -20,13 +33,35 @@ public class PetService {
 
     private static final Logger LOG = LoggerFactory.getLogger(PetService.class);
 
+    // The owner counters need the previous owner
+    private static final Set<String> UPDATE_GUARDS = Set.of("ownerId");
+
     private final PetRepository petRepository;
 
     private final PetMapper petMapper;
 
-    public PetService(PetRepository petRepository, PetMapper petMapper) {
+    private final BulkIngestService bulkIngestService;
+
+    private final HealthRecordRepository healthRecordRepository;
+
+    private final OwnerStatsService ownerStatsService;
+
+    private final ConditionalUpdateExecutor conditionalUpdateExecutor;
+
+    public PetService(
+        PetRepository petRepository,
+        PetMapper petMapper,
+        BulkIngestService bulkIngestService,
+        HealthRecordRepository healthRecordRepository,
+        OwnerStatsService ownerStatsService,
+        ConditionalUpdateExecutor conditionalUpdateExecutor
+    ) {
         this.petRepository = petRepository;
         this.petMapper = petMapper;
+        this.bulkIngestService = bulkIngestService;
+        this.healthRecordRepository = healthRecordRepository;
+        this.ownerStatsService = ownerStatsService;
+        this.conditionalUpdateExecutor = conditionalUpdateExecutor;
     }
 
     /**
@@ -39,20 +74,69 @@ public class PetService {
         LOG.debug("Request to save Pet : {}", petDTO);
         Pet pet = petMapper.toEntity(petDTO);
         pet = petRepository.save(pet);
+        ownerStatsService.increment(pet.getOwnerId(), Delta.pets(1));
         return petMapper.toDto(pet);
     }
 
     /**
      * Update a pet.
+     * <p>
+     * With the version it was read at, the pet is updated by a single conditional statement, whose affected row count
+     * is the answer: when it updates nothing, a probe of the row tells a missing pet from a stale version. Only a
+     * change of owner, whose counters need the previous owner, or a DTO without version is read and updated through
+     * the entity.
      *
      * @param petDTO the entity to save.
-     * @return the persisted entity.
+     * @return the persisted entity, or empty if the pet does not exist.
+     * @throws ObjectOptimisticLockingFailureException if the pet was updated since the version of the DTO.
      */
-    public PetDTO update(PetDTO petDTO) {
+    public Optional<PetDTO> update(PetDTO petDTO) {
         LOG.debug("Request to update Pet : {}", petDTO);
         Pet pet = petMapper.toEntity(petDTO);
-        pet = petRepository.save(pet);
-        return petMapper.toDto(pet);
+        if (pet.getVersion() != null) {
+            Outcome outcome = conditionalUpdateExecutor.updateIfUnchanged(pet, UPDATE_GUARDS);
+            if (outcome == Outcome.UPDATED) {
+                return Optional.of(petMapper.toDto(pet.version(pet.getVersion() + 1)));
+            }
+            if (outcome == Outcome.NOT_FOUND) {
+                return Optional.empty();
+            }
+            if (outcome == Outcome.VERSION_CHANGED) {
+                throw new ObjectOptimisticLockingFailureException(Pet.class, pet.getId());
+            }
+        }
+        return petRepository
+            .findById(pet.getId())
+            .map(existingPet -> {
+                checkVersion(existingPet, petDTO.getVersion());
+                Long previousOwnerId = existingPet.getOwnerId();
+                pet.setVersion(existingPet.getVersion());
+                Pet saved = petRepository.saveAndFlush(pet);
+                countOwnerChange(saved.getId(), previousOwnerId, saved.getOwnerId());
+                return petMapper.toDto(saved);
+            });
+    }
+
+    /**
+     * Create pets in bulk from an NDJSON or CSV stream, in chunks committed one after the other, then count the
+     * owners of the created pets again.
+     *
+     * @param input the stream of pets.
+     * @param contentType the format of the stream.
+     * @return the report of the created and rejected rows.
+     */
+    @Transactional(propagation = Propagation.NOT_SUPPORTED)
+    public BulkIngestReportDTO ingest(InputStream input, MediaType contentType) {
+        LOG.debug("Request to ingest Pets in bulk : {}", contentType);
+        // Also holds the owners of the rows of failed chunks, which are only counted again for nothing
+        Set<Long> ownerIds = new HashSet<>();
+        try {
+            return bulkIngestService.ingest(input, contentType, PetDTO.class, petMapper::toEntity, petRepository, pets ->
+                pets.forEach(pet -> ownerIds.add(pet.getOwnerId()))
+            );
+        } finally {
+            ownerStatsService.recount(ownerIds);
+        }
     }
 
     /**
@@ -60,6 +144,7 @@ public class PetService {
      *
      * @param petDTO the entity to update partially.
      * @return the persisted entity.
+     * @throws ObjectOptimisticLockingFailureException if the pet was updated since the version of the DTO.
      */
     public Optional<PetDTO> partialUpdate(PetDTO petDTO) {
         LOG.debug("Request to partially update Pet : {}", petDTO);
@@ -67,11 +152,14 @@ public class PetService {
         return petRepository
             .findById(petDTO.getId())
             .map(existingPet -> {
+                checkVersion(existingPet, petDTO.getVersion());
+                Long previousOwnerId = existingPet.getOwnerId();
                 petMapper.partialUpdate(existingPet, petDTO);
+                countOwnerChange(existingPet.getId(), previousOwnerId, existingPet.getOwnerId());
 
                 return existingPet;
             })
-            .map(petRepository::save)
+            .map(petRepository::saveAndFlush)
             .map(petMapper::toDto);
     }
 
@@ -94,11 +182,33 @@ public class PetService {
      */
     public void delete(Long id) {
         LOG.debug("Request to delete Pet : {}", id);
-        petRepository.deleteById(id);
+        petRepository
+            .findById(id)
+            .ifPresent(pet -> {
+                Delta counted = Delta.pets(1).plus(Delta.healthRecords(healthRecordRepository.countByPetId(id)));
+                // Deleted before counting, the counters created by this write count the rows without the pet
+                petRepository.delete(pet);
+                ownerStatsService.increment(pet.getOwnerId(), counted.negate());
+            });
     }
 
-    public List<PetDTO> findByOwnerId(Long ownerId) {
-        return petRepository.findByOwnerId(ownerId).stream().map(petMapper::toDto).toList();
+    /**
+     * Reject the update of a pet read at another version, when the client sent one.
+     */
+    private static void checkVersion(Pet pet, Long version) {
+        if (version != null && !version.equals(pet.getVersion())) {
+            throw new ObjectOptimisticLockingFailureException(Pet.class, pet.getId());
+        }
+    }
+
+    /**
+     * Move the pet, and its health records, to the counters of its new owner.
+     */
+    private void countOwnerChange(Long petId, Long previousOwnerId, Long ownerId) {
+        if (!Objects.equals(previousOwnerId, ownerId)) {
+            Delta counted = Delta.pets(1).plus(Delta.healthRecords(healthRecordRepository.countByPetId(petId)));
+            ownerStatsService.change(previousOwnerId, counted, ownerId, counted);
+        }
     }
 
     @Transactional(readOnly = true)
@@ -107,7 +217,9 @@ public class PetService {
         return petRepository.findAllById(ids).stream().map(petMapper::toDto).toList();
     }
 
+    @Transactional(readOnly = true)
     public Long countByOwnerId(Long ownerId) {
-        return petRepository.countByOwnerId(ownerId);
+        // Until the startup rebuild created the counters of the owner
+        return ownerStatsService.findOne(ownerId).map(OwnerStats::getPetCount).orElseGet(() -> petRepository.countByOwnerId(ownerId));
     }
 }
@@ -0,0 +1,264 @@
+package petcare.service;
+
+import jakarta.persistence.criteria.CriteriaBuilder;
+import jakarta.persistence.criteria.Predicate;
+import jakarta.persistence.criteria.Root;
+import jakarta.persistence.metamodel.SingularAttribute;
+import java.time.Instant;
+import java.time.format.DateTimeParseException;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Optional;
+import java.util.PriorityQueue;
+import java.util.function.Function;
+import java.util.stream.Stream;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.data.domain.KeysetScrollPosition;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.ScrollPosition;
+import org.springframework.data.domain.Slice;
+import org.springframework.data.domain.SliceImpl;
+import org.springframework.data.domain.Sort;
+import org.springframework.data.domain.Window;
+import org.springframework.data.jpa.domain.Specification;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+import petcare.config.ApplicationProperties;
+import petcare.domain.Appointment;
+import petcare.domain.Appointment_;
+import petcare.domain.HealthRecord;
+import petcare.domain.HealthRecord_;
+import petcare.repository.AppointmentRepository;
+import petcare.repository.HealthRecordRepository;
+import petcare.repository.PetRepository;
+import petcare.service.dto.PetTimelineEventDTO;
+import petcare.service.mapper.AppointmentMapper;
+import petcare.service.mapper.HealthRecordMapper;
+
+/**
+ * Builds the medical timeline of a {@link petcare.domain.Pet}: its appointments and health records, the latest first.
+ * <p>
+ * Each history is read with a keyset scan of its {@code (pet_id, time)} index, in windows of one row more than the
+ * page, and the two are merged lazily on their next events: a page usually costs one window of each history, whatever
+ * the age of the pet. The health records without a creation time can not be placed, and are not on the timeline.
+ * <p>
+ * The events at the same time are ordered by type, then by id, so that a {@link Cursor} of the last event of a page
+ * tells exactly where the next page starts.
+ */
+@Service
+@Transactional(readOnly = true)
+public class PetTimelineService {
+
+    private static final Logger LOG = LoggerFactory.getLogger(PetTimelineService.class);
+
+    private static final Comparator<Cursor> TIMELINE_ORDER = Comparator.comparing(Cursor::time)
+        .reversed()
+        .thenComparing(Cursor::type)
+        .thenComparing(Comparator.comparing(Cursor::id).reversed());
+
+    // The id makes the keysets unique
+    private static final Sort APPOINTMENTS_BY_TIME = Sort.by(Sort.Order.desc(Appointment_.APPT_TIME), Sort.Order.desc(Appointment_.ID));
+
+    private static final Sort HEALTH_RECORDS_BY_TIME = Sort.by(
+        Sort.Order.desc(HealthRecord_.CREATED_AT),
+        Sort.Order.desc(HealthRecord_.ID)
+    );
+
+    private final PetRepository petRepository;
+
+    private final AppointmentRepository appointmentRepository;
+
+    private final AppointmentMapper appointmentMapper;
+
+    private final HealthRecordRepository healthRecordRepository;
+
+    private final HealthRecordMapper healthRecordMapper;
+
+    private final int maxPageSize;
+
+    public PetTimelineService(
+        PetRepository petRepository,
+        AppointmentRepository appointmentRepository,
+        AppointmentMapper appointmentMapper,
+        HealthRecordRepository healthRecordRepository,
+        HealthRecordMapper healthRecordMapper,
+        ApplicationProperties applicationProperties
+    ) {
+        this.petRepository = petRepository;
+        this.appointmentRepository = appointmentRepository;
+        this.appointmentMapper = appointmentMapper;
+        this.healthRecordRepository = healthRecordRepository;
+        this.healthRecordMapper = healthRecordMapper;
+        this.maxPageSize = applicationProperties.getPagination().getMaxPageSize();
+    }
+
+    /**
+     * The position of an event on the timeline: its time, then its type and its id, which order the events at the same
+     * time.
+     *
+     * @param time the time of the event.
+     * @param type the type of the event.
+     * @param id the id of the appointment or of the health record.
+     */
+    public record Cursor(Instant time, PetTimelineEventDTO.Type type, Long id) {
+        /**
+         * @param event an event of the timeline.
+         * @return the position of the event.
+         */
+        public static Cursor of(PetTimelineEventDTO event) {
+            return new Cursor(
+                event.getTime(),
+                event.getType(),
+                event.getType() == PetTimelineEventDTO.Type.APPOINTMENT ? event.getAppointment().getId() : event.getHealthRecord().getId()
+            );
+        }
+
+        /**
+         * @param cursor a cursor encoded by {@link #encode()}.
+         * @return the cursor, or empty if it is malformed.
+         */
+        public static Optional<Cursor> decode(String cursor) {
+            String[] parts = cursor.split(",", -1);
+            if (parts.length != 3) {
+                return Optional.empty();
+            }
+            try {
+                return Optional.of(new Cursor(Instant.parse(parts[0]), PetTimelineEventDTO.Type.valueOf(parts[1]), Long.valueOf(parts[2])));
+            } catch (DateTimeParseException | IllegalArgumentException e) {
+                return Optional.empty();
+            }
+        }
+
+        /**
+         * @return the cursor as {@code time,type,id}, like {@code 2024-05-01T09:00:00Z,APPOINTMENT,1001}.
+         */
+        public String encode() {
+            return time + "," + type + "," + id;
+        }
+    }
+
+    /**
+     * Get the latest events of a pet after a cursor, the latest first.
+     *
+     * @param petId the id of the pet.
+     * @param before the cursor of the last event of the previous page, the events must be strictly after it,
+     * {@code null} for the latest events.
+     * @param limit the number of events, capped at {@code application.pagination.max-page-size}.
+     * @return the events, the latest first, or empty if the pet does not exist.
+     */
+    public Optional<Slice<PetTimelineEventDTO>> findTimeline(Long petId, Cursor before, int limit) {
+        LOG.debug("Request to get the timeline of Pet : {}, before: {}, limit: {}", petId, before, limit);
+        if (!petRepository.existsById(petId)) {
+            return Optional.empty();
+        }
+        int size = Math.max(1, Math.min(limit, maxPageSize));
+        // One more row than the page, to know whether there are older events without another query
+        int batch = size + 1;
+        PriorityQueue<Source> sources = new PriorityQueue<>(Comparator.comparing(Source::cursor, TIMELINE_ORDER));
+        Stream.of(
+            new Source(position ->
+                appointmentRepository
+                    .findBy(appointments(petId, before), query -> query.sortBy(APPOINTMENTS_BY_TIME).limit(batch).scroll(position))
+                    .map(appointment -> new PetTimelineEventDTO(appointmentMapper.toDto(appointment)))
+            ),
+            new Source(position ->
+                healthRecordRepository
+                    .findBy(healthRecords(petId, before), query -> query.sortBy(HEALTH_RECORDS_BY_TIME).limit(batch).scroll(position))
+                    .map(healthRecord -> new PetTimelineEventDTO(healthRecordMapper.toDto(healthRecord)))
+            )
+        )
+            .filter(Source::hasNext)
+            .forEach(sources::add);
+
+        List<PetTimelineEventDTO> events = new ArrayList<>(size);
+        while (!sources.isEmpty() && events.size() < size) {
+            Source source = sources.poll();
+            events.add(source.next());
+            if (source.hasNext()) {
+                sources.add(source);
+            }
+        }
+        return Optional.of(new SliceImpl<>(events, PageRequest.of(0, size), !sources.isEmpty()));
+    }
+
+    private static Specification<Appointment> appointments(Long petId, Cursor before) {
+        return (root, query, cb) ->
+            before == null
+                ? cb.equal(root.get(Appointment_.petId), petId)
+                : cb.and(
+                    cb.equal(root.get(Appointment_.petId), petId),
+                    after(root, cb, before, PetTimelineEventDTO.Type.APPOINTMENT, Appointment_.apptTime, Appointment_.id)
+                );
+    }
+
+    private static Specification<HealthRecord> healthRecords(Long petId, Cursor before) {
+        // The keyset can not seek past a null time
+        return (root, query, cb) ->
+            cb.and(
+                cb.equal(root.get(HealthRecord_.petId), petId),
+                before == null
+                    ? cb.isNotNull(root.get(HealthRecord_.createdAt))
+                    : after(root, cb, before, PetTimelineEventDTO.Type.HEALTH_RECORD, HealthRecord_.createdAt, HealthRecord_.id)
+            );
+    }
+
+    /**
+     * The events of one type that come after a cursor on the timeline.
+     */
+    private static <E> Predicate after(
+        Root<E> root,
+        CriteriaBuilder cb,
+        Cursor cursor,
+        PetTimelineEventDTO.Type type,
+        SingularAttribute<? super E, Instant> time,
+        SingularAttribute<? super E, Long> id
+    ) {
+        int order = type.compareTo(cursor.type());
+        if (order < 0) {
+            // The events of this type at the cursor time come before it
+            return cb.lessThan(root.get(time), cursor.time());
+        }
+        if (order > 0) {
+            return cb.lessThanOrEqualTo(root.get(time), cursor.time());
+        }
+        return cb.or(
+            cb.lessThan(root.get(time), cursor.time()),
+            cb.and(cb.equal(root.get(time), cursor.time()), cb.lessThan(root.get(id), cursor.id()))
+        );
+    }
+
+    /**
+     * The events of one history, the latest first, read a keyset window at a time when the previous one is consumed.
+     */
+    private static final class Source {
+
+        private final Function<KeysetScrollPosition, Window<PetTimelineEventDTO>> query;
+
+        private Window<PetTimelineEventDTO> window;
+
+        private int index;
+
+        Source(Function<KeysetScrollPosition, Window<PetTimelineEventDTO>> query) {
+            this.query = query;
+            this.window = query.apply(ScrollPosition.keyset());
+        }
+
+        boolean hasNext() {
+            if (index == window.size() && window.hasNext()) {
+                window = query.apply((KeysetScrollPosition) window.positionAt(index - 1));
+                index = 0;
+            }
+            return index < window.size();
+        }
+
+        Cursor cursor() {
+            return Cursor.of(window.getContent().get(index));
+        }
+
+        PetTimelineEventDTO next() {
+            return window.getContent().get(index++);
+        }
+    }
+}
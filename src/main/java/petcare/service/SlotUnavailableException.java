@@ -0,0 +1,10 @@
+package petcare.service;
+
+public class SlotUnavailableException extends RuntimeException {
+
+    private static final long serialVersionUID = 1L;
+
+    public SlotUnavailableException() {
+        super("The appointment slot is already booked!");
+    }
+}
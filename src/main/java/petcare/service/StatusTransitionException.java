@@ -0,0 +1,10 @@
+package petcare.service;
+
+public class StatusTransitionException extends RuntimeException {
+
+    private static final long serialVersionUID = 1L;
+
+    public StatusTransitionException() {
+        super("The appointment can not move to this status from its current one!");
+    }
+}
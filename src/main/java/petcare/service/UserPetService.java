@@ -1,11 +1,15 @@
 package petcare.service;
 
 import java.util.Optional;
+import java.util.Set;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
+import org.springframework.orm.ObjectOptimisticLockingFailureException;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
 import petcare.domain.UserPet;
+import petcare.repository.ConditionalUpdateExecutor;
+import petcare.repository.ConditionalUpdateExecutor.Outcome;
 import petcare.repository.UserPetRepository;
 import petcare.service.dto.UserPetDTO;
 import petcare.service.mapper.UserPetMapper;
@@ -23,9 +27,16 @@ public class UserPetService {
 
     private final UserPetMapper userPetMapper;
 
-    public UserPetService(UserPetRepository userPetRepository, UserPetMapper userPetMapper) {
+    private final ConditionalUpdateExecutor conditionalUpdateExecutor;
+
+    public UserPetService(
+        UserPetRepository userPetRepository,
+        UserPetMapper userPetMapper,
+        ConditionalUpdateExecutor conditionalUpdateExecutor
+    ) {
         this.userPetRepository = userPetRepository;
         this.userPetMapper = userPetMapper;
+        this.conditionalUpdateExecutor = conditionalUpdateExecutor;
     }
 
     /**
@@ -43,15 +54,38 @@ public class UserPetService {
 
     /**
      * Update a userPet.
+     * <p>
+     * With the version it was read at, the user is updated by a single conditional statement, whose affected row count
+     * is the answer: when it updates nothing, a probe of the row tells a missing user from a stale version. Only a DTO
+     * without version is read and updated through the entity.
      *
      * @param userPetDTO the entity to save.
-     * @return the persisted entity.
+     * @return the persisted entity, or empty if the user does not exist.
+     * @throws ObjectOptimisticLockingFailureException if the user was updated since the version of the DTO.
      */
-    public UserPetDTO update(UserPetDTO userPetDTO) {
+    public Optional<UserPetDTO> update(UserPetDTO userPetDTO) {
         LOG.debug("Request to update UserPet : {}", userPetDTO);
         UserPet userPet = userPetMapper.toEntity(userPetDTO);
-        userPet = userPetRepository.save(userPet);
-        return userPetMapper.toDto(userPet);
+        if (userPet.getVersion() != null) {
+            Outcome outcome = conditionalUpdateExecutor.updateIfUnchanged(userPet, Set.of());
+            if (outcome == Outcome.UPDATED) {
+                return Optional.of(userPetMapper.toDto(userPet.version(userPet.getVersion() + 1)));
+            }
+            if (outcome == Outcome.NOT_FOUND) {
+                return Optional.empty();
+            }
+            if (outcome == Outcome.VERSION_CHANGED) {
+                throw new ObjectOptimisticLockingFailureException(UserPet.class, userPet.getId());
+            }
+        }
+        return userPetRepository
+            .findById(userPet.getId())
+            .map(existingUserPet -> {
+                checkVersion(existingUserPet, userPetDTO.getVersion());
+                userPet.setVersion(existingUserPet.getVersion());
+                return userPetRepository.saveAndFlush(userPet);
+            })
+            .map(userPetMapper::toDto);
     }
 
     /**
@@ -59,6 +93,7 @@ public class UserPetService {
      *
      * @param userPetDTO the entity to update partially.
      * @return the persisted entity.
+     * @throws ObjectOptimisticLockingFailureException if the user was updated since the version of the DTO.
      */
     public Optional<UserPetDTO> partialUpdate(UserPetDTO userPetDTO) {
         LOG.debug("Request to partially update UserPet : {}", userPetDTO);
@@ -66,11 +101,12 @@ public class UserPetService {
         return userPetRepository
             .findById(userPetDTO.getId())
             .map(existingUserPet -> {
+                checkVersion(existingUserPet, userPetDTO.getVersion());
                 userPetMapper.partialUpdate(existingUserPet, userPetDTO);
 
                 return existingUserPet;
             })
-            .map(userPetRepository::save)
+            .map(userPetRepository::saveAndFlush)
             .map(userPetMapper::toDto);
     }
 
@@ -95,4 +131,13 @@ public class UserPetService {
         LOG.debug("Request to delete UserPet : {}", id);
         userPetRepository.deleteById(id);
     }
+
+    /**
+     * Reject the update of a user read at another version, when the client sent one.
+     */
+    private static void checkVersion(UserPet userPet, Long version) {
+        if (version != null && !version.equals(userPet.getVersion())) {
+            throw new ObjectOptimisticLockingFailureException(UserPet.class, userPet.getId());
+        }
+    }
 }
@@ -30,6 +30,35 @@ public class AppointmentDTO implements Serializable {
 
     private Instant createdAt;
 
+    private Long version;
+
+    public AppointmentDTO() {
+        // Empty constructor needed for Jackson.
+    }
+
+    /**
+     * Constructor used by the projection queries of the list endpoints.
+     */
+    public AppointmentDTO(
+        Long id,
+        Long petId,
+        Long ownerId,
+        Long discoveryId,
+        Instant apptTime,
+        AppointmentStatus status,
+        Instant createdAt,
+        Long version
+    ) {
+        this.id = id;
+        this.petId = petId;
+        this.ownerId = ownerId;
+        this.discoveryId = discoveryId;
+        this.apptTime = apptTime;
+        this.status = status;
+        this.createdAt = createdAt;
+        this.version = version;
+    }
+
     public Long getId() {
         return id;
     }
@@ -86,6 +115,14 @@ public class AppointmentDTO implements Serializable {
         this.createdAt = createdAt;
     }
 
+    public Long getVersion() {
+        return version;
+    }
+
+    public void setVersion(Long version) {
+        this.version = version;
+    }
+
     @Override
     public boolean equals(Object o) {
         if (this == o) {
@@ -118,6 +155,7 @@ public class AppointmentDTO implements Serializable {
             ", apptTime='" + getApptTime() + "'" +
             ", status='" + getStatus() + "'" +
             ", createdAt='" + getCreatedAt() + "'" +
+            ", version=" + getVersion() +
             "}";
     }
 }
@@ -0,0 +1,104 @@
+package petcare.service.dto;
+
+import java.io.Serializable;
+import java.time.Instant;
+
+/**
+ * The content of the reminder emailed to the owner of an upcoming {@link petcare.domain.Appointment}.
+ */
+public class AppointmentReminderDTO implements Serializable {
+
+    private static final long serialVersionUID = 1L;
+
+    private Long appointmentId;
+
+    private String email;
+
+    private String ownerName;
+
+    private String petName;
+
+    private String discoveryName;
+
+    private String location;
+
+    private Instant apptTime;
+
+    public Long getAppointmentId() {
+        return appointmentId;
+    }
+
+    public void setAppointmentId(Long appointmentId) {
+        this.appointmentId = appointmentId;
+    }
+
+    public String getEmail() {
+        return email;
+    }
+
+    public void setEmail(String email) {
+        this.email = email;
+    }
+
+    public String getOwnerName() {
+        return ownerName;
+    }
+
+    public void setOwnerName(String ownerName) {
+        this.ownerName = ownerName;
+    }
+
+    public String getPetName() {
+        return petName;
+    }
+
+    public void setPetName(String petName) {
+        this.petName = petName;
+    }
+
+    public String getDiscoveryName() {
+        return discoveryName;
+    }
+
+    public void setDiscoveryName(String discoveryName) {
+        this.discoveryName = discoveryName;
+    }
+
+    public String getLocation() {
+        return location;
+    }
+
+    public void setLocation(String location) {
+        this.location = location;
+    }
+
+    public Instant getApptTime() {
+        return apptTime;
+    }
+
+    public void setApptTime(Instant apptTime) {
+        this.apptTime = apptTime;
+    }
+
+    @Override
+    public String toString() {
+        return (
+            "AppointmentReminderDTO{" +
+            "appointmentId=" +
+            getAppointmentId() +
+            ", email='" +
+            getEmail() +
+            "'" +
+            ", petName='" +
+            getPetName() +
+            "'" +
+            ", discoveryName='" +
+            getDiscoveryName() +
+            "'" +
+            ", apptTime='" +
+            getApptTime() +
+            "'" +
+            "}"
+        );
+    }
+}
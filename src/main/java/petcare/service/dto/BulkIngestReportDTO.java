@@ -0,0 +1,120 @@
+package petcare.service.dto;
+
+import java.io.Serializable;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * The outcome of a bulk ingest: how many rows were read, created and rejected, and why the first
+ * {@value #MAX_ERRORS} rejected rows were.
+ */
+public class BulkIngestReportDTO implements Serializable {
+
+    private static final long serialVersionUID = 1L;
+
+    public static final int MAX_ERRORS = 1_000;
+
+    private long received;
+
+    private long created;
+
+    private long rejected;
+
+    private List<RowError> errors = new ArrayList<>();
+
+    public long getReceived() {
+        return received;
+    }
+
+    public void setReceived(long received) {
+        this.received = received;
+    }
+
+    public long getCreated() {
+        return created;
+    }
+
+    public void setCreated(long created) {
+        this.created = created;
+    }
+
+    public long getRejected() {
+        return rejected;
+    }
+
+    public void setRejected(long rejected) {
+        this.rejected = rejected;
+    }
+
+    public List<RowError> getErrors() {
+        return errors;
+    }
+
+    public void setErrors(List<RowError> errors) {
+        this.errors = errors;
+    }
+
+    /**
+     * Count a rejected row, and keep its error while fewer than {@value #MAX_ERRORS} are kept, so that a file of
+     * invalid rows does not fill the memory.
+     *
+     * @param row the number of the row.
+     * @param message why the row was rejected.
+     */
+    public void addError(long row, String message) {
+        rejected++;
+        if (errors.size() < MAX_ERRORS) {
+            errors.add(new RowError(row, message));
+        }
+    }
+
+    @Override
+    public String toString() {
+        return "BulkIngestReportDTO{" + "received=" + getReceived() + ", created=" + getCreated() + ", rejected=" + getRejected() + "}";
+    }
+
+    /**
+     * A rejected row.
+     */
+    public static class RowError implements Serializable {
+
+        private static final long serialVersionUID = 1L;
+
+        private long row;
+
+        private String message;
+
+        public RowError() {
+            // Empty constructor needed for Jackson.
+        }
+
+        public RowError(long row, String message) {
+            this.row = row;
+            this.message = message;
+        }
+
+        /**
+         * @return the 1-based number of the rejected row, the CSV header line excluded.
+         */
+        public long getRow() {
+            return row;
+        }
+
+        public void setRow(long row) {
+            this.row = row;
+        }
+
+        public String getMessage() {
+            return message;
+        }
+
+        public void setMessage(String message) {
+            this.message = message;
+        }
+
+        @Override
+        public String toString() {
+            return "RowError{" + "row=" + getRow() + ", message='" + getMessage() + "'" + "}";
+        }
+    }
+}
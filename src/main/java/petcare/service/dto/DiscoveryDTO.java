@@ -31,6 +31,8 @@ public class DiscoveryDTO implements Serializable {
 
     private Instant createdAt;
 
+    private Long version;
+
     public Long getId() {
         return id;
     }
@@ -87,6 +89,14 @@ public class DiscoveryDTO implements Serializable {
         this.createdAt = createdAt;
     }
 
+    public Long getVersion() {
+        return version;
+    }
+
+    public void setVersion(Long version) {
+        this.version = version;
+    }
+
     @Override
     public boolean equals(Object o) {
         if (this == o) {
@@ -119,6 +129,7 @@ public class DiscoveryDTO implements Serializable {
             ", requirements='" + getRequirements() + "'" +
             ", location='" + getLocation() + "'" +
             ", createdAt='" + getCreatedAt() + "'" +
+            ", version=" + getVersion() +
             "}";
     }
 }
@@ -0,0 +1,64 @@
+package petcare.service.dto;
+
+import java.io.Serializable;
+import java.time.Instant;
+import java.util.Objects;
+
+/**
+ * A free appointment slot of a {@link petcare.domain.Discovery}.
+ */
+public class FreeSlotDTO implements Serializable {
+
+    private static final long serialVersionUID = 1L;
+
+    private Instant start;
+
+    private Instant end;
+
+    public FreeSlotDTO() {
+        // Empty constructor needed for Jackson.
+    }
+
+    public FreeSlotDTO(Instant start, Instant end) {
+        this.start = start;
+        this.end = end;
+    }
+
+    public Instant getStart() {
+        return start;
+    }
+
+    public void setStart(Instant start) {
+        this.start = start;
+    }
+
+    public Instant getEnd() {
+        return end;
+    }
+
+    public void setEnd(Instant end) {
+        this.end = end;
+    }
+
+    @Override
+    public boolean equals(Object o) {
+        if (this == o) {
+            return true;
+        }
+        if (!(o instanceof FreeSlotDTO)) {
+            return false;
+        }
+        FreeSlotDTO freeSlotDTO = (FreeSlotDTO) o;
+        return Objects.equals(this.start, freeSlotDTO.start) && Objects.equals(this.end, freeSlotDTO.end);
+    }
+
+    @Override
+    public int hashCode() {
+        return Objects.hash(this.start, this.end);
+    }
+
+    @Override
+    public String toString() {
+        return "FreeSlotDTO{" + "start='" + getStart() + "'" + ", end='" + getEnd() + "'" + "}";
+    }
+}
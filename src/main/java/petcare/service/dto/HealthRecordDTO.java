@@ -33,6 +33,37 @@ public class HealthRecordDTO implements Serializable {
 
     private Instant createdAt;
 
+    private Long version;
+
+    public HealthRecordDTO() {
+        // Empty constructor needed for Jackson.
+    }
+
+    /**
+     * Constructor used by the projection queries of the list endpoints.
+     */
+    public HealthRecordDTO(
+        Long id,
+        Long petId,
+        Long vetId,
+        Long apptId,
+        String diagnosis,
+        String treatment,
+        String notes,
+        Instant createdAt,
+        Long version
+    ) {
+        this.id = id;
+        this.petId = petId;
+        this.vetId = vetId;
+        this.apptId = apptId;
+        this.diagnosis = diagnosis;
+        this.treatment = treatment;
+        this.notes = notes;
+        this.createdAt = createdAt;
+        this.version = version;
+    }
+
     public Long getId() {
         return id;
     }
@@ -97,6 +128,14 @@ public class HealthRecordDTO implements Serializable {
         this.createdAt = createdAt;
     }
 
+    public Long getVersion() {
+        return version;
+    }
+
+    public void setVersion(Long version) {
+        this.version = version;
+    }
+
     @Override
     public boolean equals(Object o) {
         if (this == o) {
@@ -130,6 +169,7 @@ public class HealthRecordDTO implements Serializable {
             ", treatment='" + getTreatment() + "'" +
             ", notes='" + getNotes() + "'" +
             ", createdAt='" + getCreatedAt() + "'" +
+            ", version=" + getVersion() +
             "}";
     }
 }
@@ -0,0 +1,124 @@
+package petcare.service.dto;
+
+import java.io.Serializable;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Everything the home screen of an owner ({@link petcare.domain.UserPet}) shows, in one payload.
+ * <p>
+ * A section which could not be read in time is left empty and named in {@code unavailable}.
+ */
+public class OwnerDashboardDTO implements Serializable {
+
+    private static final long serialVersionUID = 1L;
+
+    public static final String OWNER = "owner";
+
+    public static final String PETS = "pets";
+
+    public static final String PET_COUNT = "petCount";
+
+    public static final String NEXT_APPOINTMENTS = "nextAppointments";
+
+    public static final String HEALTH_RECORD_COUNT = "healthRecordCount";
+
+    private Long ownerId;
+
+    private long daysSinceCreated;
+
+    private List<PetDTO> pets;
+
+    // The after cursor of the next pets on GET /api/pets/user/{ownerId}, null when all the pets are listed
+    private String petsCursor;
+
+    private Long petCount;
+
+    private List<AppointmentDTO> nextAppointments;
+
+    private Long healthRecordCount;
+
+    private List<String> unavailable = new ArrayList<>();
+
+    public Long getOwnerId() {
+        return ownerId;
+    }
+
+    public void setOwnerId(Long ownerId) {
+        this.ownerId = ownerId;
+    }
+
+    public long getDaysSinceCreated() {
+        return daysSinceCreated;
+    }
+
+    public void setDaysSinceCreated(long daysSinceCreated) {
+        this.daysSinceCreated = daysSinceCreated;
+    }
+
+    public List<PetDTO> getPets() {
+        return pets;
+    }
+
+    public void setPets(List<PetDTO> pets) {
+        this.pets = pets;
+    }
+
+    public String getPetsCursor() {
+        return petsCursor;
+    }
+
+    public void setPetsCursor(String petsCursor) {
+        this.petsCursor = petsCursor;
+    }
+
+    public Long getPetCount() {
+        return petCount;
+    }
+
+    public void setPetCount(Long petCount) {
+        this.petCount = petCount;
+    }
+
+    public List<AppointmentDTO> getNextAppointments() {
+        return nextAppointments;
+    }
+
+    public void setNextAppointments(List<AppointmentDTO> nextAppointments) {
+        this.nextAppointments = nextAppointments;
+    }
+
+    public Long getHealthRecordCount() {
+        return healthRecordCount;
+    }
+
+    public void setHealthRecordCount(Long healthRecordCount) {
+        this.healthRecordCount = healthRecordCount;
+    }
+
+    public List<String> getUnavailable() {
+        return unavailable;
+    }
+
+    public void setUnavailable(List<String> unavailable) {
+        this.unavailable = unavailable;
+    }
+
+    @Override
+    public String toString() {
+        return (
+            "OwnerDashboardDTO{" +
+            "ownerId=" +
+            getOwnerId() +
+            ", daysSinceCreated=" +
+            getDaysSinceCreated() +
+            ", petCount=" +
+            getPetCount() +
+            ", healthRecordCount=" +
+            getHealthRecordCount() +
+            ", unavailable=" +
+            getUnavailable() +
+            "}"
+        );
+    }
+}
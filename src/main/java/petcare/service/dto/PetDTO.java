@@ -39,6 +39,41 @@ public class PetDTO implements Serializable {
 
     private Instant createdAt;
 
+    private Long version;
+
+    public PetDTO() {
+        // Empty constructor needed for Jackson.
+    }
+
+    /**
+     * Constructor used by the projection queries of the list endpoints.
+     */
+    public PetDTO(
+        Long id,
+        Long ownerId,
+        String name,
+        String species,
+        String breed,
+        Integer age,
+        Gender gender,
+        String photoUrl,
+        String avatar,
+        Instant createdAt,
+        Long version
+    ) {
+        this.id = id;
+        this.ownerId = ownerId;
+        this.name = name;
+        this.species = species;
+        this.breed = breed;
+        this.age = age;
+        this.gender = gender;
+        this.photoUrl = photoUrl;
+        this.avatar = avatar;
+        this.createdAt = createdAt;
+        this.version = version;
+    }
+
     public Long getId() {
         return id;
     }
@@ -119,6 +154,14 @@ public class PetDTO implements Serializable {
         this.createdAt = createdAt;
     }
 
+    public Long getVersion() {
+        return version;
+    }
+
+    public void setVersion(Long version) {
+        this.version = version;
+    }
+
     @Override
     public boolean equals(Object o) {
         if (this == o) {
@@ -154,6 +197,7 @@ public class PetDTO implements Serializable {
             ", photoUrl='" + getPhotoUrl() + "'" +
             ", avatar='" + getAvatar() + "'" +
             ", createdAt='" + getCreatedAt() + "'" +
+            ", version=" + getVersion() +
             "}";
     }
 }
@@ -0,0 +1,84 @@
+package petcare.service.dto;
+
+import java.io.Serializable;
+import java.time.Instant;
+
+/**
+ * An event of the medical history of a {@link petcare.domain.Pet}: an appointment at its time, or a health record at
+ * its creation. Only the DTO of its type is set.
+ */
+public class PetTimelineEventDTO implements Serializable {
+
+    private static final long serialVersionUID = 1L;
+
+    public enum Type {
+        APPOINTMENT,
+        HEALTH_RECORD,
+    }
+
+    private Type type;
+
+    private Instant time;
+
+    private AppointmentDTO appointment;
+
+    private HealthRecordDTO healthRecord;
+
+    public PetTimelineEventDTO() {
+        // Empty constructor needed for Jackson.
+    }
+
+    public PetTimelineEventDTO(AppointmentDTO appointment) {
+        this.type = Type.APPOINTMENT;
+        this.time = appointment.getApptTime();
+        this.appointment = appointment;
+    }
+
+    public PetTimelineEventDTO(HealthRecordDTO healthRecord) {
+        this.type = Type.HEALTH_RECORD;
+        this.time = healthRecord.getCreatedAt();
+        this.healthRecord = healthRecord;
+    }
+
+    public Type getType() {
+        return type;
+    }
+
+    public void setType(Type type) {
+        this.type = type;
+    }
+
+    public Instant getTime() {
+        return time;
+    }
+
+    public void setTime(Instant time) {
+        this.time = time;
+    }
+
+    public AppointmentDTO getAppointment() {
+        return appointment;
+    }
+
+    public void setAppointment(AppointmentDTO appointment) {
+        this.appointment = appointment;
+    }
+
+    public HealthRecordDTO getHealthRecord() {
+        return healthRecord;
+    }
+
+    public void setHealthRecord(HealthRecordDTO healthRecord) {
+        this.healthRecord = healthRecord;
+    }
+
+    @Override
+    public String toString() {
+        return "PetTimelineEventDTO{" +
+            "type='" + getType() + "'" +
+            ", time='" + getTime() + "'" +
+            ", appointment=" + getAppointment() +
+            ", healthRecord=" + getHealthRecord() +
+            "}";
+    }
+}
@@ -0,0 +1,72 @@
+package petcare.service.dto;
+
+import java.io.Serializable;
+
+/**
+ * The access and refresh tokens of a session, issued at login and on each refresh.
+ */
+public class TokenDTO implements Serializable {
+
+    private static final long serialVersionUID = 1L;
+
+    public static final String BEARER = "Bearer";
+
+    private String accessToken;
+
+    private String refreshToken;
+
+    private String tokenType = BEARER;
+
+    private long expiresIn;
+
+    public TokenDTO() {
+        // Empty constructor needed for Jackson.
+    }
+
+    public TokenDTO(String accessToken, String refreshToken, long expiresIn) {
+        this.accessToken = accessToken;
+        this.refreshToken = refreshToken;
+        this.expiresIn = expiresIn;
+    }
+
+    public String getAccessToken() {
+        return accessToken;
+    }
+
+    public void setAccessToken(String accessToken) {
+        this.accessToken = accessToken;
+    }
+
+    public String getRefreshToken() {
+        return refreshToken;
+    }
+
+    public void setRefreshToken(String refreshToken) {
+        this.refreshToken = refreshToken;
+    }
+
+    public String getTokenType() {
+        return tokenType;
+    }
+
+    public void setTokenType(String tokenType) {
+        this.tokenType = tokenType;
+    }
+
+    /**
+     * @return the seconds the access token is valid for.
+     */
+    public long getExpiresIn() {
+        return expiresIn;
+    }
+
+    public void setExpiresIn(long expiresIn) {
+        this.expiresIn = expiresIn;
+    }
+
+    // The tokens are credentials, and are not logged
+    @Override
+    public String toString() {
+        return "TokenDTO{" + "tokenType='" + getTokenType() + "'" + ", expiresIn=" + getExpiresIn() + "}";
+    }
+}
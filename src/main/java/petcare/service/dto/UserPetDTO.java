@@ -40,6 +40,8 @@ public class UserPetDTO implements Serializable {
 
     private Instant createdAt;
 
+    private Long version;
+
     public Long getId() {
         return id;
     }
@@ -112,6 +114,14 @@ public class UserPetDTO implements Serializable {
         this.createdAt = createdAt;
     }
 
+    public Long getVersion() {
+        return version;
+    }
+
+    public void setVersion(Long version) {
+        this.version = version;
+    }
+
     @Override
     public boolean equals(Object o) {
         if (this == o) {
@@ -146,6 +156,7 @@ public class UserPetDTO implements Serializable {
             ", role='" + getRole() + "'" +
             ", avatar='" + getAvatar() + "'" +
             ", createdAt='" + getCreatedAt() + "'" +
+            ", version=" + getVersion() +
             "}";
     }
 }
@@ -0,0 +1,492 @@
+package petcare.service.generator;
+
+import java.sql.PreparedStatement;
+import java.sql.SQLException;
+import java.sql.Timestamp;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.BitSet;
+import java.util.Calendar;
+import java.util.Collections;
+import java.util.List;
+import java.util.SplittableRandom;
+import java.util.TimeZone;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.security.crypto.password.PasswordEncoder;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+import petcare.config.ApplicationProperties;
+import petcare.config.SequenceGeneratorInitializer;
+import petcare.domain.enumeration.AppointmentStatus;
+import petcare.domain.enumeration.Gender;
+import petcare.domain.enumeration.UserRole;
+
+/**
+ * Fills the database with synthetic owners, vets, discoveries, pets, appointments and health records, at the scale
+ * of the performance tests.
+ * <p>
+ * The rows reference each other like real data: the pets belong to the generated owners, the appointments to their
+ * pets and owners, the health records to done appointments and generated vets, and the {@code owner_stats}
+ * counters match them. The distributions are skewed: the pets per owner follow a Pareto distribution, so a few
+ * owners have hundreds of pets, and the appointments go to the discoveries with a Zipf distribution, so a few
+ * discoveries get most of them. Like the bookings of the application, no two appointments that are not cancelled share
+ * a slot of a discovery: an appointment drawn in a booked slot takes the next free one, and is cancelled when its
+ * discovery is fully booked. The same seed and sizes always generate the same rows.
+ * <p>
+ * The rows are written with plain JDBC batches of {@code batchSize} rows, one transaction per batch, without going
+ * through Hibernate; their ids are reserved from {@link SequenceGeneratorInitializer}. The owners are generated one
+ * after the other, so only the pending batches and one bit per slot of each discovery are kept in memory.
+ */
+public class SyntheticDataGenerator {
+
+    private static final Logger LOG = LoggerFactory.getLogger(SyntheticDataGenerator.class);
+
+    /**
+     * The domain of the generated emails, which tells whether the data was already generated.
+     */
+    static final String EMAIL_DOMAIN = "synthetic.petcare.test";
+
+    private static final int ID_BLOCK_SIZE = 100_000;
+
+    private static final int MAX_APPOINTMENTS_PER_PET = 1_000;
+
+    private static final String[] FIRST_NAMES = {
+        "Anna",
+        "Bao",
+        "Carlos",
+        "Duc",
+        "Emma",
+        "Hana",
+        "Ivan",
+        "Linh",
+        "Lucas",
+        "Mai",
+        "Minh",
+        "Noah",
+        "Olivia",
+        "Quang",
+        "Sofia",
+        "Trang",
+    };
+
+    private static final String[] LAST_NAMES = { "Nguyen", "Tran", "Le", "Pham", "Smith", "Garcia", "Muller", "Rossi", "Kim", "Tanaka" };
+
+    private static final String[] PET_NAMES = {
+        "Bella",
+        "Coco",
+        "Luna",
+        "Max",
+        "Milo",
+        "Mochi",
+        "Nala",
+        "Oscar",
+        "Pepper",
+        "Rocky",
+        "Simba",
+        "Tofu",
+    };
+
+    private static final String[] SPECIES = { "dog", "cat", "rabbit", "bird", "hamster" };
+
+    // Indexes of SPECIES weighted by repetition: most pets are dogs and cats
+    private static final int[] SPECIES_DRAWS = { 0, 0, 0, 0, 1, 1, 1, 2, 3, 4 };
+
+    private static final String[][] BREEDS = {
+        { "Labrador", "Poodle", "Shiba Inu", "Golden Retriever", "Mixed" },
+        { "Siamese", "Persian", "Maine Coon", "British Shorthair", "Mixed" },
+        { "Holland Lop", "Rex", "Mixed" },
+        { "Budgerigar", "Cockatiel", "Canary" },
+        { "Syrian", "Dwarf" },
+    };
+
+    private static final String[] CATEGORIES = { "clinic", "grooming", "vaccination", "dental", "surgery", "boarding" };
+
+    private static final String[] CITIES = { "Hanoi", "Ho Chi Minh City", "Da Nang", "Hue", "Can Tho", "Hai Phong" };
+
+    private static final String[][] DIAGNOSES = {
+        { "Otitis", "Ear drops twice a day" },
+        { "Dermatitis", "Medicated shampoo weekly" },
+        { "Gastroenteritis", "Bland diet and probiotics" },
+        { "Dental tartar", "Scaling under anesthesia" },
+        { "Annual check-up", "None" },
+        { "Vaccination", "Booster in one year" },
+    };
+
+    private final JdbcTemplate jdbcTemplate;
+
+    private final TransactionTemplate transactionTemplate;
+
+    private final SequenceGeneratorInitializer sequenceGenerator;
+
+    private final PasswordEncoder passwordEncoder;
+
+    private final ApplicationProperties.SyntheticData properties;
+
+    private final long slotSeconds;
+
+    private final Calendar utc = Calendar.getInstance(TimeZone.getTimeZone("UTC"));
+
+    public SyntheticDataGenerator(
+        JdbcTemplate jdbcTemplate,
+        PlatformTransactionManager transactionManager,
+        SequenceGeneratorInitializer sequenceGenerator,
+        PasswordEncoder passwordEncoder,
+        ApplicationProperties.SyntheticData properties,
+        Duration slotDuration
+    ) {
+        if (properties.getOwners() < 1 || properties.getVets() < 1 || properties.getDiscoveries() < 1) {
+            throw new IllegalArgumentException("The synthetic data needs at least one owner, vet and discovery");
+        }
+        if (properties.getPetsPerOwner() < 1 || properties.getOwnerSkew() <= 1 || properties.getMaxPetsPerOwner() < 1) {
+            throw new IllegalArgumentException("The mean pets per owner must be at least 1 and the owner skew above 1");
+        }
+        if (properties.getBatchSize() < 1) {
+            throw new IllegalArgumentException("The synthetic data batch size must be positive");
+        }
+        long slots = properties.getHistory().plus(properties.getHorizon()).toSeconds() / slotDuration.toSeconds();
+        if (slots < 1 || slots >= Integer.MAX_VALUE) {
+            throw new IllegalArgumentException("The synthetic data history and horizon must span between 1 and 2^31 slots");
+        }
+        this.jdbcTemplate = jdbcTemplate;
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+        this.sequenceGenerator = sequenceGenerator;
+        this.passwordEncoder = passwordEncoder;
+        this.properties = properties;
+        this.slotSeconds = slotDuration.toSeconds();
+    }
+
+    /**
+     * The number of generated rows.
+     */
+    public record Report(long owners, long vets, long discoveries, long pets, long appointments, long healthRecords, Duration elapsed) {
+        public long rows() {
+            return owners + vets + discoveries + pets + appointments + healthRecords;
+        }
+    }
+
+    /**
+     * @return whether the synthetic data is already in the database.
+     */
+    public boolean isGenerated() {
+        Long count = jdbcTemplate.queryForObject("SELECT COUNT(*) FROM user_pet WHERE email LIKE ?", Long.class, "%@" + EMAIL_DOMAIN);
+        return count != null && count > 0;
+    }
+
+    /**
+     * Generate and insert the synthetic data.
+     *
+     * @return the number of generated rows.
+     */
+    public Report generate() {
+        long start = System.nanoTime();
+        SplittableRandom random = new SplittableRandom(properties.getSeed());
+        Instant now = Instant.now();
+        String passwordHash = passwordEncoder.encode("password");
+        Ids ids = new Ids();
+
+        Batch users = new Batch("user_pet", "id, name, email, password_hash, phone, address, role, avatar, created_at");
+        Batch discoveries = new Batch("discovery", "id, name, description, category, requirements, location, created_at");
+        Batch pets = new Batch("pet", "id, owner_id, name, species, breed, age, gender, photo_url, avatar, created_at");
+        Batch appointments = new Batch("appointment", "id, pet_id, owner_id, discovery_id, appt_time, status, created_at");
+        Batch healthRecords = new Batch("health_record", "id, pet_id, vet_id, appt_id, diagnosis, treatment, notes, created_at");
+        Batch ownerStats = new Batch(
+            "owner_stats",
+            "owner_id, pet_count, health_record_count, appointment_count, pending_appointment_count, " +
+            "confirmed_appointment_count, cancelled_appointment_count, done_appointment_count"
+        );
+
+        long[] vetIds = new long[properties.getVets()];
+        for (int i = 0; i < vetIds.length; i++) {
+            vetIds[i] = ids.next();
+            users.add(user(random, vetIds[i], "vet", UserRole.VET, passwordHash, now));
+        }
+
+        // The discoveries are ranked by popularity in a random order, so that the popular ones are not the first ids
+        long[] discoveryIds = new long[properties.getDiscoveries()];
+        for (int i = 0; i < discoveryIds.length; i++) {
+            discoveryIds[i] = ids.next();
+            discoveries.add(discovery(random, discoveryIds[i], now));
+        }
+        shuffle(random, discoveryIds);
+        double[] discoveryDistribution = zipf(discoveryIds.length, properties.getDiscoverySkew());
+
+        Instant first = now.minus(properties.getHistory());
+        long firstSlot = Math.floorDiv(first.getEpochSecond(), slotSeconds);
+        int slotCount = (int) (properties.getHistory().plus(properties.getHorizon()).toSeconds() / slotSeconds);
+        // The slots booked by the appointments that are not cancelled, by discovery rank
+        BitSet[] bookedSlots = new BitSet[discoveryIds.length];
+        for (int i = 0; i < bookedSlots.length; i++) {
+            bookedSlots[i] = new BitSet();
+        }
+        int progressStep = Math.max(1, properties.getOwners() / 10);
+        for (int owner = 0; owner < properties.getOwners(); owner++) {
+            long ownerId = ids.next();
+            Instant ownerCreatedAt = first.minusSeconds(random.nextLong(Duration.ofDays(365).toSeconds()));
+            users.add(user(random, ownerId, "owner", UserRole.OWNER, passwordHash, ownerCreatedAt));
+
+            long[] counts = new long[AppointmentStatus.values().length];
+            long petCount = petCount(random);
+            long healthRecordCount = 0;
+            long appointmentCount = 0;
+            for (long pet = 0; pet < petCount; pet++) {
+                long petId = ids.next();
+                pets.add(pet(random, petId, ownerId, ownerCreatedAt));
+
+                int petAppointments = appointmentCount(random);
+                appointmentCount += petAppointments;
+                for (int appointment = 0; appointment < petAppointments; appointment++) {
+                    long appointmentId = ids.next();
+                    int discovery = sample(random, discoveryDistribution);
+                    int drawnSlot = random.nextInt(slotCount);
+                    int slot = freeSlot(bookedSlots[discovery], drawnSlot, slotCount);
+                    Instant apptTime = Instant.ofEpochSecond((firstSlot + (slot >= 0 ? slot : drawnSlot)) * slotSeconds);
+                    AppointmentStatus status = slot >= 0 ? status(random, apptTime.isBefore(now)) : AppointmentStatus.CANCELLED;
+                    if (status != AppointmentStatus.CANCELLED) {
+                        bookedSlots[discovery].set(slot);
+                    }
+                    counts[status.ordinal()]++;
+                    long discoveryId = discoveryIds[discovery];
+                    Instant booked = apptTime.isBefore(now) ? apptTime : now;
+                    Instant createdAt = booked.minusSeconds(random.nextLong(Duration.ofDays(14).toSeconds()));
+                    appointments.add(appointmentId, petId, ownerId, discoveryId, apptTime, status.name(), createdAt);
+
+                    if (status == AppointmentStatus.DONE && random.nextDouble() < properties.getHealthRecordRate()) {
+                        String[] diagnosis = DIAGNOSES[random.nextInt(DIAGNOSES.length)];
+                        healthRecords.add(
+                            ids.next(),
+                            petId,
+                            vetIds[random.nextInt(vetIds.length)],
+                            appointmentId,
+                            diagnosis[0],
+                            diagnosis[1],
+                            null,
+                            apptTime.plusSeconds(slotSeconds)
+                        );
+                        healthRecordCount++;
+                    }
+                }
+            }
+            ownerStats.add(
+                ownerId,
+                petCount,
+                healthRecordCount,
+                appointmentCount,
+                counts[AppointmentStatus.PENDING.ordinal()],
+                counts[AppointmentStatus.CONFIRMED.ordinal()],
+                counts[AppointmentStatus.CANCELLED.ordinal()],
+                counts[AppointmentStatus.DONE.ordinal()]
+            );
+
+            if ((owner + 1) % progressStep == 0) {
+                LOG.info(
+                    "Generated {} of {} owners, {} pets, {} appointments",
+                    owner + 1,
+                    properties.getOwners(),
+                    pets.getCount(),
+                    appointments.getCount()
+                );
+            }
+        }
+        for (Batch batch : List.of(users, discoveries, pets, appointments, healthRecords, ownerStats)) {
+            batch.flush();
+        }
+
+        return new Report(
+            properties.getOwners(),
+            vetIds.length,
+            discoveryIds.length,
+            pets.getCount(),
+            appointments.getCount(),
+            healthRecords.getCount(),
+            Duration.ofNanos(System.nanoTime() - start)
+        );
+    }
+
+    private Object[] user(SplittableRandom random, long id, String prefix, UserRole role, String passwordHash, Instant createdAt) {
+        String firstName = FIRST_NAMES[random.nextInt(FIRST_NAMES.length)];
+        String lastName = LAST_NAMES[random.nextInt(LAST_NAMES.length)];
+        return new Object[] {
+            id,
+            firstName + " " + lastName,
+            prefix + "-" + id + "@" + EMAIL_DOMAIN,
+            passwordHash,
+            String.format("+84 9%08d", random.nextInt(100_000_000)),
+            (1 + random.nextInt(500)) + " Le Loi, " + CITIES[random.nextInt(CITIES.length)],
+            role.name(),
+            null,
+            createdAt,
+        };
+    }
+
+    private Object[] discovery(SplittableRandom random, long id, Instant now) {
+        String category = CATEGORIES[random.nextInt(CATEGORIES.length)];
+        String city = CITIES[random.nextInt(CITIES.length)];
+        return new Object[] {
+            id,
+            city + " " + category + " " + id,
+            "The " + category + " service of " + city,
+            category,
+            random.nextInt(4) == 0 ? "Vaccination record" : null,
+            city,
+            now.minus(properties.getHistory()).minusSeconds(random.nextLong(Duration.ofDays(365).toSeconds())),
+        };
+    }
+
+    private Object[] pet(SplittableRandom random, long id, long ownerId, Instant ownerCreatedAt) {
+        int species = SPECIES_DRAWS[random.nextInt(SPECIES_DRAWS.length)];
+        String[] breeds = BREEDS[species];
+        return new Object[] {
+            id,
+            ownerId,
+            PET_NAMES[random.nextInt(PET_NAMES.length)],
+            SPECIES[species],
+            breeds[random.nextInt(breeds.length)],
+            random.nextInt(16),
+            random.nextBoolean() ? Gender.MALE.name() : Gender.FEMALE.name(),
+            null,
+            null,
+            ownerCreatedAt.plusSeconds(random.nextLong(Duration.ofDays(30).toSeconds())),
+        };
+    }
+
+    /**
+     * Draw from a Lomax (shifted Pareto) distribution of mean {@code petsPerOwner}, at least 1.
+     */
+    private long petCount(SplittableRandom random) {
+        double alpha = properties.getOwnerSkew();
+        double scale = (properties.getPetsPerOwner() - 1) * (alpha - 1);
+        double extra = scale * (Math.pow(1 - random.nextDouble(), -1 / alpha) - 1);
+        return 1 + Math.min(Math.round(extra), properties.getMaxPetsPerOwner() - 1);
+    }
+
+    /**
+     * Draw from a geometric distribution of mean {@code appointmentsPerPet}.
+     */
+    private int appointmentCount(SplittableRandom random) {
+        double mean = properties.getAppointmentsPerPet();
+        if (mean <= 0) {
+            return 0;
+        }
+        double count = Math.log(1 - random.nextDouble()) / Math.log(mean / (mean + 1));
+        return (int) Math.min(count, MAX_APPOINTMENTS_PER_PET);
+    }
+
+    private static AppointmentStatus status(SplittableRandom random, boolean past) {
+        int draw = random.nextInt(100);
+        if (past) {
+            return draw < 85 ? AppointmentStatus.DONE : AppointmentStatus.CANCELLED;
+        }
+        return draw < 40 ? AppointmentStatus.PENDING : draw < 90 ? AppointmentStatus.CONFIRMED : AppointmentStatus.CANCELLED;
+    }
+
+    /**
+     * @return the cumulative distribution of a Zipf law of exponent {@code skew} over {@code size} ranks.
+     */
+    private static double[] zipf(int size, double skew) {
+        double[] cumulative = new double[size];
+        double sum = 0;
+        for (int rank = 0; rank < size; rank++) {
+            sum += 1 / Math.pow(rank + 1, skew);
+            cumulative[rank] = sum;
+        }
+        for (int rank = 0; rank < size; rank++) {
+            cumulative[rank] /= sum;
+        }
+        return cumulative;
+    }
+
+    /**
+     * @return the first free slot from {@code from}, wrapping around, or -1 when all the {@code slotCount} slots are booked.
+     */
+    private static int freeSlot(BitSet booked, int from, int slotCount) {
+        int slot = booked.nextClearBit(from);
+        if (slot >= slotCount) {
+            slot = booked.nextClearBit(0);
+        }
+        return slot < slotCount ? slot : -1;
+    }
+
+    private static int sample(SplittableRandom random, double[] cumulative) {
+        int index = Arrays.binarySearch(cumulative, random.nextDouble());
+        return Math.min(index >= 0 ? index : -index - 1, cumulative.length - 1);
+    }
+
+    private static void shuffle(SplittableRandom random, long[] values) {
+        for (int i = values.length - 1; i > 0; i--) {
+            int j = random.nextInt(i + 1);
+            long value = values[i];
+            values[i] = values[j];
+            values[j] = value;
+        }
+    }
+
+    /**
+     * The ids, reserved by blocks.
+     */
+    private final class Ids {
+
+        private long next;
+
+        private long end;
+
+        long next() {
+            if (next == end) {
+                next = sequenceGenerator.reserve(ID_BLOCK_SIZE);
+                end = next + ID_BLOCK_SIZE;
+            }
+            return next++;
+        }
+    }
+
+    /**
+     * The pending rows of a table, inserted when there are {@code batchSize} of them.
+     */
+    private final class Batch {
+
+        private final String sql;
+
+        private final List<Object[]> rows = new ArrayList<>();
+
+        private long count;
+
+        Batch(String table, String columns) {
+            String parameters = String.join(", ", Collections.nCopies(columns.split(",").length, "?"));
+            this.sql = "INSERT INTO " + table + " (" + columns + ") VALUES (" + parameters + ")";
+        }
+
+        void add(Object... row) {
+            rows.add(row);
+            count++;
+            if (rows.size() >= properties.getBatchSize()) {
+                flush();
+            }
+        }
+
+        void flush() {
+            if (rows.isEmpty()) {
+                return;
+            }
+            transactionTemplate.executeWithoutResult(status -> jdbcTemplate.batchUpdate(sql, rows, rows.size(), this::setValues));
+            rows.clear();
+        }
+
+        private void setValues(PreparedStatement statement, Object[] row) throws SQLException {
+            for (int i = 0; i < row.length; i++) {
+                if (row[i] instanceof Instant instant) {
+                    // Like Hibernate with hibernate.jdbc.time_zone=UTC
+                    statement.setTimestamp(i + 1, Timestamp.from(instant), utc);
+                } else {
+                    statement.setObject(i + 1, row[i]);
+                }
+            }
+        }
+
+        long getCount() {
+            return count;
+        }
+    }
+}
@@ -0,0 +1,4 @@
+/**
+ * Synthetic data for the performance tests.
+ */
+package petcare.service.generator;
@@ -0,0 +1,344 @@
+package petcare.service.reminder;
+
+import java.time.Duration;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.EnumSet;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Set;
+import java.util.function.Function;
+import java.util.stream.Collectors;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.scheduling.annotation.Async;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+import petcare.config.ApplicationProperties;
+import petcare.domain.Appointment;
+import petcare.domain.Discovery;
+import petcare.domain.Pet;
+import petcare.domain.UserPet;
+import petcare.domain.enumeration.AppointmentStatus;
+import petcare.repository.AppointmentRepository;
+import petcare.repository.AppointmentRepository.UpcomingAppointment;
+import petcare.repository.DiscoveryRepository;
+import petcare.repository.PetRepository;
+import petcare.repository.UserPetRepository;
+import petcare.service.MailService;
+import petcare.service.dto.AppointmentReminderDTO;
+
+/**
+ * Emails a reminder to the owner of each pending or confirmed {@link Appointment}, the configured lead time before it.
+ * <p>
+ * The reminders due in the next {@code horizon} are kept in a {@link TimerWheel}: the window is loaded with one
+ * range query at startup and extended every {@code refresh-interval}, and the appointment writes update it after
+ * their commit, so there is no polling per appointment. Every tick the due reminders are taken from the wheel, their
+ * owners, pets and discoveries are loaded with one query per batch, and each batch is sent through one SMTP connection.
+ * <p>
+ * Reminders whose time passed before they could be loaded (appointments booked less than the lead time ahead, or
+ * while the application was down) are not sent. The wheel is local to the node, so only one node should enable the
+ * reminders.
+ */
+@Service
+public class AppointmentReminderScheduler {
+
+    private static final Logger LOG = LoggerFactory.getLogger(AppointmentReminderScheduler.class);
+
+    static final Set<AppointmentStatus> REMINDED_STATUSES = EnumSet.of(AppointmentStatus.PENDING, AppointmentStatus.CONFIRMED);
+
+    private final AppointmentRepository appointmentRepository;
+
+    private final UserPetRepository userPetRepository;
+
+    private final PetRepository petRepository;
+
+    private final DiscoveryRepository discoveryRepository;
+
+    private final MailService mailService;
+
+    private final boolean enabled;
+
+    private final Duration leadTime;
+
+    private final Duration horizon;
+
+    private final long tickMillis;
+
+    private final int batchSize;
+
+    private final Object loadMonitor = new Object();
+
+    // The fields below are guarded by the wheel
+    private final TimerWheel<Long, Reminder> wheel;
+
+    /**
+     * The end (exclusive) of the loaded window of reminder times, {@code null} until the first load.
+     */
+    private Instant loadedUntil;
+
+    /**
+     * The reminders written while a load runs, which win over the rows it read.
+     */
+    private Map<Long, Reminder> writtenDuringLoad;
+
+    public AppointmentReminderScheduler(
+        AppointmentRepository appointmentRepository,
+        UserPetRepository userPetRepository,
+        PetRepository petRepository,
+        DiscoveryRepository discoveryRepository,
+        MailService mailService,
+        ApplicationProperties applicationProperties
+    ) {
+        this.appointmentRepository = appointmentRepository;
+        this.userPetRepository = userPetRepository;
+        this.petRepository = petRepository;
+        this.discoveryRepository = discoveryRepository;
+        this.mailService = mailService;
+        ApplicationProperties.Reminder properties = applicationProperties.getReminder();
+        this.enabled = properties.isEnabled();
+        this.leadTime = properties.getLeadTime();
+        this.horizon = properties.getHorizon();
+        this.tickMillis = properties.getTick().toMillis();
+        this.batchSize = properties.getBatchSize();
+        if (tickMillis <= 0 || horizon.toMillis() / tickMillis >= TimerWheel.SPAN) {
+            throw new IllegalArgumentException("The reminder horizon must be less than " + TimerWheel.SPAN + " ticks");
+        }
+        if (properties.getRefreshInterval().compareTo(horizon) >= 0) {
+            throw new IllegalArgumentException("The reminder refresh interval must be shorter than the horizon");
+        }
+        this.wheel = new TimerWheel<>(tickOf(Instant.now()));
+    }
+
+    /**
+     * The reminder of an appointment.
+     *
+     * @param appointmentId the id of the appointment.
+     * @param ownerId the id of the reminded owner.
+     * @param petId the id of the pet.
+     * @param discoveryId the id of the discovery.
+     * @param apptTime the time of the appointment.
+     * @param sendAt the time the reminder is due.
+     */
+    record Reminder(Long appointmentId, Long ownerId, Long petId, Long discoveryId, Instant apptTime, Instant sendAt) {}
+
+    /**
+     * Schedule, move or cancel the reminder of an appointment once the current transaction commits.
+     *
+     * @param appointment the saved appointment.
+     */
+    public void onSaved(Appointment appointment) {
+        if (!enabled) {
+            return;
+        }
+        Long id = appointment.getId();
+        Reminder reminder = REMINDED_STATUSES.contains(appointment.getStatus()) && appointment.getApptTime() != null
+            ? reminder(id, appointment.getOwnerId(), appointment.getPetId(), appointment.getDiscoveryId(), appointment.getApptTime())
+            : null;
+        afterCommit(() -> write(id, reminder));
+    }
+
+    /**
+     * Cancel the reminder of an appointment once the current transaction commits.
+     *
+     * @param appointmentId the id of the deleted appointment.
+     */
+    public void onDeleted(Long appointmentId) {
+        if (!enabled) {
+            return;
+        }
+        afterCommit(() -> write(appointmentId, null));
+    }
+
+    /**
+     * Load the reminders due in the horizon, replacing the loaded ones. Used at startup and after writes made
+     * without {@link #onSaved}, like bulk ingests.
+     */
+    @Async
+    @EventListener(ApplicationReadyEvent.class)
+    public void reload() {
+        if (enabled) {
+            load(true);
+        }
+    }
+
+    /**
+     * Extend the loaded window to the horizon.
+     */
+    @Scheduled(
+        initialDelayString = "${application.reminder.refresh-interval:PT15M}",
+        fixedDelayString = "${application.reminder.refresh-interval:PT15M}"
+    )
+    public void refresh() {
+        if (enabled) {
+            load(false);
+        }
+    }
+
+    /**
+     * Send the due reminders.
+     */
+    @Scheduled(fixedRateString = "${application.reminder.tick:PT1S}")
+    public void sendDueReminders() {
+        if (!enabled) {
+            return;
+        }
+        List<Reminder> due;
+        synchronized (wheel) {
+            due = wheel.advance(tickOf(Instant.now()));
+        }
+        for (int from = 0; from < due.size(); from += batchSize) {
+            List<Reminder> batch = due.subList(from, Math.min(from + batchSize, due.size()));
+            try {
+                List<AppointmentReminderDTO> reminders = toDtos(batch);
+                if (!reminders.isEmpty()) {
+                    mailService.sendAppointmentReminders(reminders);
+                }
+            } catch (RuntimeException e) {
+                LOG.warn("{} appointment reminders could not be sent", batch.size(), e);
+            }
+        }
+        if (!due.isEmpty()) {
+            LOG.debug("Dispatched {} appointment reminders", due.size());
+        }
+    }
+
+    private void load(boolean replace) {
+        synchronized (loadMonitor) {
+            long start = System.nanoTime();
+            Instant now = Instant.now();
+            Instant until = now.plus(horizon);
+            Instant from;
+            synchronized (wheel) {
+                from = replace || loadedUntil == null ? now : loadedUntil;
+                writtenDuringLoad = new HashMap<>();
+            }
+
+            List<UpcomingAppointment> upcoming;
+            try {
+                upcoming = appointmentRepository.findUpcoming(REMINDED_STATUSES, from.plus(leadTime), until.plus(leadTime));
+            } catch (RuntimeException e) {
+                synchronized (wheel) {
+                    writtenDuringLoad = null;
+                }
+                throw e;
+            }
+
+            synchronized (wheel) {
+                if (replace) {
+                    wheel.clear();
+                }
+                loadedUntil = until;
+                for (UpcomingAppointment appointment : upcoming) {
+                    if (!writtenDuringLoad.containsKey(appointment.getId())) {
+                        schedule(
+                            appointment.getId(),
+                            reminder(
+                                appointment.getId(),
+                                appointment.getOwnerId(),
+                                appointment.getPetId(),
+                                appointment.getDiscoveryId(),
+                                appointment.getApptTime()
+                            )
+                        );
+                    }
+                }
+                writtenDuringLoad.forEach(this::schedule);
+                writtenDuringLoad = null;
+                LOG.info(
+                    "Loaded {} appointment reminders due until {}, {} pending, in {} ms",
+                    upcoming.size(),
+                    until,
+                    wheel.size(),
+                    (System.nanoTime() - start) / 1_000_000
+                );
+            }
+        }
+    }
+
+    private void write(Long appointmentId, Reminder reminder) {
+        synchronized (wheel) {
+            schedule(appointmentId, reminder);
+            if (writtenDuringLoad != null) {
+                writtenDuringLoad.put(appointmentId, reminder);
+            }
+        }
+    }
+
+    /**
+     * Put a reminder in the wheel if it is due in the loaded window, or cancel it. The wheel lock must be held.
+     */
+    private void schedule(Long appointmentId, Reminder reminder) {
+        if (
+            reminder != null && loadedUntil != null && reminder.sendAt().isBefore(loadedUntil) && !reminder.sendAt().isBefore(Instant.now())
+        ) {
+            wheel.schedule(appointmentId, tickOf(reminder.sendAt()), reminder);
+        } else {
+            wheel.cancel(appointmentId);
+        }
+    }
+
+    private List<AppointmentReminderDTO> toDtos(List<Reminder> reminders) {
+        Map<Long, UserPet> owners = byId(userPetRepository.findAllById(ids(reminders, Reminder::ownerId)), UserPet::getId);
+        Map<Long, Pet> pets = byId(petRepository.findAllById(ids(reminders, Reminder::petId)), Pet::getId);
+        Map<Long, Discovery> discoveries = byId(discoveryRepository.findAllById(ids(reminders, Reminder::discoveryId)), Discovery::getId);
+
+        List<AppointmentReminderDTO> reminderDTOs = new ArrayList<>(reminders.size());
+        for (Reminder reminder : reminders) {
+            UserPet owner = owners.get(reminder.ownerId());
+            if (owner == null || owner.getEmail() == null) {
+                LOG.debug("No owner email for the reminder of appointment {}", reminder.appointmentId());
+                continue;
+            }
+            Pet pet = pets.get(reminder.petId());
+            Discovery discovery = discoveries.get(reminder.discoveryId());
+            AppointmentReminderDTO reminderDTO = new AppointmentReminderDTO();
+            reminderDTO.setAppointmentId(reminder.appointmentId());
+            reminderDTO.setEmail(owner.getEmail());
+            reminderDTO.setOwnerName(owner.getName());
+            reminderDTO.setPetName(pet != null ? pet.getName() : null);
+            reminderDTO.setDiscoveryName(discovery != null ? discovery.getName() : null);
+            reminderDTO.setLocation(discovery != null ? discovery.getLocation() : null);
+            reminderDTO.setApptTime(reminder.apptTime());
+            reminderDTOs.add(reminderDTO);
+        }
+        return reminderDTOs;
+    }
+
+    private Reminder reminder(Long appointmentId, Long ownerId, Long petId, Long discoveryId, Instant apptTime) {
+        return new Reminder(appointmentId, ownerId, petId, discoveryId, apptTime, apptTime.minus(leadTime));
+    }
+
+    private long tickOf(Instant instant) {
+        return Math.floorDiv(instant.toEpochMilli(), tickMillis);
+    }
+
+    private static Set<Long> ids(List<Reminder> reminders, Function<Reminder, Long> id) {
+        return reminders.stream().map(id).filter(Objects::nonNull).collect(Collectors.toSet());
+    }
+
+    private static <T> Map<Long, T> byId(List<T> entities, Function<T, Long> id) {
+        return entities.stream().collect(Collectors.toMap(id, Function.identity()));
+    }
+
+    private static void afterCommit(Runnable action) {
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.registerSynchronization(
+                new TransactionSynchronization() {
+                    @Override
+                    public void afterCommit() {
+                        action.run();
+                    }
+                }
+            );
+        } else {
+            action.run();
+        }
+    }
+}
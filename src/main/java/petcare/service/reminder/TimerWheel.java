@@ -0,0 +1,175 @@
+package petcare.service.reminder;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * A hierarchical timer wheel: schedules, reschedules and cancels timers in {@code O(1)}, and expires them without
+ * sorting or scanning the pending ones.
+ * <p>
+ * Time is counted in ticks. Each of the {@value #LEVELS} levels has {@value #SLOTS} slots, a slot of level {@code n}
+ * spanning {@code 64^n} ticks, so the wheel holds timers up to {@code 64^4} ticks ahead. A timer is put in the lowest
+ * level that covers its deadline; when the wheel enters the span of a higher level slot, the slot is cascaded to the
+ * lower levels, and the timers of the level 0 slot of a tick expire. Timers are keyed, scheduling a key again
+ * replaces its timer.
+ * <p>
+ * Not thread-safe.
+ *
+ * @param <K> the type of the timer keys.
+ * @param <V> the type of the values returned when the timers expire.
+ */
+public class TimerWheel<K, V> {
+
+    static final int LEVELS = 4;
+
+    static final int SLOTS = 64;
+
+    private static final int SLOT_BITS = 6;
+
+    private static final int SLOT_MASK = SLOTS - 1;
+
+    /**
+     * The number of ticks the wheel can schedule ahead, {@code 64^4}.
+     */
+    public static final long SPAN = 1L << (SLOT_BITS * LEVELS);
+
+    private final List<List<Map<K, Timer<K, V>>>> wheels = new ArrayList<>(LEVELS);
+
+    private final Map<K, Timer<K, V>> timers = new HashMap<>();
+
+    private long currentTick;
+
+    /**
+     * @param currentTick the tick the wheel starts at, the first {@link #advance} expires the timers of the next tick.
+     */
+    public TimerWheel(long currentTick) {
+        this.currentTick = currentTick;
+        for (int level = 0; level < LEVELS; level++) {
+            List<Map<K, Timer<K, V>>> slots = new ArrayList<>(SLOTS);
+            for (int slot = 0; slot < SLOTS; slot++) {
+                slots.add(new LinkedHashMap<>());
+            }
+            wheels.add(slots);
+        }
+    }
+
+    /**
+     * Schedule a timer, replacing the timer of the same key if any.
+     *
+     * @param key the key of the timer.
+     * @param deadline the tick the timer expires at, timers already due expire at the next tick.
+     * @param value the value returned when the timer expires.
+     * @throws IllegalArgumentException if the deadline is {@link #SPAN} or more ticks ahead.
+     */
+    public void schedule(K key, long deadline, V value) {
+        if (deadline - currentTick >= SPAN) {
+            throw new IllegalArgumentException("Deadline " + deadline + " is too far from tick " + currentTick);
+        }
+        cancel(key);
+        Timer<K, V> timer = new Timer<>(key, deadline, value);
+        timers.put(key, timer);
+        place(timer, currentTick + 1);
+    }
+
+    /**
+     * Cancel a timer.
+     *
+     * @param key the key of the timer.
+     * @return {@code true} if the timer was pending.
+     */
+    public boolean cancel(K key) {
+        Timer<K, V> timer = timers.remove(key);
+        if (timer == null) {
+            return false;
+        }
+        timer.slot.remove(key);
+        return true;
+    }
+
+    /**
+     * Move the wheel to a tick, expiring the timers due up to it.
+     *
+     * @param tick the new current tick, ignored if it is not after the current tick.
+     * @return the values of the expired timers, in deadline order.
+     */
+    public List<V> advance(long tick) {
+        List<V> expired = new ArrayList<>();
+        while (currentTick < tick) {
+            long next = currentTick + 1;
+            for (int level = LEVELS - 1; level > 0; level--) {
+                if ((next & ((1L << (SLOT_BITS * level)) - 1)) == 0) {
+                    cascade(level, next);
+                }
+            }
+            Map<K, Timer<K, V>> slot = slot(0, next);
+            for (Timer<K, V> timer : slot.values()) {
+                timers.remove(timer.key);
+                expired.add(timer.value);
+            }
+            slot.clear();
+            currentTick = next;
+        }
+        return expired;
+    }
+
+    /**
+     * Remove all the timers.
+     */
+    public void clear() {
+        timers.clear();
+        wheels.forEach(slots -> slots.forEach(Map::clear));
+    }
+
+    public int size() {
+        return timers.size();
+    }
+
+    public long getCurrentTick() {
+        return currentTick;
+    }
+
+    private void cascade(int level, long tick) {
+        Map<K, Timer<K, V>> slot = slot(level, tick);
+        List<Timer<K, V>> cascaded = new ArrayList<>(slot.values());
+        slot.clear();
+        cascaded.forEach(timer -> place(timer, tick));
+    }
+
+    /**
+     * Put a timer in the lowest level covering its deadline, seen from a tick which is not processed yet.
+     */
+    private void place(Timer<K, V> timer, long fromTick) {
+        long deadline = Math.max(timer.deadline, fromTick);
+        long delay = deadline - fromTick;
+        int level = 0;
+        while (level < LEVELS - 1 && delay >= 1L << (SLOT_BITS * (level + 1))) {
+            level++;
+        }
+        timer.slot = slot(level, deadline);
+        timer.slot.put(timer.key, timer);
+    }
+
+    private Map<K, Timer<K, V>> slot(int level, long tick) {
+        return wheels.get(level).get((int) ((tick >>> (SLOT_BITS * level)) & SLOT_MASK));
+    }
+
+    private static final class Timer<K, V> {
+
+        private final K key;
+
+        private final long deadline;
+
+        private final V value;
+
+        private Map<K, Timer<K, V>> slot;
+
+        private Timer(K key, long deadline, V value) {
+            this.key = key;
+            this.deadline = deadline;
+            this.value = value;
+        }
+    }
+}
@@ -0,0 +1,4 @@
+/**
+ * Appointment reminders.
+ */
+package petcare.service.reminder;
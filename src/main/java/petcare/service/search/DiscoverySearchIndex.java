@@ -0,0 +1,310 @@
+package petcare.service.search;
+
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.PriorityQueue;
+import java.util.Set;
+import java.util.concurrent.locks.ReadWriteLock;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.PageImpl;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Sort;
+import org.springframework.scheduling.annotation.Async;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+import petcare.repository.DiscoveryRepository;
+import petcare.service.dto.DiscoveryDTO;
+import petcare.service.mapper.DiscoveryMapper;
+
+/**
+ * In-memory inverted index over the {@link petcare.domain.Discovery} catalog, ranked with BM25.
+ * <p>
+ * The name, description, category, requirements and location are tokenized with the {@link SearchTokenizer} and
+ * merged into a single weighted document (the name and category count more than the description), which is scored
+ * with BM25 against the query terms. Writes made through the {@link petcare.service.DiscoveryService} are applied
+ * once their transaction commits, and the whole index is rebuilt from the repository in the background at startup.
+ */
+@Service
+public class DiscoverySearchIndex {
+
+    private static final Logger LOG = LoggerFactory.getLogger(DiscoverySearchIndex.class);
+
+    private static final int REBUILD_PAGE_SIZE = 500;
+
+    private static final float NAME_WEIGHT = 3f;
+
+    private static final float CATEGORY_WEIGHT = 2f;
+
+    private static final float LOCATION_WEIGHT = 1.5f;
+
+    private static final float TEXT_WEIGHT = 1f;
+
+    private static final double K1 = 1.2;
+
+    private static final double B = 0.75;
+
+    // Best score first, ties broken on the id so that pages are stable
+    private static final Comparator<Map.Entry<Long, Double>> RANKING = Map.Entry.<Long, Double>comparingByValue()
+        .reversed()
+        .thenComparing(Map.Entry.comparingByKey());
+
+    private final DiscoveryRepository discoveryRepository;
+
+    private final DiscoveryMapper discoveryMapper;
+
+    private final ReadWriteLock lock = new ReentrantReadWriteLock();
+
+    // Guarded by lock
+    private InvertedIndex index = new InvertedIndex();
+
+    // Guarded by lock, the writes to replay on the index being rebuilt, null when no rebuild is running
+    private List<Document> pendingWrites;
+
+    public DiscoverySearchIndex(DiscoveryRepository discoveryRepository, DiscoveryMapper discoveryMapper) {
+        this.discoveryRepository = discoveryRepository;
+        this.discoveryMapper = discoveryMapper;
+    }
+
+    /**
+     * Add or replace a discovery in the index, after the current transaction commits.
+     *
+     * @param discoveryDTO the saved discovery.
+     */
+    public void index(DiscoveryDTO discoveryDTO) {
+        Document document = Document.of(discoveryDTO);
+        afterCommit(() -> write(document));
+    }
+
+    /**
+     * Remove a discovery from the index, after the current transaction commits.
+     *
+     * @param id the id of the deleted discovery.
+     */
+    public void remove(Long id) {
+        Document document = new Document(id, null, 0f);
+        afterCommit(() -> write(document));
+    }
+
+    /**
+     * Search the discoveries matching any of the query terms, best matches first.
+     *
+     * @param query the text typed by the user.
+     * @param pageable the page to return, its sort is ignored.
+     * @return the page of matching discovery ids, in rank order.
+     */
+    public Page<Long> search(String query, Pageable pageable) {
+        Set<String> terms = new LinkedHashSet<>(SearchTokenizer.tokenize(query));
+        Map<Long, Double> scores;
+        lock.readLock().lock();
+        try {
+            scores = index.score(terms);
+        } finally {
+            lock.readLock().unlock();
+        }
+        if (pageable.isUnpaged()) {
+            List<Long> ids = scores.entrySet().stream().sorted(RANKING).map(Map.Entry::getKey).toList();
+            return new PageImpl<>(ids, pageable, ids.size());
+        }
+        return new PageImpl<>(topHits(scores, pageable), pageable, scores.size());
+    }
+
+    /**
+     * Rebuild the index from the repository, without blocking the searches.
+     * <p>
+     * The writes committed while the rebuild runs are applied to the current index and replayed on the new one
+     * before it is swapped in.
+     */
+    @Async
+    @EventListener(ApplicationReadyEvent.class)
+    public void rebuild() {
+        long start = System.nanoTime();
+        lock.writeLock().lock();
+        try {
+            if (pendingWrites != null) {
+                LOG.debug("Discovery search index rebuild already running");
+                return;
+            }
+            pendingWrites = new ArrayList<>();
+        } finally {
+            lock.writeLock().unlock();
+        }
+
+        InvertedIndex rebuilt = new InvertedIndex();
+        try {
+            Pageable pageable = PageRequest.of(0, REBUILD_PAGE_SIZE, Sort.by("id"));
+            Page<DiscoveryDTO> page;
+            do {
+                page = discoveryRepository.findAll(pageable).map(discoveryMapper::toDto);
+                page.forEach(discoveryDTO -> rebuilt.put(Document.of(discoveryDTO)));
+                pageable = page.nextPageable();
+            } while (page.hasNext());
+        } catch (RuntimeException e) {
+            lock.writeLock().lock();
+            try {
+                pendingWrites = null;
+            } finally {
+                lock.writeLock().unlock();
+            }
+            throw e;
+        }
+
+        lock.writeLock().lock();
+        try {
+            pendingWrites.forEach(rebuilt::apply);
+            pendingWrites = null;
+            index = rebuilt;
+        } finally {
+            lock.writeLock().unlock();
+        }
+        LOG.info("Discovery search index rebuilt with {} documents in {} ms", rebuilt.size(), (System.nanoTime() - start) / 1_000_000);
+    }
+
+    private void write(Document document) {
+        lock.writeLock().lock();
+        try {
+            index.apply(document);
+            if (pendingWrites != null) {
+                pendingWrites.add(document);
+            }
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    private static void afterCommit(Runnable action) {
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.registerSynchronization(
+                new TransactionSynchronization() {
+                    @Override
+                    public void afterCommit() {
+                        action.run();
+                    }
+                }
+            );
+        } else {
+            action.run();
+        }
+    }
+
+    /**
+     * Select the requested page with a bounded heap instead of sorting every hit.
+     */
+    private static List<Long> topHits(Map<Long, Double> scores, Pageable pageable) {
+        long limit = pageable.getOffset() + pageable.getPageSize();
+        if (pageable.getOffset() >= scores.size()) {
+            return List.of();
+        }
+        PriorityQueue<Map.Entry<Long, Double>> heap = new PriorityQueue<>(RANKING.reversed());
+        for (Map.Entry<Long, Double> entry : scores.entrySet()) {
+            heap.add(entry);
+            if (heap.size() > limit) {
+                heap.poll();
+            }
+        }
+        List<Map.Entry<Long, Double>> hits = new ArrayList<>(heap);
+        hits.sort(RANKING);
+        return hits.subList((int) pageable.getOffset(), hits.size()).stream().map(Map.Entry::getKey).toList();
+    }
+
+    /**
+     * A discovery reduced to its weighted term frequencies, or a removal when the terms are {@code null}.
+     */
+    private record Document(Long id, Map<String, Float> termFrequencies, float length) {
+        static Document of(DiscoveryDTO discoveryDTO) {
+            Map<String, Float> termFrequencies = new HashMap<>();
+            float length = 0;
+            length += addField(termFrequencies, discoveryDTO.getName(), NAME_WEIGHT);
+            length += addField(termFrequencies, discoveryDTO.getCategory(), CATEGORY_WEIGHT);
+            length += addField(termFrequencies, discoveryDTO.getLocation(), LOCATION_WEIGHT);
+            length += addField(termFrequencies, discoveryDTO.getDescription(), TEXT_WEIGHT);
+            length += addField(termFrequencies, discoveryDTO.getRequirements(), TEXT_WEIGHT);
+            return new Document(discoveryDTO.getId(), termFrequencies, length);
+        }
+
+        private static float addField(Map<String, Float> termFrequencies, String text, float weight) {
+            List<String> terms = SearchTokenizer.tokenize(text);
+            terms.forEach(term -> termFrequencies.merge(term, weight, Float::sum));
+            return terms.size() * weight;
+        }
+    }
+
+    /**
+     * The postings lists, not thread safe.
+     */
+    private static final class InvertedIndex {
+
+        private final Map<String, Map<Long, Float>> postings = new HashMap<>();
+
+        private final Map<Long, Document> documents = new HashMap<>();
+
+        private double totalLength;
+
+        int size() {
+            return documents.size();
+        }
+
+        void apply(Document document) {
+            if (document.termFrequencies() == null) {
+                remove(document.id());
+            } else {
+                put(document);
+            }
+        }
+
+        void put(Document document) {
+            remove(document.id());
+            documents.put(document.id(), document);
+            totalLength += document.length();
+            document
+                .termFrequencies()
+                .forEach((term, frequency) -> postings.computeIfAbsent(term, t -> new HashMap<>()).put(document.id(), frequency));
+        }
+
+        void remove(Long id) {
+            Document document = documents.remove(id);
+            if (document == null) {
+                return;
+            }
+            totalLength -= document.length();
+            for (String term : document.termFrequencies().keySet()) {
+                Map<Long, Float> posting = postings.get(term);
+                posting.remove(id);
+                if (posting.isEmpty()) {
+                    postings.remove(term);
+                }
+            }
+        }
+
+        Map<Long, Double> score(Set<String> terms) {
+            Map<Long, Double> scores = new HashMap<>();
+            if (documents.isEmpty()) {
+                return scores;
+            }
+            int documentCount = documents.size();
+            double averageLength = Math.max(totalLength / documentCount, 1);
+            for (String term : terms) {
+                Map<Long, Float> posting = postings.get(term);
+                if (posting == null) {
+                    continue;
+                }
+                double idf = Math.log(1 + (documentCount - posting.size() + 0.5) / (posting.size() + 0.5));
+                posting.forEach((id, frequency) -> {
+                    double norm = K1 * (1 - B + B * documents.get(id).length() / averageLength);
+                    scores.merge(id, idf * frequency * (K1 + 1) / (frequency + norm), Double::sum);
+                });
+            }
+            return scores;
+        }
+    }
+}
@@ -0,0 +1,60 @@
+package petcare.service.search;
+
+import java.text.Normalizer;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Locale;
+
+/**
+ * Splits Vietnamese and English text into search terms.
+ * <p>
+ * Text is lower cased and folded to plain ASCII letters ("Thú cưng" and "thu cung" give the same terms), so that
+ * queries typed without diacritics still match. Vietnamese words are made of space separated syllables, so every
+ * pair of adjacent tokens is also emitted as a bigram term ("thu cung"): documents containing the whole word then
+ * rank above documents which only contain its syllables.
+ */
+public final class SearchTokenizer {
+
+    private SearchTokenizer() {}
+
+    /**
+     * Tokenize a text.
+     *
+     * @param text the text, can be {@code null}.
+     * @return the unigram terms in order, followed by the bigram terms.
+     */
+    public static List<String> tokenize(String text) {
+        if (text == null || text.isEmpty()) {
+            return List.of();
+        }
+        String folded = Normalizer.normalize(text.toLowerCase(Locale.ROOT).replace('đ', 'd'), Normalizer.Form.NFD);
+        List<String> tokens = new ArrayList<>();
+        StringBuilder token = new StringBuilder();
+        for (int i = 0; i < folded.length(); i++) {
+            char c = folded.charAt(i);
+            if (Character.getType(c) == Character.NON_SPACING_MARK) {
+                continue;
+            }
+            if (Character.isLetterOrDigit(c)) {
+                token.append(c);
+            } else {
+                addToken(tokens, token);
+            }
+        }
+        addToken(tokens, token);
+
+        int unigrams = tokens.size();
+        for (int i = 1; i < unigrams; i++) {
+            tokens.add(tokens.get(i - 1) + ' ' + tokens.get(i));
+        }
+        return tokens;
+    }
+
+    private static void addToken(List<String> tokens, StringBuilder token) {
+        // Single letters carry no meaning on their own, single digits (a "3" in "3 tháng") do
+        if (token.length() > 1 || (token.length() == 1 && Character.isDigit(token.charAt(0)))) {
+            tokens.add(token.toString());
+        }
+        token.setLength(0);
+    }
+}
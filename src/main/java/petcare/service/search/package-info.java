@@ -0,0 +1,4 @@
+/**
+ * In-memory full-text search.
+ */
+package petcare.service.search;
@@ -0,0 +1,10 @@
+package petcare.service.token;
+
+public class InvalidTokenException extends RuntimeException {
+
+    private static final long serialVersionUID = 1L;
+
+    public InvalidTokenException() {
+        super("The token is invalid, expired or revoked!");
+    }
+}
@@ -0,0 +1,126 @@
+package petcare.service.token;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.security.GeneralSecurityException;
+import java.security.MessageDigest;
+import java.time.Instant;
+import java.util.Base64;
+import java.util.Optional;
+import javax.crypto.Mac;
+import javax.crypto.spec.SecretKeySpec;
+import petcare.domain.enumeration.UserRole;
+
+/**
+ * Encodes the claims of a token and signs them with HMAC-SHA256.
+ * <p>
+ * A token is the Base64 (URL safe) encoding of its binary claims, a dot, and the Base64 encoding of the signature of
+ * the first part: around 100 characters for an access token. The signature is checked before the claims are read.
+ */
+final class SignedTokenCodec {
+
+    static final byte ACCESS = 1;
+
+    static final byte REFRESH = 2;
+
+    private static final String ALGORITHM = "HmacSHA256";
+
+    private static final byte VERSION = 1;
+
+    /**
+     * The length of the series and nonces.
+     */
+    static final int RANDOM_LENGTH = 16;
+
+    private static final Base64.Encoder ENCODER = Base64.getUrlEncoder().withoutPadding();
+
+    private static final Base64.Decoder DECODER = Base64.getUrlDecoder();
+
+    private final ThreadLocal<Mac> macs;
+
+    SignedTokenCodec(byte[] secret) {
+        SecretKeySpec key = new SecretKeySpec(secret, ALGORITHM);
+        // A Mac is not thread safe
+        this.macs = ThreadLocal.withInitial(() -> {
+            try {
+                Mac mac = Mac.getInstance(ALGORITHM);
+                mac.init(key);
+                return mac;
+            } catch (GeneralSecurityException e) {
+                throw new IllegalStateException("Could not initialize " + ALGORITHM, e);
+            }
+        });
+    }
+
+    String encode(Claims claims) {
+        ByteArrayOutputStream bytes = new ByteArrayOutputStream(64);
+        try (DataOutputStream out = new DataOutputStream(bytes)) {
+            out.writeByte(VERSION);
+            out.writeByte(claims.type());
+            out.writeLong(claims.expiresAt().getEpochSecond());
+            out.writeLong(claims.userId());
+            out.writeUTF(claims.role().name());
+            out.write(DECODER.decode(claims.series()));
+            if (claims.type() == REFRESH) {
+                out.write(DECODER.decode(claims.nonce()));
+            }
+        } catch (IOException e) {
+            throw new IllegalStateException(e);
+        }
+        String payload = ENCODER.encodeToString(bytes.toByteArray());
+        return payload + '.' + ENCODER.encodeToString(sign(payload));
+    }
+
+    /**
+     * Check the signature of a token and read its claims, without checking its expiry.
+     *
+     * @param token the token.
+     * @param type the expected type, {@link #ACCESS} or {@link #REFRESH}.
+     * @return the claims, or empty if the token is malformed, not signed by this key or of another type.
+     */
+    Optional<Claims> decode(String token, byte type) {
+        int dot = token.indexOf('.');
+        if (dot <= 0) {
+            return Optional.empty();
+        }
+        try {
+            String payload = token.substring(0, dot);
+            if (!MessageDigest.isEqual(sign(payload), DECODER.decode(token.substring(dot + 1)))) {
+                return Optional.empty();
+            }
+            DataInputStream in = new DataInputStream(new ByteArrayInputStream(DECODER.decode(payload)));
+            if (in.readByte() != VERSION || in.readByte() != type) {
+                return Optional.empty();
+            }
+            Instant expiresAt = Instant.ofEpochSecond(in.readLong());
+            long userId = in.readLong();
+            UserRole role = UserRole.valueOf(in.readUTF());
+            String series = ENCODER.encodeToString(in.readNBytes(RANDOM_LENGTH));
+            String nonce = type == REFRESH ? ENCODER.encodeToString(in.readNBytes(RANDOM_LENGTH)) : null;
+            return Optional.of(new Claims(type, userId, role, series, nonce, expiresAt));
+        } catch (IllegalArgumentException | IOException e) {
+            // A valid signature with unreadable claims: signed by another version
+            return Optional.empty();
+        }
+    }
+
+    private byte[] sign(String payload) {
+        return macs.get().doFinal(payload.getBytes(StandardCharsets.US_ASCII));
+    }
+
+    /**
+     * The claims of a token.
+     *
+     * @param type {@link #ACCESS} or {@link #REFRESH}.
+     * @param userId the id of the user.
+     * @param role the role of the user.
+     * @param series the session, in Base64.
+     * @param nonce the refresh token number, in Base64, {@code null} for an access token.
+     * @param expiresAt when the token expires, to the second.
+     */
+    record Claims(byte type, long userId, UserRole role, String series, String nonce, Instant expiresAt) {}
+}
@@ -0,0 +1,20 @@
+package petcare.service.token;
+
+import java.security.Principal;
+import java.time.Instant;
+import petcare.domain.enumeration.UserRole;
+
+/**
+ * The user authenticated by an access token, read from the token alone.
+ *
+ * @param userId the id of the {@link petcare.domain.UserPet}.
+ * @param role its role when the token was issued.
+ * @param series the session of the token.
+ * @param expiresAt when the token expires.
+ */
+public record TokenPrincipal(Long userId, UserRole role, String series, Instant expiresAt) implements Principal {
+    @Override
+    public String getName() {
+        return userId.toString();
+    }
+}
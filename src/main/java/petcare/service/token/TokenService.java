@@ -0,0 +1,261 @@
+package petcare.service.token;
+
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.security.SecureRandom;
+import java.time.Duration;
+import java.time.Instant;
+import java.time.LocalDate;
+import java.util.Base64;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.ConcurrentHashMap;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+import petcare.config.ApplicationProperties;
+import petcare.domain.PersistentToken;
+import petcare.domain.UserPet;
+import petcare.repository.PersistentTokenRepository;
+import petcare.repository.UserPetRepository;
+import petcare.service.dto.TokenDTO;
+
+/**
+ * Issues, refreshes and revokes the signed tokens of the {@link UserPet} sessions.
+ * <p>
+ * A session is a {@link PersistentToken} row, created at login. The short lived access tokens are checked from their
+ * signature, expiry and the in-memory set of revoked sessions, without reading the database. The refresh tokens are
+ * rotated on each use: the row holds the hash of the last one issued, and presenting an older one revokes the session,
+ * as it was copied.
+ * <p>
+ * The revoked sessions are read from the database on the configured interval, so that a logout on another instance
+ * is seen within that interval, and are forgotten once their last access token has expired.
+ */
+@Service
+public class TokenService {
+
+    private static final Logger LOG = LoggerFactory.getLogger(TokenService.class);
+
+    private static final int MIN_SECRET_LENGTH = 32;
+
+    // Rows revoked in transactions committed after the last sync, or by instances with a late clock
+    private static final Duration SYNC_OVERLAP = Duration.ofMinutes(1);
+
+    private static final Base64.Encoder ENCODER = Base64.getUrlEncoder().withoutPadding();
+
+    private final PersistentTokenRepository persistentTokenRepository;
+
+    private final UserPetRepository userPetRepository;
+
+    private final SignedTokenCodec codec;
+
+    private final Duration accessTokenValidity;
+
+    private final Duration refreshTokenValidity;
+
+    private final SecureRandom random = new SecureRandom();
+
+    // Series of the revoked sessions, with the expiry of their last access token
+    private final Map<String, Instant> revoked = new ConcurrentHashMap<>();
+
+    private volatile Instant lastSync;
+
+    public TokenService(
+        PersistentTokenRepository persistentTokenRepository,
+        UserPetRepository userPetRepository,
+        ApplicationProperties applicationProperties
+    ) {
+        this.persistentTokenRepository = persistentTokenRepository;
+        this.userPetRepository = userPetRepository;
+        ApplicationProperties.Token properties = applicationProperties.getToken();
+        this.accessTokenValidity = properties.getAccessTokenValidity();
+        this.refreshTokenValidity = properties.getRefreshTokenValidity();
+        byte[] secret;
+        if (properties.getSecret().isBlank()) {
+            LOG.warn("No application.token.secret configured, the tokens are signed with a random key and lost on restart");
+            secret = new byte[MIN_SECRET_LENGTH];
+            random.nextBytes(secret);
+        } else {
+            secret = Base64.getDecoder().decode(properties.getSecret());
+            if (secret.length < MIN_SECRET_LENGTH) {
+                throw new IllegalStateException("application.token.secret must be at least " + MIN_SECRET_LENGTH + " bytes");
+            }
+        }
+        this.codec = new SignedTokenCodec(secret);
+    }
+
+    /**
+     * Open a session.
+     *
+     * @param userPet the authenticated user.
+     * @param ipAddress the address of the client.
+     * @param userAgent the user agent of the client, may be {@code null}.
+     * @return the tokens of the session.
+     */
+    @Transactional
+    public TokenDTO issue(UserPet userPet, String ipAddress, String userAgent) {
+        String nonce = randomString();
+        PersistentToken session = new PersistentToken();
+        session.setUserPet(userPet);
+        session.setSeries(randomString());
+        session.setTokenValue(hash(nonce));
+        session.setTokenDate(LocalDate.now());
+        session.setIpAddress(ipAddress);
+        if (userAgent != null) {
+            session.setUserAgent(userAgent);
+        }
+        persistentTokenRepository.save(session);
+        return tokens(userPet, session.getSeries(), nonce);
+    }
+
+    /**
+     * Exchange a refresh token for new access and refresh tokens of the same session.
+     *
+     * @param refreshToken the last refresh token of the session.
+     * @return the new tokens.
+     * @throws InvalidTokenException if the token is invalid, expired, already used or its session revoked.
+     */
+    @Transactional(noRollbackFor = InvalidTokenException.class)
+    public TokenDTO refresh(String refreshToken) {
+        Instant now = Instant.now();
+        SignedTokenCodec.Claims claims = codec
+            .decode(refreshToken, SignedTokenCodec.REFRESH)
+            .filter(decoded -> decoded.expiresAt().isAfter(now))
+            .orElseThrow(InvalidTokenException::new);
+        // Locked, so that a concurrent refresh with the same token waits for this one and sees it used
+        PersistentToken session = persistentTokenRepository
+            .findBySeriesForUpdate(claims.series())
+            .filter(found -> found.getRevokedAt() == null)
+            .orElseThrow(InvalidTokenException::new);
+        byte[] expected = session.getTokenValue().getBytes(StandardCharsets.US_ASCII);
+        if (!MessageDigest.isEqual(hash(claims.nonce()).getBytes(StandardCharsets.US_ASCII), expected)) {
+            LOG.warn("Refresh token of session {} used twice, revoking the session", session.getSeries());
+            revoke(session, now);
+            throw new InvalidTokenException();
+        }
+        UserPet userPet = userPetRepository.findById(claims.userId()).orElse(null);
+        if (userPet == null) {
+            revoke(session, now);
+            throw new InvalidTokenException();
+        }
+        String nonce = randomString();
+        session.setTokenValue(hash(nonce));
+        session.setTokenDate(LocalDate.now());
+        return tokens(userPet, session.getSeries(), nonce);
+    }
+
+    /**
+     * Close a session: its tokens are rejected at once by this instance, and by the others after their next
+     * revocation sync.
+     *
+     * @param series the series of the session.
+     */
+    @Transactional
+    public void revoke(String series) {
+        persistentTokenRepository
+            .findById(series)
+            .filter(session -> session.getRevokedAt() == null)
+            .ifPresent(session -> revoke(session, Instant.now()));
+    }
+
+    /**
+     * Close all the open sessions of a user.
+     *
+     * @param userPetId the id of the user.
+     */
+    @Transactional
+    public void revokeAll(Long userPetId) {
+        Instant now = Instant.now();
+        persistentTokenRepository.findByUserPetIdAndRevokedAtIsNull(userPetId).forEach(session -> revoke(session, now));
+    }
+
+    /**
+     * Authenticate an access token, without reading the database.
+     *
+     * @param accessToken the token.
+     * @return the authenticated user, or empty if the token is invalid, expired or its session revoked.
+     */
+    public Optional<TokenPrincipal> authenticate(String accessToken) {
+        Instant now = Instant.now();
+        return codec
+            .decode(accessToken, SignedTokenCodec.ACCESS)
+            .filter(claims -> claims.expiresAt().isAfter(now) && !revoked.containsKey(claims.series()))
+            .map(claims -> new TokenPrincipal(claims.userId(), claims.role(), claims.series(), claims.expiresAt()));
+    }
+
+    /**
+     * Read the sessions revoked since the last sync, and forget those whose access tokens have all expired.
+     */
+    @Scheduled(fixedDelayString = "${application.token.revocation-sync-interval:PT30S}")
+    @Transactional(readOnly = true)
+    public void syncRevocations() {
+        Instant now = Instant.now();
+        Instant since = lastSync != null ? lastSync.minus(SYNC_OVERLAP) : now.minus(accessTokenValidity);
+        List<PersistentToken> sessions = persistentTokenRepository.findByRevokedAtGreaterThanEqual(since);
+        sessions.forEach(session -> revoked.put(session.getSeries(), session.getRevokedAt().plus(accessTokenValidity)));
+        revoked.values().removeIf(expiry -> expiry.isBefore(now));
+        lastSync = now;
+        LOG.debug("Synced {} revoked sessions, {} tracked", sessions.size(), revoked.size());
+    }
+
+    /**
+     * Remove the sessions not refreshed within the refresh token validity, revoked or not.
+     */
+    @Scheduled(cron = "${application.token.cleanup-cron:0 0 4 * * *}")
+    @Transactional
+    public void removeExpiredSessions() {
+        List<PersistentToken> expired = persistentTokenRepository.findByTokenDateBefore(
+            LocalDate.now().minusDays(refreshTokenValidity.toDays() + 1)
+        );
+        persistentTokenRepository.deleteAll(expired);
+        LOG.debug("Removed {} expired sessions", expired.size());
+    }
+
+    private void revoke(PersistentToken session, Instant now) {
+        session.setRevokedAt(now);
+        revoked.put(session.getSeries(), now.plus(accessTokenValidity));
+    }
+
+    private TokenDTO tokens(UserPet userPet, String series, String nonce) {
+        Instant now = Instant.now();
+        String accessToken = codec.encode(
+            new SignedTokenCodec.Claims(
+                SignedTokenCodec.ACCESS,
+                userPet.getId(),
+                userPet.getRole(),
+                series,
+                null,
+                now.plus(accessTokenValidity)
+            )
+        );
+        String refreshToken = codec.encode(
+            new SignedTokenCodec.Claims(
+                SignedTokenCodec.REFRESH,
+                userPet.getId(),
+                userPet.getRole(),
+                series,
+                nonce,
+                now.plus(refreshTokenValidity)
+            )
+        );
+        return new TokenDTO(accessToken, refreshToken, accessTokenValidity.toSeconds());
+    }
+
+    private String randomString() {
+        byte[] bytes = new byte[SignedTokenCodec.RANDOM_LENGTH];
+        random.nextBytes(bytes);
+        return ENCODER.encodeToString(bytes);
+    }
+
+    private static String hash(String nonce) {
+        try {
+            return ENCODER.encodeToString(MessageDigest.getInstance("SHA-256").digest(nonce.getBytes(StandardCharsets.US_ASCII)));
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException(e);
+        }
+    }
+}
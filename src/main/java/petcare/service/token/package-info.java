@@ -0,0 +1,4 @@
+/**
+ * Signed access and refresh tokens.
+ */
+package petcare.service.token;
@@ -0,0 +1,176 @@
+package petcare.web.filter;
+
+import io.micrometer.core.instrument.DistributionSummary;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import jakarta.servlet.FilterChain;
+import jakarta.servlet.ServletException;
+import jakarta.servlet.ServletOutputStream;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import jakarta.servlet.http.HttpServletResponseWrapper;
+import java.io.IOException;
+import java.io.PrintWriter;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.web.filter.OncePerRequestFilter;
+import org.springframework.web.servlet.HandlerMapping;
+import petcare.config.SqlStatistics;
+
+/**
+ * Counts the SQL statements, rows and database time of each request, with the {@link SqlStatistics} fed by the
+ * {@link petcare.config.SqlStatisticsDataSource}.
+ * <p>
+ * The totals are recorded in the {@code sql.statements}, {@code sql.rows} and {@code sql.time} meters, tagged with
+ * the request method and URI pattern, and optionally returned in the {@value #STATEMENTS_HEADER},
+ * {@value #ROWS_HEADER} and {@value #TIME_HEADER} response headers, added before the body is written. A statement
+ * shape run more than the threshold times in one request, the N+1 query pattern, is logged as a warning.
+ */
+public class SqlStatisticsFilter extends OncePerRequestFilter {
+
+    private static final Logger LOG = LoggerFactory.getLogger(SqlStatisticsFilter.class);
+
+    public static final String STATEMENTS_HEADER = "X-Sql-Statements";
+
+    public static final String ROWS_HEADER = "X-Sql-Rows";
+
+    public static final String TIME_HEADER = "X-Sql-Time-Ms";
+
+    private static final String UNKNOWN_URI = "UNKNOWN";
+
+    private final MeterRegistry meterRegistry;
+
+    private final boolean responseHeaders;
+
+    private final int repeatedStatementThreshold;
+
+    /**
+     * @param meterRegistry the registry of the meters.
+     * @param responseHeaders whether the totals are returned in response headers.
+     * @param repeatedStatementThreshold the number of runs of a statement shape in one request above which it is logged.
+     */
+    public SqlStatisticsFilter(MeterRegistry meterRegistry, boolean responseHeaders, int repeatedStatementThreshold) {
+        this.meterRegistry = meterRegistry;
+        this.responseHeaders = responseHeaders;
+        this.repeatedStatementThreshold = repeatedStatementThreshold;
+    }
+
+    @Override
+    protected void doFilterInternal(HttpServletRequest request, HttpServletResponse response, FilterChain filterChain)
+        throws ServletException, IOException {
+        SqlStatistics statistics = SqlStatistics.start();
+        HeaderWritingResponse headerWritingResponse = responseHeaders ? new HeaderWritingResponse(response, statistics) : null;
+        try {
+            filterChain.doFilter(request, headerWritingResponse != null ? headerWritingResponse : response);
+            if (headerWritingResponse != null) {
+                headerWritingResponse.writeHeaders();
+            }
+        } finally {
+            SqlStatistics.clear();
+            record(request, statistics);
+        }
+    }
+
+    private void record(HttpServletRequest request, SqlStatistics statistics) {
+        Object pattern = request.getAttribute(HandlerMapping.BEST_MATCHING_PATTERN_ATTRIBUTE);
+        String uri = pattern != null ? pattern.toString() : UNKNOWN_URI;
+        String method = request.getMethod();
+
+        DistributionSummary.builder("sql.statements")
+            .description("SQL statements per request")
+            .tag("method", method)
+            .tag("uri", uri)
+            .register(meterRegistry)
+            .record(statistics.getStatements());
+        DistributionSummary.builder("sql.rows")
+            .description("Rows read or written by the SQL statements of a request")
+            .tag("method", method)
+            .tag("uri", uri)
+            .register(meterRegistry)
+            .record(statistics.getRows());
+        Timer.builder("sql.time")
+            .description("Time spent executing the SQL statements of a request")
+            .tag("method", method)
+            .tag("uri", uri)
+            .register(meterRegistry)
+            .record(statistics.getNanos(), TimeUnit.NANOSECONDS);
+
+        Map<String, Long> repeated = statistics.getRepeatedStatements(repeatedStatementThreshold);
+        if (!repeated.isEmpty()) {
+            repeated.forEach((shape, count) ->
+                LOG.warn(
+                    "Repeated SQL statement: method={} uri={} path={} count={} statements={} statement=\"{}\"",
+                    method,
+                    uri,
+                    request.getRequestURI(),
+                    count,
+                    statistics.getStatements(),
+                    shape
+                )
+            );
+        }
+    }
+
+    /**
+     * Adds the statistics headers when the body starts to be written, or at the end of the request without body.
+     */
+    private static final class HeaderWritingResponse extends HttpServletResponseWrapper {
+
+        private final SqlStatistics statistics;
+
+        private boolean headersWritten;
+
+        private HeaderWritingResponse(HttpServletResponse response, SqlStatistics statistics) {
+            super(response);
+            this.statistics = statistics;
+        }
+
+        @Override
+        public ServletOutputStream getOutputStream() throws IOException {
+            writeHeaders();
+            return super.getOutputStream();
+        }
+
+        @Override
+        public PrintWriter getWriter() throws IOException {
+            writeHeaders();
+            return super.getWriter();
+        }
+
+        @Override
+        public void flushBuffer() throws IOException {
+            writeHeaders();
+            super.flushBuffer();
+        }
+
+        @Override
+        public void sendError(int sc, String msg) throws IOException {
+            writeHeaders();
+            super.sendError(sc, msg);
+        }
+
+        @Override
+        public void sendError(int sc) throws IOException {
+            writeHeaders();
+            super.sendError(sc);
+        }
+
+        @Override
+        public void sendRedirect(String location) throws IOException {
+            writeHeaders();
+            super.sendRedirect(location);
+        }
+
+        void writeHeaders() {
+            if (headersWritten || isCommitted()) {
+                return;
+            }
+            headersWritten = true;
+            setHeader(STATEMENTS_HEADER, Long.toString(statistics.getStatements()));
+            setHeader(ROWS_HEADER, Long.toString(statistics.getRows()));
+            setHeader(TIME_HEADER, Long.toString(TimeUnit.NANOSECONDS.toMillis(statistics.getNanos())));
+        }
+    }
+}
@@ -0,0 +1,75 @@
+package petcare.web.filter;
+
+import jakarta.servlet.FilterChain;
+import jakarta.servlet.ServletException;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletRequestWrapper;
+import jakarta.servlet.http.HttpServletResponse;
+import java.io.IOException;
+import java.security.Principal;
+import java.util.Optional;
+import org.springframework.http.HttpHeaders;
+import org.springframework.web.filter.OncePerRequestFilter;
+import petcare.service.token.TokenPrincipal;
+import petcare.service.token.TokenService;
+
+/**
+ * Authenticates the requests carrying a {@code Bearer} access token, with {@link TokenService#authenticate(String)}:
+ * no database read.
+ * <p>
+ * The {@link TokenPrincipal} is returned by {@link HttpServletRequest#getUserPrincipal()}, so that the controllers
+ * can take it as a parameter. A request with an invalid, expired or revoked token is rejected with a 401, and a
+ * request without token goes through unauthenticated.
+ */
+public class TokenAuthenticationFilter extends OncePerRequestFilter {
+
+    private static final String BEARER_PREFIX = "Bearer ";
+
+    private final TokenService tokenService;
+
+    public TokenAuthenticationFilter(TokenService tokenService) {
+        this.tokenService = tokenService;
+    }
+
+    @Override
+    protected void doFilterInternal(HttpServletRequest request, HttpServletResponse response, FilterChain filterChain)
+        throws ServletException, IOException {
+        String authorization = request.getHeader(HttpHeaders.AUTHORIZATION);
+        if (authorization == null || !authorization.regionMatches(true, 0, BEARER_PREFIX, 0, BEARER_PREFIX.length())) {
+            filterChain.doFilter(request, response);
+            return;
+        }
+        Optional<TokenPrincipal> principal = tokenService.authenticate(authorization.substring(BEARER_PREFIX.length()).trim());
+        if (principal.isEmpty()) {
+            response.setHeader(HttpHeaders.WWW_AUTHENTICATE, "Bearer error=\"invalid_token\"");
+            response.sendError(HttpServletResponse.SC_UNAUTHORIZED);
+            return;
+        }
+        filterChain.doFilter(new AuthenticatedRequest(request, principal.orElseThrow()), response);
+    }
+
+    private static final class AuthenticatedRequest extends HttpServletRequestWrapper {
+
+        private final TokenPrincipal principal;
+
+        private AuthenticatedRequest(HttpServletRequest request, TokenPrincipal principal) {
+            super(request);
+            this.principal = principal;
+        }
+
+        @Override
+        public Principal getUserPrincipal() {
+            return principal;
+        }
+
+        @Override
+        public String getRemoteUser() {
+            return principal.getName();
+        }
+
+        @Override
+        public boolean isUserInRole(String role) {
+            return principal.role() != null && principal.role().name().equals(role);
+        }
+    }
+}
@@ -1,27 +1,49 @@
 package petcare.web.rest;
 
+import jakarta.servlet.http.HttpServletResponse;
 import jakarta.validation.Valid;
 import jakarta.validation.constraints.NotNull;
+import java.io.IOException;
+import java.io.InputStream;
 import java.net.URI;
 import java.net.URISyntaxException;
 import java.util.List;
+import java.util.Locale;
 import java.util.Objects;
 import java.util.Optional;
+import java.util.Set;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import org.springframework.beans.factory.annotation.Value;
+import org.springframework.dao.ConcurrencyFailureException;
+import org.springframework.dao.OptimisticLockingFailureException;
+import org.springframework.data.domain.KeysetScrollPosition;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Window;
 import org.springframework.http.HttpHeaders;
+import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
 import org.springframework.web.servlet.support.ServletUriComponentsBuilder;
-import petcare.repository.AppointmentRepository;
+import petcare.domain.Appointment;
+import petcare.domain.enumeration.AppointmentStatus;
 import petcare.service.AppointmentQueryService;
 import petcare.service.AppointmentService;
+import petcare.service.AppointmentTransition;
+import petcare.service.BulkIngestService;
+import petcare.service.ExportService;
+import petcare.service.KeysetCursorCodec;
+import petcare.service.SlotUnavailableException;
+import petcare.service.StatusTransitionException;
 import petcare.service.criteria.AppointmentCriteria;
 import petcare.service.dto.AppointmentDTO;
+import petcare.service.dto.BulkIngestReportDTO;
 import petcare.web.rest.errors.BadRequestAlertException;
+import petcare.web.rest.errors.SlotConflictException;
+import petcare.web.rest.errors.StatusConflictException;
+import petcare.web.rest.errors.VersionConflictException;
+import petcare.web.rest.util.CursorPaginationUtil;
 import tech.jhipster.web.util.HeaderUtil;
 import tech.jhipster.web.util.PaginationUtil;
 import tech.jhipster.web.util.ResponseUtil;
@@ -42,25 +64,25 @@ public class AppointmentResource {
 
     private final AppointmentService appointmentService;
 
-    private final AppointmentRepository appointmentRepository;
-
     private final AppointmentQueryService appointmentQueryService;
 
+    private final KeysetCursorCodec keysetCursorCodec;
+
     public AppointmentResource(
         AppointmentService appointmentService,
-        AppointmentRepository appointmentRepository,
-        AppointmentQueryService appointmentQueryService
+        AppointmentQueryService appointmentQueryService,
+        KeysetCursorCodec keysetCursorCodec
     ) {
         this.appointmentService = appointmentService;
-        this.appointmentRepository = appointmentRepository;
         this.appointmentQueryService = appointmentQueryService;
+        this.keysetCursorCodec = keysetCursorCodec;
     }
 
     /**
      * {@code POST  /appointments} : Create a new appointment.
      *
      * @param appointmentDTO the appointmentDTO to create.
-     * @return the {@link ResponseEntity} with status {@code 201 (Created)} and with body the new appointmentDTO, or with status {@code 400 (Bad Request)} if the appointment has already an ID.
+     * @return the {@link ResponseEntity} with status {@code 201 (Created)} and with body the new appointmentDTO, or with status {@code 400 (Bad Request)} if the appointment has already an ID, or with status {@code 409 (Conflict)} if its slot is already booked.
      * @throws URISyntaxException if the Location URI syntax is incorrect.
      */
     @PostMapping("")
@@ -69,12 +91,35 @@ public class AppointmentResource {
         if (appointmentDTO.getId() != null) {
             throw new BadRequestAlertException("A new appointment cannot already have an ID", ENTITY_NAME, "idexists");
         }
-        appointmentDTO = appointmentService.save(appointmentDTO);
+        try {
+            appointmentDTO = appointmentService.save(appointmentDTO);
+        } catch (SlotUnavailableException e) {
+            throw new SlotConflictException(ENTITY_NAME);
+        }
         return ResponseEntity.created(new URI("/api/appointments/" + appointmentDTO.getId()))
             .headers(HeaderUtil.createEntityCreationAlert(applicationName, false, ENTITY_NAME, appointmentDTO.getId().toString()))
             .body(appointmentDTO);
     }
 
+    /**
+     * {@code POST  /appointments/_bulk} : Create appointments in bulk.
+     * <p>
+     * The body is NDJSON (one appointmentDTO per line) or CSV (a header line with the column names, then one row per line).
+     * Invalid rows are reported and skipped, the valid ones are created.
+     *
+     * @param contentType {@code application/x-ndjson} or {@code text/csv}.
+     * @param body the rows to create.
+     * @return the {@link ResponseEntity} with status {@code 200 (OK)} and with body the report of the created and rejected rows.
+     */
+    @PostMapping(value = "/_bulk", consumes = { MediaType.APPLICATION_NDJSON_VALUE, BulkIngestService.TEXT_CSV_VALUE })
+    public ResponseEntity<BulkIngestReportDTO> bulkCreateAppointments(
+        @RequestHeader(HttpHeaders.CONTENT_TYPE) MediaType contentType,
+        InputStream body
+    ) {
+        LOG.debug("REST request to create Appointments in bulk : {}", contentType);
+        return ResponseEntity.ok(appointmentService.ingest(body, contentType));
+    }
+
     /**
      * {@code PUT  /appointments/:id} : Updates an existing appointment.
      *
@@ -82,6 +127,9 @@ public class AppointmentResource {
      * @param appointmentDTO the appointmentDTO to update.
      * @return the {@link ResponseEntity} with status {@code 200 (OK)} and with body the updated appointmentDTO,
      * or with status {@code 400 (Bad Request)} if the appointmentDTO is not valid,
+     * or with status {@code 404 (Not Found)} if the appointmentDTO is not found,
+     * or with status {@code 409 (Conflict)} if the appointmentDTO was updated since its version was read, or is being
+     * moved by a concurrent write, or its status can not follow the current one,
      * or with status {@code 500 (Internal Server Error)} if the appointmentDTO couldn't be updated.
      * @throws URISyntaxException if the Location URI syntax is incorrect.
      */
@@ -98,14 +146,21 @@ public class AppointmentResource {
             throw new BadRequestAlertException("Invalid ID", ENTITY_NAME, "idinvalid");
         }
 
-        if (!appointmentRepository.existsById(id)) {
-            throw new BadRequestAlertException("Entity not found", ENTITY_NAME, "idnotfound");
+        Optional<AppointmentDTO> result;
+        try {
+            result = appointmentService.update(appointmentDTO);
+        } catch (SlotUnavailableException e) {
+            throw new SlotConflictException(ENTITY_NAME);
+        } catch (StatusTransitionException e) {
+            throw new StatusConflictException(ENTITY_NAME);
+        } catch (ConcurrencyFailureException e) {
+            // A stale version, or a move of the appointment which timed out waiting for the schedule of a discovery
+            throw new VersionConflictException(ENTITY_NAME);
         }
-
-        appointmentDTO = appointmentService.update(appointmentDTO);
-        return ResponseEntity.ok()
-            .headers(HeaderUtil.createEntityUpdateAlert(applicationName, false, ENTITY_NAME, appointmentDTO.getId().toString()))
-            .body(appointmentDTO);
+        return ResponseUtil.wrapOrNotFound(
+            result,
+            HeaderUtil.createEntityUpdateAlert(applicationName, false, ENTITY_NAME, appointmentDTO.getId().toString())
+        );
     }
 
     /**
@@ -116,6 +171,8 @@ public class AppointmentResource {
      * @return the {@link ResponseEntity} with status {@code 200 (OK)} and with body the updated appointmentDTO,
      * or with status {@code 400 (Bad Request)} if the appointmentDTO is not valid,
      * or with status {@code 404 (Not Found)} if the appointmentDTO is not found,
+     * or with status {@code 409 (Conflict)} if the appointmentDTO was updated since its version was read, or its status
+     * can not follow the current one,
      * or with status {@code 500 (Internal Server Error)} if the appointmentDTO couldn't be updated.
      * @throws URISyntaxException if the Location URI syntax is incorrect.
      */
@@ -132,37 +189,148 @@ public class AppointmentResource {
             throw new BadRequestAlertException("Invalid ID", ENTITY_NAME, "idinvalid");
         }
 
-        if (!appointmentRepository.existsById(id)) {
-            throw new BadRequestAlertException("Entity not found", ENTITY_NAME, "idnotfound");
+        Optional<AppointmentDTO> result;
+        try {
+            result = appointmentService.partialUpdate(appointmentDTO);
+        } catch (SlotUnavailableException e) {
+            throw new SlotConflictException(ENTITY_NAME);
+        } catch (StatusTransitionException e) {
+            throw new StatusConflictException(ENTITY_NAME);
+        } catch (OptimisticLockingFailureException e) {
+            throw new VersionConflictException(ENTITY_NAME);
         }
 
-        Optional<AppointmentDTO> result = appointmentService.partialUpdate(appointmentDTO);
-
         return ResponseUtil.wrapOrNotFound(
             result,
             HeaderUtil.createEntityUpdateAlert(applicationName, false, ENTITY_NAME, appointmentDTO.getId().toString())
         );
     }
 
+    /**
+     * {@code POST  /appointments/:id/confirm}, {@code /cancel} or {@code /complete} : Move the status of an appointment.
+     *
+     * @param id the id of the appointment.
+     * @param transition {@code confirm}, {@code cancel} or {@code complete}.
+     * @return the {@link ResponseEntity} with status {@code 200 (OK)} and with body the moved appointmentDTO,
+     * or with status {@code 404 (Not Found)} if the appointment is not found,
+     * or with status {@code 409 (Conflict)} if its status can not move along the transition.
+     */
+    @PostMapping("/{id}/{transition:confirm|cancel|complete}")
+    public ResponseEntity<AppointmentDTO> transitionAppointment(
+        @PathVariable("id") Long id,
+        @PathVariable("transition") String transition
+    ) {
+        LOG.debug("REST request to {} Appointment : {}", transition, id);
+        Optional<AppointmentDTO> result;
+        try {
+            result = appointmentService.transition(id, AppointmentTransition.valueOf(transition.toUpperCase(Locale.ROOT)));
+        } catch (StatusTransitionException e) {
+            throw new StatusConflictException(ENTITY_NAME);
+        }
+        return ResponseUtil.wrapOrNotFound(result, HeaderUtil.createEntityUpdateAlert(applicationName, false, ENTITY_NAME, id.toString()));
+    }
+
+    /**
+     * {@code POST  /appointments/_confirm}, {@code /_cancel} or {@code /_complete} : Move the status of all the
+     * appointments of a pet or of a discovery, with one statement.
+     *
+     * @param transition {@code confirm}, {@code cancel} or {@code complete}.
+     * @param petId the id of the pet.
+     * @param discoveryId the id of the discovery, when no pet is given.
+     * @param statuses the statuses to move, all the ones the transition applies to when empty.
+     * @return the {@link ResponseEntity} with status {@code 200 (OK)} and the number of moved appointments in body,
+     * or with status {@code 400 (Bad Request)} if neither or both of the pet and discovery are given, or a status the
+     * transition does not apply to.
+     */
+    @PostMapping("/_{transition:confirm|cancel|complete}")
+    public ResponseEntity<Integer> transitionAppointments(
+        @PathVariable("transition") String transition,
+        @RequestParam(value = "petId", required = false) Long petId,
+        @RequestParam(value = "discoveryId", required = false) Long discoveryId,
+        @RequestParam(value = "status", required = false) List<AppointmentStatus> statuses
+    ) {
+        LOG.debug("REST request to {} the {} Appointments of pet {} or discovery {}", transition, statuses, petId, discoveryId);
+        if ((petId == null) == (discoveryId == null)) {
+            throw new BadRequestAlertException("Either a petId or a discoveryId is required", ENTITY_NAME, "filterinvalid");
+        }
+        AppointmentTransition appointmentTransition = AppointmentTransition.valueOf(transition.toUpperCase(Locale.ROOT));
+        Set<AppointmentStatus> sources = appointmentTransition.getSources();
+        if (statuses != null && !statuses.isEmpty()) {
+            if (!sources.containsAll(statuses)) {
+                throw new BadRequestAlertException("The transition does not apply to " + statuses, ENTITY_NAME, "statusinvalid");
+            }
+            sources = Set.copyOf(statuses);
+        }
+        return ResponseEntity.ok(appointmentService.transitionAll(appointmentTransition, petId, discoveryId, sources));
+    }
+
     /**
      * {@code GET  /appointments} : get all the appointments.
+     * <p>
+     * When the {@code after} parameter is present (empty for the first page), keyset pagination is used instead:
+     * the page number is ignored, no count is run and the next page is linked in the {@code Link} header. The sort can
+     * only reference non-null attributes, and must stay the same from one page to the next.
      *
      * @param pageable the pagination information.
      * @param criteria the criteria which the requested entities should match.
+     * @param after the cursor returned with the previous page, enables keyset pagination.
      * @return the {@link ResponseEntity} with status {@code 200 (OK)} and the list of appointments in body.
      */
     @GetMapping("")
     public ResponseEntity<List<AppointmentDTO>> getAllAppointments(
         AppointmentCriteria criteria,
-        @org.springdoc.core.annotations.ParameterObject Pageable pageable
+        @org.springdoc.core.annotations.ParameterObject Pageable pageable,
+        @RequestParam(value = CursorPaginationUtil.AFTER_PARAMETER, required = false) String after
     ) {
         LOG.debug("REST request to get Appointments by criteria: {}", criteria);
 
+        if (after != null) {
+            if (!keysetCursorCodec.isKeysetSort(pageable.getSort(), Appointment.class)) {
+                throw new BadRequestAlertException("Keyset pagination needs a sort on non-null attributes", ENTITY_NAME, "sortinvalid");
+            }
+            KeysetScrollPosition position = keysetCursorCodec
+                .decode(after, Appointment.class, pageable.getSort())
+                .orElseThrow(() -> new BadRequestAlertException("Invalid cursor", ENTITY_NAME, "cursorinvalid"));
+            Window<AppointmentDTO> window = appointmentQueryService.findByCriteria(criteria, position, pageable);
+            HttpHeaders headers = CursorPaginationUtil.generateCursorHttpHeaders(
+                ServletUriComponentsBuilder.fromCurrentRequest(),
+                keysetCursorCodec.nextCursor(window, pageable.getSort())
+            );
+            return ResponseEntity.ok().headers(headers).body(window.getContent());
+        }
+
         Page<AppointmentDTO> page = appointmentQueryService.findByCriteria(criteria, pageable);
         HttpHeaders headers = PaginationUtil.generatePaginationHttpHeaders(ServletUriComponentsBuilder.fromCurrentRequest(), page);
         return ResponseEntity.ok().headers(headers).body(page.getContent());
     }
 
+    /**
+     * {@code GET  /appointments/_export} : export all the appointments matching the criteria, ordered by id.
+     * <p>
+     * The rows are streamed as NDJSON, or as CSV when the {@code Accept} header asks for {@code text/csv}.
+     *
+     * @param criteria the criteria which the exported entities should match.
+     * @param accept the {@code Accept} header.
+     * @param response the response the rows are written to.
+     * @throws IOException if the response can not be written.
+     */
+    @GetMapping("/_export")
+    public void exportAppointments(
+        AppointmentCriteria criteria,
+        @RequestHeader(value = HttpHeaders.ACCEPT, required = false) String accept,
+        HttpServletResponse response
+    ) throws IOException {
+        LOG.debug("REST request to export Appointments by criteria: {}", criteria);
+        MediaType format = ExportService.negotiateFormat(accept);
+        response.setContentType(format.toString());
+        response.setCharacterEncoding("UTF-8");
+        response.setHeader(
+            HttpHeaders.CONTENT_DISPOSITION,
+            "attachment; filename=\"appointments." + (MediaType.APPLICATION_NDJSON.equals(format) ? "ndjson" : "csv") + "\""
+        );
+        appointmentQueryService.exportByCriteria(criteria, format, response.getOutputStream());
+    }
+
     /**
      * {@code GET  /appointments/count} : count all the appointments.
      *
@@ -203,11 +371,41 @@ public class AppointmentResource {
             .build();
     }
 
+    /**
+     * {@code GET  /appointments/owner/:ownerId} : get a page of the appointments of an owner, the latest first.
+     *
+     * @param ownerId the id of the owner.
+     * @param after the cursor of the page, absent or empty for the first one.
+     * @param size the size of the page, capped at {@code application.pagination.max-page-size}.
+     * @return the {@link ResponseEntity} with status {@code 200 (OK)} and the page in body, with a {@code Link} header to
+     * the next one, or with status {@code 400 (Bad Request)} if the cursor is invalid.
+     */
     @GetMapping("/owner/{ownerId}")
-    public ResponseEntity<List<AppointmentDTO>> getAppointmentsByOwnerId(@PathVariable Long ownerId) {
-        LOG.debug("REST request to get Appointments by ownerId : {}", ownerId);
-        List<AppointmentDTO> appointments = appointmentService.findByOwnerId(ownerId);
-        return ResponseEntity.ok().body(appointments);
+    public ResponseEntity<List<AppointmentDTO>> getAppointmentsByOwnerId(
+        @PathVariable Long ownerId,
+        @RequestParam(value = CursorPaginationUtil.AFTER_PARAMETER, required = false) String after,
+        @RequestParam(value = "size", defaultValue = "20") int size
+    ) {
+        LOG.debug("REST request to get a page of Appointments by ownerId : {}", ownerId);
+        Window<AppointmentDTO> window = appointmentQueryService.findByOwnerId(ownerId, decodeCursor(after), size);
+        return ResponseEntity.ok().headers(cursorHeaders(window)).body(window.getContent());
+    }
+
+    /**
+     * {@code GET  /appointments/owner/:ownerId/_export} : export all the appointments of an owner, the latest first.
+     * <p>
+     * The rows are streamed from the database as a JSON array, without being held in memory.
+     *
+     * @param ownerId the id of the owner.
+     * @param response the response the rows are written to.
+     * @throws IOException if the response can not be written.
+     */
+    @GetMapping("/owner/{ownerId}/_export")
+    public void exportAppointmentsByOwnerId(@PathVariable Long ownerId, HttpServletResponse response) throws IOException {
+        LOG.debug("REST request to export all Appointments by ownerId : {}", ownerId);
+        response.setContentType(MediaType.APPLICATION_JSON_VALUE);
+        response.setCharacterEncoding("UTF-8");
+        appointmentQueryService.exportByOwnerId(ownerId, response.getOutputStream());
     }
 
     @GetMapping("/next/{ownerId}")
@@ -217,11 +415,53 @@ public class AppointmentResource {
         return ResponseEntity.ok(result);
     }
 
+    /**
+     * {@code GET  /appointments/pet/:petId} : get a page of the appointments of a pet, the latest first.
+     *
+     * @param petId the id of the pet.
+     * @param after the cursor of the page, absent or empty for the first one.
+     * @param size the size of the page, capped at {@code application.pagination.max-page-size}.
+     * @return the {@link ResponseEntity} with status {@code 200 (OK)} and the page in body, with a {@code Link} header to
+     * the next one, or with status {@code 400 (Bad Request)} if the cursor is invalid.
+     */
     @GetMapping("/pet/{petId}")
-    public ResponseEntity<List<AppointmentDTO>> getByPetId(@PathVariable Long petId) {
-        LOG.debug("REST request to get Appointments by petId : {}", petId);
-        List<AppointmentDTO> appointments = appointmentService.findByPetId(petId);
-        return ResponseEntity.ok(appointments);
+    public ResponseEntity<List<AppointmentDTO>> getByPetId(
+        @PathVariable Long petId,
+        @RequestParam(value = CursorPaginationUtil.AFTER_PARAMETER, required = false) String after,
+        @RequestParam(value = "size", defaultValue = "20") int size
+    ) {
+        LOG.debug("REST request to get a page of Appointments by petId : {}", petId);
+        Window<AppointmentDTO> window = appointmentQueryService.findByPetId(petId, decodeCursor(after), size);
+        return ResponseEntity.ok().headers(cursorHeaders(window)).body(window.getContent());
     }
 
+    /**
+     * {@code GET  /appointments/pet/:petId/_export} : export all the appointments of a pet, the latest first.
+     * <p>
+     * The rows are streamed from the database as a JSON array, without being held in memory.
+     *
+     * @param petId the id of the pet.
+     * @param response the response the rows are written to.
+     * @throws IOException if the response can not be written.
+     */
+    @GetMapping("/pet/{petId}/_export")
+    public void exportByPetId(@PathVariable Long petId, HttpServletResponse response) throws IOException {
+        LOG.debug("REST request to export all Appointments by petId : {}", petId);
+        response.setContentType(MediaType.APPLICATION_JSON_VALUE);
+        response.setCharacterEncoding("UTF-8");
+        appointmentQueryService.exportByPetId(petId, response.getOutputStream());
+    }
+
+    private KeysetScrollPosition decodeCursor(String after) {
+        return keysetCursorCodec
+            .decode(after, Appointment.class, AppointmentQueryService.BY_TIME)
+            .orElseThrow(() -> new BadRequestAlertException("Invalid cursor", ENTITY_NAME, "cursorinvalid"));
+    }
+
+    private HttpHeaders cursorHeaders(Window<?> window) {
+        return CursorPaginationUtil.generateCursorHttpHeaders(
+            ServletUriComponentsBuilder.fromCurrentRequest(),
+            keysetCursorCodec.nextCursor(window, AppointmentQueryService.BY_TIME)
+        );
+    }
 }
@@ -4,24 +4,34 @@ import jakarta.validation.Valid;
 import jakarta.validation.constraints.NotNull;
 import java.net.URI;
 import java.net.URISyntaxException;
+import java.time.Instant;
 import java.util.List;
 import java.util.Objects;
 import java.util.Optional;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import org.springframework.beans.factory.annotation.Value;
+import org.springframework.dao.OptimisticLockingFailureException;
+import org.springframework.data.domain.KeysetScrollPosition;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Window;
 import org.springframework.http.HttpHeaders;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
 import org.springframework.web.servlet.support.ServletUriComponentsBuilder;
+import petcare.domain.Discovery;
 import petcare.repository.DiscoveryRepository;
+import petcare.service.AppointmentAvailabilityService;
 import petcare.service.DiscoveryQueryService;
 import petcare.service.DiscoveryService;
+import petcare.service.KeysetCursorCodec;
 import petcare.service.criteria.DiscoveryCriteria;
 import petcare.service.dto.DiscoveryDTO;
+import petcare.service.dto.FreeSlotDTO;
 import petcare.web.rest.errors.BadRequestAlertException;
+import petcare.web.rest.errors.VersionConflictException;
+import petcare.web.rest.util.CursorPaginationUtil;
 import tech.jhipster.web.util.HeaderUtil;
 import tech.jhipster.web.util.PaginationUtil;
 import tech.jhipster.web.util.ResponseUtil;
@@ -46,14 +56,22 @@ public class DiscoveryResource {
 
     private final DiscoveryQueryService discoveryQueryService;
 
+    private final KeysetCursorCodec keysetCursorCodec;
+
+    private final AppointmentAvailabilityService appointmentAvailabilityService;
+
     public DiscoveryResource(
         DiscoveryService discoveryService,
         DiscoveryRepository discoveryRepository,
-        DiscoveryQueryService discoveryQueryService
+        DiscoveryQueryService discoveryQueryService,
+        KeysetCursorCodec keysetCursorCodec,
+        AppointmentAvailabilityService appointmentAvailabilityService
     ) {
         this.discoveryService = discoveryService;
         this.discoveryRepository = discoveryRepository;
         this.discoveryQueryService = discoveryQueryService;
+        this.keysetCursorCodec = keysetCursorCodec;
+        this.appointmentAvailabilityService = appointmentAvailabilityService;
     }
 
     /**
@@ -82,6 +100,8 @@ public class DiscoveryResource {
      * @param discoveryDTO the discoveryDTO to update.
      * @return the {@link ResponseEntity} with status {@code 200 (OK)} and with body the updated discoveryDTO,
      * or with status {@code 400 (Bad Request)} if the discoveryDTO is not valid,
+     * or with status {@code 404 (Not Found)} if the discoveryDTO is not found,
+     * or with status {@code 409 (Conflict)} if the discoveryDTO was updated since its version was read,
      * or with status {@code 500 (Internal Server Error)} if the discoveryDTO couldn't be updated.
      * @throws URISyntaxException if the Location URI syntax is incorrect.
      */
@@ -98,14 +118,16 @@ public class DiscoveryResource {
             throw new BadRequestAlertException("Invalid ID", ENTITY_NAME, "idinvalid");
         }
 
-        if (!discoveryRepository.existsById(id)) {
-            throw new BadRequestAlertException("Entity not found", ENTITY_NAME, "idnotfound");
+        Optional<DiscoveryDTO> result;
+        try {
+            result = discoveryService.update(discoveryDTO);
+        } catch (OptimisticLockingFailureException e) {
+            throw new VersionConflictException(ENTITY_NAME);
         }
-
-        discoveryDTO = discoveryService.update(discoveryDTO);
-        return ResponseEntity.ok()
-            .headers(HeaderUtil.createEntityUpdateAlert(applicationName, false, ENTITY_NAME, discoveryDTO.getId().toString()))
-            .body(discoveryDTO);
+        return ResponseUtil.wrapOrNotFound(
+            result,
+            HeaderUtil.createEntityUpdateAlert(applicationName, false, ENTITY_NAME, discoveryDTO.getId().toString())
+        );
     }
 
     /**
@@ -116,6 +138,7 @@ public class DiscoveryResource {
      * @return the {@link ResponseEntity} with status {@code 200 (OK)} and with body the updated discoveryDTO,
      * or with status {@code 400 (Bad Request)} if the discoveryDTO is not valid,
      * or with status {@code 404 (Not Found)} if the discoveryDTO is not found,
+     * or with status {@code 409 (Conflict)} if the discoveryDTO was updated since its version was read,
      * or with status {@code 500 (Internal Server Error)} if the discoveryDTO couldn't be updated.
      * @throws URISyntaxException if the Location URI syntax is incorrect.
      */
@@ -132,12 +155,13 @@ public class DiscoveryResource {
             throw new BadRequestAlertException("Invalid ID", ENTITY_NAME, "idinvalid");
         }
 
-        if (!discoveryRepository.existsById(id)) {
-            throw new BadRequestAlertException("Entity not found", ENTITY_NAME, "idnotfound");
+        Optional<DiscoveryDTO> result;
+        try {
+            result = discoveryService.partialUpdate(discoveryDTO);
+        } catch (OptimisticLockingFailureException e) {
+            throw new VersionConflictException(ENTITY_NAME);
         }
 
-        Optional<DiscoveryDTO> result = discoveryService.partialUpdate(discoveryDTO);
-
         return ResponseUtil.wrapOrNotFound(
             result,
             HeaderUtil.createEntityUpdateAlert(applicationName, false, ENTITY_NAME, discoveryDTO.getId().toString())
@@ -146,23 +170,64 @@ public class DiscoveryResource {
 
     /**
      * {@code GET  /discoveries} : get all the discoveries.
+     * <p>
+     * When the {@code after} parameter is present (empty for the first page), keyset pagination is used instead:
+     * the page number is ignored, no count is run and the next page is linked in the {@code Link} header. The sort can
+     * only reference non-null attributes, and must stay the same from one page to the next.
      *
      * @param pageable the pagination information.
      * @param criteria the criteria which the requested entities should match.
+     * @param after the cursor returned with the previous page, enables keyset pagination.
      * @return the {@link ResponseEntity} with status {@code 200 (OK)} and the list of discoveries in body.
      */
     @GetMapping("")
     public ResponseEntity<List<DiscoveryDTO>> getAllDiscoveries(
         DiscoveryCriteria criteria,
-        @org.springdoc.core.annotations.ParameterObject Pageable pageable
+        @org.springdoc.core.annotations.ParameterObject Pageable pageable,
+        @RequestParam(value = CursorPaginationUtil.AFTER_PARAMETER, required = false) String after
     ) {
         LOG.debug("REST request to get Discoveries by criteria: {}", criteria);
 
+        if (after != null) {
+            if (!keysetCursorCodec.isKeysetSort(pageable.getSort(), Discovery.class)) {
+                throw new BadRequestAlertException("Keyset pagination needs a sort on non-null attributes", ENTITY_NAME, "sortinvalid");
+            }
+            KeysetScrollPosition position = keysetCursorCodec
+                .decode(after, Discovery.class, pageable.getSort())
+                .orElseThrow(() -> new BadRequestAlertException("Invalid cursor", ENTITY_NAME, "cursorinvalid"));
+            Window<DiscoveryDTO> window = discoveryQueryService.findByCriteria(criteria, position, pageable);
+            HttpHeaders headers = CursorPaginationUtil.generateCursorHttpHeaders(
+                ServletUriComponentsBuilder.fromCurrentRequest(),
+                keysetCursorCodec.nextCursor(window, pageable.getSort())
+            );
+            return ResponseEntity.ok().headers(headers).body(window.getContent());
+        }
+
         Page<DiscoveryDTO> page = discoveryQueryService.findByCriteria(criteria, pageable);
         HttpHeaders headers = PaginationUtil.generatePaginationHttpHeaders(ServletUriComponentsBuilder.fromCurrentRequest(), page);
         return ResponseEntity.ok().headers(headers).body(page.getContent());
     }
 
+    /**
+     * {@code GET  /discoveries/_search?q=:query} : search the discoveries by name, description, category, requirements and location.
+     * <p>
+     * Diacritics are optional in the query, and the results are ranked by relevance rather than by the requested sort.
+     *
+     * @param query the text to search.
+     * @param pageable the pagination information.
+     * @return the {@link ResponseEntity} with status {@code 200 (OK)} and the list of matching discoveries in body.
+     */
+    @GetMapping("/_search")
+    public ResponseEntity<List<DiscoveryDTO>> searchDiscoveries(
+        @RequestParam("q") String query,
+        @org.springdoc.core.annotations.ParameterObject Pageable pageable
+    ) {
+        LOG.debug("REST request to search Discoveries for query {}", query);
+        Page<DiscoveryDTO> page = discoveryService.search(query, pageable);
+        HttpHeaders headers = PaginationUtil.generatePaginationHttpHeaders(ServletUriComponentsBuilder.fromCurrentRequest(), page);
+        return ResponseEntity.ok().headers(headers).body(page.getContent());
+    }
+
     /**
      * {@code GET  /discoveries/count} : count all the discoveries.
      *
@@ -188,6 +253,33 @@ public class DiscoveryResource {
         return ResponseUtil.wrapOrNotFound(discoveryDTO);
     }
 
+    /**
+     * {@code GET  /discoveries/:id/free-slots?from=:from&to=:to} : get the free appointment slots of the "id" discovery.
+     *
+     * @param id the id of the discovery.
+     * @param from the start of the period, as an ISO-8601 instant.
+     * @param to the end of the period, as an ISO-8601 instant.
+     * @return the {@link ResponseEntity} with status {@code 200 (OK)} and the free slots in body,
+     * or with status {@code 400 (Bad Request)} if the period is empty or too long,
+     * or with status {@code 404 (Not Found)} if the discovery does not exist.
+     */
+    @GetMapping("/{id}/free-slots")
+    public ResponseEntity<List<FreeSlotDTO>> getFreeSlots(
+        @PathVariable("id") Long id,
+        @RequestParam("from") Instant from,
+        @RequestParam("to") Instant to
+    ) {
+        LOG.debug("REST request to get the free slots of Discovery {} from {} to {}", id, from, to);
+        if (!discoveryRepository.existsById(id)) {
+            return ResponseEntity.notFound().build();
+        }
+        try {
+            return ResponseEntity.ok(appointmentAvailabilityService.findFreeSlots(id, from, to));
+        } catch (IllegalArgumentException e) {
+            throw new BadRequestAlertException(e.getMessage(), ENTITY_NAME, "periodinvalid");
+        }
+    }
+
     /**
      * {@code DELETE  /discoveries/:id} : delete the "id" discovery.
      *
@@ -1,7 +1,10 @@
 package petcare.web.rest;
 
+import jakarta.servlet.http.HttpServletResponse;
 import jakarta.validation.Valid;
 import jakarta.validation.constraints.NotNull;
+import java.io.IOException;
+import java.io.InputStream;
 import java.net.URI;
 import java.net.URISyntaxException;
 import java.util.List;
@@ -10,18 +13,28 @@ import java.util.Optional;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import org.springframework.beans.factory.annotation.Value;
+import org.springframework.dao.OptimisticLockingFailureException;
+import org.springframework.data.domain.KeysetScrollPosition;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Window;
 import org.springframework.http.HttpHeaders;
+import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
 import org.springframework.web.servlet.support.ServletUriComponentsBuilder;
-import petcare.repository.HealthRecordRepository;
+import petcare.domain.HealthRecord;
+import petcare.service.BulkIngestService;
+import petcare.service.ExportService;
 import petcare.service.HealthRecordQueryService;
 import petcare.service.HealthRecordService;
+import petcare.service.KeysetCursorCodec;
 import petcare.service.criteria.HealthRecordCriteria;
+import petcare.service.dto.BulkIngestReportDTO;
 import petcare.service.dto.HealthRecordDTO;
 import petcare.web.rest.errors.BadRequestAlertException;
+import petcare.web.rest.errors.VersionConflictException;
+import petcare.web.rest.util.CursorPaginationUtil;
 import tech.jhipster.web.util.HeaderUtil;
 import tech.jhipster.web.util.PaginationUtil;
 import tech.jhipster.web.util.ResponseUtil;
@@ -42,18 +55,18 @@ public class HealthRecordResource {
 
     private final HealthRecordService healthRecordService;
 
-    private final HealthRecordRepository healthRecordRepository;
-
     private final HealthRecordQueryService healthRecordQueryService;
 
+    private final KeysetCursorCodec keysetCursorCodec;
+
     public HealthRecordResource(
         HealthRecordService healthRecordService,
-        HealthRecordRepository healthRecordRepository,
-        HealthRecordQueryService healthRecordQueryService
+        HealthRecordQueryService healthRecordQueryService,
+        KeysetCursorCodec keysetCursorCodec
     ) {
         this.healthRecordService = healthRecordService;
-        this.healthRecordRepository = healthRecordRepository;
         this.healthRecordQueryService = healthRecordQueryService;
+        this.keysetCursorCodec = keysetCursorCodec;
     }
 
     /**
@@ -76,6 +89,25 @@ public class HealthRecordResource {
             .body(healthRecordDTO);
     }
 
+    /**
+     * {@code POST  /health-records/_bulk} : Create health records in bulk.
+     * <p>
+     * The body is NDJSON (one healthRecordDTO per line) or CSV (a header line with the column names, then one row per line).
+     * Invalid rows are reported and skipped, the valid ones are created.
+     *
+     * @param contentType {@code application/x-ndjson} or {@code text/csv}.
+     * @param body the rows to create.
+     * @return the {@link ResponseEntity} with status {@code 200 (OK)} and with body the report of the created and rejected rows.
+     */
+    @PostMapping(value = "/_bulk", consumes = { MediaType.APPLICATION_NDJSON_VALUE, BulkIngestService.TEXT_CSV_VALUE })
+    public ResponseEntity<BulkIngestReportDTO> bulkCreateHealthRecords(
+        @RequestHeader(HttpHeaders.CONTENT_TYPE) MediaType contentType,
+        InputStream body
+    ) {
+        LOG.debug("REST request to create HealthRecords in bulk : {}", contentType);
+        return ResponseEntity.ok(healthRecordService.ingest(body, contentType));
+    }
+
     /**
      * {@code PUT  /health-records/:id} : Updates an existing healthRecord.
      *
@@ -83,6 +115,8 @@ public class HealthRecordResource {
      * @param healthRecordDTO the healthRecordDTO to update.
      * @return the {@link ResponseEntity} with status {@code 200 (OK)} and with body the updated healthRecordDTO,
      * or with status {@code 400 (Bad Request)} if the healthRecordDTO is not valid,
+     * or with status {@code 404 (Not Found)} if the healthRecordDTO is not found,
+     * or with status {@code 409 (Conflict)} if the healthRecordDTO was updated since its version was read,
      * or with status {@code 500 (Internal Server Error)} if the healthRecordDTO couldn't be updated.
      * @throws URISyntaxException if the Location URI syntax is incorrect.
      */
@@ -99,14 +133,16 @@ public class HealthRecordResource {
             throw new BadRequestAlertException("Invalid ID", ENTITY_NAME, "idinvalid");
         }
 
-        if (!healthRecordRepository.existsById(id)) {
-            throw new BadRequestAlertException("Entity not found", ENTITY_NAME, "idnotfound");
+        Optional<HealthRecordDTO> result;
+        try {
+            result = healthRecordService.update(healthRecordDTO);
+        } catch (OptimisticLockingFailureException e) {
+            throw new VersionConflictException(ENTITY_NAME);
         }
-
-        healthRecordDTO = healthRecordService.update(healthRecordDTO);
-        return ResponseEntity.ok()
-            .headers(HeaderUtil.createEntityUpdateAlert(applicationName, false, ENTITY_NAME, healthRecordDTO.getId().toString()))
-            .body(healthRecordDTO);
+        return ResponseUtil.wrapOrNotFound(
+            result,
+            HeaderUtil.createEntityUpdateAlert(applicationName, false, ENTITY_NAME, healthRecordDTO.getId().toString())
+        );
     }
 
     /**
@@ -117,6 +153,7 @@ public class HealthRecordResource {
      * @return the {@link ResponseEntity} with status {@code 200 (OK)} and with body the updated healthRecordDTO,
      * or with status {@code 400 (Bad Request)} if the healthRecordDTO is not valid,
      * or with status {@code 404 (Not Found)} if the healthRecordDTO is not found,
+     * or with status {@code 409 (Conflict)} if the healthRecordDTO was updated since its version was read,
      * or with status {@code 500 (Internal Server Error)} if the healthRecordDTO couldn't be updated.
      * @throws URISyntaxException if the Location URI syntax is incorrect.
      */
@@ -133,12 +170,13 @@ public class HealthRecordResource {
             throw new BadRequestAlertException("Invalid ID", ENTITY_NAME, "idinvalid");
         }
 
-        if (!healthRecordRepository.existsById(id)) {
-            throw new BadRequestAlertException("Entity not found", ENTITY_NAME, "idnotfound");
+        Optional<HealthRecordDTO> result;
+        try {
+            result = healthRecordService.partialUpdate(healthRecordDTO);
+        } catch (OptimisticLockingFailureException e) {
+            throw new VersionConflictException(ENTITY_NAME);
         }
 
-        Optional<HealthRecordDTO> result = healthRecordService.partialUpdate(healthRecordDTO);
-
         return ResponseUtil.wrapOrNotFound(
             result,
             HeaderUtil.createEntityUpdateAlert(applicationName, false, ENTITY_NAME, healthRecordDTO.getId().toString())
@@ -147,23 +185,71 @@ public class HealthRecordResource {
 
     /**
      * {@code GET  /health-records} : get all the healthRecords.
+     * <p>
+     * When the {@code after} parameter is present (empty for the first page), keyset pagination is used instead:
+     * the page number is ignored, no count is run and the next page is linked in the {@code Link} header. The sort can
+     * only reference non-null attributes, and must stay the same from one page to the next.
      *
      * @param pageable the pagination information.
      * @param criteria the criteria which the requested entities should match.
+     * @param after the cursor returned with the previous page, enables keyset pagination.
      * @return the {@link ResponseEntity} with status {@code 200 (OK)} and the list of healthRecords in body.
      */
     @GetMapping("")
     public ResponseEntity<List<HealthRecordDTO>> getAllHealthRecords(
         HealthRecordCriteria criteria,
-        @org.springdoc.core.annotations.ParameterObject Pageable pageable
+        @org.springdoc.core.annotations.ParameterObject Pageable pageable,
+        @RequestParam(value = CursorPaginationUtil.AFTER_PARAMETER, required = false) String after
     ) {
         LOG.debug("REST request to get HealthRecords by criteria: {}", criteria);
 
+        if (after != null) {
+            if (!keysetCursorCodec.isKeysetSort(pageable.getSort(), HealthRecord.class)) {
+                throw new BadRequestAlertException("Keyset pagination needs a sort on non-null attributes", ENTITY_NAME, "sortinvalid");
+            }
+            KeysetScrollPosition position = keysetCursorCodec
+                .decode(after, HealthRecord.class, pageable.getSort())
+                .orElseThrow(() -> new BadRequestAlertException("Invalid cursor", ENTITY_NAME, "cursorinvalid"));
+            Window<HealthRecordDTO> window = healthRecordQueryService.findByCriteria(criteria, position, pageable);
+            HttpHeaders headers = CursorPaginationUtil.generateCursorHttpHeaders(
+                ServletUriComponentsBuilder.fromCurrentRequest(),
+                keysetCursorCodec.nextCursor(window, pageable.getSort())
+            );
+            return ResponseEntity.ok().headers(headers).body(window.getContent());
+        }
+
         Page<HealthRecordDTO> page = healthRecordQueryService.findByCriteria(criteria, pageable);
         HttpHeaders headers = PaginationUtil.generatePaginationHttpHeaders(ServletUriComponentsBuilder.fromCurrentRequest(), page);
         return ResponseEntity.ok().headers(headers).body(page.getContent());
     }
 
+    /**
+     * {@code GET  /health-records/_export} : export all the health records matching the criteria, ordered by id.
+     * <p>
+     * The rows are streamed as NDJSON, or as CSV when the {@code Accept} header asks for {@code text/csv}.
+     *
+     * @param criteria the criteria which the exported entities should match.
+     * @param accept the {@code Accept} header.
+     * @param response the response the rows are written to.
+     * @throws IOException if the response can not be written.
+     */
+    @GetMapping("/_export")
+    public void exportHealthRecords(
+        HealthRecordCriteria criteria,
+        @RequestHeader(value = HttpHeaders.ACCEPT, required = false) String accept,
+        HttpServletResponse response
+    ) throws IOException {
+        LOG.debug("REST request to export HealthRecords by criteria: {}", criteria);
+        MediaType format = ExportService.negotiateFormat(accept);
+        response.setContentType(format.toString());
+        response.setCharacterEncoding("UTF-8");
+        response.setHeader(
+            HttpHeaders.CONTENT_DISPOSITION,
+            "attachment; filename=\"health-records." + (MediaType.APPLICATION_NDJSON.equals(format) ? "ndjson" : "csv") + "\""
+        );
+        healthRecordQueryService.exportByCriteria(criteria, format, response.getOutputStream());
+    }
+
     /**
      * {@code GET  /health-records/count} : count all the healthRecords.
      *
@@ -204,11 +290,48 @@ public class HealthRecordResource {
             .build();
     }
 
+    /**
+     * {@code GET  /health-records/pet/:petId} : get a page of the health records of a pet, the latest first.
+     *
+     * @param petId the id of the pet.
+     * @param after the cursor of the page, absent or empty for the first one.
+     * @param size the size of the page, capped at {@code application.pagination.max-page-size}.
+     * @return the {@link ResponseEntity} with status {@code 200 (OK)} and the page in body, with a {@code Link} header to
+     * the next one, or with status {@code 400 (Bad Request)} if the cursor is invalid.
+     */
     @GetMapping("/pet/{petId}")
-    public ResponseEntity<List<HealthRecordDTO>> getByPetId(@PathVariable Long petId) {
-        LOG.debug("REST request to get HealthRecords by petId : {}", petId);
-        List<HealthRecordDTO> records = healthRecordService.findByPetId(petId);
-        return ResponseEntity.ok(records);
+    public ResponseEntity<List<HealthRecordDTO>> getByPetId(
+        @PathVariable Long petId,
+        @RequestParam(value = CursorPaginationUtil.AFTER_PARAMETER, required = false) String after,
+        @RequestParam(value = "size", defaultValue = "20") int size
+    ) {
+        LOG.debug("REST request to get a page of HealthRecords by petId : {}", petId);
+        KeysetScrollPosition position = keysetCursorCodec
+            .decode(after, HealthRecord.class, HealthRecordQueryService.BY_TIME)
+            .orElseThrow(() -> new BadRequestAlertException("Invalid cursor", ENTITY_NAME, "cursorinvalid"));
+        Window<HealthRecordDTO> window = healthRecordQueryService.findByPetId(petId, position, size);
+        HttpHeaders headers = CursorPaginationUtil.generateCursorHttpHeaders(
+            ServletUriComponentsBuilder.fromCurrentRequest(),
+            keysetCursorCodec.nextCursor(window, HealthRecordQueryService.BY_TIME)
+        );
+        return ResponseEntity.ok().headers(headers).body(window.getContent());
+    }
+
+    /**
+     * {@code GET  /health-records/pet/:petId/_export} : export all the health records of a pet, the latest first.
+     * <p>
+     * The rows are streamed from the database as a JSON array, without being held in memory.
+     *
+     * @param petId the id of the pet.
+     * @param response the response the rows are written to.
+     * @throws IOException if the response can not be written.
+     */
+    @GetMapping("/pet/{petId}/_export")
+    public void exportByPetId(@PathVariable Long petId, HttpServletResponse response) throws IOException {
+        LOG.debug("REST request to export all HealthRecords by petId : {}", petId);
+        response.setContentType(MediaType.APPLICATION_JSON_VALUE);
+        response.setCharacterEncoding("UTF-8");
+        healthRecordQueryService.exportByPetId(petId, response.getOutputStream());
     }
 
     @GetMapping("/count/{ownerId}")
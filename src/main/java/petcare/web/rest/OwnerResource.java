@@ -0,0 +1,40 @@
+package petcare.web.rest;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.*;
+import petcare.service.OwnerDashboardService;
+import petcare.service.dto.OwnerDashboardDTO;
+import tech.jhipster.web.util.ResponseUtil;
+
+/**
+ * REST controller for the views aggregated around an owner ({@link petcare.domain.UserPet}).
+ */
+@RestController
+@RequestMapping("/api/owners")
+public class OwnerResource {
+
+    private static final Logger LOG = LoggerFactory.getLogger(OwnerResource.class);
+
+    private final OwnerDashboardService ownerDashboardService;
+
+    public OwnerResource(OwnerDashboardService ownerDashboardService) {
+        this.ownerDashboardService = ownerDashboardService;
+    }
+
+    /**
+     * {@code GET  /owners/:id/dashboard} : get the home screen of the "id" owner: the first page of its pets, its pet
+     * count, next appointments and health record count, in place of the separate pets, count, next appointments and
+     * days since created calls. The next pets are read with the {@code petsCursor} on {@code GET /pets/user/:id}.
+     *
+     * @param id the id of the owner.
+     * @return the {@link ResponseEntity} with status {@code 200 (OK)} and the dashboard in body, with the sections
+     * not read in time listed in {@code unavailable}, or with status {@code 404 (Not Found)} if the owner does not exist.
+     */
+    @GetMapping("/{id}/dashboard")
+    public ResponseEntity<OwnerDashboardDTO> getDashboard(@PathVariable("id") Long id) {
+        LOG.debug("REST request to get the dashboard of UserPet : {}", id);
+        return ResponseUtil.wrapOrNotFound(ownerDashboardService.getDashboard(id));
+    }
+}
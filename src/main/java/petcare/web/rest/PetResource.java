@@ -1,7 +1,10 @@
 package petcare.web.rest;
 
+import jakarta.servlet.http.HttpServletResponse;
 import jakarta.validation.Valid;
 import jakarta.validation.constraints.NotNull;
+import java.io.IOException;
+import java.io.InputStream;
 import java.net.URI;
 import java.net.URISyntaxException;
 import java.time.Instant;
@@ -12,21 +15,32 @@ import java.util.Optional;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import org.springframework.beans.factory.annotation.Value;
+import org.springframework.dao.OptimisticLockingFailureException;
+import org.springframework.data.domain.KeysetScrollPosition;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Slice;
+import org.springframework.data.domain.Window;
 import org.springframework.http.HttpHeaders;
+import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
 import org.springframework.web.servlet.support.ServletUriComponentsBuilder;
 import petcare.domain.Pet;
-import petcare.repository.PetRepository;
+import petcare.service.BulkIngestService;
+import petcare.service.KeysetCursorCodec;
 import petcare.service.PetQueryService;
 import petcare.service.PetService;
+import petcare.service.PetTimelineService;
 import petcare.service.UserPetService;
 import petcare.service.criteria.PetCriteria;
+import petcare.service.dto.BulkIngestReportDTO;
 import petcare.service.dto.PetDTO;
+import petcare.service.dto.PetTimelineEventDTO;
 import petcare.service.dto.UserPetDTO;
 import petcare.web.rest.errors.BadRequestAlertException;
+import petcare.web.rest.errors.VersionConflictException;
+import petcare.web.rest.util.CursorPaginationUtil;
 import tech.jhipster.web.util.HeaderUtil;
 import tech.jhipster.web.util.PaginationUtil;
 import tech.jhipster.web.util.ResponseUtil;
@@ -47,16 +61,26 @@ public class PetResource {
 
     private final PetService petService;
 
-    private final PetRepository petRepository;
-
     private final PetQueryService petQueryService;
+
+    private final KeysetCursorCodec keysetCursorCodec;
+
     private final UserPetService userPetService;
 
-    public PetResource(PetService petService, PetRepository petRepository, PetQueryService petQueryService, UserPetService userPetService) {
+    private final PetTimelineService petTimelineService;
+
+    public PetResource(
+        PetService petService,
+        PetQueryService petQueryService,
+        KeysetCursorCodec keysetCursorCodec,
+        UserPetService userPetService,
+        PetTimelineService petTimelineService
+    ) {
         this.petService = petService;
-        this.petRepository = petRepository;
         this.petQueryService = petQueryService;
+        this.keysetCursorCodec = keysetCursorCodec;
         this.userPetService = userPetService;
+        this.petTimelineService = petTimelineService;
     }
 
     /**
@@ -78,6 +102,25 @@ public class PetResource {
             .body(petDTO);
     }
 
+    /**
+     * {@code POST  /pets/_bulk} : Create pets in bulk.
+     * <p>
+     * The body is NDJSON (one petDTO per line) or CSV (a header line with the column names, then one row per line).
+     * Invalid rows are reported and skipped, the valid ones are created.
+     *
+     * @param contentType {@code application/x-ndjson} or {@code text/csv}.
+     * @param body the rows to create.
+     * @return the {@link ResponseEntity} with status {@code 200 (OK)} and with body the report of the created and rejected rows.
+     */
+    @PostMapping(value = "/_bulk", consumes = { MediaType.APPLICATION_NDJSON_VALUE, BulkIngestService.TEXT_CSV_VALUE })
+    public ResponseEntity<BulkIngestReportDTO> bulkCreatePets(
+        @RequestHeader(HttpHeaders.CONTENT_TYPE) MediaType contentType,
+        InputStream body
+    ) {
+        LOG.debug("REST request to create Pets in bulk : {}", contentType);
+        return ResponseEntity.ok(petService.ingest(body, contentType));
+    }
+
     /**
      * {@code PUT  /pets/:id} : Updates an existing pet.
      *
@@ -85,6 +128,8 @@ public class PetResource {
      * @param petDTO the petDTO to update.
      * @return the {@link ResponseEntity} with status {@code 200 (OK)} and with body the updated petDTO,
      * or with status {@code 400 (Bad Request)} if the petDTO is not valid,
+     * or with status {@code 404 (Not Found)} if the petDTO is not found,
+     * or with status {@code 409 (Conflict)} if the petDTO was updated since its version was read,
      * or with status {@code 500 (Internal Server Error)} if the petDTO couldn't be updated.
      * @throws URISyntaxException if the Location URI syntax is incorrect.
      */
@@ -99,14 +144,16 @@ public class PetResource {
             throw new BadRequestAlertException("Invalid ID", ENTITY_NAME, "idinvalid");
         }
 
-        if (!petRepository.existsById(id)) {
-            throw new BadRequestAlertException("Entity not found", ENTITY_NAME, "idnotfound");
+        Optional<PetDTO> result;
+        try {
+            result = petService.update(petDTO);
+        } catch (OptimisticLockingFailureException e) {
+            throw new VersionConflictException(ENTITY_NAME);
         }
-
-        petDTO = petService.update(petDTO);
-        return ResponseEntity.ok()
-            .headers(HeaderUtil.createEntityUpdateAlert(applicationName, false, ENTITY_NAME, petDTO.getId().toString()))
-            .body(petDTO);
+        return ResponseUtil.wrapOrNotFound(
+            result,
+            HeaderUtil.createEntityUpdateAlert(applicationName, false, ENTITY_NAME, petDTO.getId().toString())
+        );
     }
 
     /**
@@ -117,6 +164,7 @@ public class PetResource {
      * @return the {@link ResponseEntity} with status {@code 200 (OK)} and with body the updated petDTO,
      * or with status {@code 400 (Bad Request)} if the petDTO is not valid,
      * or with status {@code 404 (Not Found)} if the petDTO is not found,
+     * or with status {@code 409 (Conflict)} if the petDTO was updated since its version was read,
      * or with status {@code 500 (Internal Server Error)} if the petDTO couldn't be updated.
      * @throws URISyntaxException if the Location URI syntax is incorrect.
      */
@@ -133,12 +181,13 @@ public class PetResource {
             throw new BadRequestAlertException("Invalid ID", ENTITY_NAME, "idinvalid");
         }
 
-        if (!petRepository.existsById(id)) {
-            throw new BadRequestAlertException("Entity not found", ENTITY_NAME, "idnotfound");
+        Optional<PetDTO> result;
+        try {
+            result = petService.partialUpdate(petDTO);
+        } catch (OptimisticLockingFailureException e) {
+            throw new VersionConflictException(ENTITY_NAME);
         }
 
-        Optional<PetDTO> result = petService.partialUpdate(petDTO);
-
         return ResponseUtil.wrapOrNotFound(
             result,
             HeaderUtil.createEntityUpdateAlert(applicationName, false, ENTITY_NAME, petDTO.getId().toString())
@@ -147,18 +196,39 @@ public class PetResource {
 
     /**
      * {@code GET  /pets} : get all the pets.
+     * <p>
+     * When the {@code after} parameter is present (empty for the first page), keyset pagination is used instead:
+     * the page number is ignored, no count is run and the next page is linked in the {@code Link} header. The sort can
+     * only reference non-null attributes, and must stay the same from one page to the next.
      *
      * @param pageable the pagination information.
      * @param criteria the criteria which the requested entities should match.
+     * @param after the cursor returned with the previous page, enables keyset pagination.
      * @return the {@link ResponseEntity} with status {@code 200 (OK)} and the list of pets in body.
      */
     @GetMapping("")
     public ResponseEntity<List<PetDTO>> getAllPets(
         PetCriteria criteria,
-        @org.springdoc.core.annotations.ParameterObject Pageable pageable
+        @org.springdoc.core.annotations.ParameterObject Pageable pageable,
+        @RequestParam(value = CursorPaginationUtil.AFTER_PARAMETER, required = false) String after
     ) {
         LOG.debug("REST request to get Pets by criteria: {}", criteria);
 
+        if (after != null) {
+            if (!keysetCursorCodec.isKeysetSort(pageable.getSort(), Pet.class)) {
+                throw new BadRequestAlertException("Keyset pagination needs a sort on non-null attributes", ENTITY_NAME, "sortinvalid");
+            }
+            KeysetScrollPosition position = keysetCursorCodec
+                .decode(after, Pet.class, pageable.getSort())
+                .orElseThrow(() -> new BadRequestAlertException("Invalid cursor", ENTITY_NAME, "cursorinvalid"));
+            Window<PetDTO> window = petQueryService.findByCriteria(criteria, position, pageable);
+            HttpHeaders headers = CursorPaginationUtil.generateCursorHttpHeaders(
+                ServletUriComponentsBuilder.fromCurrentRequest(),
+                keysetCursorCodec.nextCursor(window, pageable.getSort())
+            );
+            return ResponseEntity.ok().headers(headers).body(window.getContent());
+        }
+
         Page<PetDTO> page = petQueryService.findByCriteria(criteria, pageable);
         HttpHeaders headers = PaginationUtil.generatePaginationHttpHeaders(ServletUriComponentsBuilder.fromCurrentRequest(), page);
         return ResponseEntity.ok().headers(headers).body(page.getContent());
@@ -189,6 +259,38 @@ public class PetResource {
         return ResponseUtil.wrapOrNotFound(petDTO);
     }
 
+    /**
+     * {@code GET  /pets/:id/timeline} : get the latest appointments and health records of the "id" pet, merged by time.
+     *
+     * @param id the id of the pet.
+     * @param before the {@code time,type,id} cursor of the last event of the previous page, to get the older ones.
+     * @param limit the number of events, capped at {@code application.pagination.max-page-size}.
+     * @return the {@link ResponseEntity} with status {@code 200 (OK)} and the events, the latest first, in body, with a
+     * {@code Link} header to the older ones, or with status {@code 400 (Bad Request)} if the cursor is malformed, or
+     * with status {@code 404 (Not Found)}.
+     */
+    @GetMapping("/{id}/timeline")
+    public ResponseEntity<List<PetTimelineEventDTO>> getPetTimeline(
+        @PathVariable("id") Long id,
+        @RequestParam(value = CursorPaginationUtil.BEFORE_PARAMETER, required = false) String before,
+        @RequestParam(value = "limit", defaultValue = "20") int limit
+    ) {
+        LOG.debug("REST request to get the timeline of Pet : {}, before: {}", id, before);
+        PetTimelineService.Cursor cursor = before == null || before.isBlank()
+            ? null
+            : PetTimelineService.Cursor.decode(before)
+                .orElseThrow(() -> new BadRequestAlertException("Invalid cursor", ENTITY_NAME, "cursorinvalid"));
+        Optional<Slice<PetTimelineEventDTO>> timeline = petTimelineService.findTimeline(id, cursor, limit);
+        HttpHeaders headers = CursorPaginationUtil.generateCursorHttpHeaders(
+            ServletUriComponentsBuilder.fromCurrentRequest(),
+            CursorPaginationUtil.BEFORE_PARAMETER,
+            timeline
+                .filter(Slice::hasNext)
+                .map(events -> PetTimelineService.Cursor.of(events.getContent().get(events.getNumberOfElements() - 1)).encode())
+        );
+        return ResponseUtil.wrapOrNotFound(timeline.map(Slice::getContent), headers);
+    }
+
     /**
      * {@code DELETE  /pets/:id} : delete the "id" pet.
      *
@@ -204,13 +306,48 @@ public class PetResource {
             .build();
     }
 
+    /**
+     * {@code GET  /pets/user/:userId} : get a page of the pets of an owner, the latest first.
+     *
+     * @param userId the id of the owner.
+     * @param after the cursor of the page, absent or empty for the first one.
+     * @param size the size of the page, capped at {@code application.pagination.max-page-size}.
+     * @return the {@link ResponseEntity} with status {@code 200 (OK)} and the page in body, with a {@code Link} header to
+     * the next one, or with status {@code 400 (Bad Request)} if the cursor is invalid.
+     */
     @GetMapping("/user/{userId}")
-    public ResponseEntity<List<PetDTO>> getPetsByUserId(@PathVariable Long userId) {
-        LOG.debug("REST request to get all Pets by User ID: {}", userId);
-
-        List<PetDTO> pets = petService.findByOwnerId(userId);
+    public ResponseEntity<List<PetDTO>> getPetsByUserId(
+        @PathVariable Long userId,
+        @RequestParam(value = CursorPaginationUtil.AFTER_PARAMETER, required = false) String after,
+        @RequestParam(value = "size", defaultValue = "20") int size
+    ) {
+        LOG.debug("REST request to get a page of Pets by User ID: {}", userId);
+        KeysetScrollPosition position = keysetCursorCodec
+            .decode(after, Pet.class, PetQueryService.BY_TIME)
+            .orElseThrow(() -> new BadRequestAlertException("Invalid cursor", ENTITY_NAME, "cursorinvalid"));
+        Window<PetDTO> window = petQueryService.findByOwnerId(userId, position, size);
+        HttpHeaders headers = CursorPaginationUtil.generateCursorHttpHeaders(
+            ServletUriComponentsBuilder.fromCurrentRequest(),
+            keysetCursorCodec.nextCursor(window, PetQueryService.BY_TIME)
+        );
+        return ResponseEntity.ok().headers(headers).body(window.getContent());
+    }
 
-        return ResponseEntity.ok().body(pets);
+    /**
+     * {@code GET  /pets/user/:userId/_export} : export all the pets of an owner, the latest first.
+     * <p>
+     * The rows are streamed from the database as a JSON array, without being held in memory.
+     *
+     * @param userId the id of the owner.
+     * @param response the response the rows are written to.
+     * @throws IOException if the response can not be written.
+     */
+    @GetMapping("/user/{userId}/_export")
+    public void exportPetsByUserId(@PathVariable Long userId, HttpServletResponse response) throws IOException {
+        LOG.debug("REST request to export all Pets by User ID: {}", userId);
+        response.setContentType(MediaType.APPLICATION_JSON_VALUE);
+        response.setCharacterEncoding("UTF-8");
+        petQueryService.exportByOwnerId(userId, response.getOutputStream());
     }
 
     @GetMapping("ids")
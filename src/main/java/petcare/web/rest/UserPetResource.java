@@ -1,29 +1,47 @@
 package petcare.web.rest;
 
+import jakarta.servlet.http.HttpServletRequest;
 import jakarta.validation.Valid;
 import jakarta.validation.constraints.NotNull;
 import java.net.URI;
 import java.net.URISyntaxException;
+import java.time.Duration;
 import java.time.Instant;
 import java.util.*;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import org.springframework.beans.factory.annotation.Value;
+import org.springframework.dao.OptimisticLockingFailureException;
+import org.springframework.data.domain.KeysetScrollPosition;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Window;
 import org.springframework.http.HttpHeaders;
 import org.springframework.http.ResponseEntity;
-import org.springframework.security.crypto.password.PasswordEncoder;
 import org.springframework.web.bind.annotation.*;
 import org.springframework.web.servlet.support.ServletUriComponentsBuilder;
+import petcare.config.ApplicationProperties;
 import petcare.domain.UserPet;
 import petcare.repository.UserPetRepository;
+import petcare.service.KeysetCursorCodec;
+import petcare.service.LoginThrottleService;
+import petcare.service.LoginThrottledException;
+import petcare.service.PasswordHashingBusyException;
+import petcare.service.PasswordHashingService;
 import petcare.service.UserPetQueryService;
 import petcare.service.UserPetService;
 import petcare.service.criteria.UserPetCriteria;
 import petcare.service.dto.LoginRequest;
+import petcare.service.dto.TokenDTO;
 import petcare.service.dto.UserPetDTO;
+import petcare.service.token.TokenPrincipal;
+import petcare.service.token.TokenService;
 import petcare.web.rest.errors.BadRequestAlertException;
+import petcare.web.rest.errors.InvalidTokenException;
+import petcare.web.rest.errors.ServerBusyException;
+import petcare.web.rest.errors.TooManyLoginAttemptsException;
+import petcare.web.rest.errors.VersionConflictException;
+import petcare.web.rest.util.CursorPaginationUtil;
 import tech.jhipster.web.util.HeaderUtil;
 import tech.jhipster.web.util.PaginationUtil;
 import tech.jhipster.web.util.ResponseUtil;
@@ -48,18 +66,34 @@ public class UserPetResource {
 
     private final UserPetQueryService userPetQueryService;
 
-    private final PasswordEncoder passwordEncoder;
+    private final KeysetCursorCodec keysetCursorCodec;
+
+    private final PasswordHashingService passwordHashingService;
+
+    private final LoginThrottleService loginThrottleService;
+
+    private final TokenService tokenService;
+
+    private final Duration retryAfter;
 
     public UserPetResource(
         UserPetService userPetService,
         UserPetRepository userPetRepository,
         UserPetQueryService userPetQueryService,
-        PasswordEncoder passwordEncoder
+        KeysetCursorCodec keysetCursorCodec,
+        PasswordHashingService passwordHashingService,
+        LoginThrottleService loginThrottleService,
+        TokenService tokenService,
+        ApplicationProperties applicationProperties
     ) {
         this.userPetService = userPetService;
         this.userPetRepository = userPetRepository;
         this.userPetQueryService = userPetQueryService;
-        this.passwordEncoder = passwordEncoder;
+        this.keysetCursorCodec = keysetCursorCodec;
+        this.passwordHashingService = passwordHashingService;
+        this.loginThrottleService = loginThrottleService;
+        this.tokenService = tokenService;
+        this.retryAfter = applicationProperties.getPassword().getRetryAfter();
     }
 
     /**
@@ -88,6 +122,8 @@ public class UserPetResource {
      * @param userPetDTO the userPetDTO to update.
      * @return the {@link ResponseEntity} with status {@code 200 (OK)} and with body the updated userPetDTO,
      * or with status {@code 400 (Bad Request)} if the userPetDTO is not valid,
+     * or with status {@code 404 (Not Found)} if the userPetDTO is not found,
+     * or with status {@code 409 (Conflict)} if the userPetDTO was updated since its version was read,
      * or with status {@code 500 (Internal Server Error)} if the userPetDTO couldn't be updated.
      * @throws URISyntaxException if the Location URI syntax is incorrect.
      */
@@ -104,14 +140,16 @@ public class UserPetResource {
             throw new BadRequestAlertException("Invalid ID", ENTITY_NAME, "idinvalid");
         }
 
-        if (!userPetRepository.existsById(id)) {
-            throw new BadRequestAlertException("Entity not found", ENTITY_NAME, "idnotfound");
+        Optional<UserPetDTO> result;
+        try {
+            result = userPetService.update(userPetDTO);
+        } catch (OptimisticLockingFailureException e) {
+            throw new VersionConflictException(ENTITY_NAME);
         }
-
-        userPetDTO = userPetService.update(userPetDTO);
-        return ResponseEntity.ok()
-            .headers(HeaderUtil.createEntityUpdateAlert(applicationName, false, ENTITY_NAME, userPetDTO.getId().toString()))
-            .body(userPetDTO);
+        return ResponseUtil.wrapOrNotFound(
+            result,
+            HeaderUtil.createEntityUpdateAlert(applicationName, false, ENTITY_NAME, userPetDTO.getId().toString())
+        );
     }
 
     /**
@@ -122,6 +160,7 @@ public class UserPetResource {
      * @return the {@link ResponseEntity} with status {@code 200 (OK)} and with body the updated userPetDTO,
      * or with status {@code 400 (Bad Request)} if the userPetDTO is not valid,
      * or with status {@code 404 (Not Found)} if the userPetDTO is not found,
+     * or with status {@code 409 (Conflict)} if the userPetDTO was updated since its version was read,
      * or with status {@code 500 (Internal Server Error)} if the userPetDTO couldn't be updated.
      * @throws URISyntaxException if the Location URI syntax is incorrect.
      */
@@ -138,12 +177,13 @@ public class UserPetResource {
             throw new BadRequestAlertException("Invalid ID", ENTITY_NAME, "idinvalid");
         }
 
-        if (!userPetRepository.existsById(id)) {
-            throw new BadRequestAlertException("Entity not found", ENTITY_NAME, "idnotfound");
+        Optional<UserPetDTO> result;
+        try {
+            result = userPetService.partialUpdate(userPetDTO);
+        } catch (OptimisticLockingFailureException e) {
+            throw new VersionConflictException(ENTITY_NAME);
         }
 
-        Optional<UserPetDTO> result = userPetService.partialUpdate(userPetDTO);
-
         return ResponseUtil.wrapOrNotFound(
             result,
             HeaderUtil.createEntityUpdateAlert(applicationName, false, ENTITY_NAME, userPetDTO.getId().toString())
@@ -152,18 +192,39 @@ public class UserPetResource {
 
     /**
      * {@code GET  /user-pets} : get all the userPets.
+     * <p>
+     * When the {@code after} parameter is present (empty for the first page), keyset pagination is used instead:
+     * the page number is ignored, no count is run and the next page is linked in the {@code Link} header. The sort can
+     * only reference non-null attributes, and must stay the same from one page to the next.
      *
      * @param pageable the pagination information.
      * @param criteria the criteria which the requested entities should match.
+     * @param after the cursor returned with the previous page, enables keyset pagination.
      * @return the {@link ResponseEntity} with status {@code 200 (OK)} and the list of userPets in body.
      */
     @GetMapping("")
     public ResponseEntity<List<UserPetDTO>> getAllUserPets(
         UserPetCriteria criteria,
-        @org.springdoc.core.annotations.ParameterObject Pageable pageable
+        @org.springdoc.core.annotations.ParameterObject Pageable pageable,
+        @RequestParam(value = CursorPaginationUtil.AFTER_PARAMETER, required = false) String after
     ) {
         LOG.debug("REST request to get UserPets by criteria: {}", criteria);
 
+        if (after != null) {
+            if (!keysetCursorCodec.isKeysetSort(pageable.getSort(), UserPet.class)) {
+                throw new BadRequestAlertException("Keyset pagination needs a sort on non-null attributes", ENTITY_NAME, "sortinvalid");
+            }
+            KeysetScrollPosition position = keysetCursorCodec
+                .decode(after, UserPet.class, pageable.getSort())
+                .orElseThrow(() -> new BadRequestAlertException("Invalid cursor", ENTITY_NAME, "cursorinvalid"));
+            Window<UserPetDTO> window = userPetQueryService.findByCriteria(criteria, position, pageable);
+            HttpHeaders headers = CursorPaginationUtil.generateCursorHttpHeaders(
+                ServletUriComponentsBuilder.fromCurrentRequest(),
+                keysetCursorCodec.nextCursor(window, pageable.getSort())
+            );
+            return ResponseEntity.ok().headers(headers).body(window.getContent());
+        }
+
         Page<UserPetDTO> page = userPetQueryService.findByCriteria(criteria, pageable);
         HttpHeaders headers = PaginationUtil.generatePaginationHttpHeaders(ServletUriComponentsBuilder.fromCurrentRequest(), page);
         return ResponseEntity.ok().headers(headers).body(page.getContent());
@@ -203,6 +264,7 @@ public class UserPetResource {
     @DeleteMapping("/{id}")
     public ResponseEntity<Void> deleteUserPet(@PathVariable("id") Long id) {
         LOG.debug("REST request to delete UserPet : {}", id);
+        tokenService.revokeAll(id);
         userPetService.delete(id);
         return ResponseEntity.noContent()
             .headers(HeaderUtil.createEntityDeletionAlert(applicationName, false, ENTITY_NAME, id.toString()))
@@ -218,7 +280,7 @@ public class UserPetResource {
         }
 
         // Mã hóa password trước khi lưu
-        userPetDTO.setPasswordHash(passwordEncoder.encode(userPetDTO.getPasswordHash()));
+        userPetDTO.setPasswordHash(encode(userPetDTO.getPasswordHash()));
 
         userPetDTO.setCreatedAt(Instant.now());
 
@@ -231,9 +293,15 @@ public class UserPetResource {
 
     // ================= LOGIN =================
     @PostMapping("/login")
-    public ResponseEntity<Map<String, Object>> login(@RequestBody LoginRequest loginRequest) {
+    public ResponseEntity<Map<String, Object>> login(@RequestBody LoginRequest loginRequest, HttpServletRequest request) {
         LOG.debug("REST request to login UserPet : {}", loginRequest.getEmail());
 
+        try {
+            loginThrottleService.acquire(loginRequest.getEmail(), request.getRemoteAddr());
+        } catch (LoginThrottledException e) {
+            throw new TooManyLoginAttemptsException(e.getRetryAfter());
+        }
+
         Optional<UserPet> userOpt = userPetRepository.findByEmail(loginRequest.getEmail());
 
         if (userOpt.isEmpty()) {
@@ -242,10 +310,12 @@ public class UserPetResource {
 
         UserPet userPet = userOpt.get();
 
-        if (!passwordEncoder.matches(loginRequest.getPassword(), userPet.getPasswordHash())) {
+        if (!matches(loginRequest.getPassword(), userPet.getPasswordHash())) {
             return ResponseEntity.badRequest().body(Map.of("error", "Sai mật khẩu!"));
         }
 
+        TokenDTO tokens = tokenService.issue(userPet, request.getRemoteAddr(), request.getHeader(HttpHeaders.USER_AGENT));
+
         Map<String, Object> result = new HashMap<>();
         result.put("id", userPet.getId());
         result.put("name", userPet.getName());
@@ -255,10 +325,67 @@ public class UserPetResource {
         result.put("avatar", userPet.getAvatar());
         result.put("createdAt", userPet.getCreatedAt());
         result.put("message", "Đăng nhập thành công!");
+        result.put("accessToken", tokens.getAccessToken());
+        result.put("refreshToken", tokens.getRefreshToken());
+        result.put("tokenType", tokens.getTokenType());
+        result.put("expiresIn", tokens.getExpiresIn());
 
         return ResponseEntity.ok(result);
     }
 
+    /**
+     * {@code POST  /user-pets/refresh} : exchange the refresh token of a session for new tokens.
+     *
+     * @param request the {@code refreshToken} returned by the login or the previous refresh.
+     * @return the {@link ResponseEntity} with status {@code 200 (OK)} and the new tokens in body,
+     * or with status {@code 401 (Unauthorized)} if the refresh token is invalid, expired, already used or revoked.
+     */
+    @PostMapping("/refresh")
+    public ResponseEntity<TokenDTO> refresh(@RequestBody Map<String, String> request) {
+        String refreshToken = request.get("refreshToken");
+        if (refreshToken == null || refreshToken.isEmpty()) {
+            throw new InvalidTokenException();
+        }
+        try {
+            return ResponseEntity.ok(tokenService.refresh(refreshToken));
+        } catch (petcare.service.token.InvalidTokenException e) {
+            throw new InvalidTokenException();
+        }
+    }
+
+    /**
+     * {@code POST  /user-pets/logout} : revoke the session of the access token.
+     *
+     * @param principal the user authenticated by the {@code Authorization} header.
+     * @return the {@link ResponseEntity} with status {@code 204 (NO_CONTENT)},
+     * or with status {@code 401 (Unauthorized)} without access token.
+     */
+    @PostMapping("/logout")
+    public ResponseEntity<Void> logout(TokenPrincipal principal) {
+        if (principal == null) {
+            throw new InvalidTokenException();
+        }
+        LOG.debug("REST request to logout UserPet : {}", principal.userId());
+        tokenService.revoke(principal.series());
+        return ResponseEntity.noContent().build();
+    }
+
+    private String encode(String rawPassword) {
+        try {
+            return passwordHashingService.encode(rawPassword);
+        } catch (PasswordHashingBusyException e) {
+            throw new ServerBusyException(retryAfter);
+        }
+    }
+
+    private boolean matches(String rawPassword, String encodedPassword) {
+        try {
+            return passwordHashingService.matches(rawPassword, encodedPassword);
+        } catch (PasswordHashingBusyException e) {
+            throw new ServerBusyException(retryAfter);
+        }
+    }
+
     @PatchMapping("/{id}/avatar")
     public ResponseEntity<UserPetDTO> updateUserAvatar(@PathVariable Long id, @RequestBody Map<String, String> request) {
         LOG.debug("REST request to update UserPet avatar : {}", id);
@@ -268,18 +395,21 @@ public class UserPetResource {
             throw new BadRequestAlertException("Avatar cannot be empty", ENTITY_NAME, "avatarnull");
         }
 
-        Optional<UserPetDTO> userPetOpt = userPetService.findOne(id);
-        if (userPetOpt.isEmpty()) {
-            throw new BadRequestAlertException("Entity not found", ENTITY_NAME, "idnotfound");
-        }
-
-        UserPetDTO userPetDTO = userPetOpt.get();
+        // Only the avatar is set: a single read and an update of its column
+        UserPetDTO userPetDTO = new UserPetDTO();
+        userPetDTO.setId(id);
         userPetDTO.setAvatar(avatar);
-
-        userPetDTO = userPetService.update(userPetDTO);
+        UserPetDTO result;
+        try {
+            result = userPetService
+                .partialUpdate(userPetDTO)
+                .orElseThrow(() -> new BadRequestAlertException("Entity not found", ENTITY_NAME, "idnotfound"));
+        } catch (OptimisticLockingFailureException e) {
+            throw new VersionConflictException(ENTITY_NAME);
+        }
 
         return ResponseEntity.ok()
-            .headers(HeaderUtil.createEntityUpdateAlert(applicationName, false, ENTITY_NAME, userPetDTO.getId().toString()))
-            .body(userPetDTO);
+            .headers(HeaderUtil.createEntityUpdateAlert(applicationName, false, ENTITY_NAME, result.getId().toString()))
+            .body(result);
     }
 }
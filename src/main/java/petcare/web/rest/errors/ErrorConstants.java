@@ -12,6 +12,12 @@ public final class ErrorConstants {
     public static final URI INVALID_PASSWORD_TYPE = URI.create(PROBLEM_BASE_URL + "/invalid-password");
     public static final URI EMAIL_ALREADY_USED_TYPE = URI.create(PROBLEM_BASE_URL + "/email-already-used");
     public static final URI LOGIN_ALREADY_USED_TYPE = URI.create(PROBLEM_BASE_URL + "/login-already-used");
+    public static final URI SLOT_ALREADY_BOOKED_TYPE = URI.create(PROBLEM_BASE_URL + "/slot-already-booked");
+    public static final URI TOO_MANY_LOGIN_ATTEMPTS_TYPE = URI.create(PROBLEM_BASE_URL + "/too-many-login-attempts");
+    public static final URI SERVER_BUSY_TYPE = URI.create(PROBLEM_BASE_URL + "/server-busy");
+    public static final URI INVALID_TOKEN_TYPE = URI.create(PROBLEM_BASE_URL + "/invalid-token");
+    public static final URI VERSION_CONFLICT_TYPE = URI.create(PROBLEM_BASE_URL + "/version-conflict");
+    public static final URI STATUS_CONFLICT_TYPE = URI.create(PROBLEM_BASE_URL + "/status-conflict");
 
     private ErrorConstants() {}
 }
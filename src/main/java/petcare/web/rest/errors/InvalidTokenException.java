@@ -0,0 +1,26 @@
+package petcare.web.rest.errors;
+
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.web.ErrorResponseException;
+import tech.jhipster.web.rest.errors.ProblemDetailWithCause.ProblemDetailWithCauseBuilder;
+
+@SuppressWarnings("java:S110") // Inheritance tree of classes should not be too deep
+public class InvalidTokenException extends ErrorResponseException {
+
+    private static final long serialVersionUID = 1L;
+
+    public InvalidTokenException() {
+        super(
+            HttpStatus.UNAUTHORIZED,
+            ProblemDetailWithCauseBuilder.instance()
+                .withStatus(HttpStatus.UNAUTHORIZED.value())
+                .withType(ErrorConstants.INVALID_TOKEN_TYPE)
+                .withTitle("Invalid, expired or revoked token!")
+                .withProperty("message", "error.invalidtoken")
+                .build(),
+            null
+        );
+        getHeaders().set(HttpHeaders.WWW_AUTHENTICATE, "Bearer error=\"invalid_token\"");
+    }
+}
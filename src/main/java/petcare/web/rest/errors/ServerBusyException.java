@@ -0,0 +1,34 @@
+package petcare.web.rest.errors;
+
+import java.time.Duration;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.web.ErrorResponseException;
+import tech.jhipster.web.rest.errors.ProblemDetailWithCause.ProblemDetailWithCauseBuilder;
+
+@SuppressWarnings("java:S110") // Inheritance tree of classes should not be too deep
+public class ServerBusyException extends ErrorResponseException {
+
+    private static final long serialVersionUID = 1L;
+
+    public ServerBusyException(Duration retryAfter) {
+        super(
+            HttpStatus.SERVICE_UNAVAILABLE,
+            ProblemDetailWithCauseBuilder.instance()
+                .withStatus(HttpStatus.SERVICE_UNAVAILABLE.value())
+                .withType(ErrorConstants.SERVER_BUSY_TYPE)
+                .withTitle("The server is busy, retry later!")
+                .withProperty("message", "error.serverbusy")
+                .build(),
+            null
+        );
+        getHeaders().set(HttpHeaders.RETRY_AFTER, seconds(retryAfter));
+    }
+
+    /**
+     * @return the {@code Retry-After} header value of a delay, in whole seconds rounded up.
+     */
+    static String seconds(Duration retryAfter) {
+        return Long.toString(Math.max(1, (retryAfter.toMillis() + 999) / 1000));
+    }
+}
@@ -0,0 +1,25 @@
+package petcare.web.rest.errors;
+
+import org.springframework.http.HttpStatus;
+import org.springframework.web.ErrorResponseException;
+import tech.jhipster.web.rest.errors.ProblemDetailWithCause.ProblemDetailWithCauseBuilder;
+
+@SuppressWarnings("java:S110") // Inheritance tree of classes should not be too deep
+public class SlotConflictException extends ErrorResponseException {
+
+    private static final long serialVersionUID = 1L;
+
+    public SlotConflictException(String entityName) {
+        super(
+            HttpStatus.CONFLICT,
+            ProblemDetailWithCauseBuilder.instance()
+                .withStatus(HttpStatus.CONFLICT.value())
+                .withType(ErrorConstants.SLOT_ALREADY_BOOKED_TYPE)
+                .withTitle("The appointment slot is already booked!")
+                .withProperty("message", "error.slotbooked")
+                .withProperty("params", entityName)
+                .build(),
+            null
+        );
+    }
+}
@@ -0,0 +1,25 @@
+package petcare.web.rest.errors;
+
+import org.springframework.http.HttpStatus;
+import org.springframework.web.ErrorResponseException;
+import tech.jhipster.web.rest.errors.ProblemDetailWithCause.ProblemDetailWithCauseBuilder;
+
+@SuppressWarnings("java:S110") // Inheritance tree of classes should not be too deep
+public class StatusConflictException extends ErrorResponseException {
+
+    private static final long serialVersionUID = 1L;
+
+    public StatusConflictException(String entityName) {
+        super(
+            HttpStatus.CONFLICT,
+            ProblemDetailWithCauseBuilder.instance()
+                .withStatus(HttpStatus.CONFLICT.value())
+                .withType(ErrorConstants.STATUS_CONFLICT_TYPE)
+                .withTitle("The appointment can not move to this status from its current one!")
+                .withProperty("message", "error.statusconflict")
+                .withProperty("params", entityName)
+                .build(),
+            null
+        );
+    }
+}
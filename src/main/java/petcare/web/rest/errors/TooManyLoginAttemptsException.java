@@ -0,0 +1,27 @@
+package petcare.web.rest.errors;
+
+import java.time.Duration;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.web.ErrorResponseException;
+import tech.jhipster.web.rest.errors.ProblemDetailWithCause.ProblemDetailWithCauseBuilder;
+
+@SuppressWarnings("java:S110") // Inheritance tree of classes should not be too deep
+public class TooManyLoginAttemptsException extends ErrorResponseException {
+
+    private static final long serialVersionUID = 1L;
+
+    public TooManyLoginAttemptsException(Duration retryAfter) {
+        super(
+            HttpStatus.TOO_MANY_REQUESTS,
+            ProblemDetailWithCauseBuilder.instance()
+                .withStatus(HttpStatus.TOO_MANY_REQUESTS.value())
+                .withType(ErrorConstants.TOO_MANY_LOGIN_ATTEMPTS_TYPE)
+                .withTitle("Too many login attempts!")
+                .withProperty("message", "error.toomanyloginattempts")
+                .build(),
+            null
+        );
+        getHeaders().set(HttpHeaders.RETRY_AFTER, ServerBusyException.seconds(retryAfter));
+    }
+}
@@ -0,0 +1,25 @@
+package petcare.web.rest.errors;
+
+import org.springframework.http.HttpStatus;
+import org.springframework.web.ErrorResponseException;
+import tech.jhipster.web.rest.errors.ProblemDetailWithCause.ProblemDetailWithCauseBuilder;
+
+@SuppressWarnings("java:S110") // Inheritance tree of classes should not be too deep
+public class VersionConflictException extends ErrorResponseException {
+
+    private static final long serialVersionUID = 1L;
+
+    public VersionConflictException(String entityName) {
+        super(
+            HttpStatus.CONFLICT,
+            ProblemDetailWithCauseBuilder.instance()
+                .withStatus(HttpStatus.CONFLICT.value())
+                .withType(ErrorConstants.VERSION_CONFLICT_TYPE)
+                .withTitle("The entity was changed since it was read!")
+                .withProperty("message", ErrorConstants.ERR_CONCURRENCY_FAILURE)
+                .withProperty("params", entityName)
+                .build(),
+            null
+        );
+    }
+}
@@ -0,0 +1,51 @@
+package petcare.web.rest.util;
+
+import java.util.Optional;
+import org.springframework.http.HttpHeaders;
+import org.springframework.web.util.UriComponentsBuilder;
+
+/**
+ * Utility class for handling keyset (cursor) pagination.
+ * <p>
+ * Unlike {@link tech.jhipster.web.util.PaginationUtil}, no {@code X-Total-Count} header is generated, so that
+ * cursor pages never trigger a count query. The next page is advertised with a {@code Link} header following
+ * <a href="https://tools.ietf.org/html/rfc5988">RFC 5988 (Link header)</a>.
+ */
+public final class CursorPaginationUtil {
+
+    public static final String AFTER_PARAMETER = "after";
+
+    public static final String BEFORE_PARAMETER = "before";
+
+    private static final String HEADER_LINK_FORMAT = "<%s>; rel=\"%s\"";
+
+    private CursorPaginationUtil() {}
+
+    /**
+     * Generate the pagination headers for a keyset window.
+     *
+     * @param uriBuilder the URI builder of the current request.
+     * @param nextCursor the cursor of the next window, empty if there is none.
+     * @return http header.
+     */
+    public static HttpHeaders generateCursorHttpHeaders(UriComponentsBuilder uriBuilder, Optional<String> nextCursor) {
+        return generateCursorHttpHeaders(uriBuilder, AFTER_PARAMETER, nextCursor);
+    }
+
+    /**
+     * Generate the pagination headers for a window whose cursor is sent in another parameter than {@code after}.
+     *
+     * @param uriBuilder the URI builder of the current request.
+     * @param parameter the query parameter of the cursor.
+     * @param nextCursor the cursor of the next window, empty if there is none.
+     * @return http header.
+     */
+    public static HttpHeaders generateCursorHttpHeaders(UriComponentsBuilder uriBuilder, String parameter, Optional<String> nextCursor) {
+        HttpHeaders headers = new HttpHeaders();
+        nextCursor.ifPresent(cursor -> {
+            String link = uriBuilder.replaceQueryParam("page").replaceQueryParam(parameter, cursor).toUriString();
+            headers.add(HttpHeaders.LINK, String.format(HEADER_LINK_FORMAT, link, "next"));
+        });
+        return headers;
+    }
+}
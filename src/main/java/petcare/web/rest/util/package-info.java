@@ -0,0 +1,4 @@
+/**
+ * Rest layer utilities.
+ */
+package petcare.web.rest.util;
@@ -0,0 +1,88 @@
+package petcare.config;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+import ch.qos.logback.classic.spi.ILoggingEvent;
+import java.util.List;
+import org.junit.jupiter.api.Test;
+import org.slf4j.MarkerFactory;
+import org.springframework.boot.ansi.AnsiColor;
+import org.springframework.boot.ansi.AnsiOutput;
+
+/**
+ * Unit tests for the character scan of {@link CRLFLogConverter}, against the regular expression it replaces.
+ */
+class CRLFLogConverterTest {
+
+    private static final List<String> MESSAGES = List.of(
+        "",
+        "clean message",
+        "\n",
+        "\r\n",
+        "forged\r\n2026-10-18 INFO admin logged in",
+        "\tleading and trailing\n",
+        "a\n\n\nb",
+        "été\rthú cưng\t"
+    );
+
+    @Test
+    void shouldReplaceLikeTheRegularExpression() {
+        CRLFLogConverter converter = new CRLFLogConverter();
+        ILoggingEvent event = event("petcare.web.rest.PetResource");
+
+        for (String message : MESSAGES) {
+            assertThat(converter.transform(event, message)).isEqualTo(message.replaceAll("[\n\r\t]", "_"));
+        }
+    }
+
+    @Test
+    void shouldReturnACleanMessageAsIs() {
+        CRLFLogConverter converter = new CRLFLogConverter();
+        String message = "clean message";
+
+        assertThat(converter.transform(event("petcare.web.rest.PetResource"), message)).isSameAs(message);
+    }
+
+    @Test
+    void shouldColorTheReplacements() {
+        CRLFLogConverter converter = new CRLFLogConverter();
+        converter.setOptionList(List.of("red"));
+        String replacement = AnsiOutput.toString(AnsiColor.RED, "_");
+
+        String transformed = converter.transform(event("petcare.web.rest.PetResource"), "a\r\nb");
+
+        assertThat(transformed).isEqualTo("a" + replacement + replacement + "b");
+    }
+
+    @Test
+    void shouldNotReplaceInTheSafeLogs() {
+        CRLFLogConverter converter = new CRLFLogConverter();
+        String message = "select *\nfrom pet";
+
+        assertThat(converter.transform(event("org.hibernate.SQL"), message)).isEqualTo(message);
+
+        ILoggingEvent marked = event("petcare.web.rest.PetResource");
+        when(marked.getMarkerList()).thenReturn(List.of(CRLFLogConverter.CRLF_SAFE_MARKER));
+        assertThat(converter.transform(marked, message)).isEqualTo(message);
+
+        ILoggingEvent other = event("petcare.web.rest.PetResource");
+        when(other.getMarkerList()).thenReturn(List.of(MarkerFactory.getMarker("OTHER")));
+        assertThat(converter.transform(other, message)).isEqualTo("select *_from pet");
+    }
+
+    @Test
+    void shouldFindTheNextCrlf() {
+        assertThat(CRLFLogConverter.indexOfCrlf("a\tb\nc", 0)).isEqualTo(1);
+        assertThat(CRLFLogConverter.indexOfCrlf("a\tb\nc", 2)).isEqualTo(3);
+        assertThat(CRLFLogConverter.indexOfCrlf("a\tb\nc", 4)).isEqualTo(-1);
+        assertThat(CRLFLogConverter.indexOfCrlf("", 0)).isEqualTo(-1);
+    }
+
+    private static ILoggingEvent event(String loggerName) {
+        ILoggingEvent event = mock(ILoggingEvent.class);
+        when(event.getLoggerName()).thenReturn(loggerName);
+        return event;
+    }
+}
@@ -0,0 +1,147 @@
+package petcare.config;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+import com.zaxxer.hikari.HikariDataSource;
+import java.sql.Connection;
+import java.sql.SQLException;
+import java.sql.SQLTransientConnectionException;
+import java.time.Duration;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.TimeUnit;
+import javax.sql.DataSource;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.config.BeanPostProcessor;
+import org.springframework.mock.env.MockEnvironment;
+
+/**
+ * Unit tests for {@link ConnectionLimitingDataSource}, and its wiring by {@link ThreadingConfiguration}.
+ */
+class ConnectionLimitingDataSourceTest {
+
+    private final DataSource target = mock(DataSource.class);
+
+    @Test
+    void shouldLimitTheConnectionsInUse() throws Exception {
+        when(target.getConnection()).thenAnswer(invocation -> mock(Connection.class));
+        ConnectionLimitingDataSource dataSource = new ConnectionLimitingDataSource(target, 2, Duration.ofMillis(50));
+
+        Connection first = dataSource.getConnection();
+        dataSource.getConnection();
+
+        assertThat(dataSource.getActiveConnections()).isEqualTo(2);
+        assertThatThrownBy(dataSource::getConnection).isInstanceOf(SQLTransientConnectionException.class);
+        first.close();
+        assertThat(dataSource.getActiveConnections()).isEqualTo(1);
+        assertThat(dataSource.getConnection()).isNotNull();
+    }
+
+    @Test
+    void shouldHandTheConnectionToAWaitingThread() throws Exception {
+        when(target.getConnection()).thenAnswer(invocation -> mock(Connection.class));
+        ConnectionLimitingDataSource dataSource = new ConnectionLimitingDataSource(target, 1, Duration.ofSeconds(5));
+        Connection connection = dataSource.getConnection();
+
+        CompletableFuture<Connection> waiting = CompletableFuture.supplyAsync(() -> {
+            try {
+                return dataSource.getConnection();
+            } catch (SQLException e) {
+                throw new IllegalStateException(e);
+            }
+        });
+        long deadline = System.nanoTime() + TimeUnit.SECONDS.toNanos(5);
+        while (dataSource.getWaitingThreads() == 0 && System.nanoTime() < deadline) {
+            Thread.sleep(10);
+        }
+
+        assertThat(dataSource.getWaitingThreads()).isEqualTo(1);
+        connection.close();
+        assertThat(waiting.get(5, TimeUnit.SECONDS)).isNotNull();
+    }
+
+    @Test
+    void shouldGiveThePermitBackOnce() throws Exception {
+        Connection pooled = mock(Connection.class);
+        when(target.getConnection()).thenReturn(pooled);
+        ConnectionLimitingDataSource dataSource = new ConnectionLimitingDataSource(target, 2, Duration.ofMillis(50));
+
+        Connection connection = dataSource.getConnection();
+        connection.close();
+        connection.close();
+
+        assertThat(dataSource.getActiveConnections()).isZero();
+        verify(pooled, times(2)).close();
+        dataSource.getConnection();
+        dataSource.getConnection();
+        assertThatThrownBy(dataSource::getConnection).isInstanceOf(SQLTransientConnectionException.class);
+    }
+
+    @Test
+    void shouldGiveThePermitBackWhenThePoolFails() throws Exception {
+        when(target.getConnection()).thenThrow(new SQLTransientConnectionException("pool timeout"));
+        ConnectionLimitingDataSource dataSource = new ConnectionLimitingDataSource(target, 1, Duration.ofMillis(50));
+
+        assertThatThrownBy(dataSource::getConnection).hasMessage("pool timeout");
+        assertThat(dataSource.getActiveConnections()).isZero();
+    }
+
+    @Test
+    void shouldDelegateToTheConnection() throws Exception {
+        Connection pooled = mock(Connection.class);
+        when(pooled.getAutoCommit()).thenReturn(false);
+        when(target.getConnection()).thenReturn(pooled);
+        ConnectionLimitingDataSource dataSource = new ConnectionLimitingDataSource(target, 1, Duration.ofMillis(50));
+
+        Connection connection = dataSource.getConnection();
+
+        assertThat(connection.getAutoCommit()).isFalse();
+        assertThat(connection).isEqualTo(connection).isNotEqualTo(pooled);
+    }
+
+    @Test
+    void shouldWrapTheDataSourceSizedLikeThePool() {
+        try (HikariDataSource hikari = new HikariDataSource()) {
+            hikari.setMaximumPoolSize(7);
+
+            Object wrapped = postProcessor(new MockEnvironment().withProperty("application.threads.limit-connections", "true"))
+                .postProcessAfterInitialization(hikari, "dataSource");
+
+            assertThat(wrapped).isInstanceOfSatisfying(ConnectionLimitingDataSource.class, dataSource ->
+                assertThat(dataSource.getMaxConnections()).isEqualTo(7)
+            );
+        }
+    }
+
+    @Test
+    void shouldWrapTheDataSourceWithTheConfiguredLimitOnce() {
+        BeanPostProcessor postProcessor = postProcessor(
+            new MockEnvironment()
+                .withProperty("application.threads.limit-connections", "true")
+                .withProperty("application.threads.max-connections", "3")
+        );
+
+        Object wrapped = postProcessor.postProcessAfterInitialization(target, "dataSource");
+
+        assertThat(wrapped).isInstanceOfSatisfying(ConnectionLimitingDataSource.class, dataSource ->
+            assertThat(dataSource.getMaxConnections()).isEqualTo(3)
+        );
+        assertThat(postProcessor.postProcessAfterInitialization(wrapped, "dataSource")).isSameAs(wrapped);
+    }
+
+    @Test
+    void shouldNotWrapTheDataSourceByDefault() {
+        // Neither enabled nor running on virtual threads
+        Object bean = postProcessor(new MockEnvironment()).postProcessAfterInitialization(target, "dataSource");
+
+        assertThat(bean).isSameAs(target);
+    }
+
+    private static BeanPostProcessor postProcessor(MockEnvironment environment) {
+        return ThreadingConfiguration.connectionLimitingDataSourcePostProcessor(environment);
+    }
+}
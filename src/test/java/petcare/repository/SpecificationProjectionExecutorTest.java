@@ -0,0 +1,183 @@
+package petcare.repository;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyInt;
+import static org.mockito.Mockito.doReturn;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.Tuple;
+import jakarta.persistence.TypedQuery;
+import jakarta.persistence.criteria.CriteriaBuilder;
+import jakarta.persistence.criteria.CriteriaQuery;
+import jakarta.persistence.criteria.Path;
+import jakarta.persistence.criteria.Root;
+import jakarta.persistence.criteria.Selection;
+import jakarta.persistence.metamodel.EntityType;
+import jakarta.persistence.metamodel.Metamodel;
+import jakarta.persistence.metamodel.SingularAttribute;
+import jakarta.persistence.metamodel.Type;
+import java.time.Instant;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.stream.LongStream;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.data.domain.KeysetScrollPosition;
+import org.springframework.data.domain.ScrollPosition;
+import org.springframework.data.domain.Sort;
+import org.springframework.data.domain.Window;
+import petcare.domain.Appointment;
+import petcare.service.dto.AppointmentDTO;
+
+/**
+ * Unit tests for the keyset windows of {@link SpecificationProjectionExecutor}, which select the projections along with
+ * their sort keys.
+ */
+class SpecificationProjectionExecutorTest {
+
+    private static final Sort BY_TIME = Sort.by(Sort.Order.desc("apptTime"), Sort.Order.desc("id"));
+
+    private static final Instant TIME = Instant.parse("2026-01-02T03:04:05Z");
+
+    private final EntityManager entityManager = mock(EntityManager.class);
+
+    private final CriteriaBuilder cb = mock(CriteriaBuilder.class);
+
+    private final SpecificationProjectionExecutor executor = new SpecificationProjectionExecutor(entityManager);
+
+    private Path<Instant> timePath;
+
+    private Path<Long> idPath;
+
+    private TypedQuery<Tuple> typedQuery;
+
+    @BeforeEach
+    @SuppressWarnings("unchecked")
+    void setUp() {
+        Metamodel metamodel = mock(Metamodel.class);
+        EntityType<Appointment> entityType = mock(EntityType.class);
+        Type<Long> idType = mock(Type.class);
+        SingularAttribute<Appointment, Long> idAttribute = mock(SingularAttribute.class);
+        when(entityManager.getMetamodel()).thenReturn(metamodel);
+        doReturn(entityType).when(metamodel).entity(Appointment.class);
+        doReturn(idType).when(entityType).getIdType();
+        when(idType.getJavaType()).thenReturn(Long.class);
+        doReturn(idAttribute).when(entityType).getId(Long.class);
+        when(idAttribute.getName()).thenReturn("id");
+
+        CriteriaQuery<Tuple> query = mock(CriteriaQuery.class);
+        Root<Appointment> root = mock(Root.class);
+        timePath = mock(Path.class);
+        idPath = mock(Path.class);
+        typedQuery = mock(TypedQuery.class);
+        when(entityManager.getCriteriaBuilder()).thenReturn(cb);
+        when(cb.createTupleQuery()).thenReturn(query);
+        when(query.from(Appointment.class)).thenReturn(root);
+        doReturn(timePath).when(root).get("apptTime");
+        doReturn(idPath).when(root).get("id");
+        when(entityManager.createQuery(query)).thenReturn(typedQuery);
+        when(typedQuery.setMaxResults(anyInt())).thenReturn(typedQuery);
+    }
+
+    @Test
+    void shouldReadOneMoreRowToTellThereIsANextWindow() {
+        List<Tuple> rows = rows(3);
+        when(typedQuery.getResultList()).thenReturn(rows);
+
+        Window<AppointmentDTO> window = findWindow(BY_TIME, ScrollPosition.keyset(), 2);
+
+        assertThat(window.getContent()).extracting(AppointmentDTO::getId).containsExactly(1L, 2L);
+        assertThat(window.hasNext()).isTrue();
+        assertThat(window.positionAt(1)).isEqualTo(ScrollPosition.forward(keys(TIME.minusSeconds(2), 2L)));
+        verify(typedQuery).setMaxResults(3);
+        // The first window, without seek predicates
+        verify(cb, never()).lessThan(any(Path.class), any(Instant.class));
+    }
+
+    @Test
+    void shouldEndOnAShortWindow() {
+        List<Tuple> rows = rows(2);
+        when(typedQuery.getResultList()).thenReturn(rows);
+
+        Window<AppointmentDTO> window = findWindow(BY_TIME, ScrollPosition.keyset(), 2);
+
+        assertThat(window.getContent()).hasSize(2);
+        assertThat(window.hasNext()).isFalse();
+    }
+
+    @Test
+    void shouldSeekAfterThePosition() {
+        when(typedQuery.getResultList()).thenReturn(List.of());
+
+        findWindow(BY_TIME, ScrollPosition.forward(keys(TIME, 5L)), 2);
+
+        // apptTime < :apptTime or (apptTime = :apptTime and id < :id)
+        verify(cb).lessThan(timePath, TIME);
+        verify(cb).equal(timePath, TIME);
+        verify(cb).lessThan(idPath, 5L);
+        verify(cb, never()).greaterThan(any(Path.class), any(Long.class));
+    }
+
+    @Test
+    void shouldAppendTheIdToTheSort() {
+        List<Tuple> rows = rows(1);
+        when(typedQuery.getResultList()).thenReturn(rows);
+
+        Window<AppointmentDTO> window = findWindow(Sort.by("apptTime"), ScrollPosition.forward(keys(TIME, 5L)), 2);
+
+        verify(cb).greaterThan(idPath, 5L);
+        verify(cb).asc(idPath);
+        assertThat(window.positionAt(0)).isEqualTo(ScrollPosition.forward(keys(TIME.minusSeconds(1), 1L)));
+    }
+
+    @Test
+    void shouldRejectAPositionWithoutAllTheKeys() {
+        Map<String, Object> keys = Map.of("apptTime", TIME);
+
+        assertThatThrownBy(() -> findWindow(BY_TIME, ScrollPosition.forward(keys), 2)).isInstanceOf(IllegalArgumentException.class);
+    }
+
+    @Test
+    void shouldRejectABackwardPosition() {
+        KeysetScrollPosition position = ScrollPosition.backward(keys(TIME, 5L));
+
+        assertThatThrownBy(() -> findWindow(BY_TIME, position, 2)).isInstanceOf(IllegalArgumentException.class);
+    }
+
+    @SuppressWarnings("unchecked")
+    private Window<AppointmentDTO> findWindow(Sort sort, KeysetScrollPosition position, int limit) {
+        Selection<AppointmentDTO> selection = mock(Selection.class);
+        return executor.findWindow(Appointment.class, AppointmentDTO.class, null, sort, position, limit, (builder, root) -> selection);
+    }
+
+    /**
+     * Rows of the id-th appointments, each an id-th second earlier, as selected: the DTO, then the sort keys.
+     */
+    private static List<Tuple> rows(int count) {
+        return LongStream.rangeClosed(1, count)
+            .mapToObj(id -> {
+                AppointmentDTO appointment = new AppointmentDTO();
+                appointment.setId(id);
+                Tuple row = mock(Tuple.class);
+                when(row.get(0, AppointmentDTO.class)).thenReturn(appointment);
+                when(row.get(1)).thenReturn(TIME.minusSeconds(id));
+                when(row.get(2)).thenReturn(id);
+                return row;
+            })
+            .toList();
+    }
+
+    private static Map<String, Object> keys(Instant apptTime, Long id) {
+        Map<String, Object> keys = new LinkedHashMap<>();
+        keys.put("apptTime", apptTime);
+        keys.put("id", id);
+        return keys;
+    }
+}
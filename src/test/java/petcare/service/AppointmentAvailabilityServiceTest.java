@@ -0,0 +1,351 @@
+package petcare.service;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatCode;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.argThat;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+import java.net.URISyntaxException;
+import java.time.Duration;
+import java.time.Instant;
+import java.time.temporal.ChronoUnit;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.CyclicBarrier;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicReference;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+import org.springframework.transaction.TransactionDefinition;
+import org.springframework.transaction.support.AbstractPlatformTransactionManager;
+import org.springframework.transaction.support.DefaultTransactionStatus;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+import org.springframework.transaction.support.TransactionTemplate;
+import petcare.config.ApplicationProperties;
+import petcare.domain.Appointment;
+import petcare.domain.enumeration.AppointmentStatus;
+import petcare.repository.AppointmentRepository;
+import petcare.repository.AppointmentRepository.BookedSlot;
+import petcare.repository.ConditionalUpdateExecutor;
+import petcare.service.AppointmentAvailabilityService.Booking;
+import petcare.service.dto.AppointmentDTO;
+import petcare.service.mapper.AppointmentMapperImpl;
+import petcare.service.reminder.AppointmentReminderScheduler;
+import petcare.web.rest.AppointmentResource;
+import petcare.web.rest.errors.SlotConflictException;
+
+/**
+ * Unit tests for the slot checks and discovery locks of {@link AppointmentAvailabilityService}, with transactions
+ * which only run their synchronizations.
+ */
+class AppointmentAvailabilityServiceTest {
+
+    private static final Long DISCOVERY_ID = 1L;
+
+    private static final Duration SLOT = Duration.ofMinutes(30);
+
+    private static final Instant START = Instant.now().plus(1, ChronoUnit.DAYS).truncatedTo(ChronoUnit.HOURS);
+
+    private final AppointmentRepository appointmentRepository = mock(AppointmentRepository.class);
+
+    private final SynchronizationTransactionManager transactionManager = new SynchronizationTransactionManager();
+
+    private final TransactionTemplate transactionTemplate = new TransactionTemplate(transactionManager);
+
+    private final AppointmentAvailabilityService availabilityService = new AppointmentAvailabilityService(
+        appointmentRepository,
+        applicationProperties(),
+        transactionManager
+    );
+
+    private final ExecutorService executor = Executors.newFixedThreadPool(2);
+
+    @AfterEach
+    void tearDown() {
+        executor.shutdownNow();
+    }
+
+    @Test
+    void shouldRejectAnOverlappingSlot() {
+        reserveInTransaction(1L, START);
+
+        assertThatThrownBy(() -> reserveInTransaction(2L, START.plus(SLOT.dividedBy(2)))).isInstanceOf(SlotUnavailableException.class);
+        assertThatThrownBy(() -> reserveInTransaction(3L, START.minus(SLOT.dividedBy(2)))).isInstanceOf(SlotUnavailableException.class);
+        assertThatCode(() -> reserveInTransaction(4L, START.plus(SLOT))).doesNotThrowAnyException();
+        assertThatCode(() -> reserveInTransaction(5L, START.minus(SLOT))).doesNotThrowAnyException();
+    }
+
+    @Test
+    void shouldRejectASlotBookedInTheDatabase() {
+        when(appointmentRepository.findBookedSlotsFrom(eq(DISCOVERY_ID), eq(AppointmentStatus.CANCELLED), any())).thenReturn(
+            List.of(bookedSlot(1L, START))
+        );
+
+        assertThatThrownBy(() -> reserveInTransaction(2L, START)).isInstanceOf(SlotUnavailableException.class);
+        // The appointment does not overlap itself
+        assertThatCode(() -> reserveInTransaction(1L, START.plus(SLOT.dividedBy(2)))).doesNotThrowAnyException();
+    }
+
+    @Test
+    void shouldLoadTheScheduleFromTheSlotsWhichCanStillOverlap() {
+        Instant before = Instant.now();
+        reserveInTransaction(1L, START);
+
+        verify(appointmentRepository).findBookedSlotsFrom(
+            eq(DISCOVERY_ID),
+            eq(AppointmentStatus.CANCELLED),
+            argThat(from -> !from.isBefore(before.minus(SLOT)) && from.isBefore(Instant.now()))
+        );
+        verify(appointmentRepository, never()).findBookedSlotsBetween(any(), any(), any(), any());
+    }
+
+    @Test
+    void shouldReadTheNeighboursOfAPastSlot() {
+        Instant past = Instant.now().minus(1, ChronoUnit.DAYS).truncatedTo(ChronoUnit.HOURS);
+        when(
+            appointmentRepository.findBookedSlotsBetween(DISCOVERY_ID, AppointmentStatus.CANCELLED, past.minus(SLOT), past.plus(SLOT))
+        ).thenReturn(List.of(bookedSlot(1L, past)));
+
+        assertThatThrownBy(() -> reserveInTransaction(2L, past)).isInstanceOf(SlotUnavailableException.class);
+        verify(appointmentRepository, never()).findBookedSlotsFrom(any(), any(), any());
+    }
+
+    @Test
+    void shouldTakeTheSlotsReservedEarlierInTheTransaction() {
+        assertThatThrownBy(() ->
+            transactionTemplate.executeWithoutResult(status -> {
+                availabilityService.lock(List.of(DISCOVERY_ID));
+                availabilityService.reserve(1L, null, new Booking(DISCOVERY_ID, START));
+                availabilityService.reserve(2L, null, new Booking(DISCOVERY_ID, START));
+            })
+        ).isInstanceOf(SlotUnavailableException.class);
+    }
+
+    @Test
+    void shouldFreeTheSlotOfARolledBackBooking() {
+        transactionTemplate.executeWithoutResult(status -> {
+            availabilityService.reserve(1L, null, new Booking(DISCOVERY_ID, START));
+            status.setRollbackOnly();
+        });
+
+        assertThatCode(() -> reserveInTransaction(2L, START)).doesNotThrowAnyException();
+    }
+
+    @Test
+    void shouldFreeTheSlotOnDelete() {
+        reserveInTransaction(1L, START);
+
+        transactionTemplate.executeWithoutResult(status -> availabilityService.release(1L, new Booking(DISCOVERY_ID, START)));
+
+        assertThatCode(() -> reserveInTransaction(2L, START)).doesNotThrowAnyException();
+    }
+
+    @Test
+    void shouldFreeTheSlotOnCancelOnceCommitted() {
+        reserveInTransaction(1L, START);
+
+        transactionTemplate.executeWithoutResult(status -> {
+            availabilityService.releaseAfterCommit(1L, new Booking(DISCOVERY_ID, START));
+            status.setRollbackOnly();
+        });
+        assertThatThrownBy(() -> reserveInTransaction(2L, START)).isInstanceOf(SlotUnavailableException.class);
+
+        transactionTemplate.executeWithoutResult(status -> availabilityService.releaseAfterCommit(1L, new Booking(DISCOVERY_ID, START)));
+        assertThatCode(() -> reserveInTransaction(2L, START)).doesNotThrowAnyException();
+    }
+
+    @Test
+    void shouldMoveTheSlotOfAnUpdatedAppointment() {
+        reserveInTransaction(1L, START);
+
+        transactionTemplate.executeWithoutResult(status ->
+            availabilityService.reserve(1L, new Booking(DISCOVERY_ID, START), new Booking(DISCOVERY_ID, START.plus(SLOT)))
+        );
+
+        assertThatCode(() -> reserveInTransaction(2L, START)).doesNotThrowAnyException();
+        assertThatThrownBy(() -> reserveInTransaction(3L, START.plus(SLOT))).isInstanceOf(SlotUnavailableException.class);
+    }
+
+    @Test
+    void shouldHoldTheDiscoveryUntilTheBookingCompletes() throws Exception {
+        CountDownLatch reserved = new CountDownLatch(1);
+        CountDownLatch commit = new CountDownLatch(1);
+        Future<?> first = executor.submit(() ->
+            transactionTemplate.executeWithoutResult(status -> {
+                availabilityService.reserve(1L, null, new Booking(DISCOVERY_ID, START));
+                reserved.countDown();
+                await(commit);
+            })
+        );
+        assertThat(reserved.await(5, TimeUnit.SECONDS)).isTrue();
+
+        AtomicReference<Thread> waiting = new AtomicReference<>();
+        Future<?> second = executor.submit(() -> {
+            waiting.set(Thread.currentThread());
+            reserveInTransaction(2L, START);
+        });
+        long deadline = System.nanoTime() + Duration.ofSeconds(5).toNanos();
+        while ((waiting.get() == null || waiting.get().getState() != Thread.State.WAITING) && System.nanoTime() < deadline) {
+            Thread.sleep(10);
+        }
+        assertThat(waiting.get().getState()).isEqualTo(Thread.State.WAITING);
+        assertThat(second).isNotDone();
+
+        commit.countDown();
+        first.get(5, TimeUnit.SECONDS);
+        assertThatThrownBy(() -> second.get(5, TimeUnit.SECONDS)).hasCauseInstanceOf(SlotUnavailableException.class);
+    }
+
+    @Test
+    void shouldNotHoldOtherDiscoveries() throws Exception {
+        CountDownLatch reserved = new CountDownLatch(1);
+        CountDownLatch commit = new CountDownLatch(1);
+        // Another stripe of the 64
+        Long otherDiscoveryId = DISCOVERY_ID + 1;
+        Future<?> first = executor.submit(() ->
+            transactionTemplate.executeWithoutResult(status -> {
+                availabilityService.reserve(1L, null, new Booking(DISCOVERY_ID, START));
+                reserved.countDown();
+                await(commit);
+            })
+        );
+        assertThat(reserved.await(5, TimeUnit.SECONDS)).isTrue();
+
+        Future<?> second = executor.submit(() ->
+            transactionTemplate.executeWithoutResult(status -> availabilityService.reserve(2L, null, new Booking(otherDiscoveryId, START)))
+        );
+        second.get(5, TimeUnit.SECONDS);
+
+        commit.countDown();
+        first.get(5, TimeUnit.SECONDS);
+    }
+
+    @Test
+    void shouldBookASlotOnceWhenTwoClientsRace() throws Exception {
+        AtomicLong ids = new AtomicLong();
+        when(appointmentRepository.save(any(Appointment.class))).thenAnswer(invocation -> {
+            Appointment appointment = invocation.getArgument(0);
+            appointment.setId(ids.incrementAndGet());
+            return appointment;
+        });
+        AppointmentService appointmentService = new AppointmentService(
+            appointmentRepository,
+            new AppointmentMapperImpl(),
+            mock(BulkIngestService.class),
+            availabilityService,
+            mock(AppointmentReminderScheduler.class),
+            mock(OwnerStatsService.class),
+            mock(ConditionalUpdateExecutor.class)
+        );
+        AppointmentResource appointmentResource = new AppointmentResource(appointmentService, null, null);
+        CyclicBarrier barrier = new CyclicBarrier(2);
+
+        List<Future<HttpStatus>> responses = new ArrayList<>();
+        for (int client = 0; client < 2; client++) {
+            responses.add(
+                executor.submit(() -> {
+                    barrier.await(5, TimeUnit.SECONDS);
+                    try {
+                        // The transaction of the service, which the proxy would begin
+                        ResponseEntity<AppointmentDTO> response = transactionTemplate.execute(status -> {
+                            try {
+                                return appointmentResource.createAppointment(appointment(START));
+                            } catch (URISyntaxException e) {
+                                throw new IllegalStateException(e);
+                            }
+                        });
+                        return HttpStatus.valueOf(response.getStatusCode().value());
+                    } catch (SlotConflictException e) {
+                        return HttpStatus.valueOf(e.getStatusCode().value());
+                    }
+                })
+            );
+        }
+
+        List<HttpStatus> statuses = new ArrayList<>();
+        for (Future<HttpStatus> response : responses) {
+            statuses.add(response.get(10, TimeUnit.SECONDS));
+        }
+        assertThat(statuses).containsExactlyInAnyOrder(HttpStatus.CREATED, HttpStatus.CONFLICT);
+    }
+
+    private void reserveInTransaction(Long appointmentId, Instant start) {
+        transactionTemplate.executeWithoutResult(status ->
+            availabilityService.reserve(appointmentId, null, new Booking(DISCOVERY_ID, start))
+        );
+    }
+
+    private static AppointmentDTO appointment(Instant apptTime) {
+        AppointmentDTO appointment = new AppointmentDTO();
+        appointment.setPetId(1L);
+        appointment.setOwnerId(1L);
+        appointment.setDiscoveryId(DISCOVERY_ID);
+        appointment.setApptTime(apptTime);
+        appointment.setStatus(AppointmentStatus.PENDING);
+        return appointment;
+    }
+
+    private static BookedSlot bookedSlot(Long id, Instant apptTime) {
+        BookedSlot slot = mock(BookedSlot.class);
+        when(slot.getId()).thenReturn(id);
+        when(slot.getApptTime()).thenReturn(apptTime);
+        return slot;
+    }
+
+    private static void await(CountDownLatch latch) {
+        try {
+            assertThat(latch.await(5, TimeUnit.SECONDS)).isTrue();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IllegalStateException(e);
+        }
+    }
+
+    private static ApplicationProperties applicationProperties() {
+        ApplicationProperties applicationProperties = new ApplicationProperties();
+        applicationProperties.getAvailability().setSlotDuration(SLOT);
+        return applicationProperties;
+    }
+
+    /**
+     * Begins no resource transaction, but runs the synchronizations like a real transaction manager, and joins the
+     * transaction of the thread when there is one.
+     */
+    private static final class SynchronizationTransactionManager extends AbstractPlatformTransactionManager {
+
+        @Override
+        protected Object doGetTransaction() {
+            return TransactionSynchronizationManager.isActualTransactionActive();
+        }
+
+        @Override
+        protected boolean isExistingTransaction(Object transaction) {
+            return (Boolean) transaction;
+        }
+
+        @Override
+        protected void doBegin(Object transaction, TransactionDefinition definition) {}
+
+        @Override
+        protected void doCommit(DefaultTransactionStatus status) {}
+
+        @Override
+        protected void doRollback(DefaultTransactionStatus status) {}
+
+        @Override
+        protected void doSetRollbackOnly(DefaultTransactionStatus status) {}
+    }
+}
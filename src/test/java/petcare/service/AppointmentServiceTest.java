@@ -0,0 +1,161 @@
+package petcare.service;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyLong;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+import java.time.Instant;
+import java.util.List;
+import java.util.Optional;
+import java.util.Set;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.http.HttpStatus;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+import petcare.domain.enumeration.AppointmentStatus;
+import petcare.repository.AppointmentRepository;
+import petcare.repository.AppointmentRepository.AppointmentRow;
+import petcare.repository.ConditionalUpdateExecutor;
+import petcare.service.AppointmentAvailabilityService.Booking;
+import petcare.service.OwnerStatsService.Delta;
+import petcare.service.dto.AppointmentDTO;
+import petcare.service.mapper.AppointmentMapperImpl;
+import petcare.service.reminder.AppointmentReminderScheduler;
+import petcare.web.rest.AppointmentResource;
+import petcare.web.rest.errors.StatusConflictException;
+
+/**
+ * Unit tests for the status transitions of {@link AppointmentService}, made by one compare-and-set statement.
+ */
+class AppointmentServiceTest {
+
+    private static final Long APPOINTMENT_ID = 1L;
+
+    private static final Long OWNER_ID = 2L;
+
+    private static final Long DISCOVERY_ID = 3L;
+
+    private static final Instant APPT_TIME = Instant.parse("2026-10-20T09:00:00Z");
+
+    private final AppointmentRepository appointmentRepository = mock(AppointmentRepository.class);
+
+    private final AppointmentAvailabilityService availabilityService = mock(AppointmentAvailabilityService.class);
+
+    private final AppointmentReminderScheduler reminderScheduler = mock(AppointmentReminderScheduler.class);
+
+    private final OwnerStatsService ownerStatsService = mock(OwnerStatsService.class);
+
+    private final AppointmentService appointmentService = new AppointmentService(
+        appointmentRepository,
+        new AppointmentMapperImpl(),
+        mock(BulkIngestService.class),
+        availabilityService,
+        reminderScheduler,
+        ownerStatsService,
+        mock(ConditionalUpdateExecutor.class)
+    );
+
+    @BeforeEach
+    void setUp() {
+        // The synchronizations of the transaction the service runs in
+        TransactionSynchronizationManager.initSynchronization();
+    }
+
+    @AfterEach
+    void tearDown() {
+        TransactionSynchronizationManager.clearSynchronization();
+    }
+
+    @Test
+    void shouldMoveTheAppointmentWithOneStatement() {
+        when(appointmentRepository.transition(APPOINTMENT_ID, Set.of(AppointmentStatus.PENDING), AppointmentStatus.CONFIRMED)).thenReturn(
+            1
+        );
+        when(appointmentRepository.findRowById(APPOINTMENT_ID)).thenReturn(Optional.of(row(AppointmentStatus.CONFIRMED)));
+
+        Optional<AppointmentDTO> result = appointmentService.transition(APPOINTMENT_ID, AppointmentTransition.CONFIRM);
+
+        assertThat(result).get().extracting(AppointmentDTO::getStatus).isEqualTo(AppointmentStatus.CONFIRMED);
+        verify(appointmentRepository, never()).findById(anyLong());
+        verify(appointmentRepository, never()).save(any());
+        verify(availabilityService, never()).releaseAfterCommit(any(), any());
+        verify(reminderScheduler).onSaved(any());
+        // A single source, so the counters move without counting again
+        verify(ownerStatsService).change(
+            OWNER_ID,
+            Delta.appointments(AppointmentStatus.PENDING, 1),
+            OWNER_ID,
+            Delta.appointments(AppointmentStatus.CONFIRMED, 1)
+        );
+        assertThat(TransactionSynchronizationManager.getSynchronizations()).isEmpty();
+    }
+
+    @Test
+    void shouldFreeTheSlotOfACancelledAppointment() {
+        when(appointmentRepository.transition(eq(APPOINTMENT_ID), eq(AppointmentTransition.CANCEL.getSources()), any())).thenReturn(1);
+        when(appointmentRepository.findRowById(APPOINTMENT_ID)).thenReturn(Optional.of(row(AppointmentStatus.CANCELLED)));
+
+        appointmentService.transition(APPOINTMENT_ID, AppointmentTransition.CANCEL);
+
+        verify(availabilityService).releaseAfterCommit(APPOINTMENT_ID, new Booking(DISCOVERY_ID, APPT_TIME));
+        // Pending or confirmed: the statement does not tell, so the counters are counted after the commit
+        verify(ownerStatsService, never()).change(any(), any(), any(), any());
+        List<TransactionSynchronization> synchronizations = TransactionSynchronizationManager.getSynchronizations();
+        assertThat(synchronizations).hasSize(1);
+        synchronizations.get(0).afterCommit();
+        verify(ownerStatsService).recount(List.of(OWNER_ID));
+    }
+
+    @Test
+    void shouldReturnEmptyWhenTheAppointmentDoesNotExist() {
+        when(appointmentRepository.transition(any(), any(), any())).thenReturn(0);
+        when(appointmentRepository.existsById(APPOINTMENT_ID)).thenReturn(false);
+
+        assertThat(appointmentService.transition(APPOINTMENT_ID, AppointmentTransition.COMPLETE)).isEmpty();
+        verify(appointmentRepository, never()).findRowById(any());
+    }
+
+    @Test
+    void shouldRejectATransitionFromAnotherStatus() {
+        when(appointmentRepository.transition(any(), any(), any())).thenReturn(0);
+        when(appointmentRepository.existsById(APPOINTMENT_ID)).thenReturn(true);
+
+        assertThatThrownBy(() -> appointmentService.transition(APPOINTMENT_ID, AppointmentTransition.COMPLETE)).isInstanceOf(
+            StatusTransitionException.class
+        );
+        verify(appointmentRepository, never()).findRowById(any());
+        verify(reminderScheduler, never()).onSaved(any());
+        verify(ownerStatsService, never()).change(any(), any(), any(), any());
+    }
+
+    @Test
+    void shouldAnswerARejectedTransitionWithAConflict() {
+        when(appointmentRepository.transition(any(), any(), any())).thenReturn(0);
+        when(appointmentRepository.existsById(APPOINTMENT_ID)).thenReturn(true);
+        AppointmentResource appointmentResource = new AppointmentResource(appointmentService, null, null);
+
+        assertThatThrownBy(() -> appointmentResource.transitionAppointment(APPOINTMENT_ID, "complete")).isInstanceOfSatisfying(
+            StatusConflictException.class,
+            e -> assertThat(e.getStatusCode().value()).isEqualTo(HttpStatus.CONFLICT.value())
+        );
+    }
+
+    private static AppointmentRow row(AppointmentStatus status) {
+        AppointmentRow row = mock(AppointmentRow.class);
+        when(row.getId()).thenReturn(APPOINTMENT_ID);
+        when(row.getOwnerId()).thenReturn(OWNER_ID);
+        when(row.getDiscoveryId()).thenReturn(DISCOVERY_ID);
+        when(row.getApptTime()).thenReturn(APPT_TIME);
+        when(row.getStatus()).thenReturn(status);
+        when(row.getVersion()).thenReturn(1L);
+        return row;
+    }
+}
@@ -0,0 +1,56 @@
+package petcare.service;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static petcare.domain.enumeration.AppointmentStatus.CANCELLED;
+import static petcare.domain.enumeration.AppointmentStatus.CONFIRMED;
+import static petcare.domain.enumeration.AppointmentStatus.DONE;
+import static petcare.domain.enumeration.AppointmentStatus.PENDING;
+
+import org.junit.jupiter.api.Test;
+import petcare.domain.enumeration.AppointmentStatus;
+
+/**
+ * Unit tests for the {@link AppointmentTransition} state machine.
+ */
+class AppointmentTransitionTest {
+
+    @Test
+    void shouldMoveAlongTheTransitions() {
+        assertThat(AppointmentTransition.CONFIRM.getSources()).containsExactly(PENDING);
+        assertThat(AppointmentTransition.CONFIRM.getTarget()).isEqualTo(CONFIRMED);
+        assertThat(AppointmentTransition.CANCEL.getSources()).containsExactly(PENDING, CONFIRMED);
+        assertThat(AppointmentTransition.CANCEL.getTarget()).isEqualTo(CANCELLED);
+        assertThat(AppointmentTransition.COMPLETE.getSources()).containsExactly(CONFIRMED);
+        assertThat(AppointmentTransition.COMPLETE.getTarget()).isEqualTo(DONE);
+    }
+
+    @Test
+    void shouldAllowTheMovesOfTheStateMachine() {
+        assertThat(AppointmentTransition.isAllowed(PENDING, CONFIRMED)).isTrue();
+        assertThat(AppointmentTransition.isAllowed(PENDING, CANCELLED)).isTrue();
+        assertThat(AppointmentTransition.isAllowed(CONFIRMED, CANCELLED)).isTrue();
+        assertThat(AppointmentTransition.isAllowed(CONFIRMED, DONE)).isTrue();
+    }
+
+    @Test
+    void shouldAllowAnUnchangedOrFirstStatus() {
+        for (AppointmentStatus status : AppointmentStatus.values()) {
+            assertThat(AppointmentTransition.isAllowed(status, status)).isTrue();
+            assertThat(AppointmentTransition.isAllowed(null, status)).isTrue();
+        }
+    }
+
+    @Test
+    void shouldNotMoveBackOrOutOfAFinalStatus() {
+        assertThat(AppointmentTransition.isAllowed(PENDING, DONE)).isFalse();
+        assertThat(AppointmentTransition.isAllowed(CONFIRMED, PENDING)).isFalse();
+        for (AppointmentStatus status : AppointmentStatus.values()) {
+            if (status != CANCELLED) {
+                assertThat(AppointmentTransition.isAllowed(CANCELLED, status)).isFalse();
+            }
+            if (status != DONE) {
+                assertThat(AppointmentTransition.isAllowed(DONE, status)).isFalse();
+            }
+        }
+    }
+}
@@ -0,0 +1,164 @@
+package petcare.service;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.Mockito.doReturn;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.SerializationFeature;
+import com.fasterxml.jackson.datatype.jsr310.JavaTimeModule;
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.metamodel.EntityType;
+import jakarta.persistence.metamodel.Metamodel;
+import jakarta.persistence.metamodel.SingularAttribute;
+import java.nio.charset.StandardCharsets;
+import java.time.Instant;
+import java.util.Base64;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.data.domain.KeysetScrollPosition;
+import org.springframework.data.domain.ScrollPosition;
+import org.springframework.data.domain.Sort;
+import org.springframework.data.domain.Window;
+import petcare.domain.Pet;
+
+/**
+ * Unit tests for {@link KeysetCursorCodec}, against the metamodel of {@link Pet}.
+ */
+class KeysetCursorCodecTest {
+
+    private static final Sort BY_NAME = Sort.by("name").and(Sort.by("id"));
+
+    private KeysetCursorCodec codec;
+
+    @BeforeEach
+    @SuppressWarnings("unchecked")
+    void setUp() throws Exception {
+        EntityManager entityManager = mock(EntityManager.class);
+        Metamodel metamodel = mock(Metamodel.class);
+        EntityType<Pet> entityType = mock(EntityType.class);
+        when(entityManager.getMetamodel()).thenReturn(metamodel);
+        doReturn(entityType).when(metamodel).entity(Pet.class);
+        when(entityType.getAttribute(anyString())).thenThrow(new IllegalArgumentException("Unknown attribute"));
+        for (String name : List.of("id", "name", "breed", "createdAt")) {
+            SingularAttribute<Pet, ?> attribute = mock(SingularAttribute.class);
+            when(attribute.isId()).thenReturn(name.equals("id"));
+            doReturn(Pet.class.getDeclaredField(name).getType()).when(attribute).getJavaType();
+            doReturn(Pet.class.getDeclaredField(name)).when(attribute).getJavaMember();
+            doReturn(attribute).when(entityType).getAttribute(name);
+        }
+        // Like the mapper of the application, which writes the dates in ISO format
+        ObjectMapper objectMapper = new ObjectMapper()
+            .registerModule(new JavaTimeModule())
+            .disable(SerializationFeature.WRITE_DATES_AS_TIMESTAMPS);
+        codec = new KeysetCursorCodec(entityManager, objectMapper);
+    }
+
+    @Test
+    void shouldDecodeTheCursorOfAWindow() {
+        String cursor = nextCursor(keys("name", "Rex", "id", 42L));
+
+        Optional<KeysetScrollPosition> position = codec.decode(cursor, Pet.class, BY_NAME);
+
+        assertThat(position).isPresent();
+        assertThat(position.get().getKeys()).isEqualTo(keys("name", "Rex", "id", 42L));
+        assertThat(position.get().getDirection()).isEqualTo(ScrollPosition.Direction.FORWARD);
+    }
+
+    @Test
+    void shouldConvertTheKeysToTheTypesOfTheAttributes() {
+        Instant createdAt = Instant.parse("2026-01-02T03:04:05.678Z");
+        Sort sort = Sort.by(Sort.Order.desc("createdAt"), Sort.Order.asc("id"));
+        String cursor = codec.nextCursor(window(keys("createdAt", createdAt, "id", 7L)), sort).orElseThrow();
+
+        assertThat(codec.decode(cursor, Pet.class, sort))
+            .get()
+            .extracting(KeysetScrollPosition::getKeys)
+            .isEqualTo(keys("createdAt", createdAt, "id", 7L));
+    }
+
+    @Test
+    void shouldStartAtTheFirstPageWithoutCursor() {
+        assertThat(codec.decode(null, Pet.class, BY_NAME)).get().extracting(KeysetScrollPosition::isInitial).isEqualTo(true);
+        assertThat(codec.decode(" ", Pet.class, BY_NAME)).get().extracting(KeysetScrollPosition::isInitial).isEqualTo(true);
+    }
+
+    @Test
+    void shouldRejectATamperedCursor() {
+        String cursor = nextCursor(keys("name", "Rex", "id", 42L));
+        // The first character encodes the opening brace of the JSON object
+        String tampered = "A" + cursor.substring(1);
+
+        assertThat(codec.decode(tampered, Pet.class, BY_NAME)).isEmpty();
+        assertThat(codec.decode(cursor.substring(0, cursor.length() - 3), Pet.class, BY_NAME)).isEmpty();
+        assertThat(codec.decode("not a cursor!", Pet.class, BY_NAME)).isEmpty();
+        assertThat(codec.decode(encode("[1, 2]"), Pet.class, BY_NAME)).isEmpty();
+        assertThat(codec.decode(encode("{\"sort\":[\"name,ASC\",\"id,ASC\"],\"keys\":[]}"), Pet.class, BY_NAME)).isEmpty();
+    }
+
+    @Test
+    void shouldRejectACursorOnUnknownAttributes() {
+        String cursor = encode("{\"sort\":[\"name,ASC\",\"id,ASC\"],\"keys\":{\"password\":\"x\",\"id\":1}}");
+
+        assertThat(codec.decode(cursor, Pet.class, BY_NAME)).isEmpty();
+    }
+
+    @Test
+    void shouldRejectAKeyOfTheWrongType() {
+        String cursor = encode("{\"sort\":[\"name,ASC\",\"id,ASC\"],\"keys\":{\"name\":\"Rex\",\"id\":\"one\"}}");
+
+        assertThat(codec.decode(cursor, Pet.class, BY_NAME)).isEmpty();
+    }
+
+    @Test
+    void shouldRejectACursorIssuedForAnotherSort() {
+        String cursor = nextCursor(keys("name", "Rex", "id", 42L));
+
+        assertThat(codec.decode(cursor, Pet.class, Sort.by(Sort.Order.desc("name"), Sort.Order.asc("id")))).isEmpty();
+        assertThat(codec.decode(cursor, Pet.class, Sort.by("id"))).isEmpty();
+        assertThat(codec.decode(cursor, Pet.class, Sort.by("id").and(Sort.by("name")))).isEmpty();
+    }
+
+    @Test
+    void shouldOnlyOfferKeysetSortsOnNonNullAttributes() {
+        assertThat(codec.isKeysetSort(Sort.by("id"), Pet.class)).isTrue();
+        assertThat(codec.isKeysetSort(BY_NAME, Pet.class)).isTrue();
+        // Nullable columns, whose NULL keys the seek predicates can not compare
+        assertThat(codec.isKeysetSort(Sort.by("breed"), Pet.class)).isFalse();
+        assertThat(codec.isKeysetSort(Sort.by("name").and(Sort.by("createdAt")), Pet.class)).isFalse();
+        assertThat(codec.isKeysetSort(Sort.by("unknown"), Pet.class)).isFalse();
+    }
+
+    @Test
+    void shouldNotIssueACursorAfterTheLastWindow() {
+        Window<String> last = Window.from(List.of("Rex"), index -> ScrollPosition.forward(keys("name", "Rex", "id", 42L)), false);
+
+        assertThat(codec.nextCursor(last, BY_NAME)).isEmpty();
+        assertThat(codec.nextCursor(Window.from(List.of(), index -> ScrollPosition.keyset(), true), BY_NAME)).isEmpty();
+    }
+
+    private String nextCursor(Map<String, Object> keys) {
+        return codec.nextCursor(window(keys), BY_NAME).orElseThrow();
+    }
+
+    private static Window<String> window(Map<String, Object> keys) {
+        return Window.from(List.of("first", "last"), index -> ScrollPosition.forward(keys), true);
+    }
+
+    private static Map<String, Object> keys(String firstName, Object firstValue, String secondName, Object secondValue) {
+        Map<String, Object> keys = new LinkedHashMap<>();
+        keys.put(firstName, firstValue);
+        keys.put(secondName, secondValue);
+        return keys;
+    }
+
+    private static String encode(String json) {
+        return Base64.getUrlEncoder().withoutPadding().encodeToString(json.getBytes(StandardCharsets.UTF_8));
+    }
+}
@@ -0,0 +1,127 @@
+package petcare.service;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import java.time.Duration;
+import org.junit.jupiter.api.Test;
+import petcare.config.ApplicationProperties;
+import petcare.service.LoginThrottleService.TokenBucket;
+
+/**
+ * Unit tests for the token buckets of {@link LoginThrottleService}.
+ */
+class LoginThrottleServiceTest {
+
+    private static final long REFILL = Duration.ofSeconds(10).toNanos();
+
+    private final SimpleMeterRegistry meterRegistry = new SimpleMeterRegistry();
+
+    @Test
+    void shouldTakeABurstThenWaitForTheRefill() {
+        TokenBucket bucket = new TokenBucket(3, REFILL, 0);
+
+        assertThat(bucket.tryAcquire(0)).isZero();
+        assertThat(bucket.tryAcquire(0)).isZero();
+        assertThat(bucket.tryAcquire(0)).isZero();
+        assertThat(bucket.tryAcquire(0)).isEqualTo(REFILL);
+        // Lazily refilled, in proportion to the time elapsed
+        assertThat(bucket.tryAcquire(REFILL / 4)).isEqualTo(REFILL * 3 / 4);
+        assertThat(bucket.tryAcquire(REFILL)).isZero();
+        assertThat(bucket.tryAcquire(REFILL)).isEqualTo(REFILL);
+    }
+
+    @Test
+    void shouldNotRefillBeyondTheCapacity() {
+        TokenBucket bucket = new TokenBucket(2, REFILL, 0);
+        bucket.tryAcquire(0);
+
+        long later = REFILL * 100;
+        assertThat(bucket.tryAcquire(later)).isZero();
+        assertThat(bucket.tryAcquire(later)).isZero();
+        assertThat(bucket.tryAcquire(later)).isEqualTo(REFILL);
+    }
+
+    @Test
+    void shouldIgnoreAClockGoingBack() {
+        TokenBucket bucket = new TokenBucket(1, REFILL, REFILL);
+        bucket.tryAcquire(REFILL);
+
+        assertThat(bucket.tryAcquire(0)).isEqualTo(REFILL);
+        assertThat(bucket.tryAcquire(REFILL * 2)).isZero();
+    }
+
+    @Test
+    void shouldThrottleTheAttemptsOnAnAccount() {
+        LoginThrottleService throttle = throttle(2, 100);
+
+        throttle.acquire("owner@localhost", "10.0.0.1");
+        throttle.acquire("Owner@Localhost", "10.0.0.2");
+
+        assertThatThrownBy(() -> throttle.acquire("OWNER@localhost", "10.0.0.3")).isInstanceOfSatisfying(
+            LoginThrottledException.class,
+            e -> assertThat(e.getRetryAfter()).isPositive().isLessThanOrEqualTo(Duration.ofMinutes(1))
+        );
+        throttle.acquire("other@localhost", "10.0.0.3");
+        assertThat(meterRegistry.get("login.throttled").tag("scope", "account").counter().count()).isEqualTo(1);
+    }
+
+    @Test
+    void shouldNotLockAnAccountOutOfTheOtherNetworks() {
+        LoginThrottleService throttle = throttle(2, 100);
+        throttle.acquire("owner@localhost", "10.0.0.1");
+        throttle.acquire("owner@localhost", "10.0.0.1");
+        assertThatThrownBy(() -> throttle.acquire("owner@localhost", "10.0.0.200")).isInstanceOf(LoginThrottledException.class);
+
+        // The owner, from another network, still has the whole burst
+        throttle.acquire("owner@localhost", "192.168.1.1");
+        throttle.acquire("owner@localhost", "2001:db8::1");
+        throttle.acquire("owner@localhost", "2001:db8::2");
+        assertThatThrownBy(() -> throttle.acquire("owner@localhost", "2001:db8:0:0:ffff::3")).isInstanceOf(
+            LoginThrottledException.class
+        );
+    }
+
+    @Test
+    void shouldKeyTheAccountsOnTheNetworkOfTheAddress() {
+        assertThat(LoginThrottleService.network("10.0.0.1")).isEqualTo(LoginThrottleService.network("10.0.0.254")).isEqualTo("0a0000");
+        assertThat(LoginThrottleService.network("10.0.1.1")).isEqualTo("0a0001");
+        assertThat(LoginThrottleService.network("2001:db8::1")).isEqualTo(LoginThrottleService.network("2001:db8::ffff:1"));
+        assertThat(LoginThrottleService.network("2001:db8:0:1::1")).isNotEqualTo(LoginThrottleService.network("2001:db8::1"));
+        // Not a literal address, kept as it is rather than looked up
+        assertThat(LoginThrottleService.network("localhost")).isEqualTo("localhost");
+        assertThat(LoginThrottleService.network(null)).isEqualTo("null");
+    }
+
+    @Test
+    void shouldThrottleTheAttemptsFromAnAddress() {
+        LoginThrottleService throttle = throttle(100, 2);
+
+        throttle.acquire("a@localhost", "10.0.0.1");
+        throttle.acquire("b@localhost", "10.0.0.1");
+
+        assertThatThrownBy(() -> throttle.acquire("c@localhost", "10.0.0.1")).isInstanceOf(LoginThrottledException.class);
+        throttle.acquire("c@localhost", "10.0.0.2");
+        assertThat(meterRegistry.get("login.throttled").tag("scope", "ip").counter().count()).isEqualTo(1);
+    }
+
+    @Test
+    void shouldNotThrottleWithoutBurst() {
+        LoginThrottleService throttle = throttle(0, 0);
+
+        for (int i = 0; i < 10; i++) {
+            throttle.acquire("owner@localhost", "10.0.0.1");
+        }
+    }
+
+    private LoginThrottleService throttle(int accountBurst, int ipBurst) {
+        ApplicationProperties applicationProperties = new ApplicationProperties();
+        ApplicationProperties.Password password = applicationProperties.getPassword();
+        password.setAccountBurst(accountBurst);
+        password.setAccountRefill(Duration.ofMinutes(1));
+        password.setIpBurst(ipBurst);
+        password.setIpRefill(Duration.ofMinutes(1));
+        return new LoginThrottleService(meterRegistry, applicationProperties);
+    }
+}
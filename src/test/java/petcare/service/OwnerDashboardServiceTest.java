@@ -0,0 +1,110 @@
+package petcare.service;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyInt;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+import java.time.Duration;
+import java.util.List;
+import java.util.Optional;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.data.domain.ScrollPosition;
+import org.springframework.data.domain.Window;
+import org.springframework.mock.env.MockEnvironment;
+import petcare.config.ApplicationProperties;
+import petcare.service.dto.OwnerDashboardDTO;
+import petcare.service.dto.PetDTO;
+import petcare.service.dto.UserPetDTO;
+
+/**
+ * Unit tests for the parallel sections of {@link OwnerDashboardService}, on the platform thread pool.
+ */
+class OwnerDashboardServiceTest {
+
+    private static final Long OWNER_ID = 1L;
+
+    private final UserPetService userPetService = mock(UserPetService.class);
+
+    private final PetService petService = mock(PetService.class);
+
+    private final PetQueryService petQueryService = mock(PetQueryService.class);
+
+    private final AppointmentService appointmentService = mock(AppointmentService.class);
+
+    private final HealthRecordService healthRecordService = mock(HealthRecordService.class);
+
+    private OwnerDashboardService dashboardService;
+
+    @AfterEach
+    void tearDown() {
+        dashboardService.destroy();
+    }
+
+    @Test
+    void shouldReadTheSections() {
+        dashboardService = dashboardService(4, 10);
+        when(userPetService.findOne(OWNER_ID)).thenReturn(Optional.of(new UserPetDTO()));
+        when(petQueryService.findByOwnerId(any(), any(), anyInt())).thenReturn(Window.from(List.<PetDTO>of(), ScrollPosition::offset));
+        when(petService.countByOwnerId(OWNER_ID)).thenReturn(3L);
+        when(healthRecordService.countByOwnerId(OWNER_ID)).thenReturn(5L);
+
+        OwnerDashboardDTO dashboard = dashboardService.getDashboard(OWNER_ID).orElseThrow();
+
+        assertThat(dashboard.getPetCount()).isEqualTo(3L);
+        assertThat(dashboard.getHealthRecordCount()).isEqualTo(5L);
+        assertThat(dashboard.getUnavailable()).isEmpty();
+    }
+
+    @Test
+    void shouldReportTheSectionsRejectedByAFullQueue() {
+        // One thread and no queue: the other sections are rejected while the owner is read
+        dashboardService = dashboardService(1, 0);
+        when(userPetService.findOne(OWNER_ID)).thenAnswer(invocation -> {
+            Thread.sleep(200);
+            return Optional.of(new UserPetDTO());
+        });
+
+        OwnerDashboardDTO dashboard = dashboardService.getDashboard(OWNER_ID).orElseThrow();
+
+        // Not read by the request thread instead
+        assertThat(dashboard.getUnavailable()).containsExactly(
+            OwnerDashboardDTO.PETS,
+            OwnerDashboardDTO.PET_COUNT,
+            OwnerDashboardDTO.NEXT_APPOINTMENTS,
+            OwnerDashboardDTO.HEALTH_RECORD_COUNT
+        );
+        verify(petService, never()).countByOwnerId(any());
+        verify(healthRecordService, never()).countByOwnerId(any());
+    }
+
+    @Test
+    void shouldReturnEmptyForAnUnknownOwner() {
+        dashboardService = dashboardService(4, 10);
+        when(userPetService.findOne(OWNER_ID)).thenReturn(Optional.empty());
+
+        assertThat(dashboardService.getDashboard(OWNER_ID)).isEmpty();
+    }
+
+    private OwnerDashboardService dashboardService(int concurrency, int queueCapacity) {
+        ApplicationProperties applicationProperties = new ApplicationProperties();
+        ApplicationProperties.Dashboard dashboard = applicationProperties.getDashboard();
+        dashboard.setConcurrency(concurrency);
+        dashboard.setQueueCapacity(queueCapacity);
+        dashboard.setTimeout(Duration.ofSeconds(5));
+        return new OwnerDashboardService(
+            userPetService,
+            petService,
+            petQueryService,
+            mock(KeysetCursorCodec.class),
+            appointmentService,
+            healthRecordService,
+            applicationProperties,
+            new MockEnvironment()
+        );
+    }
+}
@@ -0,0 +1,202 @@
+package petcare.service;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyLong;
+import static org.mockito.Mockito.inOrder;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+import java.util.Arrays;
+import java.util.List;
+import java.util.Optional;
+import org.junit.jupiter.api.Test;
+import org.mockito.ArgumentCaptor;
+import org.mockito.InOrder;
+import org.springframework.transaction.PlatformTransactionManager;
+import petcare.domain.OwnerStats;
+import petcare.domain.enumeration.AppointmentStatus;
+import petcare.repository.HealthRecordRepository;
+import petcare.repository.OwnerStatsRepository;
+import petcare.repository.OwnerStatsRepository.OwnerCount;
+import petcare.repository.OwnerStatsRepository.OwnerStatusCount;
+import petcare.repository.PetRepository;
+import petcare.service.OwnerStatsService.Delta;
+
+/**
+ * Unit tests for the increments and repairs of the counters of {@link OwnerStatsService}.
+ */
+class OwnerStatsServiceTest {
+
+    private static final Long OWNER_ID = 1L;
+
+    private static final Long OTHER_OWNER_ID = 2L;
+
+    private final OwnerStatsRepository ownerStatsRepository = mock(OwnerStatsRepository.class);
+
+    private final PetRepository petRepository = mock(PetRepository.class);
+
+    private final HealthRecordRepository healthRecordRepository = mock(HealthRecordRepository.class);
+
+    private final OwnerStatsService ownerStatsService = new OwnerStatsService(
+        ownerStatsRepository,
+        petRepository,
+        healthRecordRepository,
+        mock(PlatformTransactionManager.class)
+    );
+
+    @Test
+    void shouldIncrementTheCountersOfAnOwner() {
+        when(ownerStatsRepository.existsById(OWNER_ID)).thenReturn(true);
+
+        ownerStatsService.increment(OWNER_ID, Delta.appointments(AppointmentStatus.PENDING, 1));
+
+        verify(ownerStatsRepository).increment(OWNER_ID, 0, 0, 1, 1, 0, 0, 0);
+        verify(ownerStatsRepository, never()).insertIfAbsent(any());
+    }
+
+    @Test
+    void shouldCountTheRowsOnTheFirstWriteOfAnOwner() {
+        when(ownerStatsRepository.existsById(OWNER_ID)).thenReturn(false);
+        when(ownerStatsRepository.insertIfAbsent(any())).thenReturn(1);
+        when(petRepository.countByOwnerId(OWNER_ID)).thenReturn(3L);
+        when(healthRecordRepository.countByOwnerId(OWNER_ID)).thenReturn(2L);
+        List<OwnerStatusCount> appointments = List.of(statusCount(AppointmentStatus.DONE, 4));
+        when(ownerStatsRepository.countAppointmentsByStatus(OWNER_ID)).thenReturn(appointments);
+
+        ownerStatsService.increment(OWNER_ID, Delta.pets(1));
+
+        ArgumentCaptor<OwnerStats> inserted = ArgumentCaptor.forClass(OwnerStats.class);
+        verify(ownerStatsRepository).insertIfAbsent(inserted.capture());
+        // The written pet is among the counted ones, so it is not added again
+        assertThat(inserted.getValue().getPetCount()).isEqualTo(3);
+        assertThat(inserted.getValue().getHealthRecordCount()).isEqualTo(2);
+        assertThat(inserted.getValue().getAppointmentCount()).isEqualTo(4);
+        assertThat(inserted.getValue().getDoneAppointmentCount()).isEqualTo(4);
+        verify(ownerStatsRepository, never()).increment(any(), anyLong(), anyLong(), anyLong(), anyLong(), anyLong(), anyLong(), anyLong());
+    }
+
+    @Test
+    void shouldIncrementTheCountersInsertedByAnotherTransaction() {
+        when(ownerStatsRepository.existsById(OWNER_ID)).thenReturn(false);
+        when(ownerStatsRepository.insertIfAbsent(any())).thenReturn(0);
+
+        ownerStatsService.increment(OWNER_ID, Delta.pets(1));
+
+        verify(ownerStatsRepository).increment(OWNER_ID, 1, 0, 0, 0, 0, 0, 0);
+    }
+
+    @Test
+    void shouldMoveARowBetweenOwnersInOwnerIdOrder() {
+        when(ownerStatsRepository.existsById(any())).thenReturn(true);
+
+        ownerStatsService.change(OTHER_OWNER_ID, Delta.pets(1), OWNER_ID, Delta.pets(1));
+
+        InOrder order = inOrder(ownerStatsRepository);
+        order.verify(ownerStatsRepository).increment(OWNER_ID, 1, 0, 0, 0, 0, 0, 0);
+        order.verify(ownerStatsRepository).increment(OTHER_OWNER_ID, -1, 0, 0, 0, 0, 0, 0);
+    }
+
+    @Test
+    void shouldMoveAnAppointmentBetweenStatuses() {
+        when(ownerStatsRepository.existsById(OWNER_ID)).thenReturn(true);
+
+        ownerStatsService.change(
+            OWNER_ID,
+            Delta.appointments(AppointmentStatus.PENDING, 1),
+            OWNER_ID,
+            Delta.appointments(AppointmentStatus.CONFIRMED, 1)
+        );
+
+        verify(ownerStatsRepository).increment(OWNER_ID, 0, 0, 0, -1, 1, 0, 0);
+    }
+
+    @Test
+    void shouldNotWriteAnUnchangedRow() {
+        ownerStatsService.change(OWNER_ID, Delta.pets(1), OWNER_ID, Delta.pets(1));
+        ownerStatsService.increment(null, Delta.pets(1));
+
+        verify(ownerStatsRepository, never()).existsById(any());
+        verify(ownerStatsRepository, never()).increment(any(), anyLong(), anyLong(), anyLong(), anyLong(), anyLong(), anyLong(), anyLong());
+    }
+
+    @Test
+    void shouldRepairTheDriftedCounters() {
+        OwnerStats drifted = stats(OWNER_ID, 5);
+        OwnerStats right = stats(OTHER_OWNER_ID, 1);
+        List<OwnerCount> pets = List.of(count(OWNER_ID, 2), count(OTHER_OWNER_ID, 1));
+        when(ownerStatsRepository.countPetsByOwner()).thenReturn(pets);
+        when(ownerStatsRepository.findAll()).thenReturn(List.of(drifted, right));
+        when(ownerStatsRepository.findByIdForUpdate(OWNER_ID)).thenReturn(Optional.of(drifted));
+        when(petRepository.countByOwnerId(OWNER_ID)).thenReturn(2L);
+
+        assertThat(ownerStatsService.check()).isEqualTo(1);
+
+        assertThat(drifted.getPetCount()).isEqualTo(2);
+        verify(ownerStatsRepository, never()).findByIdForUpdate(OTHER_OWNER_ID);
+    }
+
+    @Test
+    void shouldCreateTheMissingCounters() {
+        Long ownerWithoutCounters = 3L;
+        List<OwnerCount> pets = List.of(count(ownerWithoutCounters, 2));
+        when(ownerStatsRepository.countPetsByOwner()).thenReturn(pets);
+        when(ownerStatsRepository.findByIdForUpdate(ownerWithoutCounters)).thenReturn(Optional.empty());
+        when(petRepository.countByOwnerId(ownerWithoutCounters)).thenReturn(2L);
+        when(ownerStatsRepository.insertIfAbsent(any())).thenReturn(1);
+
+        assertThat(ownerStatsService.check()).isEqualTo(1);
+
+        ArgumentCaptor<OwnerStats> inserted = ArgumentCaptor.forClass(OwnerStats.class);
+        verify(ownerStatsRepository).insertIfAbsent(inserted.capture());
+        assertThat(inserted.getValue().getOwnerId()).isEqualTo(ownerWithoutCounters);
+        assertThat(inserted.getValue().getPetCount()).isEqualTo(2);
+    }
+
+    @Test
+    void shouldNotRepairCountersFixedMeanwhile() {
+        OwnerStats drifted = stats(OWNER_ID, 5);
+        List<OwnerCount> pets = List.of(count(OWNER_ID, 2));
+        when(ownerStatsRepository.countPetsByOwner()).thenReturn(pets);
+        when(ownerStatsRepository.findAll()).thenReturn(List.of(drifted));
+        // Counted again under the lock, the write which was missing from the GROUP BY is there
+        when(ownerStatsRepository.findByIdForUpdate(OWNER_ID)).thenReturn(Optional.of(drifted));
+        when(petRepository.countByOwnerId(OWNER_ID)).thenReturn(5L);
+
+        assertThat(ownerStatsService.check()).isZero();
+        assertThat(drifted.getPetCount()).isEqualTo(5);
+    }
+
+    @Test
+    void shouldRecountEachOwnerOnce() {
+        when(ownerStatsRepository.findByIdForUpdate(OWNER_ID)).thenReturn(Optional.of(stats(OWNER_ID, 0)));
+
+        ownerStatsService.recount(Arrays.asList(OWNER_ID, null, OWNER_ID));
+
+        verify(ownerStatsRepository).findByIdForUpdate(OWNER_ID);
+        verify(ownerStatsRepository, never()).findByIdForUpdate(null);
+    }
+
+    private static OwnerStats stats(Long ownerId, long pets) {
+        OwnerStats stats = new OwnerStats(ownerId);
+        stats.setPetCount(pets);
+        return stats;
+    }
+
+    private static OwnerCount count(Long ownerId, long count) {
+        OwnerCount ownerCount = mock(OwnerCount.class);
+        when(ownerCount.getOwnerId()).thenReturn(ownerId);
+        when(ownerCount.getCount()).thenReturn(count);
+        return ownerCount;
+    }
+
+    private static OwnerStatusCount statusCount(AppointmentStatus status, long count) {
+        OwnerStatusCount statusCount = mock(OwnerStatusCount.class);
+        when(statusCount.getOwnerId()).thenReturn(OWNER_ID);
+        when(statusCount.getStatus()).thenReturn(status);
+        when(statusCount.getCount()).thenReturn(count);
+        return statusCount;
+    }
+}
@@ -0,0 +1,121 @@
+package petcare.service;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyLong;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+import java.util.Optional;
+import java.util.Set;
+import org.junit.jupiter.api.Test;
+import org.springframework.http.HttpStatus;
+import org.springframework.orm.ObjectOptimisticLockingFailureException;
+import petcare.domain.Pet;
+import petcare.repository.ConditionalUpdateExecutor;
+import petcare.repository.ConditionalUpdateExecutor.Outcome;
+import petcare.repository.HealthRecordRepository;
+import petcare.repository.PetRepository;
+import petcare.service.dto.PetDTO;
+import petcare.service.mapper.PetMapperImpl;
+import petcare.web.rest.PetResource;
+import petcare.web.rest.errors.VersionConflictException;
+
+/**
+ * Unit tests for the conditional update of {@link PetService}, whose affected row count is the answer.
+ */
+class PetServiceTest {
+
+    private static final Long PET_ID = 1L;
+
+    private static final Long OWNER_ID = 2L;
+
+    private final PetRepository petRepository = mock(PetRepository.class);
+
+    private final HealthRecordRepository healthRecordRepository = mock(HealthRecordRepository.class);
+
+    private final OwnerStatsService ownerStatsService = mock(OwnerStatsService.class);
+
+    private final ConditionalUpdateExecutor conditionalUpdateExecutor = mock(ConditionalUpdateExecutor.class);
+
+    private final PetService petService = new PetService(
+        petRepository,
+        new PetMapperImpl(),
+        mock(BulkIngestService.class),
+        healthRecordRepository,
+        ownerStatsService,
+        conditionalUpdateExecutor
+    );
+
+    @Test
+    void shouldReturnTheNextVersionWhenUpdated() {
+        when(conditionalUpdateExecutor.updateIfUnchanged(any(Pet.class), eq(Set.of("ownerId")))).thenReturn(Outcome.UPDATED);
+
+        Optional<PetDTO> result = petService.update(pet(3L));
+
+        assertThat(result).get().extracting(PetDTO::getVersion).isEqualTo(4L);
+        verify(petRepository, never()).findById(anyLong());
+        verify(petRepository, never()).saveAndFlush(any());
+    }
+
+    @Test
+    void shouldReturnEmptyWhenThePetDoesNotExist() {
+        when(conditionalUpdateExecutor.updateIfUnchanged(any(Pet.class), any())).thenReturn(Outcome.NOT_FOUND);
+
+        assertThat(petService.update(pet(3L))).isEmpty();
+        verify(petRepository, never()).findById(anyLong());
+        verify(petRepository, never()).saveAndFlush(any());
+    }
+
+    @Test
+    void shouldRejectAStaleVersionWithoutASecondUpdate() {
+        when(conditionalUpdateExecutor.updateIfUnchanged(any(Pet.class), any())).thenReturn(Outcome.VERSION_CHANGED);
+
+        assertThatThrownBy(() -> petService.update(pet(3L))).isInstanceOf(ObjectOptimisticLockingFailureException.class);
+        verify(conditionalUpdateExecutor, times(1)).updateIfUnchanged(any(), any());
+        verify(petRepository, never()).findById(anyLong());
+        verify(petRepository, never()).saveAndFlush(any());
+    }
+
+    @Test
+    void shouldAnswerAStaleVersionWithAConflict() {
+        when(conditionalUpdateExecutor.updateIfUnchanged(any(Pet.class), any())).thenReturn(Outcome.VERSION_CHANGED);
+        PetResource petResource = new PetResource(petService, null, null, null, null);
+
+        assertThatThrownBy(() -> petResource.updatePet(PET_ID, pet(3L)))
+            .isInstanceOfSatisfying(VersionConflictException.class, e ->
+                assertThat(e.getStatusCode().value()).isEqualTo(HttpStatus.CONFLICT.value())
+            );
+        verify(conditionalUpdateExecutor, times(1)).updateIfUnchanged(any(), any());
+        verify(petRepository, never()).saveAndFlush(any());
+    }
+
+    @Test
+    void shouldGoThroughTheEntityWhenTheOwnerChanges() {
+        when(conditionalUpdateExecutor.updateIfUnchanged(any(Pet.class), any())).thenReturn(Outcome.GUARDS_CHANGED);
+        Pet existing = new Pet();
+        existing.setId(PET_ID);
+        existing.setOwnerId(OWNER_ID + 1);
+        existing.setVersion(3L);
+        when(petRepository.findById(PET_ID)).thenReturn(Optional.of(existing));
+        when(petRepository.saveAndFlush(any(Pet.class))).thenAnswer(invocation -> invocation.getArgument(0));
+
+        assertThat(petService.update(pet(3L))).get().extracting(PetDTO::getOwnerId).isEqualTo(OWNER_ID);
+        verify(petRepository).saveAndFlush(any(Pet.class));
+        verify(ownerStatsService).change(eq(OWNER_ID + 1), any(), eq(OWNER_ID), any());
+    }
+
+    private static PetDTO pet(Long version) {
+        PetDTO pet = new PetDTO();
+        pet.setId(PET_ID);
+        pet.setOwnerId(OWNER_ID);
+        pet.setName("Rex");
+        pet.setVersion(version);
+        return pet;
+    }
+}
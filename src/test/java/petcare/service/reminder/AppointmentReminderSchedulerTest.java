@@ -0,0 +1,155 @@
+package petcare.service.reminder;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+import jakarta.mail.internet.MimeMessage;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.stream.LongStream;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.context.support.ResourceBundleMessageSource;
+import org.springframework.mail.javamail.JavaMailSenderImpl;
+import org.thymeleaf.spring6.SpringTemplateEngine;
+import org.thymeleaf.templatemode.TemplateMode;
+import org.thymeleaf.templateresolver.ClassLoaderTemplateResolver;
+import petcare.config.ApplicationProperties;
+import petcare.domain.UserPet;
+import petcare.repository.AppointmentRepository;
+import petcare.repository.AppointmentRepository.UpcomingAppointment;
+import petcare.repository.DiscoveryRepository;
+import petcare.repository.PetRepository;
+import petcare.repository.UserPetRepository;
+import petcare.service.MailService;
+import tech.jhipster.config.JHipsterProperties;
+
+/**
+ * Unit tests for the batching of {@link AppointmentReminderScheduler}, against a {@link MailService} sending through a
+ * fake {@link org.springframework.mail.javamail.JavaMailSender}.
+ */
+class AppointmentReminderSchedulerTest {
+
+    private static final Long OWNER_ID = 1L;
+
+    private static final Duration LEAD_TIME = Duration.ofHours(24);
+
+    private static final Duration TICK = Duration.ofMillis(10);
+
+    private static final int BATCH_SIZE = 3;
+
+    private final RecordingMailSender mailSender = new RecordingMailSender();
+
+    private final AppointmentRepository appointmentRepository = mock(AppointmentRepository.class);
+
+    private final UserPetRepository userPetRepository = mock(UserPetRepository.class);
+
+    private final PetRepository petRepository = mock(PetRepository.class);
+
+    private final DiscoveryRepository discoveryRepository = mock(DiscoveryRepository.class);
+
+    private AppointmentReminderScheduler scheduler;
+
+    @BeforeEach
+    void setUp() {
+        JHipsterProperties jHipsterProperties = new JHipsterProperties();
+        jHipsterProperties.getMail().setFrom("petcare@localhost");
+        jHipsterProperties.getMail().setBaseUrl("http://127.0.0.1:8080");
+
+        ResourceBundleMessageSource messageSource = new ResourceBundleMessageSource();
+        messageSource.setBasename("i18n/messages");
+        messageSource.setDefaultEncoding("UTF-8");
+
+        ClassLoaderTemplateResolver templateResolver = new ClassLoaderTemplateResolver();
+        templateResolver.setPrefix("templates/");
+        templateResolver.setSuffix(".html");
+        templateResolver.setTemplateMode(TemplateMode.HTML);
+        templateResolver.setCharacterEncoding("UTF-8");
+        SpringTemplateEngine templateEngine = new SpringTemplateEngine();
+        templateEngine.setTemplateResolver(templateResolver);
+        templateEngine.setTemplateEngineMessageSource(messageSource);
+
+        MailService mailService = new MailService(jHipsterProperties, mailSender, messageSource, templateEngine);
+
+        ApplicationProperties applicationProperties = new ApplicationProperties();
+        ApplicationProperties.Reminder reminder = applicationProperties.getReminder();
+        reminder.setEnabled(true);
+        reminder.setLeadTime(LEAD_TIME);
+        reminder.setTick(TICK);
+        reminder.setBatchSize(BATCH_SIZE);
+
+        UserPet owner = new UserPet().id(OWNER_ID).name("Owner").email("owner@localhost");
+        when(userPetRepository.findAllById(any())).thenReturn(List.of(owner));
+        when(petRepository.findAllById(any())).thenReturn(List.of());
+        when(discoveryRepository.findAllById(any())).thenReturn(List.of());
+
+        scheduler = new AppointmentReminderScheduler(
+            appointmentRepository,
+            userPetRepository,
+            petRepository,
+            discoveryRepository,
+            mailService,
+            applicationProperties
+        );
+    }
+
+    @Test
+    void shouldSendOneBatchPerCall() throws Exception {
+        // All due in the same tick, so they are taken from the wheel together
+        Instant apptTime = Instant.now().plus(LEAD_TIME).plusMillis(50);
+        List<UpcomingAppointment> upcoming = LongStream.rangeClosed(1, 7).mapToObj(id -> upcoming(id, apptTime)).toList();
+        when(appointmentRepository.findUpcoming(any(), any(), any())).thenReturn(upcoming);
+        scheduler.reload();
+
+        long deadline = System.nanoTime() + Duration.ofSeconds(5).toNanos();
+        while (mailSender.sends.isEmpty() && System.nanoTime() < deadline) {
+            Thread.sleep(TICK.toMillis());
+            scheduler.sendDueReminders();
+        }
+
+        assertThat(mailSender.sends).extracting(List::size).containsExactly(3, 3, 1);
+        List<MimeMessage> messages = mailSender.sends.stream().flatMap(List::stream).toList();
+        for (MimeMessage message : messages) {
+            assertThat(message.getSubject()).isEqualTo("PetCare appointment reminder");
+            assertThat(message.getAllRecipients()).extracting(Object::toString).containsExactly("owner@localhost");
+        }
+    }
+
+    @Test
+    void shouldNotSendRemindersBeforeTheirTime() {
+        Instant apptTime = Instant.now().plus(LEAD_TIME).plusSeconds(60);
+        List<UpcomingAppointment> upcoming = LongStream.rangeClosed(1, 4).mapToObj(id -> upcoming(id, apptTime)).toList();
+        when(appointmentRepository.findUpcoming(any(), any(), any())).thenReturn(upcoming);
+        scheduler.reload();
+
+        scheduler.sendDueReminders();
+
+        assertThat(mailSender.sends).isEmpty();
+    }
+
+    private static UpcomingAppointment upcoming(long id, Instant apptTime) {
+        UpcomingAppointment appointment = mock(UpcomingAppointment.class);
+        when(appointment.getId()).thenReturn(id);
+        when(appointment.getOwnerId()).thenReturn(OWNER_ID);
+        when(appointment.getApptTime()).thenReturn(apptTime);
+        return appointment;
+    }
+
+    /**
+     * Records the messages of each send call instead of connecting to an SMTP server.
+     */
+    private static final class RecordingMailSender extends JavaMailSenderImpl {
+
+        private final List<List<MimeMessage>> sends = new CopyOnWriteArrayList<>();
+
+        @Override
+        public void send(MimeMessage... mimeMessages) {
+            sends.add(new ArrayList<>(List.of(mimeMessages)));
+        }
+    }
+}
@@ -0,0 +1,136 @@
+package petcare.service.reminder;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+import org.junit.jupiter.api.Test;
+
+/**
+ * Unit tests for {@link TimerWheel}.
+ */
+class TimerWheelTest {
+
+    // Not aligned on any level, so the slots of the timers are not the first ones of their level
+    private static final long START = 100;
+
+    private static final long LEVEL_1 = TimerWheel.SLOTS;
+
+    private static final long LEVEL_2 = LEVEL_1 * TimerWheel.SLOTS;
+
+    private static final long LEVEL_3 = LEVEL_2 * TimerWheel.SLOTS;
+
+    private final TimerWheel<String, String> wheel = new TimerWheel<>(START);
+
+    @Test
+    void shouldExpireTimersInDeadlineOrder() {
+        wheel.schedule("c", START + 5_000, "c");
+        wheel.schedule("a", START + 3, "a");
+        wheel.schedule("d", START + LEVEL_3 + 7, "d");
+        wheel.schedule("b", START + 70, "b");
+
+        assertThat(wheel.advance(START + LEVEL_3 + 7)).containsExactly("a", "b", "c", "d");
+        assertThat(wheel.size()).isZero();
+    }
+
+    @Test
+    void shouldExpireTimersAtTheirDeadlineOnly() {
+        wheel.schedule("a", START + 1, "a");
+        wheel.schedule("b", START + 64, "b");
+
+        assertThat(wheel.advance(START)).isEmpty();
+        assertThat(wheel.advance(START + 1)).containsExactly("a");
+        assertThat(wheel.advance(START + 63)).isEmpty();
+        assertThat(wheel.advance(START + 64)).containsExactly("b");
+        assertThat(wheel.getCurrentTick()).isEqualTo(START + 64);
+    }
+
+    @Test
+    void shouldExpireTimersAlreadyDueAtTheNextTick() {
+        wheel.schedule("past", START - 10, "past");
+        wheel.schedule("now", START, "now");
+
+        assertThat(wheel.advance(START + 1)).containsExactlyInAnyOrder("past", "now");
+    }
+
+    @Test
+    void shouldCascadeTimersAcrossLevelBoundaries() {
+        long[] deadlines = {
+            START + LEVEL_1 - 1,
+            START + LEVEL_1,
+            START + LEVEL_1 + 1,
+            // In the level 1 slot of the start tick, one turn later
+            START + LEVEL_2 - 1,
+            START + LEVEL_2,
+            START + LEVEL_2 + 1,
+            START + LEVEL_3 - 1,
+            START + LEVEL_3,
+            START + LEVEL_3 + 1,
+            START + TimerWheel.SPAN - 1,
+        };
+        for (long deadline : deadlines) {
+            wheel.schedule("t" + deadline, deadline, "t" + deadline);
+        }
+
+        for (long deadline : deadlines) {
+            assertThat(wheel.advance(deadline - 1)).as("before %d", deadline).isEmpty();
+            assertThat(wheel.advance(deadline)).as("at %d", deadline).containsExactly("t" + deadline);
+        }
+        assertThat(wheel.size()).isZero();
+    }
+
+    @Test
+    void shouldRescheduleATimer() {
+        wheel.schedule("a", START + 10, "first");
+        wheel.schedule("a", START + 5_000, "second");
+
+        assertThat(wheel.size()).isEqualTo(1);
+        assertThat(wheel.advance(START + 4_999)).isEmpty();
+        assertThat(wheel.advance(START + 5_000)).containsExactly("second");
+    }
+
+    @Test
+    void shouldRescheduleATimerEarlier() {
+        wheel.schedule("a", START + LEVEL_2 + 10, "first");
+        wheel.schedule("a", START + 2, "second");
+
+        assertThat(wheel.advance(START + 2)).containsExactly("second");
+        assertThat(wheel.advance(START + LEVEL_2 + 10)).isEmpty();
+    }
+
+    @Test
+    void shouldCancelATimer() {
+        wheel.schedule("a", START + 10, "a");
+
+        assertThat(wheel.cancel("a")).isTrue();
+        assertThat(wheel.cancel("a")).isFalse();
+        assertThat(wheel.size()).isZero();
+        assertThat(wheel.advance(START + 10)).isEmpty();
+    }
+
+    @Test
+    void shouldCancelATimerMovedByACascade() {
+        wheel.schedule("a", START + 5_000, "a");
+        // Cascaded from level 2 down to level 0 by now
+        wheel.advance(START + 4_990);
+
+        assertThat(wheel.cancel("a")).isTrue();
+        assertThat(wheel.advance(START + 5_000)).isEmpty();
+    }
+
+    @Test
+    void shouldClearAllTheTimers() {
+        wheel.schedule("a", START + 10, "a");
+        wheel.schedule("b", START + LEVEL_2, "b");
+
+        wheel.clear();
+
+        assertThat(wheel.size()).isZero();
+        assertThat(wheel.advance(START + LEVEL_2)).isEmpty();
+    }
+
+    @Test
+    void shouldRejectADeadlineBeyondTheSpan() {
+        assertThatThrownBy(() -> wheel.schedule("a", START + TimerWheel.SPAN, "a")).isInstanceOf(IllegalArgumentException.class);
+        assertThat(wheel.size()).isZero();
+    }
+}
@@ -0,0 +1,128 @@
+package petcare.service.search;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.Mockito.mock;
+
+import java.util.List;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.Pageable;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+import petcare.repository.DiscoveryRepository;
+import petcare.service.dto.DiscoveryDTO;
+import petcare.service.mapper.DiscoveryMapper;
+
+/**
+ * Unit tests for the BM25 ranking of {@link DiscoverySearchIndex}.
+ */
+class DiscoverySearchIndexTest {
+
+    private final DiscoverySearchIndex searchIndex = new DiscoverySearchIndex(mock(DiscoveryRepository.class), mock(DiscoveryMapper.class));
+
+    @AfterEach
+    void tearDown() {
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.clearSynchronization();
+        }
+    }
+
+    @Test
+    void shouldMatchAQueryTypedWithoutDiacritics() {
+        searchIndex.index(discovery(1L, "Khám sức khỏe thú cưng", null));
+        searchIndex.index(discovery(2L, "Huấn luyện chó", null));
+
+        assertThat(search("kham suc khoe")).containsExactly(1L);
+        assertThat(search("HUẤN LUYỆN")).containsExactly(2L);
+        assertThat(search("mèo")).isEmpty();
+    }
+
+    @Test
+    void shouldRankTheWholeWordAboveItsSyllables() {
+        // Both contain the syllables "thu" and "cung", only the first one the word "thu cung"
+        searchIndex.index(discovery(1L, "Thu phí, cung cấp đồ ăn", null));
+        searchIndex.index(discovery(2L, "Đồ ăn thú cưng", null));
+
+        assertThat(search("thú cưng")).containsExactly(2L, 1L);
+    }
+
+    @Test
+    void shouldRankTheNameAboveTheDescription() {
+        searchIndex.index(discovery(1L, "Spa", "Tắm và cắt tỉa lông"));
+        searchIndex.index(discovery(2L, "Cắt tỉa lông", "Spa"));
+
+        assertThat(search("cắt tỉa")).containsExactly(2L, 1L);
+        assertThat(search("spa")).containsExactly(1L, 2L);
+    }
+
+    @Test
+    void shouldRankTheRarerTermsHigher() {
+        searchIndex.index(discovery(1L, "Vaccine chó", null));
+        searchIndex.index(discovery(2L, "Spa chó", null));
+        searchIndex.index(discovery(3L, "Huấn luyện chó", null));
+
+        assertThat(search("chó vaccine")).first().isEqualTo(1L);
+        assertThat(search("chó vaccine")).containsExactlyInAnyOrder(1L, 2L, 3L);
+    }
+
+    @Test
+    void shouldRankTheShorterDocumentsHigher() {
+        searchIndex.index(discovery(1L, "Spa cho chó mèo và thỏ cảnh tại nhà", null));
+        searchIndex.index(discovery(2L, "Spa tại nhà", null));
+
+        assertThat(search("spa")).containsExactly(2L, 1L);
+    }
+
+    @Test
+    void shouldReplaceAndRemoveDocuments() {
+        searchIndex.index(discovery(1L, "Spa", null));
+        searchIndex.index(discovery(1L, "Vaccine", null));
+
+        assertThat(search("spa")).isEmpty();
+        assertThat(search("vaccine")).containsExactly(1L);
+
+        searchIndex.remove(1L);
+        assertThat(search("vaccine")).isEmpty();
+    }
+
+    @Test
+    void shouldPageTheHitsInRankOrderWithStableTies() {
+        for (long id = 5; id >= 1; id--) {
+            searchIndex.index(discovery(id, "Spa", null));
+        }
+
+        Page<Long> first = searchIndex.search("spa", PageRequest.of(0, 2));
+        Page<Long> last = searchIndex.search("spa", PageRequest.of(2, 2));
+
+        assertThat(first.getContent()).containsExactly(1L, 2L);
+        assertThat(first.getTotalElements()).isEqualTo(5);
+        assertThat(last.getContent()).containsExactly(5L);
+        assertThat(searchIndex.search("spa", PageRequest.of(3, 2)).getContent()).isEmpty();
+        assertThat(search("spa")).containsExactly(1L, 2L, 3L, 4L, 5L);
+    }
+
+    @Test
+    void shouldApplyTheWritesAfterTheCommit() {
+        TransactionSynchronizationManager.initSynchronization();
+
+        searchIndex.index(discovery(1L, "Spa", null));
+
+        assertThat(search("spa")).isEmpty();
+        TransactionSynchronizationManager.getSynchronizations().forEach(TransactionSynchronization::afterCommit);
+        assertThat(search("spa")).containsExactly(1L);
+    }
+
+    private List<Long> search(String query) {
+        return searchIndex.search(query, Pageable.unpaged()).getContent();
+    }
+
+    private static DiscoveryDTO discovery(Long id, String name, String description) {
+        DiscoveryDTO discovery = new DiscoveryDTO();
+        discovery.setId(id);
+        discovery.setName(name);
+        discovery.setDescription(description);
+        return discovery;
+    }
+}
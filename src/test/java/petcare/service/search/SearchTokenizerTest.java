@@ -0,0 +1,51 @@
+package petcare.service.search;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import org.junit.jupiter.api.Test;
+
+/**
+ * Unit tests for {@link SearchTokenizer}.
+ */
+class SearchTokenizerTest {
+
+    @Test
+    void shouldFoldTheDiacritics() {
+        assertThat(SearchTokenizer.tokenize("Thú cưng")).containsExactly("thu", "cung", "thu cung");
+        assertThat(SearchTokenizer.tokenize("thu cung")).isEqualTo(SearchTokenizer.tokenize("THÚ CƯNG"));
+        assertThat(SearchTokenizer.tokenize("Đà Nẵng")).containsExactly("da", "nang", "da nang");
+        assertThat(SearchTokenizer.tokenize("Chăm sóc lông")).containsExactly("cham", "soc", "long", "cham soc", "soc long");
+    }
+
+    @Test
+    void shouldFoldTheComposedAndDecomposedFormsAlike() {
+        // "ộ" precomposed, and as "o" followed by its two combining marks
+        assertThat(SearchTokenizer.tokenize("b\u1ed9t")).isEqualTo(SearchTokenizer.tokenize("bo\u0323\u0302t")).containsExactly("bot");
+    }
+
+    @Test
+    void shouldSplitOnPunctuation() {
+        assertThat(SearchTokenizer.tokenize("dog-friendly, 24/7")).containsExactly(
+            "dog",
+            "friendly",
+            "24",
+            "7",
+            "dog friendly",
+            "friendly 24",
+            "24 7"
+        );
+    }
+
+    @Test
+    void shouldDropSingleLettersButNotSingleDigits() {
+        assertThat(SearchTokenizer.tokenize("a cat")).containsExactly("cat");
+        assertThat(SearchTokenizer.tokenize("3 tháng")).containsExactly("3", "thang", "3 thang");
+    }
+
+    @Test
+    void shouldNotTokenizeNothing() {
+        assertThat(SearchTokenizer.tokenize(null)).isEmpty();
+        assertThat(SearchTokenizer.tokenize("")).isEmpty();
+        assertThat(SearchTokenizer.tokenize(" - ! ")).isEmpty();
+    }
+}
@@ -0,0 +1,101 @@
+package petcare.service.token;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import java.time.Instant;
+import java.util.Arrays;
+import java.util.Base64;
+import org.junit.jupiter.api.Test;
+import petcare.domain.enumeration.UserRole;
+
+/**
+ * Unit tests for {@link SignedTokenCodec}.
+ */
+class SignedTokenCodecTest {
+
+    private static final String SERIES = Base64.getUrlEncoder().withoutPadding().encodeToString(new byte[16]);
+
+    private static final String NONCE = Base64.getUrlEncoder().withoutPadding().encodeToString(filled((byte) 7));
+
+    private static final Instant EXPIRES_AT = Instant.parse("2026-10-18T12:00:00Z");
+
+    private final SignedTokenCodec codec = new SignedTokenCodec(filled((byte) 1, 32));
+
+    @Test
+    void shouldDecodeTheClaimsOfAnAccessToken() {
+        SignedTokenCodec.Claims claims = access();
+
+        assertThat(codec.decode(codec.encode(claims), SignedTokenCodec.ACCESS)).contains(claims);
+    }
+
+    @Test
+    void shouldDecodeTheClaimsOfARefreshToken() {
+        SignedTokenCodec.Claims claims = new SignedTokenCodec.Claims(
+            SignedTokenCodec.REFRESH,
+            42L,
+            UserRole.VET,
+            SERIES,
+            NONCE,
+            EXPIRES_AT
+        );
+
+        assertThat(codec.decode(codec.encode(claims), SignedTokenCodec.REFRESH)).contains(claims);
+    }
+
+    @Test
+    void shouldRejectATokenOfAnotherType() {
+        assertThat(codec.decode(codec.encode(access()), SignedTokenCodec.REFRESH)).isEmpty();
+    }
+
+    @Test
+    void shouldRejectATokenSignedWithAnotherKey() {
+        String token = new SignedTokenCodec(filled((byte) 2, 32)).encode(access());
+
+        assertThat(codec.decode(token, SignedTokenCodec.ACCESS)).isEmpty();
+    }
+
+    @Test
+    void shouldRejectTamperedClaims() {
+        String token = codec.encode(access());
+        int dot = token.indexOf('.');
+        byte[] payload = Base64.getUrlDecoder().decode(token.substring(0, dot));
+        // The low byte of the user id, after the version, type and expiry
+        payload[2 + 8 + 7]++;
+        String tampered = Base64.getUrlEncoder().withoutPadding().encodeToString(payload) + token.substring(dot);
+
+        assertThat(codec.decode(tampered, SignedTokenCodec.ACCESS)).isEmpty();
+    }
+
+    @Test
+    void shouldRejectATamperedSignature() {
+        String token = codec.encode(access());
+        int dot = token.indexOf('.');
+        // The first character of the signature, whose six bits are all significant
+        String tampered = token.substring(0, dot + 1) + (token.charAt(dot + 1) == 'A' ? 'B' : 'A') + token.substring(dot + 2);
+
+        assertThat(codec.decode(tampered, SignedTokenCodec.ACCESS)).isEmpty();
+        assertThat(codec.decode(token.substring(0, dot + 1), SignedTokenCodec.ACCESS)).isEmpty();
+    }
+
+    @Test
+    void shouldRejectMalformedTokens() {
+        assertThat(codec.decode("", SignedTokenCodec.ACCESS)).isEmpty();
+        assertThat(codec.decode("no-dot", SignedTokenCodec.ACCESS)).isEmpty();
+        assertThat(codec.decode(".signature", SignedTokenCodec.ACCESS)).isEmpty();
+        assertThat(codec.decode("not base64!.not base64!", SignedTokenCodec.ACCESS)).isEmpty();
+    }
+
+    private static SignedTokenCodec.Claims access() {
+        return new SignedTokenCodec.Claims(SignedTokenCodec.ACCESS, 42L, UserRole.OWNER, SERIES, null, EXPIRES_AT);
+    }
+
+    private static byte[] filled(byte value) {
+        return filled(value, SignedTokenCodec.RANDOM_LENGTH);
+    }
+
+    private static byte[] filled(byte value, int length) {
+        byte[] bytes = new byte[length];
+        Arrays.fill(bytes, value);
+        return bytes;
+    }
+}
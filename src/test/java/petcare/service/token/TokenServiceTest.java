@@ -0,0 +1,206 @@
+package petcare.service.token;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+import java.time.Duration;
+import java.time.Instant;
+import java.util.Arrays;
+import java.util.Base64;
+import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.ConcurrentHashMap;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import petcare.config.ApplicationProperties;
+import petcare.domain.PersistentToken;
+import petcare.domain.UserPet;
+import petcare.domain.enumeration.UserRole;
+import petcare.repository.PersistentTokenRepository;
+import petcare.repository.UserPetRepository;
+import petcare.service.dto.TokenDTO;
+
+/**
+ * Unit tests for {@link TokenService}, against an in-memory table of sessions.
+ */
+class TokenServiceTest {
+
+    private static final Long USER_ID = 42L;
+
+    private final PersistentTokenRepository persistentTokenRepository = mock(PersistentTokenRepository.class);
+
+    private final UserPetRepository userPetRepository = mock(UserPetRepository.class);
+
+    private final Map<String, PersistentToken> sessions = new ConcurrentHashMap<>();
+
+    private final UserPet user = new UserPet().id(USER_ID).role(UserRole.VET);
+
+    private TokenService tokenService;
+
+    @BeforeEach
+    void setUp() {
+        when(persistentTokenRepository.save(any(PersistentToken.class))).thenAnswer(invocation -> {
+            PersistentToken session = invocation.getArgument(0);
+            sessions.put(session.getSeries(), session);
+            return session;
+        });
+        when(persistentTokenRepository.findBySeriesForUpdate(anyString())).thenAnswer(invocation ->
+            Optional.ofNullable(sessions.get(invocation.<String>getArgument(0)))
+        );
+        when(persistentTokenRepository.findById(anyString())).thenAnswer(invocation ->
+            Optional.ofNullable(sessions.get(invocation.<String>getArgument(0)))
+        );
+        when(persistentTokenRepository.findByRevokedAtGreaterThanEqual(any())).thenAnswer(invocation -> {
+            Instant since = invocation.getArgument(0);
+            return sessions
+                .values()
+                .stream()
+                .filter(session -> session.getRevokedAt() != null && !session.getRevokedAt().isBefore(since))
+                .toList();
+        });
+        when(userPetRepository.findById(USER_ID)).thenReturn(Optional.of(user));
+        tokenService = tokenService(Duration.ofMinutes(15), Duration.ofDays(30));
+    }
+
+    @Test
+    void shouldAuthenticateTheAccessTokenOfASession() {
+        TokenDTO tokens = tokenService.issue(user, "127.0.0.1", null);
+
+        Optional<TokenPrincipal> principal = tokenService.authenticate(tokens.getAccessToken());
+
+        assertThat(principal).isPresent();
+        assertThat(principal.get().userId()).isEqualTo(USER_ID);
+        assertThat(principal.get().role()).isEqualTo(UserRole.VET);
+        assertThat(sessions).containsOnlyKeys(principal.get().series());
+        assertThat(tokens.getExpiresIn()).isEqualTo(Duration.ofMinutes(15).toSeconds());
+    }
+
+    @Test
+    void shouldRejectAnExpiredAccessToken() {
+        TokenService expiring = tokenService(Duration.ofSeconds(-1), Duration.ofDays(30));
+
+        TokenDTO tokens = expiring.issue(user, "127.0.0.1", null);
+
+        assertThat(expiring.authenticate(tokens.getAccessToken())).isEmpty();
+    }
+
+    @Test
+    void shouldRejectAnExpiredRefreshToken() {
+        TokenService expiring = tokenService(Duration.ofMinutes(15), Duration.ofSeconds(-1));
+
+        TokenDTO tokens = expiring.issue(user, "127.0.0.1", null);
+
+        assertThatThrownBy(() -> expiring.refresh(tokens.getRefreshToken())).isInstanceOf(InvalidTokenException.class);
+    }
+
+    @Test
+    void shouldNotMistakeOneKindOfTokenForTheOther() {
+        TokenDTO tokens = tokenService.issue(user, "127.0.0.1", null);
+
+        assertThat(tokenService.authenticate(tokens.getRefreshToken())).isEmpty();
+        assertThatThrownBy(() -> tokenService.refresh(tokens.getAccessToken())).isInstanceOf(InvalidTokenException.class);
+    }
+
+    @Test
+    void shouldRejectTheTokensOfAnotherKey() {
+        TokenDTO tokens = tokenService(Duration.ofMinutes(15), Duration.ofDays(30), secret((byte) 2)).issue(user, "127.0.0.1", null);
+
+        assertThat(tokenService.authenticate(tokens.getAccessToken())).isEmpty();
+        assertThatThrownBy(() -> tokenService.refresh(tokens.getRefreshToken())).isInstanceOf(InvalidTokenException.class);
+    }
+
+    @Test
+    void shouldRotateTheRefreshToken() {
+        TokenDTO issued = tokenService.issue(user, "127.0.0.1", null);
+        PersistentToken session = sessions.values().iterator().next();
+        String tokenValue = session.getTokenValue();
+
+        TokenDTO refreshed = tokenService.refresh(issued.getRefreshToken());
+
+        assertThat(refreshed.getRefreshToken()).isNotEqualTo(issued.getRefreshToken());
+        assertThat(session.getTokenValue()).isNotEqualTo(tokenValue);
+        assertThat(session.getRevokedAt()).isNull();
+        assertThat(tokenService.authenticate(refreshed.getAccessToken()))
+            .get()
+            .extracting(TokenPrincipal::series)
+            .isEqualTo(session.getSeries());
+        assertThat(tokenService.refresh(refreshed.getRefreshToken()).getAccessToken()).isNotNull();
+    }
+
+    @Test
+    void shouldRevokeTheSessionWhenARefreshTokenIsUsedTwice() {
+        TokenDTO issued = tokenService.issue(user, "127.0.0.1", null);
+        TokenDTO refreshed = tokenService.refresh(issued.getRefreshToken());
+
+        assertThatThrownBy(() -> tokenService.refresh(issued.getRefreshToken())).isInstanceOf(InvalidTokenException.class);
+
+        assertThat(sessions.values()).allSatisfy(session -> assertThat(session.getRevokedAt()).isNotNull());
+        // Neither the copy nor the legitimate client can go on
+        assertThat(tokenService.authenticate(refreshed.getAccessToken())).isEmpty();
+        assertThatThrownBy(() -> tokenService.refresh(refreshed.getRefreshToken())).isInstanceOf(InvalidTokenException.class);
+    }
+
+    @Test
+    void shouldRejectTheTokensOfARevokedSession() {
+        TokenDTO tokens = tokenService.issue(user, "127.0.0.1", null);
+        String series = tokenService.authenticate(tokens.getAccessToken()).orElseThrow().series();
+
+        tokenService.revoke(series);
+
+        assertThat(tokenService.authenticate(tokens.getAccessToken())).isEmpty();
+        assertThatThrownBy(() -> tokenService.refresh(tokens.getRefreshToken())).isInstanceOf(InvalidTokenException.class);
+    }
+
+    @Test
+    void shouldRevokeTheSessionOfADeletedUser() {
+        TokenDTO tokens = tokenService.issue(user, "127.0.0.1", null);
+        when(userPetRepository.findById(USER_ID)).thenReturn(Optional.empty());
+
+        assertThatThrownBy(() -> tokenService.refresh(tokens.getRefreshToken())).isInstanceOf(InvalidTokenException.class);
+
+        assertThat(sessions.values()).allSatisfy(session -> assertThat(session.getRevokedAt()).isNotNull());
+        assertThat(tokenService.authenticate(tokens.getAccessToken())).isEmpty();
+    }
+
+    @Test
+    void shouldSeeTheSessionsRevokedByAnotherInstance() {
+        TokenService other = tokenService(Duration.ofMinutes(15), Duration.ofDays(30));
+        TokenDTO tokens = tokenService.issue(user, "127.0.0.1", null);
+        String series = tokenService.authenticate(tokens.getAccessToken()).orElseThrow().series();
+
+        other.revoke(series);
+        assertThat(tokenService.authenticate(tokens.getAccessToken())).isPresent();
+
+        tokenService.syncRevocations();
+        assertThat(tokenService.authenticate(tokens.getAccessToken())).isEmpty();
+    }
+
+    @Test
+    void shouldRejectAShortSecret() {
+        assertThatThrownBy(() -> tokenService(Duration.ofMinutes(15), Duration.ofDays(30), Arrays.copyOf(secret((byte) 1), 16)))
+            .isInstanceOf(IllegalStateException.class);
+    }
+
+    private TokenService tokenService(Duration accessTokenValidity, Duration refreshTokenValidity) {
+        return tokenService(accessTokenValidity, refreshTokenValidity, secret((byte) 1));
+    }
+
+    private TokenService tokenService(Duration accessTokenValidity, Duration refreshTokenValidity, byte[] secret) {
+        ApplicationProperties applicationProperties = new ApplicationProperties();
+        ApplicationProperties.Token token = applicationProperties.getToken();
+        token.setSecret(Base64.getEncoder().encodeToString(secret));
+        token.setAccessTokenValidity(accessTokenValidity);
+        token.setRefreshTokenValidity(refreshTokenValidity);
+        return new TokenService(persistentTokenRepository, userPetRepository, applicationProperties);
+    }
+
+    private static byte[] secret(byte value) {
+        byte[] secret = new byte[32];
+        Arrays.fill(secret, value);
+        return secret;
+    }
+}
@@ -0,0 +1,119 @@
+package petcare.web.rest;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import java.time.Duration;
+import java.util.Optional;
+import org.junit.jupiter.api.Test;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.mock.web.MockHttpServletRequest;
+import org.springframework.web.ErrorResponseException;
+import petcare.config.ApplicationProperties;
+import petcare.domain.UserPet;
+import petcare.repository.UserPetRepository;
+import petcare.service.LoginThrottleService;
+import petcare.service.PasswordHashingBusyException;
+import petcare.service.PasswordHashingService;
+import petcare.service.dto.LoginRequest;
+import petcare.service.token.TokenService;
+import petcare.web.rest.errors.ServerBusyException;
+import petcare.web.rest.errors.TooManyLoginAttemptsException;
+
+/**
+ * Unit tests for the answers of {@link UserPetResource#login} when the attempts are throttled or the password
+ * hashing sheds the load.
+ */
+class UserPetResourceTest {
+
+    private static final String EMAIL = "owner@localhost";
+
+    private final UserPetRepository userPetRepository = mock(UserPetRepository.class);
+
+    private final PasswordHashingService passwordHashingService = mock(PasswordHashingService.class);
+
+    private final ApplicationProperties applicationProperties = applicationProperties();
+
+    private final UserPetResource userPetResource = new UserPetResource(
+        null,
+        userPetRepository,
+        null,
+        null,
+        passwordHashingService,
+        new LoginThrottleService(new SimpleMeterRegistry(), applicationProperties),
+        mock(TokenService.class),
+        applicationProperties
+    );
+
+    @Test
+    void shouldAnswerTooManyRequestsOnceTheBurstIsSpent() {
+        when(userPetRepository.findByEmail(EMAIL)).thenReturn(Optional.empty());
+        userPetResource.login(login(), request());
+        userPetResource.login(login(), request());
+
+        assertThatThrownBy(() -> userPetResource.login(login(), request())).isInstanceOfSatisfying(
+            TooManyLoginAttemptsException.class,
+            e -> {
+                assertThat(e.getStatusCode().value()).isEqualTo(HttpStatus.TOO_MANY_REQUESTS.value());
+                // The wait for the next token, rounded up to the second
+                assertThat(e.getHeaders().getFirst(HttpHeaders.RETRY_AFTER)).isEqualTo("60");
+            }
+        );
+        verify(passwordHashingService, never()).matches(anyString(), any());
+    }
+
+    @Test
+    void shouldAnswerServiceUnavailableWhenTheHashingIsBusy() {
+        when(userPetRepository.findByEmail(EMAIL)).thenReturn(Optional.of(new UserPet().email(EMAIL).passwordHash("hash")));
+        when(passwordHashingService.matches("secret", "hash")).thenThrow(new PasswordHashingBusyException());
+
+        assertThatThrownBy(() -> userPetResource.login(login(), request())).isInstanceOfSatisfying(ServerBusyException.class, e -> {
+            assertThat(e.getStatusCode().value()).isEqualTo(HttpStatus.SERVICE_UNAVAILABLE.value());
+            assertThat(e.getHeaders().getFirst(HttpHeaders.RETRY_AFTER)).isEqualTo("3");
+        });
+    }
+
+    @Test
+    void shouldNotAnswerServiceUnavailableForAThrottledAttempt() {
+        when(userPetRepository.findByEmail(EMAIL)).thenReturn(Optional.of(new UserPet().email(EMAIL).passwordHash("hash")));
+        when(passwordHashingService.matches("secret", "hash")).thenThrow(new PasswordHashingBusyException());
+        for (int i = 0; i < 2; i++) {
+            assertThatThrownBy(() -> userPetResource.login(login(), request())).isInstanceOf(ServerBusyException.class);
+        }
+
+        // A busy server still spends the tokens, so a client retrying in a loop is throttled
+        assertThatThrownBy(() -> userPetResource.login(login(), request()))
+            .isInstanceOf(ErrorResponseException.class)
+            .isInstanceOf(TooManyLoginAttemptsException.class);
+    }
+
+    private static LoginRequest login() {
+        LoginRequest login = new LoginRequest();
+        login.setEmail(EMAIL);
+        login.setPassword("secret");
+        return login;
+    }
+
+    private static MockHttpServletRequest request() {
+        MockHttpServletRequest request = new MockHttpServletRequest();
+        request.setRemoteAddr("10.0.0.1");
+        return request;
+    }
+
+    private static ApplicationProperties applicationProperties() {
+        ApplicationProperties applicationProperties = new ApplicationProperties();
+        ApplicationProperties.Password password = applicationProperties.getPassword();
+        password.setAccountBurst(2);
+        password.setAccountRefill(Duration.ofMinutes(1));
+        password.setRetryAfter(Duration.ofSeconds(3));
+        return applicationProperties;
+    }
+}